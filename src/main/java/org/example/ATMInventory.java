@@ -4,61 +4,247 @@ package org.example;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Notes loaded in a terminal's cassettes. Thread-safe: callers sharing an
+ * inventory serialize on its monitor.
+ * <p>
+ * Every change also publishes a fresh {@link InventorySnapshot}, so
+ * reporting reads a consistent view through {@link #snapshot()} without
+ * taking the monitor or holding up dispensing.
+ */
 public class ATMInventory {
-    private Map<CashType, Integer> cashInventory;
+    private final CassetteConfiguration configuration;
+
+    // Per-cassette arrays indexed by slot, largest denomination first
+    private final CashType[] cashTypes;
+    private final int[] denominations;
+    private final int[] counts;
+    private DispensePolicy dispensePolicy;
+    private final DispensabilityIndex dispensabilityIndex;
+
+    // Bumped on every change to the counts
+    private long epoch;
+    // Kept across dispenses while it is current and its combinations are still loaded
+    private DispenseTable dispenseTable;
+    // Copy-on-write view of the counts, replaced under the monitor on every change
+    private volatile InventorySnapshot snapshot;
+
+    // When attached, total cash reads are served from the ledger projection
+    private Ledger ledger;
+    private String terminalId;
+    private long lastSequence = -1;
 
     public ATMInventory() {
-        cashInventory = new HashMap<>();
-        initializeInventory();
+        this(new GreedyDispensePolicy());
+    }
+
+    public ATMInventory(DispensePolicy dispensePolicy) {
+        this(CassetteConfiguration.defaultConfiguration(), dispensePolicy);
+    }
+
+    public ATMInventory(CassetteConfiguration configuration) {
+        this(configuration, new GreedyDispensePolicy());
+    }
+
+    public ATMInventory(CassetteConfiguration configuration, DispensePolicy dispensePolicy) {
+        this.configuration = configuration;
+        this.denominations = configuration.getDenominations();
+        this.counts = configuration.getInitialCounts();
+        this.cashTypes = new CashType[denominations.length];
+        for (int slot = 0; slot < denominations.length; slot++) {
+            cashTypes[slot] = configuration.getCashType(slot);
+        }
+        this.dispensePolicy = dispensePolicy;
+        this.dispensabilityIndex = new DispensabilityIndex(denominations, counts);
+        this.snapshot = new InventorySnapshot(epoch, cashTypes, counts.clone());
     }
 
-    private void initializeInventory() {
-        cashInventory.put(CashType.BILL_100, 10);
-        cashInventory.put(CashType.BILL_50, 10);
-        cashInventory.put(CashType.BILL_20, 20);
-        cashInventory.put(CashType.BILL_10, 30);
-        cashInventory.put(CashType.BILL_5, 20);
-        cashInventory.put(CashType.BILL_1, 50);
+    // Latest published view; lock-free, so it never waits for a dispense in progress
+    public InventorySnapshot snapshot() {
+        return snapshot;
     }
 
     public int getTotalCash() {
-        int total = 0;
-        for (Map.Entry<CashType, Integer> entry : cashInventory.entrySet()) {
-            total += entry.getKey().value * entry.getValue();
+        Ledger attached;
+        String terminal;
+        long sequence;
+        synchronized (this) {
+            if (ledger == null) {
+                return dispensabilityIndex.getTotal();
+            }
+            attached = ledger;
+            terminal = terminalId;
+            sequence = lastSequence;
         }
-        return total;
+        // Waits for the projection outside the monitor so dispensing is not held up behind it
+        return (int) attached.getTotalCash(terminal, sequence);
+    }
+
+    public synchronized boolean hasSufficientCash(int amount) {
+        return dispensabilityIndex.getTotal() >= amount;
+    }
+
+    // Whether some combination of the loaded notes makes up the exact amount
+    public synchronized boolean canDispense(int amount) {
+        return dispensabilityIndex.canDispense(amount);
+    }
+
+    // Largest dispensable amount not above the requested one, or -1
+    public synchronized int nearestDispensableBelow(int amount) {
+        return dispensabilityIndex.nearestBelow(amount);
     }
 
-    public boolean hasSufficientCash(int amount) {
-        return getTotalCash() >= amount;
+    // Smallest dispensable amount not below the requested one, or -1
+    public synchronized int nearestDispensableAbove(int amount) {
+        return dispensabilityIndex.nearestAbove(amount);
     }
 
-    public Map<CashType, Integer> dispenseCash(int amount) {
-        if (!hasSufficientCash(amount)) {
+    public synchronized Map<CashType, Integer> dispenseCash(int amount) {
+        int[] notes = dispenseNotes(amount);
+        if (notes == null) {
             return null;
         }
         Map<CashType, Integer> dispensedCash = new HashMap<>();
-        int remainingAmount = amount;
-        for (CashType cashType : CashType.values()) {
-            int count = Math.min(
-                    remainingAmount / cashType.value, cashInventory.get(cashType));
-            if (count > 0) {
-                dispensedCash.put(cashType, count);
-                remainingAmount -= count * cashType.value;
-                cashInventory.put(cashType, cashInventory.get(cashType) - count);
+        for (int slot = 0; slot < notes.length; slot++) {
+            if (notes[slot] > 0) {
+                dispensedCash.merge(cashTypes[slot], notes[slot], Integer::sum);
             }
         }
-        if (remainingAmount > 0) {
-            for (Map.Entry<CashType, Integer> entry : dispensedCash.entrySet()) {
-                cashInventory.put(entry.getKey(),
-                        cashInventory.get(entry.getKey()) + entry.getValue());
-            }
+        return dispensedCash;
+    }
+
+    // Notes taken from each cassette slot, or null if the amount cannot be dispensed
+    public synchronized int[] dispenseNotes(int amount) {
+        if (!canDispense(amount)) {
             return null;
         }
-        return dispensedCash;
+        int[] notes = lookupNotes(amount);
+        if (notes == null) {
+            return null;
+        }
+        for (int slot = 0; slot < notes.length; slot++) {
+            if (notes[slot] > 0) {
+                counts[slot] -= notes[slot];
+                dispensabilityIndex.update(slot, counts[slot]);
+                if (ledger != null) {
+                    lastSequence = ledger.recordCashDispensed(terminalId, slot, notes[slot], denominations[slot]);
+                }
+            }
+        }
+        epoch++;
+        publishSnapshot();
+        return notes;
+    }
+
+    // Replaces every cassette count, for one inventory standing in for many terminals' cassettes in turn
+    synchronized void loadCounts(short[] source, int offset) {
+        boolean changed = false;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] != source[offset + slot]) {
+                counts[slot] = source[offset + slot];
+                dispensabilityIndex.update(slot, counts[slot]);
+                changed = true;
+            }
+        }
+        if (changed) {
+            epoch++;
+            publishSnapshot();
+        }
+    }
+
+    synchronized void storeCounts(short[] target, int offset) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            target[offset + slot] = (short) counts[slot];
+        }
     }
 
-    public void addCash(CashType cashType, int count) {
-        cashInventory.put(cashType, cashInventory.get(cashType) + count);
+    // Loads notes into the first cassette holding this note type
+    public synchronized void addCash(CashType cashType, int count) {
+        addCash(slotOf(cashType), count);
+    }
+
+    public synchronized void addCash(int slot, int count) {
+        counts[slot] += count;
+        dispensabilityIndex.update(slot, counts[slot]);
+        epoch++;
+        publishSnapshot();
+        if (ledger != null) {
+            lastSequence = ledger.recordCashLoaded(terminalId, slot, count, denominations[slot]);
+        }
+    }
+
+    public synchronized int getCount(CashType cashType) {
+        int total = 0;
+        for (int slot = 0; slot < cashTypes.length; slot++) {
+            if (cashTypes[slot].equals(cashType)) {
+                total += counts[slot];
+            }
+        }
+        return total;
+    }
+
+    public synchronized int getCount(int slot) {
+        return counts[slot];
+    }
+
+    // Records the current cassette levels and every later change under this terminal ID
+    public synchronized void attachLedger(Ledger ledger, String terminalId) {
+        this.ledger = ledger;
+        this.terminalId = terminalId;
+        for (int slot = 0; slot < counts.length; slot++) {
+            lastSequence = ledger.recordCashLoaded(terminalId, slot, counts[slot], denominations[slot]);
+        }
+    }
+
+    public CassetteConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public CashType getCashType(int slot) {
+        return cashTypes[slot];
+    }
+
+    public synchronized DispensePolicy getDispensePolicy() {
+        return dispensePolicy;
+    }
+
+    public synchronized void setDispensePolicy(DispensePolicy dispensePolicy) {
+        this.dispensePolicy = dispensePolicy;
+        this.dispenseTable = null;
+    }
+
+    private int slotOf(CashType cashType) {
+        for (int slot = 0; slot < cashTypes.length; slot++) {
+            if (cashTypes[slot].equals(cashType)) {
+                return slot;
+            }
+        }
+        throw new IllegalArgumentException("No cassette holds " + cashType);
+    }
+
+    private void publishSnapshot() {
+        snapshot = new InventorySnapshot(epoch, cashTypes, counts.clone());
+    }
+
+    // Serves from the kept table, recompiling only when it is stale or its combination is no longer loaded
+    private int[] lookupNotes(int amount) {
+        if (dispenseTable != null && dispenseTable.isCurrent(counts)) {
+            // A current table was compiled against at least these notes, so a refusal stands
+            int[] notes = dispenseTable.lookup(amount);
+            if (notes == null || isLoaded(notes)) {
+                return notes;
+            }
+        }
+        dispenseTable = dispensePolicy.compile(denominations, counts);
+        return dispenseTable.lookup(amount);
+    }
+
+    private boolean isLoaded(int[] notes) {
+        for (int slot = 0; slot < notes.length; slot++) {
+            if (notes[slot] > counts[slot]) {
+                return false;
+            }
+        }
+        return true;
     }
 }
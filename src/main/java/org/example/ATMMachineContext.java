@@ -11,11 +11,34 @@ public class ATMMachineContext {
     private Map<String, Account> accounts;
     private ATMStateFactory stateFactory;
     private TransactionType selectedOperation;
+    private SessionReaper.Session session;
+    private ResponseCode lastResponseCode;
+    // Consulted for accounts that were not added directly
+    private AccountRepository accountRepository;
+    // Shared with other terminals so retries are recognised wherever they land
+    private DedupTable dedupTable;
+    private TransactionJournal journal;
+    private AuditLog auditLog;
+    // Set by owners that finish dispenses on their own thread instead of waiting for the device
+    private boolean deferringDispenses;
+    private PendingDispense pendingDispense;
+    // Notes the cash dispenser presented for the last transaction, per cassette slot; null if it was not used
+    private int[] dispensedNotes;
+    private int terminalId;
+    // Without a dispenser, notes leave the inventory instantly
+    private CashDispenser cashDispenser;
+    // When set, commands dispatch through the table and currentState mirrors stateId
+    private TransitionTable transitionTable;
+    private int stateId;
 
     public ATMMachineContext() {
+        this(CassetteConfiguration.defaultConfiguration());
+    }
+
+    public ATMMachineContext(CassetteConfiguration cassetteConfiguration) {
         this.stateFactory = ATMStateFactory.getInstance();
         this.currentState = stateFactory.createIdleState();
-        this.atmInventory = new ATMInventory();
+        this.atmInventory = new ATMInventory(cassetteConfiguration);
         this.accounts = new HashMap<>();
         System.out.println("ATM initialized in: " + currentState.getStateName());
     }
@@ -23,37 +46,199 @@ public class ATMMachineContext {
     public void advanceState() {
         ATMState nextState = currentState.next(this);
         currentState = nextState;
+        syncStateId();
         System.out.println("Current state: " + currentState.getStateName());
     }
 
     // Delegate to current state
     public void insertCard(Card card) {
-        currentState.insertCard(this, card);
+        // States overwrite this when they accept the command
+        lastResponseCode = ResponseCode.INVALID_STATE;
+        if (transitionTable != null) {
+            dispatch(TerminalCommand.INSERT_CARD, card, 0);
+        } else {
+            currentState.insertCard(this, card);
+        }
+        touchSession();
     }
 
     // Delegate to current state
     public void enterPin(int pin) {
-        currentState.enterPin(this, pin);
+        // States overwrite this when they accept the command
+        lastResponseCode = ResponseCode.INVALID_STATE;
+        if (transitionTable != null) {
+            dispatch(TerminalCommand.ENTER_PIN, null, pin);
+        } else {
+            currentState.enterPin(this, pin);
+        }
+        touchSession();
     }
 
     // Delegate to current state
     public void selectOperation(TransactionType transactionType) {
-        currentState.selectOperation(this, transactionType);
+        // States overwrite this when they accept the command
+        lastResponseCode = ResponseCode.INVALID_STATE;
+        if (transitionTable != null) {
+            dispatch(TerminalCommand.SELECT_OPERATION, transactionType, 0);
+        } else {
+            currentState.selectOperation(this, transactionType);
+        }
+        touchSession();
     }
 
     // Delegate to current state
     public void performTransaction(double amount) {
-        currentState.performTransaction(this, amount);
+        // States overwrite this when they accept the command
+        lastResponseCode = ResponseCode.INVALID_STATE;
+        dispensedNotes = null;
+        if (transitionTable != null) {
+            dispatch(TerminalCommand.PERFORM_TRANSACTION, null, amount);
+        } else {
+            currentState.performTransaction(this, amount);
+        }
+        touchSession();
+    }
+
+    // Runs the transaction at most once per ID while the ID is in the dedup window
+    public void performTransaction(double amount, long transactionId) {
+        if (dedupTable == null) {
+            performTransaction(amount);
+            return;
+        }
+        // Reserve the ID first so a concurrent retry cannot run the transaction again
+        long outcome = dedupTable.reserve(transactionId);
+        dispensedNotes = null;
+        if (outcome == DedupTable.IN_PROGRESS) {
+            System.out.println("Transaction " + transactionId + " is still in progress");
+            lastResponseCode = ResponseCode.TRANSACTION_IN_PROGRESS;
+            touchSession();
+            return;
+        }
+        if (outcome != DedupTable.NOT_FOUND) {
+            System.out.println("Transaction " + transactionId + " already processed, returning original outcome");
+            lastResponseCode = DedupTable.responseCode(outcome);
+            touchSession();
+            return;
+        }
+        try {
+            performTransaction(amount);
+        } catch (RuntimeException e) {
+            dedupTable.release(transactionId);
+            throw e;
+        }
+        Runnable record = () -> {
+            // Commands rejected for the current state never ran, so a retry may still run them
+            if (lastResponseCode == ResponseCode.INVALID_STATE) {
+                dedupTable.release(transactionId);
+            } else {
+                dedupTable.complete(transactionId, DedupTable.outcome(lastResponseCode, WireProtocol.toCents(amount)));
+            }
+        };
+        if (pendingDispense != null) {
+            // The outcome is only known once the device has finished
+            pendingDispense.then(record);
+        } else {
+            record.run();
+        }
     }
 
     // Delegate to current state
     public void returnCard() {
-        currentState.returnCard(this);
+        // States overwrite this when they accept the command
+        lastResponseCode = ResponseCode.INVALID_STATE;
+        if (transitionTable != null) {
+            dispatch(TerminalCommand.RETURN_CARD, null, 0);
+        } else {
+            currentState.returnCard(this);
+        }
+        touchSession();
     }
 
     // Delegate to current state
     public void cancelTransaction() {
-        currentState.cancelTransaction(this);
+        // States overwrite this when they accept the command
+        lastResponseCode = ResponseCode.INVALID_STATE;
+        if (transitionTable != null) {
+            dispatch(TerminalCommand.CANCEL_TRANSACTION, null, 0);
+        } else {
+            currentState.cancelTransaction(this);
+        }
+        touchSession();
+    }
+
+    private void dispatch(TerminalCommand command, Object argument, double value) {
+        int next = transitionTable.dispatch(this, stateId, command.ordinal(), argument, value);
+        if (next != stateId) {
+            stateId = next;
+            currentState = transitionTable.getState(next);
+            System.out.println("Current state: " + currentState.getStateName());
+        }
+    }
+
+    // Switches command dispatch to the table, keeping the current state
+    public void useTransitionTable(TransitionTable table) {
+        this.transitionTable = table;
+        syncStateId();
+    }
+
+    // Swaps in a stored session so a shared context can run commands for many terminals
+    void loadSession(int terminalId, int stateId, Card card, Account account,
+                     TransactionType operation, ResponseCode responseCode) {
+        this.terminalId = terminalId;
+        this.stateId = stateId;
+        this.currentState = transitionTable.getState(stateId);
+        this.currentCard = card;
+        this.currentAccount = account;
+        this.selectedOperation = operation;
+        this.lastResponseCode = responseCode;
+    }
+
+    void setDeferringDispenses(boolean deferringDispenses) {
+        this.deferringDispenses = deferringDispenses;
+    }
+
+    boolean isDeferringDispenses() {
+        return deferringDispenses;
+    }
+
+    void setPendingDispense(PendingDispense pendingDispense) {
+        this.pendingDispense = pendingDispense;
+    }
+
+    // The withdrawal the last command left at the device, or null
+    PendingDispense getPendingDispense() {
+        return pendingDispense;
+    }
+
+    PendingDispense takePendingDispense() {
+        PendingDispense pending = pendingDispense;
+        pendingDispense = null;
+        return pending;
+    }
+
+    void setDispensedNotes(int[] dispensedNotes) {
+        this.dispensedNotes = dispensedNotes;
+    }
+
+    int[] getDispensedNotes() {
+        return dispensedNotes;
+    }
+
+    int getStateId() {
+        return stateId;
+    }
+
+    private void syncStateId() {
+        if (transitionTable != null) {
+            stateId = ATMStateId.fromStateName(currentState.getStateName()).ordinal();
+            currentState = transitionTable.getState(stateId);
+        }
+    }
+
+    private void touchSession() {
+        if (session != null) {
+            session.touch();
+        }
     }
 
     // Package-private method for states to reset ATM
@@ -61,7 +246,12 @@ public class ATMMachineContext {
         this.currentCard = null;
         this.currentAccount = null;
         this.selectedOperation = null;
-        this.currentState = stateFactory.createIdleState();
+        if (transitionTable != null) {
+            this.stateId = ATMStateId.IDLE.ordinal();
+            this.currentState = transitionTable.getState(stateId);
+        } else {
+            this.currentState = stateFactory.createIdleState();
+        }
     }
 
     // Getters
@@ -81,6 +271,10 @@ public class ATMMachineContext {
         return atmInventory;
     }
 
+    public ResponseCode getLastResponseCode() {
+        return lastResponseCode;
+    }
+
     public TransactionType getSelectedOperation() {
         return selectedOperation;
     }
@@ -90,12 +284,67 @@ public class ATMMachineContext {
     }
 
     public Account getAccount(String accountNumber) {
-        return accounts.get(accountNumber);
+        Account account = accounts.get(accountNumber);
+        if (account == null && accountRepository != null) {
+            account = accountRepository.load(accountNumber);
+        }
+        return account;
+    }
+
+    // Completed transactions are journaled, and audit events logged, under this terminal ID
+    public void setTerminalId(int terminalId) {
+        this.terminalId = terminalId;
+    }
+
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    public int getTerminalId() {
+        return terminalId;
+    }
+
+    // Card inserts, PIN results and dispenses are audited under the terminal ID and the card's reference
+    public void setAuditLog(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    // Never waits on the disk; the audit log drops and counts events it cannot buffer
+    void audit(AuditEventType type, int detail, long amountCents) {
+        if (auditLog != null) {
+            long card = currentCard == null ? 0 : AuditLog.cardReference(currentCard.getCardNumber());
+            auditLog.append(terminalId, card, type, detail, amountCents);
+        }
+    }
+
+    public void setCashDispenser(CashDispenser cashDispenser) {
+        this.cashDispenser = cashDispenser;
+    }
+
+    public CashDispenser getCashDispenser() {
+        return cashDispenser;
+    }
+
+    public void setDedupTable(DedupTable dedupTable) {
+        this.dedupTable = dedupTable;
+    }
+
+    public void setAccountRepository(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
     }
 
     // Setters - package-private so only states can modify
     void setCurrentState(ATMState state) {
         this.currentState = state;
+        syncStateId();
     }
 
     void setCurrentCard(Card card) {
@@ -110,6 +359,14 @@ public class ATMMachineContext {
         this.selectedOperation = operation;
     }
 
+    void setLastResponseCode(ResponseCode responseCode) {
+        this.lastResponseCode = responseCode;
+    }
+
+    void setSession(SessionReaper.Session session) {
+        this.session = session;
+    }
+
     // Public method to add accounts
     public void addAccount(Account account) {
         accounts.put(account.getAccountNumber(), account);
@@ -2,14 +2,11 @@ package org.example;
 
 
 public class ATMStateFactory {
-    private static ATMStateFactory instance = null;
+    private static final ATMStateFactory instance = new ATMStateFactory();
 
     private ATMStateFactory() {}
 
     public static ATMStateFactory getInstance() {
-        if (instance == null) {
-            instance = new ATMStateFactory();
-        }
         return instance;
     }
 
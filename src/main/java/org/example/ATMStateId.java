@@ -0,0 +1,28 @@
+package org.example;
+
+// Dense IDs for the terminal states, used to index the transition table
+public enum ATMStateId {
+    IDLE("IdleState"),
+    HAS_CARD("HasCardState"),
+    SELECT_OPERATION("SelectOperationState"),
+    TRANSACTION("TransactionState");
+
+    private final String stateName;
+
+    ATMStateId(String stateName) {
+        this.stateName = stateName;
+    }
+
+    public String getStateName() {
+        return stateName;
+    }
+
+    public static ATMStateId fromStateName(String stateName) {
+        for (ATMStateId id : values()) {
+            if (id.stateName.equals(stateName)) {
+                return id;
+            }
+        }
+        throw new IllegalArgumentException("Unknown state: " + stateName);
+    }
+}
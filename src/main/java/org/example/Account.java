@@ -1,29 +1,70 @@
 package org.example;
 
 
+/**
+ * A bank account balance. Thread-safe: every change and read holds the
+ * account's monitor. With a ledger attached, a read takes the monitor only
+ * to capture its sequence and waits for the projection after releasing it.
+ */
 public class Account {
     private String accountNumber;
     private double balance;
 
+    // When attached, balance reads are served from the ledger projection
+    private Ledger ledger;
+    private long lastSequence = -1;
+
     public Account(String accountNumber, double initialBalance) {
         this.accountNumber = accountNumber;
         this.balance = initialBalance;
     }
 
-    public boolean withdraw(double amount) {
+    public synchronized boolean withdraw(double amount) {
         if (balance >= amount) {
             balance -= amount;
+            if (ledger != null) {
+                lastSequence = ledger.recordDebit(accountNumber, amount);
+            }
             return true;
         }
         return false;
     }
 
-    public void deposit(double amount) {
+    public synchronized void deposit(double amount) {
         balance += amount;
+        if (ledger != null) {
+            lastSequence = ledger.recordCredit(accountNumber, amount);
+        }
     }
 
     public double getBalance() {
-        return balance;
+        Ledger attached;
+        long sequence;
+        synchronized (this) {
+            if (ledger == null) {
+                return balance;
+            }
+            attached = ledger;
+            sequence = lastSequence;
+        }
+        // Waits for the projection outside the monitor so withdrawals are not held up behind it
+        return attached.getBalance(accountNumber, sequence);
+    }
+
+    // Replaces the balance after the backing store was written directly
+    synchronized void resetBalance(double newBalance) {
+        double delta = newBalance - balance;
+        balance = newBalance;
+        if (ledger != null && delta != 0) {
+            lastSequence = delta > 0
+                    ? ledger.recordCredit(accountNumber, delta)
+                    : ledger.recordDebit(accountNumber, -delta);
+        }
+    }
+
+    public synchronized void attachLedger(Ledger ledger) {
+        this.ledger = ledger;
+        this.lastSequence = ledger.recordAccountOpened(accountNumber, balance);
     }
 
     public String getAccountNumber() {
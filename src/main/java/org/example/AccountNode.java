@@ -0,0 +1,66 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The set of accounts owned by one service node. Commands for the node's
+ * accounts are applied one batch at a time, so the accounts themselves
+ * need no further synchronization.
+ */
+public class AccountNode {
+    private final String nodeId;
+    private final Map<String, Account> accounts = new HashMap<>();
+
+    public AccountNode(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public synchronized void addAccount(Account account) {
+        accounts.put(account.getAccountNumber(), account);
+    }
+
+    public synchronized Account getAccount(String accountNumber) {
+        return accounts.get(accountNumber);
+    }
+
+    public synchronized int getAccountCount() {
+        return accounts.size();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public synchronized AccountReply execute(AccountRequest request) {
+        return apply(request);
+    }
+
+    public synchronized AccountReply[] execute(AccountRequest[] batch) {
+        AccountReply[] replies = new AccountReply[batch.length];
+        for (int i = 0; i < batch.length; i++) {
+            replies[i] = apply(batch[i]);
+        }
+        return replies;
+    }
+
+    private AccountReply apply(AccountRequest request) {
+        Account account = accounts.get(request.getAccountNumber());
+        if (account == null) {
+            return new AccountReply(ResponseCode.UNKNOWN_ACCOUNT, 0.0);
+        }
+        switch (request.getOperation()) {
+            case WITHDRAW:
+                if (!account.withdraw(request.getAmount())) {
+                    return new AccountReply(ResponseCode.INSUFFICIENT_FUNDS, account.getBalance());
+                }
+                break;
+            case DEPOSIT:
+                account.deposit(request.getAmount());
+                break;
+            default:
+                break;
+        }
+        return new AccountReply(ResponseCode.APPROVED, account.getBalance());
+    }
+}
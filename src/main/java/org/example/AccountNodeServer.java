@@ -0,0 +1,89 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Serves an {@link AccountNode} to {@link SocketNodeTransport} peers.
+ * Each peer connection gets its own thread that applies batches in
+ * arrival order; replies are only flushed once the input buffer runs dry,
+ * so pipelined batches share a write.
+ */
+public class AccountNodeServer implements AutoCloseable {
+    private final AccountNode node;
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public AccountNodeServer(AccountNode node) {
+        this.node = node;
+    }
+
+    public void start(InetSocketAddress address) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        running = true;
+        Thread acceptor = new Thread(this::acceptLoop, "node-server-" + node.getNodeId());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.println("Account node " + node.getNodeId() + " listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket peer = serverSocket.accept();
+                peer.setTcpNoDelay(true);
+                Thread handler = new Thread(() -> serve(peer), "node-peer-" + node.getNodeId());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket peer) {
+        try (peer) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(peer.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(peer.getOutputStream()));
+            while (running) {
+                AccountReply[] replies = node.execute(SocketNodeTransport.readRequests(in));
+                SocketNodeTransport.writeReplies(out, replies);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException e) {
+            // Peer disconnected
+        } catch (IOException e) {
+            if (running) {
+                System.out.println("Peer connection failed: " + e.getMessage());
+            }
+        }
+    }
+}
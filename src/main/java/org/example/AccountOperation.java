@@ -0,0 +1,7 @@
+package org.example;
+
+public enum AccountOperation {
+    WITHDRAW,
+    DEPOSIT,
+    BALANCE
+}
@@ -0,0 +1,26 @@
+package org.example;
+
+/**
+ * Outcome of an {@link AccountRequest} and the account balance afterwards.
+ */
+public final class AccountReply {
+    private final ResponseCode responseCode;
+    private final double balance;
+
+    public AccountReply(ResponseCode responseCode, double balance) {
+        this.responseCode = responseCode;
+        this.balance = balance;
+    }
+
+    public ResponseCode getResponseCode() {
+        return responseCode;
+    }
+
+    public boolean isApproved() {
+        return responseCode == ResponseCode.APPROVED;
+    }
+
+    public double getBalance() {
+        return balance;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example;
+
+import java.util.Map;
+
+/**
+ * Backing store for accounts, typically the core-banking system.
+ * Implementations are expected to be slow relative to an in-memory map.
+ */
+public interface AccountRepository {
+    // Returns null if the store has no such account
+    Account load(String accountNumber);
+
+    void saveBalances(Map<String, Double> balances);
+}
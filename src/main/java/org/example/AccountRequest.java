@@ -0,0 +1,28 @@
+package org.example;
+
+/**
+ * A single account command routed to the node that owns the account.
+ */
+public final class AccountRequest {
+    private final AccountOperation operation;
+    private final String accountNumber;
+    private final double amount;
+
+    public AccountRequest(AccountOperation operation, String accountNumber, double amount) {
+        this.operation = operation;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+    }
+
+    public AccountOperation getOperation() {
+        return operation;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+}
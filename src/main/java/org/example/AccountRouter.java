@@ -0,0 +1,181 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes account commands to the node that owns each account on the
+ * {@link ConsistentHashRing}.
+ * <p>
+ * Commands for the local node run in place. Commands for a remote node
+ * are queued on that node's lane; whichever caller finds the lane idle
+ * drains everything queued so far into one batch and sends it without
+ * waiting for the reply, so concurrent callers share round trips and
+ * batches to the same node are pipelined.
+ */
+public class AccountRouter implements AutoCloseable {
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private final ConsistentHashRing ring;
+    private final AccountNode localNode;
+    private final Lane[] lanes;
+    private final int maxBatch;
+
+    private final AtomicLong remoteRequests = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+
+    private static final class Pending {
+        final AccountRequest request;
+        final CompletableFuture<AccountReply> reply = new CompletableFuture<>();
+
+        Pending(AccountRequest request) {
+            this.request = request;
+        }
+    }
+
+    private static final class Lane {
+        final NodeTransport transport;
+        final Mailbox<Pending> queue = new Mailbox<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Lane(NodeTransport transport) {
+            this.transport = transport;
+        }
+    }
+
+    public AccountRouter(ConsistentHashRing ring, AccountNode localNode, Map<String, NodeTransport> transports) {
+        this(ring, localNode, transports, DEFAULT_MAX_BATCH);
+    }
+
+    public AccountRouter(ConsistentHashRing ring, AccountNode localNode,
+                         Map<String, NodeTransport> transports, int maxBatch) {
+        this.ring = ring;
+        this.localNode = localNode;
+        this.maxBatch = maxBatch;
+        List<String> nodeIds = ring.getNodeIds();
+        this.lanes = new Lane[nodeIds.size()];
+        for (int i = 0; i < lanes.length; i++) {
+            String nodeId = nodeIds.get(i);
+            if (nodeId.equals(localNode.getNodeId())) {
+                continue;
+            }
+            NodeTransport transport = transports.get(nodeId);
+            if (transport == null) {
+                throw new IllegalArgumentException("No transport for node " + nodeId);
+            }
+            lanes[i] = new Lane(transport);
+        }
+    }
+
+    public CompletableFuture<AccountReply> submit(AccountRequest request) {
+        Lane lane = lanes[ring.ownerIndexOf(request.getAccountNumber())];
+        if (lane == null) {
+            return CompletableFuture.completedFuture(localNode.execute(request));
+        }
+        Pending pending = new Pending(request);
+        lane.queue.offer(pending);
+        drain(lane);
+        return pending.reply;
+    }
+
+    // Queues every request before draining so each owner sees one batch
+    public List<CompletableFuture<AccountReply>> submitAll(List<AccountRequest> requests) {
+        List<CompletableFuture<AccountReply>> replies = new ArrayList<>(requests.size());
+        boolean[] touched = new boolean[lanes.length];
+        for (AccountRequest request : requests) {
+            int owner = ring.ownerIndexOf(request.getAccountNumber());
+            Lane lane = lanes[owner];
+            if (lane == null) {
+                replies.add(CompletableFuture.completedFuture(localNode.execute(request)));
+                continue;
+            }
+            Pending pending = new Pending(request);
+            lane.queue.offer(pending);
+            replies.add(pending.reply);
+            touched[owner] = true;
+        }
+        for (int i = 0; i < lanes.length; i++) {
+            if (touched[i]) {
+                drain(lanes[i]);
+            }
+        }
+        return replies;
+    }
+
+    public AccountReply withdraw(String accountNumber, double amount) {
+        return submit(new AccountRequest(AccountOperation.WITHDRAW, accountNumber, amount)).join();
+    }
+
+    public AccountReply deposit(String accountNumber, double amount) {
+        return submit(new AccountRequest(AccountOperation.DEPOSIT, accountNumber, amount)).join();
+    }
+
+    public AccountReply balance(String accountNumber) {
+        return submit(new AccountRequest(AccountOperation.BALANCE, accountNumber, 0.0)).join();
+    }
+
+    public String ownerOf(String accountNumber) {
+        return ring.ownerOf(accountNumber);
+    }
+
+    public long getRemoteRequests() {
+        return remoteRequests.get();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.get();
+    }
+
+    @Override
+    public void close() {
+        for (Lane lane : lanes) {
+            if (lane != null) {
+                lane.transport.close();
+            }
+        }
+    }
+
+    private void drain(Lane lane) {
+        // Re-check after releasing the lane in case a request slipped in meanwhile
+        while (!lane.queue.isEmpty() && lane.draining.compareAndSet(false, true)) {
+            try {
+                List<Pending> batch = new ArrayList<>();
+                Pending pending;
+                while ((pending = lane.queue.poll()) != null) {
+                    batch.add(pending);
+                    if (batch.size() == maxBatch) {
+                        send(lane, batch);
+                        batch = new ArrayList<>();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    send(lane, batch);
+                }
+            } finally {
+                lane.draining.set(false);
+            }
+        }
+    }
+
+    private void send(Lane lane, List<Pending> batch) {
+        AccountRequest[] requests = new AccountRequest[batch.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = batch.get(i).request;
+        }
+        remoteRequests.addAndGet(requests.length);
+        batchesSent.incrementAndGet();
+        lane.transport.send(requests).whenComplete((replies, failure) -> {
+            for (int i = 0; i < requests.length; i++) {
+                if (failure != null) {
+                    batch.get(i).reply.completeExceptionally(failure);
+                } else {
+                    batch.get(i).reply.complete(replies[i]);
+                }
+            }
+        });
+    }
+}
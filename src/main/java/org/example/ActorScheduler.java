@@ -0,0 +1,113 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs any number of TerminalActors on a fixed set of worker threads.
+ * <p>
+ * Each actor is pinned to one worker for its whole life, so a terminal's
+ * context stays in that core's cache and is never touched by two threads.
+ * A worker keeps a run queue of actors with pending commands and drains up
+ * to {@code batchSize} commands from each before moving to the next.
+ */
+public class ActorScheduler implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Worker[] workers;
+    private final int batchSize;
+    private final AtomicInteger nextWorker;
+    private volatile boolean running;
+
+    public ActorScheduler(int threads) {
+        this(threads, DEFAULT_BATCH_SIZE);
+    }
+
+    public ActorScheduler(int threads, int batchSize) {
+        if (threads <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("threads and batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        this.nextWorker = new AtomicInteger();
+        this.running = true;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker("atm-actor-" + i);
+            workers[i].thread.start();
+        }
+    }
+
+    public TerminalActor spawn(String terminalId, ATMMachineContext context) {
+        Worker worker = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+        return new TerminalActor(terminalId, context, worker);
+    }
+
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        List<Thread> threads = new ArrayList<>();
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+            threads.add(worker.thread);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    class Worker implements Runnable {
+        private final Mailbox<TerminalActor> runQueue;
+        private final Thread thread;
+        private volatile boolean sleeping;
+
+        Worker(String name) {
+            this.runQueue = new Mailbox<>();
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+
+        void schedule(TerminalActor actor) {
+            runQueue.offer(actor);
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                TerminalActor actor = runQueue.poll();
+                if (actor != null) {
+                    actor.drain(batchSize);
+                    continue;
+                }
+                if (!runQueue.isEmpty()) {
+                    // A producer is still linking its node
+                    Thread.onSpinWait();
+                    continue;
+                }
+                sleeping = true;
+                if (runQueue.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+            }
+            // Finish whatever was already queued before shutdown
+            TerminalActor actor;
+            while ((actor = runQueue.poll()) != null) {
+                actor.drain(Integer.MAX_VALUE);
+            }
+        }
+    }
+}
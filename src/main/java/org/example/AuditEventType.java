@@ -0,0 +1,8 @@
+package org.example;
+
+public enum AuditEventType {
+    CARD_INSERTED,
+    PIN_ACCEPTED,
+    PIN_REJECTED,
+    CASH_DISPENSED
+}
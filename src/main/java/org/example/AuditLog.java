@@ -0,0 +1,474 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Durable per-terminal audit trail of card inserts, PIN results and
+ * dispenses as fixed-width little-endian records.
+ * <p>
+ * Session threads only copy an event into a bounded in-memory ring. A
+ * single background writer drains the ring in batches, groups each batch by
+ * terminal and writes every terminal's run with one channel write, forcing
+ * the files once per batch. Each terminal's file is cut into segments of a
+ * fixed record count; a full segment is handed to a separate thread that
+ * gzips it and deletes the original, so compression never delays writing.
+ * <p>
+ * When the ring passes half full the writer is woken at once rather than at
+ * its next interval. When it is full an append waits for space for at most
+ * the configured offer timeout, and only then is the event dropped and
+ * counted in {@link #getDroppedCount()}. Events still queued when the
+ * writer is interrupted are written before it stops, and later appends
+ * are dropped and counted.
+ * <p>
+ * Each record carries the {@link #cardReference(String) reference} of the
+ * card in the terminal, so a card's inserts, PIN results and dispenses can
+ * be traced without storing the card number.
+ */
+public class AuditLog implements AutoCloseable {
+    public static final int RECORD_SIZE = 32;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int TERMINAL_OFFSET = 8;
+    static final int TYPE_OFFSET = 12;
+    static final int DETAIL_OFFSET = 14;
+    static final int AMOUNT_OFFSET = 16;
+    static final int CARD_OFFSET = 24;
+
+    public static final String SEGMENT_SUFFIX = ".audit";
+    public static final String COMPRESSED_SUFFIX = ".audit.gz";
+
+    private static final AuditEventType[] TYPES = AuditEventType.values();
+    private static final int WRITE_BUFFER_RECORDS = 4096;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final long offerTimeoutNanos;
+    private final long flushIntervalNanos;
+
+    // Ring of pending events, guarded by lock
+    private final long[] timestamps;
+    private final int[] terminals;
+    private final byte[] types;
+    private final short[] details;
+    private final long[] amounts;
+    private final long[] cards;
+    private int head;
+    private int count;
+    private boolean running = true;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Writer-thread state: a batch copied out of the ring and the open segment per terminal
+    private final long[] batchTimestamps;
+    private final int[] batchTerminals;
+    private final byte[] batchTypes;
+    private final short[] batchDetails;
+    private final long[] batchAmounts;
+    private final long[] batchCards;
+    private final long[] order;
+    private final ByteBuffer writeBuffer =
+            ByteBuffer.allocateDirect(WRITE_BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<Integer, Segment> segments = new HashMap<>();
+
+    private final Thread writer;
+    private final ExecutorService compressor;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong compressed = new AtomicLong();
+
+    public AuditLog(Path directory) throws IOException {
+        this(directory, 64 * 1024, 64 * 1024, TimeUnit.MICROSECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    /**
+     * @param capacity           events the ring holds before appends wait
+     * @param segmentRecords     records per segment file before it is rotated and compressed
+     * @param offerTimeoutNanos  longest an append waits for space before dropping its event
+     * @param flushIntervalNanos longest an event waits in the ring while it is less than half full
+     */
+    public AuditLog(Path directory, int capacity, int segmentRecords,
+                    long offerTimeoutNanos, long flushIntervalNanos) throws IOException {
+        if (capacity <= 0 || segmentRecords <= 0) {
+            throw new IllegalArgumentException("Capacity and segment size must be positive");
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.offerTimeoutNanos = offerTimeoutNanos;
+        this.flushIntervalNanos = flushIntervalNanos;
+        this.timestamps = new long[capacity];
+        this.terminals = new int[capacity];
+        this.types = new byte[capacity];
+        this.details = new short[capacity];
+        this.amounts = new long[capacity];
+        this.cards = new long[capacity];
+        this.batchTimestamps = new long[capacity];
+        this.batchTerminals = new int[capacity];
+        this.batchTypes = new byte[capacity];
+        this.batchDetails = new short[capacity];
+        this.batchAmounts = new long[capacity];
+        this.batchCards = new long[capacity];
+        this.order = new long[capacity];
+        this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Queues an event with no card in the terminal
+    public boolean append(int terminalId, AuditEventType type, int detail, long amountCents) {
+        return append(terminalId, 0, type, detail, amountCents);
+    }
+
+    /**
+     * Queues an event for the terminal's log. Returns false if it was
+     * dropped because the ring stayed full for the offer timeout or the log
+     * is closed.
+     */
+    public boolean append(int terminalId, long cardReference, AuditEventType type, int detail, long amountCents) {
+        long timestamp = System.currentTimeMillis();
+        lock.lock();
+        try {
+            if (count == timestamps.length && running) {
+                notEmpty.signal();
+                long remaining = offerTimeoutNanos;
+                while (count == timestamps.length && running && remaining > 0) {
+                    try {
+                        remaining = notFull.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            if (count == timestamps.length || !running) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            int slot = (head + count) % timestamps.length;
+            timestamps[slot] = timestamp;
+            terminals[slot] = terminalId;
+            types[slot] = (byte) type.ordinal();
+            details[slot] = (short) detail;
+            amounts[slot] = amountCents;
+            cards[slot] = cardReference;
+            count++;
+            if (count == timestamps.length / 2 + 1) {
+                notEmpty.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getCompressedSegmentCount() {
+        return compressed.get();
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes everything queued so far, leaves the open segments uncompressed and waits for pending compression
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+            compressor.shutdown();
+            compressor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 64-bit FNV-1a hash of the card number; 0 is reserved for events without a card
+    public static long cardReference(String cardNumber) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < cardNumber.length(); i++) {
+            hash ^= cardNumber.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    // Segment files of a terminal in the order they were written, compressed or not
+    public static List<Path> segments(Path directory, int terminalId) throws IOException {
+        String prefix = segmentPrefix(terminalId);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && (name.endsWith(SEGMENT_SUFFIX) || name.endsWith(COMPRESSED_SUFFIX));
+            }).sorted().toList();
+        }
+    }
+
+    public static List<AuditRecord> read(Path directory, int terminalId) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : segments(directory, terminalId)) {
+            records.addAll(readSegment(segment));
+        }
+        return records;
+    }
+
+    public static List<AuditRecord> readSegment(Path segment) throws IOException {
+        byte[] bytes;
+        try (InputStream in = segment.toString().endsWith(COMPRESSED_SUFFIX)
+                ? new GZIPInputStream(Files.newInputStream(segment))
+                : Files.newInputStream(segment)) {
+            bytes = in.readAllBytes();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        List<AuditRecord> records = new ArrayList<>(bytes.length / RECORD_SIZE);
+        for (int offset = 0; offset + RECORD_SIZE <= bytes.length; offset += RECORD_SIZE) {
+            records.add(new AuditRecord(
+                    buffer.getLong(offset + TIMESTAMP_OFFSET),
+                    buffer.getInt(offset + TERMINAL_OFFSET),
+                    TYPES[buffer.getShort(offset + TYPE_OFFSET)],
+                    buffer.getShort(offset + DETAIL_OFFSET),
+                    buffer.getLong(offset + AMOUNT_OFFSET),
+                    buffer.getLong(offset + CARD_OFFSET)));
+        }
+        return records;
+    }
+
+    private void writeLoop() {
+        while (true) {
+            int batch;
+            boolean closing;
+            lock.lock();
+            try {
+                long remaining = flushIntervalNanos;
+                while (running && count <= timestamps.length / 2 && (count == 0 || remaining > 0)) {
+                    remaining = count == 0 ? notEmpty.awaitNanos(flushIntervalNanos) : notEmpty.awaitNanos(remaining);
+                }
+                batch = takeBatch();
+                closing = !running && count == 0;
+                notFull.signalAll();
+            } catch (InterruptedException e) {
+                // Write what is already queued and refuse the rest, so no event goes missing uncounted
+                running = false;
+                batch = takeBatch();
+                closing = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (batch > 0) {
+                writeBatch(batch);
+            }
+            if (closing) {
+                closeSegments();
+                return;
+            }
+        }
+    }
+
+    // Moves every queued event into the batch arrays
+    private int takeBatch() {
+        int batch = count;
+        int first = Math.min(batch, timestamps.length - head);
+        copyOut(head, 0, first);
+        copyOut(0, first, batch - first);
+        head = (head + batch) % timestamps.length;
+        count = 0;
+        return batch;
+    }
+
+    private void copyOut(int from, int to, int length) {
+        System.arraycopy(timestamps, from, batchTimestamps, to, length);
+        System.arraycopy(terminals, from, batchTerminals, to, length);
+        System.arraycopy(types, from, batchTypes, to, length);
+        System.arraycopy(details, from, batchDetails, to, length);
+        System.arraycopy(amounts, from, batchAmounts, to, length);
+        System.arraycopy(cards, from, batchCards, to, length);
+    }
+
+    private void writeBatch(int batch) {
+        // Terminal in the high bits and position in the low ones, so sorting groups by terminal in arrival order
+        for (int i = 0; i < batch; i++) {
+            order[i] = ((long) batchTerminals[i] << 32) | i;
+        }
+        Arrays.sort(order, 0, batch);
+        List<Segment> touched = new ArrayList<>();
+        int i = 0;
+        while (i < batch) {
+            int terminalId = batchTerminals[(int) order[i]];
+            int end = i;
+            while (end < batch && batchTerminals[(int) order[end]] == terminalId) {
+                end++;
+            }
+            try {
+                Segment segment = segment(terminalId);
+                touched.add(segment);
+                writeRun(segment, i, end);
+                written.addAndGet(end - i);
+            } catch (IOException e) {
+                System.out.println("Audit write failed for terminal " + terminalId + ": " + e.getMessage());
+                dropped.addAndGet(end - i);
+            }
+            i = end;
+        }
+        for (Segment segment : touched) {
+            try {
+                if (segment.channel != null) {
+                    segment.channel.force(false);
+                }
+            } catch (IOException e) {
+                System.out.println("Audit sync failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeRun(Segment segment, int from, int to) throws IOException {
+        writeBuffer.clear();
+        for (int i = from; i < to; i++) {
+            if (segment.records == segmentRecords) {
+                drain(segment);
+                rotate(segment);
+            }
+            if (!writeBuffer.hasRemaining()) {
+                drain(segment);
+            }
+            int event = (int) order[i];
+            writeBuffer.putLong(batchTimestamps[event])
+                    .putInt(batchTerminals[event])
+                    .putShort(batchTypes[event])
+                    .putShort(batchDetails[event])
+                    .putLong(batchAmounts[event])
+                    .putLong(batchCards[event]);
+            segment.records++;
+        }
+        drain(segment);
+    }
+
+    private void drain(Segment segment) throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            segment.channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private Segment segment(int terminalId) throws IOException {
+        Segment segment = segments.get(terminalId);
+        if (segment == null) {
+            segment = new Segment(terminalId);
+            // Continue after any segments left by an earlier run
+            List<Path> existing = segments(directory, terminalId);
+            segment.number = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+            segment.open();
+            segments.put(terminalId, segment);
+        }
+        return segment;
+    }
+
+    private void rotate(Segment segment) throws IOException {
+        segment.channel.force(false);
+        segment.channel.close();
+        Path full = segment.path;
+        compressor.execute(() -> compress(full));
+        segment.number++;
+        segment.open();
+    }
+
+    private void compress(Path segment) {
+        Path target = segment.resolveSibling(segment.getFileName().toString().replace(SEGMENT_SUFFIX, COMPRESSED_SUFFIX));
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+                Files.copy(segment, out);
+            }
+            Files.delete(segment);
+            compressed.incrementAndGet();
+        } catch (IOException e) {
+            System.out.println("Audit compression failed for " + segment + ": " + e.getMessage());
+        }
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments.values()) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close audit segment: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String segmentPrefix(int terminalId) {
+        return "terminal-" + terminalId + "-";
+    }
+
+    private static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        int start = name.lastIndexOf('-') + 1;
+        return Long.parseLong(name.substring(start, name.indexOf('.', start)));
+    }
+
+    private final class Segment {
+        final int terminalId;
+        long number;
+        int records;
+        Path path;
+        FileChannel channel;
+
+        Segment(int terminalId) {
+            this.terminalId = terminalId;
+        }
+
+        // Zero-padded so segment files sort in the order they were written
+        void open() throws IOException {
+            path = directory.resolve(segmentPrefix(terminalId) + String.format("%08d", number) + SEGMENT_SUFFIX);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            records = 0;
+        }
+    }
+}
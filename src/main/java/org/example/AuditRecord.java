@@ -0,0 +1,57 @@
+package org.example;
+
+/**
+ * One entry read back from an {@link AuditLog} segment. The detail is the
+ * note count for dispenses and zero otherwise; the card reference is zero
+ * for events without a card.
+ */
+public final class AuditRecord {
+    private final long timestamp;
+    private final int terminalId;
+    private final AuditEventType type;
+    private final int detail;
+    private final long amountCents;
+    private final long cardReference;
+
+    AuditRecord(long timestamp, int terminalId, AuditEventType type, int detail, long amountCents,
+                long cardReference) {
+        this.timestamp = timestamp;
+        this.terminalId = terminalId;
+        this.type = type;
+        this.detail = detail;
+        this.amountCents = amountCents;
+        this.cardReference = cardReference;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getTerminalId() {
+        return terminalId;
+    }
+
+    public AuditEventType getType() {
+        return type;
+    }
+
+    public int getDetail() {
+        return detail;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    // Compare with AuditLog.cardReference(cardNumber)
+    public long getCardReference() {
+        return cardReference;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " terminal " + terminalId + " " + type
+                + (cardReference != 0 ? " card " + Long.toHexString(cardReference) : "")
+                + (detail != 0 ? " x" + detail : "") + (amountCents != 0 ? " " + amountCents + "c" : "");
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account balances folded from the event log. Each account is only ever
+ * updated by one thread, so readers get a lock-free volatile read.
+ */
+public class BalanceProjection {
+    private final ConcurrentHashMap<String, AtomicLong> balances = new ConcurrentHashMap<>();
+
+    void apply(LedgerEvent event) {
+        switch (event.getType()) {
+            case ACCOUNT_OPENED:
+                holder(event.getKey()).set(Double.doubleToRawLongBits(event.getAmount()));
+                break;
+            case ACCOUNT_DEBITED:
+                add(event.getKey(), -event.getAmount());
+                break;
+            case ACCOUNT_CREDITED:
+                add(event.getKey(), event.getAmount());
+                break;
+            default:
+                break;
+        }
+    }
+
+    public boolean contains(String accountNumber) {
+        return balances.containsKey(accountNumber);
+    }
+
+    public double getBalance(String accountNumber) {
+        AtomicLong balance = balances.get(accountNumber);
+        return balance == null ? 0.0 : Double.longBitsToDouble(balance.get());
+    }
+
+    public int size() {
+        return balances.size();
+    }
+
+    private void add(String accountNumber, double delta) {
+        AtomicLong balance = holder(accountNumber);
+        balance.set(Double.doubleToRawLongBits(Double.longBitsToDouble(balance.get()) + delta));
+    }
+
+    private AtomicLong holder(String accountNumber) {
+        return balances.computeIfAbsent(accountNumber, key -> new AtomicLong(Double.doubleToRawLongBits(0.0)));
+    }
+}
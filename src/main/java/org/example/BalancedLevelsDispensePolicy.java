@@ -0,0 +1,29 @@
+package org.example;
+
+/**
+ * Draws from the fullest cassettes. Each note costs the fraction of its
+ * cassette it uses up, so a nearly empty cassette becomes expensive and the
+ * levels drain together instead of one denomination running out first.
+ */
+public class BalancedLevelsDispensePolicy extends WeightedDispensePolicy {
+    private static final long SCALE = 1L << 20;
+
+    @Override
+    public String getPolicyName() {
+        return "BalancedLevels";
+    }
+
+    @Override
+    protected boolean costsDependOnCounts() {
+        return true;
+    }
+
+    @Override
+    protected long[] noteCosts(int[] denominations, int[] counts) {
+        long[] costs = new long[denominations.length];
+        for (int slot = 0; slot < denominations.length; slot++) {
+            costs[slot] = counts[slot] > 0 ? SCALE / counts[slot] : SCALE;
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Recycles direct buffers of one size. Not thread-safe: each selector
+ * thread keeps its own pool.
+ */
+public class BufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> free;
+
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.free = new ArrayDeque<>();
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.pollFirst();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        if (free.size() < maxPooled) {
+            free.addFirst(buffer);
+        }
+    }
+
+    public int getPooledCount() {
+        return free.size();
+    }
+}
@@ -0,0 +1,248 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Loads an account dump in the background and serves accounts as they
+ * arrive.
+ * <p>
+ * The dump uses the {@link FileAccountRepository} format: one
+ * {@code accountNumber,balance} line per account, with blank lines and
+ * {@code #} comments ignored. It is cut into byte ranges, and each range
+ * is memory-mapped and parsed by a worker in a dedicated fork-join pool.
+ * A line belongs to the range holding its first byte. Balances are parsed
+ * straight from the mapped bytes, so the only allocations per line are the
+ * account number and the {@link Account}. {@link #load} returns an account
+ * as soon as it has been parsed and waits for the rest of the dump only
+ * when asked for one that has not appeared yet.
+ */
+public class BulkAccountLoader implements AccountRepository, AutoCloseable {
+    public static final long MAX_RANGE_BYTES = 256L << 20;
+    // Slack mapped past a range's end so its last line can be read whole
+    public static final int MAX_LINE_BYTES = 1024;
+    private static final int ESTIMATED_LINE_BYTES = 16;
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Path file;
+    private final int parallelism;
+    // Replaced by a map sized from the dump when loading starts
+    private volatile Map<String, Account> accounts;
+    private final AtomicInteger loaded = new AtomicInteger();
+    private ForkJoinPool pool;
+    private volatile CompletableFuture<Void> loading;
+
+    public BulkAccountLoader(Path file, int parallelism) {
+        this.file = file;
+        this.parallelism = parallelism;
+        this.accounts = new ConcurrentHashMap<>();
+    }
+
+    // Begins loading in the background and returns immediately
+    public synchronized BulkAccountLoader start() throws IOException {
+        if (loading != null) {
+            throw new IllegalStateException("Loader already started");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        accounts = new ConcurrentHashMap<>((int) Math.min(size / ESTIMATED_LINE_BYTES, 1 << 28));
+        long rangeBytes = Math.max(MAX_LINE_BYTES,
+                Math.min(MAX_RANGE_BYTES, (size + parallelism * 4L - 1) / (parallelism * 4L)));
+        int ranges = (int) ((size + rangeBytes - 1) / rangeBytes);
+        pool = new ForkJoinPool(parallelism);
+        loading = CompletableFuture
+                .runAsync(() -> IntStream.range(0, ranges)
+                        .parallel()
+                        .forEach(range -> parseRange(channel, range * rangeBytes,
+                                Math.min(size, (range + 1) * rangeBytes), size)), pool)
+                .whenComplete((ignored, failure) -> {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        System.out.println("Failed to close account dump: " + e.getMessage());
+                    }
+                });
+        return this;
+    }
+
+    @Override
+    public Account load(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account != null || isComplete()) {
+            return account;
+        }
+        try {
+            awaitCompletion();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return accounts.get(accountNumber);
+    }
+
+    // Loaded accounts are live objects, so balance changes have already landed in them
+    @Override
+    public void saveBalances(Map<String, Double> balances) {
+    }
+
+    public boolean isComplete() {
+        CompletableFuture<Void> current = loading;
+        return current != null && current.isDone();
+    }
+
+    public void awaitCompletion() throws IOException {
+        CompletableFuture<Void> current = loading;
+        if (current == null) {
+            throw new IllegalStateException("Loader not started");
+        }
+        try {
+            current.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Account load failed", e.getCause());
+        }
+    }
+
+    public int getLoadedCount() {
+        return loaded.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private void parseRange(FileChannel channel, long start, long end, long size) {
+        // Map one byte early so a range starting mid-line can find the line's end
+        long mapStart = start == 0 ? 0 : start - 1;
+        long mapEnd = Math.min(size, end + MAX_LINE_BYTES);
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int limit = buffer.limit();
+        int ownedEnd = (int) (end - mapStart);
+        int position = 0;
+        if (start > 0) {
+            while (position < limit && buffer.get(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+        byte[] scratch = new byte[MAX_LINE_BYTES];
+        while (position < ownedEnd) {
+            int lineEnd = position;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd - position > MAX_LINE_BYTES || (lineEnd == limit && mapEnd < size)) {
+                throw new UncheckedIOException(new IOException(
+                        "Account record longer than " + MAX_LINE_BYTES + " bytes at offset " + (mapStart + position)));
+            }
+            parseLine(buffer, position, lineEnd, scratch);
+            position = lineEnd + 1;
+        }
+    }
+
+    private void parseLine(MappedByteBuffer buffer, int from, int to, byte[] scratch) {
+        while (from < to && isSpace(buffer.get(from))) {
+            from++;
+        }
+        while (to > from && isSpace(buffer.get(to - 1))) {
+            to--;
+        }
+        if (from == to || buffer.get(from) == '#') {
+            return;
+        }
+        int comma = from;
+        while (comma < to && buffer.get(comma) != ',') {
+            comma++;
+        }
+        if (comma == to) {
+            throw new IllegalArgumentException("Malformed account line: " + text(buffer, from, to, scratch));
+        }
+        int keyEnd = comma;
+        while (keyEnd > from && isSpace(buffer.get(keyEnd - 1))) {
+            keyEnd--;
+        }
+        int valueStart = comma + 1;
+        while (valueStart < to && isSpace(buffer.get(valueStart))) {
+            valueStart++;
+        }
+        String accountNumber = text(buffer, from, keyEnd, scratch);
+        accounts.put(accountNumber, new Account(accountNumber, parseBalance(buffer, valueStart, to, scratch)));
+        loaded.incrementAndGet();
+    }
+
+    /**
+     * Parses a plain decimal such as {@code -1234.56} without allocating.
+     * Digits and scale are accumulated as integers and divided once, which
+     * rounds exactly like {@link Double#parseDouble} while both fit in 53
+     * bits; anything else falls back to it.
+     */
+    static double parseBalance(MappedByteBuffer buffer, int from, int to, byte[] scratch) {
+        int position = from;
+        boolean negative = false;
+        if (position < to && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int scale = -1;
+        for (; position < to; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                digits = digits * 10 + (b - '0');
+                digitCount++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+        if (position != to || digitCount == 0 || digitCount > 15) {
+            return Double.parseDouble(text(buffer, from, to, scratch));
+        }
+        double value = scale > 0 ? (double) digits / POWERS_OF_TEN[scale] : digits;
+        return negative ? -value : value;
+    }
+
+    private static String text(MappedByteBuffer buffer, int from, int to, byte[] scratch) {
+        int length = to - from;
+        buffer.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
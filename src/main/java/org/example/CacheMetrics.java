@@ -0,0 +1,66 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters kept by {@link CachingAccountRepository}.
+ */
+public class CacheMetrics {
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+    final AtomicLong evictions = new AtomicLong();
+    final AtomicLong backendLoads = new AtomicLong();
+    final AtomicLong backendLoadNanos = new AtomicLong();
+    final AtomicLong balanceUpdates = new AtomicLong();
+    final AtomicLong backendWrites = new AtomicLong();
+    final AtomicLong balancesWritten = new AtomicLong();
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRatio() {
+        long requests = hits.get() + misses.get();
+        return requests == 0 ? 0.0 : (double) hits.get() / requests;
+    }
+
+    public long getBackendLoads() {
+        return backendLoads.get();
+    }
+
+    public double getAverageLoadMicros() {
+        long loads = backendLoads.get();
+        return loads == 0 ? 0.0 : backendLoadNanos.get() / 1_000.0 / loads;
+    }
+
+    // Balance changes made through cached accounts
+    public long getBalanceUpdates() {
+        return balanceUpdates.get();
+    }
+
+    // saveBalances calls issued by the write-behind flusher
+    public long getBackendWrites() {
+        return backendWrites.get();
+    }
+
+    // Balances carried by those calls after coalescing
+    public long getBalancesWritten() {
+        return balancesWritten.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hit ratio %.3f (%d hits, %d misses), %d backend loads avg %.1f us, "
+                        + "%d updates -> %d balances in %d writes, %d evictions",
+                getHitRatio(), getHits(), getMisses(), getBackendLoads(), getAverageLoadMicros(),
+                getBalanceUpdates(), getBalancesWritten(), getBackendWrites(), getEvictions());
+    }
+}
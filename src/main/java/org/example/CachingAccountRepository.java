@@ -0,0 +1,317 @@
+package org.example;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded read-through cache in front of a slow {@link AccountRepository}.
+ * <p>
+ * Eviction follows W-TinyLFU: new accounts enter a small LRU window; an
+ * account pushed out of the window only displaces the main segment's
+ * victim if the {@link FrequencySketch} has seen it more often. The main
+ * segment is a segmented LRU whose probation part holds accounts seen once
+ * since admission and whose protected part holds the rest.
+ * <p>
+ * Balance changes on cached accounts are written behind: each change marks
+ * the account dirty, and a flusher thread periodically writes the latest
+ * balance of every dirty account in one call, so repeated updates to a hot
+ * account collapse into a single backend write. Dirty accounts stay
+ * reachable after eviction until they are flushed.
+ * <p>
+ * Every account handed out is also tracked weakly, so a load after
+ * eviction returns the object a session may still hold rather than a
+ * second copy whose balance would diverge from it.
+ */
+public class CachingAccountRepository implements AccountRepository, AutoCloseable {
+    public static final long DEFAULT_FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AccountRepository backend;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+
+    private final LinkedHashMap<String, CachedAccount> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, CachedAccount> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, CachedAccount> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final ConcurrentHashMap<String, CachedAccount> dirty = new ConcurrentHashMap<>();
+    // Accounts whose balances are being written; still authoritative until the write lands
+    private final ConcurrentHashMap<String, CachedAccount> inFlight = new ConcurrentHashMap<>();
+    // Every account still referenced by a caller, so eviction never yields two objects for one account
+    private final ConcurrentHashMap<String, LiveReference> live = new ConcurrentHashMap<>();
+    private final ReferenceQueue<CachedAccount> collected = new ReferenceQueue<>();
+    private final CacheMetrics metrics = new CacheMetrics();
+    private final Object flushLock = new Object();
+    private final long flushIntervalNanos;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final class CachedAccount extends Account {
+        CachedAccount(String accountNumber, double balance) {
+            super(accountNumber, balance);
+        }
+
+        @Override
+        public boolean withdraw(double amount) {
+            boolean withdrawn = super.withdraw(amount);
+            if (withdrawn) {
+                markDirty(this);
+            }
+            return withdrawn;
+        }
+
+        @Override
+        public void deposit(double amount) {
+            super.deposit(amount);
+            markDirty(this);
+        }
+    }
+
+    private static final class LiveReference extends WeakReference<CachedAccount> {
+        final String accountNumber;
+
+        LiveReference(CachedAccount account, ReferenceQueue<CachedAccount> queue) {
+            super(account, queue);
+            this.accountNumber = account.getAccountNumber();
+        }
+    }
+
+    public CachingAccountRepository(AccountRepository backend, int capacity) {
+        this(backend, capacity, DEFAULT_FLUSH_INTERVAL_NANOS);
+    }
+
+    // A non-positive flush interval disables the background flusher; call flush() instead
+    public CachingAccountRepository(AccountRepository backend, int capacity, long flushIntervalNanos) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.backend = backend;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = (int) (mainCapacity * 0.8);
+        this.sketch = new FrequencySketch(capacity);
+        this.flushIntervalNanos = flushIntervalNanos;
+        if (flushIntervalNanos > 0) {
+            this.flusher = new Thread(this::flushLoop, "account-write-behind");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    @Override
+    public Account load(String accountNumber) {
+        int hash = spread(accountNumber.hashCode());
+        synchronized (this) {
+            sketch.increment(hash);
+            CachedAccount account = window.get(accountNumber);
+            if (account == null) {
+                account = protectedSegment.get(accountNumber);
+            }
+            if (account == null) {
+                account = probation.remove(accountNumber);
+                if (account != null) {
+                    promote(account);
+                }
+            }
+            if (account != null) {
+                metrics.hits.incrementAndGet();
+                return account;
+            }
+        }
+        metrics.misses.incrementAndGet();
+        // Dirty and in-flight accounts are strongly held, so they are always found here
+        CachedAccount account = live(accountNumber);
+        if (account == null) {
+            long start = System.nanoTime();
+            Account loaded = backend.load(accountNumber);
+            metrics.backendLoadNanos.addAndGet(System.nanoTime() - start);
+            metrics.backendLoads.incrementAndGet();
+            if (loaded == null) {
+                return null;
+            }
+            account = new CachedAccount(accountNumber, loaded.getBalance());
+        }
+        synchronized (this) {
+            // Another caller may have loaded it while we were at the backend
+            CachedAccount existing = find(accountNumber);
+            if (existing != null) {
+                return existing;
+            }
+            existing = live(accountNumber);
+            if (existing != null) {
+                account = existing;
+            } else {
+                expungeCollected();
+                live.put(accountNumber, new LiveReference(account, collected));
+            }
+            window.put(accountNumber, account);
+            if (window.size() > windowCapacity) {
+                evictFromWindow();
+            }
+        }
+        return account;
+    }
+
+    // Writes straight through; live copies take the new balance so the next load sees it
+    @Override
+    public void saveBalances(Map<String, Double> balances) {
+        // Serialized with flushes, so a flush already holding an old balance cannot write it over this one
+        synchronized (flushLock) {
+            synchronized (this) {
+                for (Map.Entry<String, Double> entry : balances.entrySet()) {
+                    dirty.remove(entry.getKey());
+                    CachedAccount account = live(entry.getKey());
+                    if (account != null) {
+                        account.resetBalance(entry.getValue());
+                    }
+                }
+            }
+            backend.saveBalances(balances);
+        }
+    }
+
+    // Writes the latest balance of every dirty account in one backend call
+    public void flush() {
+        synchronized (flushLock) {
+            if (!dirty.isEmpty()) {
+                writeDirty();
+            }
+        }
+    }
+
+    private void writeDirty() {
+        Map<String, Double> balances = new HashMap<>();
+        Iterator<CachedAccount> iterator = dirty.values().iterator();
+        while (iterator.hasNext()) {
+            CachedAccount account = iterator.next();
+            inFlight.put(account.getAccountNumber(), account);
+            // Remove before reading so a concurrent update re-marks the account
+            iterator.remove();
+            balances.put(account.getAccountNumber(), account.getBalance());
+        }
+        try {
+            backend.saveBalances(balances);
+        } catch (RuntimeException e) {
+            // Keep the balances dirty so the next flush retries them
+            for (CachedAccount account : inFlight.values()) {
+                dirty.putIfAbsent(account.getAccountNumber(), account);
+            }
+            throw e;
+        } finally {
+            inFlight.clear();
+        }
+        metrics.backendWrites.incrementAndGet();
+        metrics.balancesWritten.addAndGet(balances.size());
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void markDirty(CachedAccount account) {
+        metrics.balanceUpdates.incrementAndGet();
+        dirty.put(account.getAccountNumber(), account);
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                System.out.println("Write-behind flush failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private CachedAccount live(String accountNumber) {
+        LiveReference reference = live.get(accountNumber);
+        return reference == null ? null : reference.get();
+    }
+
+    // Drops entries whose accounts were garbage collected; caller holds the cache lock
+    private void expungeCollected() {
+        LiveReference reference;
+        while ((reference = (LiveReference) collected.poll()) != null) {
+            live.remove(reference.accountNumber, reference);
+        }
+    }
+
+    private CachedAccount find(String accountNumber) {
+        CachedAccount account = window.get(accountNumber);
+        if (account == null) {
+            account = probation.get(accountNumber);
+        }
+        if (account == null) {
+            account = protectedSegment.get(accountNumber);
+        }
+        return account;
+    }
+
+    private void promote(CachedAccount account) {
+        protectedSegment.put(account.getAccountNumber(), account);
+        if (protectedSegment.size() > protectedCapacity) {
+            Map.Entry<String, CachedAccount> demoted = eldest(protectedSegment);
+            protectedSegment.remove(demoted.getKey());
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private void evictFromWindow() {
+        Map.Entry<String, CachedAccount> candidate = eldest(window);
+        window.remove(candidate.getKey());
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        LinkedHashMap<String, CachedAccount> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        Map.Entry<String, CachedAccount> victim = eldest(victimSegment);
+        metrics.evictions.incrementAndGet();
+        // Admit the candidate only if it has been seen more often than the victim
+        if (sketch.frequency(spread(candidate.getKey().hashCode()))
+                > sketch.frequency(spread(victim.getKey().hashCode()))) {
+            victimSegment.remove(victim.getKey());
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private static Map.Entry<String, CachedAccount> eldest(LinkedHashMap<String, CachedAccount> segment) {
+        return segment.entrySet().iterator().next();
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45d9f3b;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+/**
+ * Cards keyed by numeric PAN in an open-addressing table, so lookups from
+ * the wire need no boxing or string conversion.
+ */
+public class CardDirectory {
+    private long[] pans;
+    private Card[] cards;
+    private int size;
+
+    public CardDirectory() {
+        this(16);
+    }
+
+    public CardDirectory(int expectedCards) {
+        int capacity = Integer.highestOneBit(Math.max(expectedCards * 2 - 1, 1)) << 1;
+        pans = new long[capacity];
+        cards = new Card[capacity];
+    }
+
+    public void register(long pan, Card card) {
+        if ((size + 1) * 2 > cards.length) {
+            resize();
+        }
+        int slot = slotFor(pan, pans, cards);
+        if (cards[slot] == null) {
+            size++;
+        }
+        pans[slot] = pan;
+        cards[slot] = card;
+    }
+
+    public Card find(long pan) {
+        return cards[slotFor(pan, pans, cards)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int slotFor(long pan, long[] pans, Card[] cards) {
+        int mask = cards.length - 1;
+        int slot = mix(pan) & mask;
+        while (cards[slot] != null && pans[slot] != pan) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldPans = pans;
+        Card[] oldCards = cards;
+        pans = new long[oldPans.length * 2];
+        cards = new Card[oldCards.length * 2];
+        for (int i = 0; i < oldCards.length; i++) {
+            if (oldCards[i] != null) {
+                int slot = slotFor(oldPans[i], pans, cards);
+                pans[slot] = oldPans[i];
+                cards[slot] = oldCards[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
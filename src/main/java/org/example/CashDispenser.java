@@ -0,0 +1,13 @@
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The note-presenting hardware of a terminal. The inventory decides which
+ * notes to take; the dispenser moves them, taking real time and possibly
+ * jamming part way through.
+ */
+public interface CashDispenser {
+    // Presents notes[slot] notes from each cassette; completes when the device has finished or jammed
+    CompletableFuture<DispenseResult> dispense(int[] notes);
+}
@@ -1,16 +1,55 @@
 package org.example;
 
-public enum CashType {
-    BILL_100(100),
-    BILL_50(50),
-    BILL_20(20),
-    BILL_10(10),
-    BILL_5(5),
-    BILL_1(1);
+import java.util.Objects;
 
+/**
+ * A note of one currency and face value. The USD notes are predefined;
+ * other currencies are created from the cassette configuration.
+ */
+public final class CashType {
+    public static final String USD = "USD";
+
+    public static final CashType BILL_100 = new CashType(USD, 100);
+    public static final CashType BILL_50 = new CashType(USD, 50);
+    public static final CashType BILL_20 = new CashType(USD, 20);
+    public static final CashType BILL_10 = new CashType(USD, 10);
+    public static final CashType BILL_5 = new CashType(USD, 5);
+    public static final CashType BILL_1 = new CashType(USD, 1);
+
+    public final String currency;
     public final int value;
 
-    CashType(int value) {
+    private CashType(String currency, int value) {
+        this.currency = currency;
         this.value = value;
     }
+
+    public static CashType of(String currency, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Note value must be positive: " + value);
+        }
+        return new CashType(currency, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CashType)) {
+            return false;
+        }
+        CashType other = (CashType) o;
+        return value == other.value && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currency, value);
+    }
+
+    @Override
+    public String toString() {
+        return USD.equals(currency) ? "$" + value : value + " " + currency;
+    }
 }
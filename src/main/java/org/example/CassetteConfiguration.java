@@ -0,0 +1,121 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Currency and cassette layout of one terminal, e.g.
+ * <pre>
+ * currency=EUR
+ * cassettes=100:20,50:40,20:60,10:80
+ * </pre>
+ * where each cassette is {@code denomination:initial count}. Slots are
+ * ordered by denomination, largest first.
+ */
+public class CassetteConfiguration {
+    public static final int MAX_CASSETTES = 8;
+    public static final String CONFIG_PROPERTY = "atm.cassettes";
+
+    private final String currency;
+    private final int[] denominations;
+    private final int[] initialCounts;
+
+    public CassetteConfiguration(String currency, int[] denominations, int[] initialCounts) {
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        if (denominations.length == 0 || denominations.length > MAX_CASSETTES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_CASSETTES + " cassettes required");
+        }
+        if (denominations.length != initialCounts.length) {
+            throw new IllegalArgumentException("Each cassette needs a denomination and a count");
+        }
+        Integer[] order = new Integer[denominations.length];
+        for (int slot = 0; slot < denominations.length; slot++) {
+            if (denominations[slot] <= 0 || initialCounts[slot] < 0) {
+                throw new IllegalArgumentException("Invalid cassette " + denominations[slot] + ":" + initialCounts[slot]);
+            }
+            order[slot] = slot;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(denominations[b], denominations[a]));
+        this.currency = currency;
+        this.denominations = new int[denominations.length];
+        this.initialCounts = new int[denominations.length];
+        for (int slot = 0; slot < order.length; slot++) {
+            this.denominations[slot] = denominations[order[slot]];
+            this.initialCounts[slot] = initialCounts[order[slot]];
+        }
+    }
+
+    // The original six-cassette USD layout
+    public static CassetteConfiguration defaultConfiguration() {
+        return new CassetteConfiguration(CashType.USD,
+                new int[]{100, 50, 20, 10, 5, 1},
+                new int[]{10, 10, 20, 30, 20, 50});
+    }
+
+    public static CassetteConfiguration fromProperties(Properties properties) {
+        String currency = properties.getProperty("currency", "").trim();
+        String cassettes = properties.getProperty("cassettes", "").trim();
+        if (cassettes.isEmpty()) {
+            throw new IllegalArgumentException("No cassettes configured");
+        }
+        String[] entries = cassettes.split(",");
+        int[] denominations = new int[entries.length];
+        int[] counts = new int[entries.length];
+        for (int slot = 0; slot < entries.length; slot++) {
+            String[] parts = entries[slot].trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected denomination:count but got " + entries[slot]);
+            }
+            try {
+                denominations[slot] = Integer.parseInt(parts[0].trim());
+                counts[slot] = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cassette " + entries[slot], e);
+            }
+        }
+        return new CassetteConfiguration(currency, denominations, counts);
+    }
+
+    public static CassetteConfiguration load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    // Uses the file named by -Datm.cassettes, or the default USD layout
+    public static CassetteConfiguration fromStartup() throws IOException {
+        String path = System.getProperty(CONFIG_PROPERTY);
+        if (path == null || path.isBlank()) {
+            return defaultConfiguration();
+        }
+        return load(Path.of(path));
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getCassetteCount() {
+        return denominations.length;
+    }
+
+    public int[] getDenominations() {
+        return denominations.clone();
+    }
+
+    public int[] getInitialCounts() {
+        return initialCounts.clone();
+    }
+
+    public CashType getCashType(int slot) {
+        return CashType.of(currency, denominations[slot]);
+    }
+}
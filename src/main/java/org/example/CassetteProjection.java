@@ -0,0 +1,46 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cassette levels and total cash per terminal folded from the event log.
+ * Each terminal is only ever updated by one thread.
+ */
+public class CassetteProjection {
+    private final ConcurrentHashMap<String, TerminalCash> terminals = new ConcurrentHashMap<>();
+
+    private static final class TerminalCash {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(CassetteConfiguration.MAX_CASSETTES);
+        final AtomicLong totalCash = new AtomicLong();
+    }
+
+    void apply(LedgerEvent event) {
+        int sign;
+        if (event.getType() == LedgerEventType.CASH_LOADED) {
+            sign = 1;
+        } else if (event.getType() == LedgerEventType.CASH_DISPENSED) {
+            sign = -1;
+        } else {
+            return;
+        }
+        TerminalCash cash = terminals.computeIfAbsent(event.getKey(), key -> new TerminalCash());
+        cash.counts.set(event.getSlot(), cash.counts.get(event.getSlot()) + sign * event.getNoteCount());
+        cash.totalCash.set(cash.totalCash.get() + sign * Math.round(event.getAmount()));
+    }
+
+    public long getTotalCash(String terminalId) {
+        TerminalCash cash = terminals.get(terminalId);
+        return cash == null ? 0 : cash.totalCash.get();
+    }
+
+    public int getCount(String terminalId, int slot) {
+        TerminalCash cash = terminals.get(terminalId);
+        return cash == null ? 0 : cash.counts.get(slot);
+    }
+
+    public int size() {
+        return terminals.size();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Latency-based circuit breaker. A call slower than the threshold counts
+ * as a failure; after enough consecutive failures the breaker opens and
+ * refuses calls for the open duration, then lets a single probe through.
+ * A fast probe closes it again, a slow one re-opens it, and so does a
+ * probe that reports nothing within the probe deadline.
+ */
+public class CircuitBreaker {
+    private final long latencyThresholdNanos;
+    private final int tripAfter;
+    private final long openDurationNanos;
+    private final long probeDeadlineNanos;
+    private final LongSupplier clock;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long probeStartedAt;
+    private long trips;
+
+    public CircuitBreaker(long latencyThresholdNanos, int tripAfter, long openDurationNanos) {
+        this(latencyThresholdNanos, tripAfter, openDurationNanos, System::nanoTime);
+    }
+
+    // The probe deadline defaults to the open duration
+    public CircuitBreaker(long latencyThresholdNanos, int tripAfter, long openDurationNanos, LongSupplier clock) {
+        this(latencyThresholdNanos, tripAfter, openDurationNanos, openDurationNanos, clock);
+    }
+
+    public CircuitBreaker(long latencyThresholdNanos, int tripAfter, long openDurationNanos,
+                          long probeDeadlineNanos, LongSupplier clock) {
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.tripAfter = tripAfter;
+        this.openDurationNanos = openDurationNanos;
+        this.probeDeadlineNanos = probeDeadlineNanos;
+        this.clock = clock;
+    }
+
+    public synchronized boolean allowRequest() {
+        expireProbe();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                startProbe();
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                startProbe();
+                return true;
+        }
+    }
+
+    public synchronized void recordSuccess(long latencyNanos) {
+        if (latencyNanos > latencyThresholdNanos) {
+            recordFailure();
+            return;
+        }
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = CircuitState.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        probeInFlight = false;
+        if (state == CircuitState.HALF_OPEN || ++consecutiveFailures >= tripAfter) {
+            open();
+        }
+    }
+
+    // Callers time their calls on this clock so latencies match the breaker's own
+    public long nanoTime() {
+        return clock.getAsLong();
+    }
+
+    public synchronized CircuitState getState() {
+        expireProbe();
+        return state;
+    }
+
+    public long getLatencyThresholdNanos() {
+        return latencyThresholdNanos;
+    }
+
+    public synchronized long getTrips() {
+        return trips;
+    }
+
+    private void startProbe() {
+        probeInFlight = true;
+        probeStartedAt = clock.getAsLong();
+    }
+
+    // A probe that never reports, such as a call with no timeout to a hung backend, must not hold the breaker half-open
+    private void expireProbe() {
+        if (state == CircuitState.HALF_OPEN && probeInFlight
+                && clock.getAsLong() - probeStartedAt >= probeDeadlineNanos) {
+            probeInFlight = false;
+            open();
+        }
+    }
+
+    private void open() {
+        if (state != CircuitState.OPEN) {
+            trips++;
+        }
+        state = CircuitState.OPEN;
+        openedAt = clock.getAsLong();
+    }
+}
@@ -0,0 +1,7 @@
+package org.example;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
@@ -0,0 +1,173 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Converts a {@link TransactionJournal} into a compact columnar file for
+ * analytics.
+ * <p>
+ * Layout: a header (magic, version, row count, account dictionary) then
+ * row groups. Each row group starts with its row count and the byte
+ * length of every column, followed by the columns back to back, so a
+ * reader can seek straight to one column. Timestamps are stored as a base
+ * value plus zigzag varint deltas, IDs and note counts as varints, the
+ * type as one byte. Amount columns start with the greatest common divisor
+ * of the group's amounts and store each amount in cents divided by it as
+ * a zigzag varint, so whole-note amounts take one or two bytes.
+ */
+public final class ColumnarTransactionExporter {
+    public static final int MAGIC = 0x41544D43;
+    public static final int VERSION = 1;
+    public static final int ROW_GROUP_SIZE = 64 * 1024;
+
+    // Offset of the row count in the header, patched once all groups are written
+    static final int ROW_COUNT_OFFSET = 8;
+    // Magic, version, row count, account count, dictionary bytes
+    static final int HEADER_SIZE = 24;
+
+    private static final int COLUMNS = TransactionColumn.values().length;
+    private static final int MAX_VARINT = 10;
+
+    private ColumnarTransactionExporter() {
+    }
+
+    // Returns the number of rows exported
+    public static long export(Path journal, Path output) throws IOException {
+        List<String> accounts = TransactionJournal.readAccountDictionary(journal);
+        try (FileChannel in = FileChannel.open(journal, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out, accounts);
+
+            ByteBuffer records = ByteBuffer.allocateDirect(ROW_GROUP_SIZE * TransactionJournal.RECORD_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer[] columns = new ByteBuffer[COLUMNS + 1];
+            columns[0] = ByteBuffer.allocate(4 + 4 * COLUMNS).order(ByteOrder.LITTLE_ENDIAN);
+            for (int c = 1; c <= COLUMNS; c++) {
+                columns[c] = ByteBuffer.allocate(ROW_GROUP_SIZE * MAX_VARINT).order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            long rows = 0;
+            while (true) {
+                // Fill a whole group before encoding it
+                records.clear();
+                int read;
+                do {
+                    read = in.read(records);
+                } while (read > 0 && records.hasRemaining());
+                records.flip();
+                int groupRows = records.remaining() / TransactionJournal.RECORD_SIZE;
+                if (groupRows == 0) {
+                    break;
+                }
+                encodeGroup(records, groupRows, columns);
+                while (columns[COLUMNS].hasRemaining()) {
+                    out.write(columns);
+                }
+                rows += groupRows;
+            }
+
+            ByteBuffer count = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, rows);
+            out.write(count, ROW_COUNT_OFFSET);
+            return rows;
+        }
+    }
+
+    private static void writeHeader(FileChannel out, List<String> accounts) throws IOException {
+        int dictionarySize = 0;
+        byte[][] encoded = new byte[accounts.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = accounts.get(i).getBytes(StandardCharsets.UTF_8);
+            dictionarySize += 2 + encoded[i].length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + dictionarySize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(0).putInt(encoded.length).putInt(dictionarySize);
+        for (byte[] account : encoded) {
+            header.putShort((short) account.length).put(account);
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+    }
+
+    private static void encodeGroup(ByteBuffer records, int rows, ByteBuffer[] columns) {
+        for (ByteBuffer column : columns) {
+            column.clear();
+        }
+        ByteBuffer timestamps = columns[1 + TransactionColumn.TIMESTAMP.ordinal()];
+        ByteBuffer terminals = columns[1 + TransactionColumn.TERMINAL.ordinal()];
+        ByteBuffer accounts = columns[1 + TransactionColumn.ACCOUNT.ordinal()];
+        ByteBuffer types = columns[1 + TransactionColumn.TYPE.ordinal()];
+        ByteBuffer notes = columns[1 + TransactionColumn.NOTES.ordinal()];
+        ByteBuffer debits = columns[1 + TransactionColumn.DEBIT.ordinal()];
+        ByteBuffer dispensed = columns[1 + TransactionColumn.DISPENSED.ordinal()];
+
+        long debitScale = 0;
+        long dispensedScale = 0;
+        for (int row = 0, base = 0; row < rows; row++, base += TransactionJournal.RECORD_SIZE) {
+            debitScale = gcd(debitScale, Math.abs(records.getLong(base + TransactionJournal.DEBIT_OFFSET)));
+            dispensedScale = gcd(dispensedScale, Math.abs(records.getLong(base + TransactionJournal.DISPENSED_OFFSET)));
+        }
+        debitScale = Math.max(1, debitScale);
+        dispensedScale = Math.max(1, dispensedScale);
+        putVarLong(debits, debitScale);
+        putVarLong(dispensed, dispensedScale);
+
+        long previous = records.getLong(TransactionJournal.TIMESTAMP_OFFSET);
+        timestamps.putLong(previous);
+        for (int row = 0, base = 0; row < rows; row++, base += TransactionJournal.RECORD_SIZE) {
+            long timestamp = records.getLong(base + TransactionJournal.TIMESTAMP_OFFSET);
+            if (row > 0) {
+                putVarLong(timestamps, zigzag(timestamp - previous));
+            }
+            previous = timestamp;
+            putVarLong(terminals, records.getInt(base + TransactionJournal.TERMINAL_OFFSET));
+            putVarLong(accounts, records.getInt(base + TransactionJournal.ACCOUNT_OFFSET));
+            types.put((byte) records.getInt(base + TransactionJournal.TYPE_OFFSET));
+            putVarLong(notes, records.getInt(base + TransactionJournal.NOTES_OFFSET));
+            putVarLong(debits, zigzag(records.getLong(base + TransactionJournal.DEBIT_OFFSET) / debitScale));
+            putVarLong(dispensed, zigzag(records.getLong(base + TransactionJournal.DISPENSED_OFFSET) / dispensedScale));
+        }
+
+        ByteBuffer directory = columns[0];
+        directory.putInt(rows);
+        for (int c = 1; c <= COLUMNS; c++) {
+            columns[c].flip();
+            directory.putInt(columns[c].remaining());
+        }
+        directory.flip();
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
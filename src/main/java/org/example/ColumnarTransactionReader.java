@@ -0,0 +1,178 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Reads files written by {@link ColumnarTransactionExporter}. A scan of
+ * one column reads each row group's directory and then only that column's
+ * bytes; the other columns are neither read from disk nor decoded.
+ */
+public class ColumnarTransactionReader implements AutoCloseable {
+    private static final int COLUMNS = TransactionColumn.values().length;
+    private static final int DIRECTORY_SIZE = 4 + 4 * COLUMNS;
+
+    private final FileChannel channel;
+    private final long rowCount;
+    private final int accountCount;
+    private final int dictionarySize;
+    private final long dataStart;
+    // Decoded on first use; column scans never need it
+    private List<String> accounts;
+
+    private final ByteBuffer directory = ByteBuffer.allocate(DIRECTORY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer column = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    public ColumnarTransactionReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(ColumnarTransactionExporter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        if (header.getInt(0) != ColumnarTransactionExporter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a columnar transaction file: " + path);
+        }
+        if (header.getInt(4) != ColumnarTransactionExporter.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported columnar version " + header.getInt(4));
+        }
+        this.rowCount = header.getLong(ColumnarTransactionExporter.ROW_COUNT_OFFSET);
+        this.accountCount = header.getInt(16);
+        this.dictionarySize = header.getInt(20);
+        this.dataStart = ColumnarTransactionExporter.HEADER_SIZE + (long) dictionarySize;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    // Account numbers indexed by the values of the ACCOUNT column
+    public synchronized List<String> getAccountDictionary() throws IOException {
+        if (accounts == null) {
+            ByteBuffer entries = ByteBuffer.allocate(dictionarySize).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(entries, ColumnarTransactionExporter.HEADER_SIZE);
+            entries.flip();
+            List<String> dictionary = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                int size = Short.toUnsignedInt(entries.getShort());
+                dictionary.add(new String(entries.array(), entries.position(), size, StandardCharsets.UTF_8));
+                entries.position(entries.position() + size);
+            }
+            accounts = Collections.unmodifiableList(dictionary);
+        }
+        return accounts;
+    }
+
+    public synchronized void scan(TransactionColumn target, LongConsumer consumer) throws IOException {
+        long position = dataStart;
+        long end = channel.size();
+        while (position < end) {
+            directory.clear();
+            readFully(directory, position);
+            int rows = directory.getInt(0);
+            long columnStart = position + DIRECTORY_SIZE;
+            long groupSize = DIRECTORY_SIZE;
+            int columnLength = 0;
+            for (int c = 0; c < COLUMNS; c++) {
+                int length = directory.getInt(4 + 4 * c);
+                if (c < target.ordinal()) {
+                    columnStart += length;
+                } else if (c == target.ordinal()) {
+                    columnLength = length;
+                }
+                groupSize += length;
+            }
+            if (column.capacity() < columnLength) {
+                column = ByteBuffer.allocate(columnLength).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            column.clear().limit(columnLength);
+            readFully(column, columnStart);
+            decode(target, column.array(), rows, consumer);
+            position += groupSize;
+        }
+    }
+
+    public long sum(TransactionColumn target) throws IOException {
+        long[] total = new long[1];
+        scan(target, value -> total[0] += value);
+        return total[0];
+    }
+
+    public long[] read(TransactionColumn target) throws IOException {
+        long[] values = new long[Math.toIntExact(rowCount)];
+        int[] index = new int[1];
+        scan(target, value -> values[index[0]++] = value);
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void decode(TransactionColumn target, byte[] bytes, int rows, LongConsumer consumer) {
+        int[] offset = new int[1];
+        switch (target) {
+            case TYPE:
+                for (int row = 0; row < rows; row++) {
+                    consumer.accept(bytes[row]);
+                }
+                return;
+            case TIMESTAMP: {
+                long value = ByteBuffer.wrap(bytes, 0, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+                consumer.accept(value);
+                offset[0] = 8;
+                for (int row = 1; row < rows; row++) {
+                    value += ColumnarTransactionExporter.unzigzag(readVarLong(bytes, offset));
+                    consumer.accept(value);
+                }
+                return;
+            }
+            case DEBIT:
+            case DISPENSED: {
+                long scale = readVarLong(bytes, offset);
+                for (int row = 0; row < rows; row++) {
+                    consumer.accept(ColumnarTransactionExporter.unzigzag(readVarLong(bytes, offset)) * scale);
+                }
+                return;
+            }
+            default:
+                for (int row = 0; row < rows; row++) {
+                    consumer.accept(readVarLong(bytes, offset));
+                }
+        }
+    }
+
+    // Reads the varint at offset[0] and moves offset[0] past it
+    private static long readVarLong(byte[] bytes, int[] offset) {
+        int position = offset[0];
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        offset[0] = position;
+        return value;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, start + buffer.position());
+            if (read < 0) {
+                throw new IOException("Truncated columnar file");
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example;
+
+// Scheduling classes for terminal commands, most urgent first
+public enum CommandPriority {
+    // Card return and cancel free a terminal and must never wait behind other work
+    CONTROL,
+    // Commands for sessions that already hold a card
+    IN_SESSION,
+    // Card insertion starts a session and is shed first under overload
+    NEW_SESSION;
+
+    public static CommandPriority of(TerminalCommand command) {
+        switch (command) {
+            case RETURN_CARD:
+            case CANCEL_TRANSACTION:
+                return CONTROL;
+            case INSERT_CARD:
+                return NEW_SESSION;
+            default:
+                return IN_SESSION;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable consistent-hash ring mapping account numbers to node IDs.
+ * <p>
+ * Each node is placed at a number of virtual points so ownership stays
+ * balanced, and adding or removing a node only moves the keys adjacent to
+ * its points. Lookups are a binary search over a sorted primitive array.
+ */
+public class ConsistentHashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final String[] nodeIds;
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<String> nodeIds) {
+        this(nodeIds, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(List<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("Ring needs at least one node");
+        }
+        this.nodeIds = nodeIds.toArray(new String[0]);
+        int total = this.nodeIds.length * virtualNodes;
+        long[] hashes = new long[total];
+        int i = 0;
+        for (int node = 0; node < this.nodeIds.length; node++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i++] = hash(this.nodeIds[node] + "#" + v);
+            }
+        }
+        // Sort point indexes by hash so each point keeps its owner
+        Integer[] order = new Integer[total];
+        for (int p = 0; p < total; p++) {
+            order[p] = p;
+        }
+        Arrays.sort(order, (a, b) -> Long.compareUnsigned(hashes[a], hashes[b]));
+        this.points = new long[total];
+        this.owners = new int[total];
+        for (int p = 0; p < total; p++) {
+            points[p] = hashes[order[p]];
+            owners[p] = order[p] / virtualNodes;
+        }
+    }
+
+    public String ownerOf(String accountNumber) {
+        return nodeIds[ownerIndexOf(accountNumber)];
+    }
+
+    // Index into getNodeIds() of the node owning this account
+    public int ownerIndexOf(String accountNumber) {
+        long h = hash(accountNumber);
+        int low = 0;
+        int high = points.length - 1;
+        // First point at or after the key's hash, wrapping to the start
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(points[mid], h) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    public List<String> getNodeIds() {
+        return List.of(nodeIds);
+    }
+
+    static long hash(String key) {
+        // FNV-1a followed by the murmur3 finalizer for avalanche
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,257 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size table of recently completed transaction IDs and their
+ * outcomes, used to answer retries without running them again.
+ * <p>
+ * A transaction reserves its ID with {@link #reserve} before it runs, so a
+ * concurrent retry sees {@link #IN_PROGRESS} instead of running it a second
+ * time; {@link #complete} then replaces the marker with the real outcome.
+ * <p>
+ * Each stripe is a linear-probing table of primitive longs plus a ring
+ * buffer recording insertion order and deadlines. Lookups and inserts
+ * first pop expired entries off the ring head; when a stripe's ring is
+ * full the oldest entry is dropped early, so memory never grows beyond
+ * what the constructor allocates.
+ */
+public class DedupTable {
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+    // Held by a reserved ID until its outcome is recorded; no response code packs to it
+    public static final long IN_PROGRESS = Long.MIN_VALUE + 1;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    public DedupTable(int capacity, long windowNanos) {
+        this(capacity, windowNanos, System::nanoTime);
+    }
+
+    public DedupTable(int capacity, long windowNanos, LongSupplier clock) {
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        this.stripes = new Stripe[STRIPES];
+        int perStripe = Math.max(1, (capacity + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    // Packs a result so a retry can be answered with the original response
+    public static long outcome(ResponseCode code, long amountCents) {
+        return ((long) code.code << 56) | (amountCents & 0x00FF_FFFF_FFFF_FFFFL);
+    }
+
+    public static ResponseCode responseCode(long outcome) {
+        return ResponseCode.fromCode((int) (outcome >>> 56));
+    }
+
+    public static long amountCents(long outcome) {
+        return outcome << 8 >> 8;
+    }
+
+    // Returns the recorded outcome, or NOT_FOUND if the ID is unknown or expired
+    public long get(long transactionId) {
+        return stripeFor(transactionId).get(transactionId, clock.getAsLong());
+    }
+
+    // Returns false and keeps the first outcome if the ID was already recorded
+    public boolean put(long transactionId, long outcome) {
+        return stripeFor(transactionId).put(transactionId, outcome, clock.getAsLong(), windowNanos);
+    }
+
+    // Marks the ID in progress; returns NOT_FOUND if the caller now owns it, else what is already recorded
+    public long reserve(long transactionId) {
+        return stripeFor(transactionId).reserve(transactionId, clock.getAsLong(), windowNanos);
+    }
+
+    // Replaces a reservation with the transaction's outcome
+    public void complete(long transactionId, long outcome) {
+        stripeFor(transactionId).complete(transactionId, outcome, clock.getAsLong(), windowNanos);
+    }
+
+    // Drops a reservation for a transaction that never ran, so a retry may run it
+    public void release(long transactionId) {
+        stripeFor(transactionId).release(transactionId, clock.getAsLong());
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.ringSize;
+            }
+        }
+        return size;
+    }
+
+    // Entries dropped before their window ended because a ring was full
+    public long getForcedEvictions() {
+        long evictions = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                evictions += stripe.forcedEvictions;
+            }
+        }
+        return evictions;
+    }
+
+    private Stripe stripeFor(long transactionId) {
+        return stripes[(int) (mix(transactionId) >>> 60)];
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static final class Stripe {
+        final long[] keys;
+        final long[] values;
+        // Deadline of each entry, so a ring slot left by a released ID cannot expire its successor
+        final long[] deadlines;
+        final int mask;
+
+        final long[] ringKeys;
+        final long[] ringDeadlines;
+        int ringHead;
+        int ringSize;
+        long forcedEvictions;
+
+        Stripe(int capacity) {
+            int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            keys = new long[tableSize];
+            values = new long[tableSize];
+            deadlines = new long[tableSize];
+            Arrays.fill(values, EMPTY);
+            mask = tableSize - 1;
+            ringKeys = new long[capacity];
+            ringDeadlines = new long[capacity];
+        }
+
+        synchronized long get(long key, long now) {
+            expire(now);
+            int slot = find(key);
+            return slot < 0 ? NOT_FOUND : values[slot];
+        }
+
+        synchronized boolean put(long key, long outcome, long now, long windowNanos) {
+            expire(now);
+            if (find(key) >= 0) {
+                return false;
+            }
+            insert(key, outcome, now + windowNanos);
+            return true;
+        }
+
+        synchronized long reserve(long key, long now, long windowNanos) {
+            expire(now);
+            int slot = find(key);
+            if (slot >= 0) {
+                return values[slot];
+            }
+            insert(key, IN_PROGRESS, now + windowNanos);
+            return NOT_FOUND;
+        }
+
+        synchronized void complete(long key, long outcome, long now, long windowNanos) {
+            expire(now);
+            int slot = find(key);
+            if (slot >= 0) {
+                values[slot] = outcome;
+            } else {
+                // The reservation was pushed out of a full ring while the transaction ran
+                insert(key, outcome, now + windowNanos);
+            }
+        }
+
+        synchronized void release(long key, long now) {
+            expire(now);
+            int slot = find(key);
+            if (slot >= 0 && values[slot] == IN_PROGRESS) {
+                remove(slot);
+            }
+        }
+
+        private void insert(long key, long value, long deadline) {
+            if (ringSize == ringKeys.length) {
+                popRingHead();
+                forcedEvictions++;
+            }
+            int slot = home(key);
+            while (values[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            deadlines[slot] = deadline;
+            int tail = ringHead + ringSize;
+            if (tail >= ringKeys.length) {
+                tail -= ringKeys.length;
+            }
+            ringKeys[tail] = key;
+            ringDeadlines[tail] = deadline;
+            ringSize++;
+        }
+
+        private void expire(long now) {
+            while (ringSize > 0 && ringDeadlines[ringHead] - now <= 0) {
+                popRingHead();
+            }
+        }
+
+        private void popRingHead() {
+            int slot = find(ringKeys[ringHead]);
+            // A released ID leaves its ring slot behind; only remove the entry the slot was made for
+            if (slot >= 0 && deadlines[slot] == ringDeadlines[ringHead]) {
+                remove(slot);
+            }
+            ringHead = next(ringHead);
+            ringSize--;
+        }
+
+        private int find(long key) {
+            int slot = home(key);
+            while (values[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        private void remove(int slot) {
+            int hole = slot;
+            int probe = (hole + 1) & mask;
+            while (values[probe] != EMPTY) {
+                int home = home(keys[probe]);
+                // Move the entry back if the hole lies on its probe path
+                if (((probe - home) & mask) >= ((probe - hole) & mask)) {
+                    keys[hole] = keys[probe];
+                    values[hole] = values[probe];
+                    deadlines[hole] = deadlines[probe];
+                    hole = probe;
+                }
+                probe = (probe + 1) & mask;
+            }
+            values[hole] = EMPTY;
+        }
+
+        private int home(long key) {
+            return (int) mix(key) & mask;
+        }
+
+        private int next(int index) {
+            return index + 1 == ringKeys.length ? 0 : index + 1;
+        }
+    }
+}
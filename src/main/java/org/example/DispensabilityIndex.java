@@ -0,0 +1,162 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Bitset of every amount that some combination of the loaded notes adds up
+ * to exactly, so amount checks never have to touch the cassettes.
+ * <p>
+ * Alongside the bitset the index keeps the number of combinations for each
+ * amount, i.e. the coefficients of the product over cassettes of
+ * {@code (1 - x^((n+1)v)) / (1 - x^v)}. Changing one cassette from n to n'
+ * notes only swaps one factor, which is a strided prefix sum followed by a
+ * strided difference, so updates are linear in the total cash instead of a
+ * fresh subset-sum search. The counts are kept modulo 2^64; while the
+ * number of combinations fits in a long they are exact, beyond that the
+ * bitset is rebuilt with word-parallel shift-or instead.
+ */
+public class DispensabilityIndex {
+    private final int[] denominations;
+    private final int[] counts;
+    private long[] ways;
+    private long[] bits;
+    private int total;
+    private double log2Combinations;
+
+    public DispensabilityIndex(int[] denominations, int[] counts) {
+        this.denominations = denominations.clone();
+        this.counts = new int[denominations.length];
+        this.ways = new long[64];
+        this.ways[0] = 1;
+        this.bits = new long[]{1L};
+        for (int slot = 0; slot < counts.length; slot++) {
+            update(slot, counts[slot]);
+        }
+    }
+
+    public void update(int slot, int newCount) {
+        int oldCount = counts[slot];
+        if (newCount == oldCount) {
+            return;
+        }
+        int value = denominations[slot];
+        int newTotal = total + (newCount - oldCount) * value;
+        int length = newTotal + 1;
+        if (length > ways.length) {
+            ways = Arrays.copyOf(ways, Math.max(length, ways.length * 2));
+        } else if (newTotal < total) {
+            Arrays.fill(ways, length, total + 1, 0L);
+        }
+
+        // Divide by (1 - x^((oldCount + 1) * value)), then multiply by (1 - x^((newCount + 1) * value))
+        long stride = (long) (oldCount + 1) * value;
+        for (long amount = stride; amount < length; amount++) {
+            ways[(int) amount] += ways[(int) (amount - stride)];
+        }
+        stride = (long) (newCount + 1) * value;
+        for (long amount = length - 1; amount >= stride; amount--) {
+            ways[(int) amount] -= ways[(int) (amount - stride)];
+        }
+
+        log2Combinations += log2(newCount + 1) - log2(oldCount + 1);
+        counts[slot] = newCount;
+        total = newTotal;
+        rebuildBits();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean canDispense(int amount) {
+        return amount >= 0 && amount <= total
+                && (bits[amount >>> 6] & (1L << amount)) != 0;
+    }
+
+    /**
+     * Largest dispensable amount not above the given one, or -1.
+     */
+    public int nearestBelow(int amount) {
+        if (amount < 0) {
+            return -1;
+        }
+        int bit = Math.min(amount, total);
+        int word = bit >>> 6;
+        long masked = bits[word] & (-1L >>> (63 - (bit & 63)));
+        while (masked == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            masked = bits[word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(masked);
+    }
+
+    /**
+     * Smallest dispensable amount not below the given one, or -1.
+     */
+    public int nearestAbove(int amount) {
+        int bit = Math.max(amount, 0);
+        if (bit > total) {
+            return -1;
+        }
+        int word = bit >>> 6;
+        int lastWord = total >>> 6;
+        long masked = bits[word] & (-1L << bit);
+        while (masked == 0) {
+            if (++word > lastWord) {
+                return -1;
+            }
+            masked = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(masked);
+    }
+
+    private void rebuildBits() {
+        int wordCount = (total >>> 6) + 1;
+        if (bits.length < wordCount || bits.length > 2 * wordCount) {
+            bits = new long[wordCount];
+        } else {
+            Arrays.fill(bits, 0L);
+        }
+        if (log2Combinations < 63) {
+            for (int amount = 0; amount <= total; amount++) {
+                if (ways[amount] != 0) {
+                    bits[amount >>> 6] |= 1L << amount;
+                }
+            }
+            return;
+        }
+        bits[0] = 1L;
+        for (int slot = 0; slot < counts.length; slot++) {
+            // Binary splitting: n notes become shifts by 1, 2, 4, ... notes
+            int remaining = counts[slot];
+            for (int chunk = 1; remaining > 0; chunk <<= 1) {
+                int take = Math.min(chunk, remaining);
+                orShifted(take * denominations[slot]);
+                remaining -= take;
+            }
+        }
+        int tailBits = (total & 63) + 1;
+        if (tailBits < 64) {
+            bits[total >>> 6] &= (1L << tailBits) - 1;
+        }
+    }
+
+    private void orShifted(int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int word = bits.length - 1; word >= wordShift; word--) {
+            int source = word - wordShift;
+            long shifted = bits[source] << bitShift;
+            if (bitShift != 0 && source > 0) {
+                shifted |= bits[source - 1] >>> (64 - bitShift);
+            }
+            bits[word] |= shifted;
+        }
+    }
+
+    private static double log2(int value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example;
+
+/**
+ * Strategy for choosing which notes to dispense for a withdrawal.
+ * A policy is compiled against the current cassette counts into a
+ * {@link DispenseTable}, which the inventory keeps across dispenses
+ * for as long as the table says it is current.
+ */
+public interface DispensePolicy {
+    String getPolicyName();
+    DispenseTable compile(int[] denominations, int[] counts);
+}
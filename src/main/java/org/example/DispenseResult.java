@@ -0,0 +1,38 @@
+package org.example;
+
+// Notes a dispenser was asked for and the notes it actually presented, per cassette slot
+public final class DispenseResult {
+    private final int[] requested;
+    private final int[] presented;
+
+    public DispenseResult(int[] requested, int[] presented) {
+        this.requested = requested.clone();
+        this.presented = presented.clone();
+    }
+
+    public boolean isComplete() {
+        for (int slot = 0; slot < requested.length; slot++) {
+            if (presented[slot] != requested[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getRequested(int slot) {
+        return requested[slot];
+    }
+
+    public int getPresented(int slot) {
+        return presented[slot];
+    }
+
+    // Notes that stayed in the device and went to the reject bin
+    public int getRejected(int slot) {
+        return requested[slot] - presented[slot];
+    }
+
+    public int getSlotCount() {
+        return requested.length;
+    }
+}
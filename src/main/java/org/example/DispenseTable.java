@@ -0,0 +1,22 @@
+package org.example;
+
+/**
+ * Precomputed note combinations for the cassette counts a policy was
+ * compiled against.
+ */
+public interface DispenseTable {
+    /**
+     * Returns the number of notes to take from each cassette slot,
+     * or null if the amount cannot be dispensed by this policy.
+     */
+    int[] lookup(int amount);
+
+    /**
+     * Whether the table may keep serving lookups now that the counts have
+     * changed to these. The inventory still recompiles when a lookup needs
+     * notes that are no longer loaded.
+     */
+    default boolean isCurrent(int[] counts) {
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only, in-memory log of ledger events.
+ * <p>
+ * Events live in fixed-size chunks that are never moved, so readers index
+ * straight into published events without locking. Writers claim gap-free
+ * sequence numbers with an atomic increment and store their events
+ * concurrently; only allocating a new chunk takes the lock. The published
+ * size is volatile and advanced in sequence order, each writer waiting for
+ * the ones before it, so it never exposes an event that is not yet stored.
+ */
+public class EventLog {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private volatile LedgerEvent[][] chunks;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long size;
+    private volatile Thread waiter;
+
+    public EventLog() {
+        this.chunks = new LedgerEvent[16][];
+    }
+
+    public long append(LedgerEventType type, String key, int slot, int noteCount, double amount) {
+        long sequence = claimed.getAndIncrement();
+        chunkFor(sequence)[(int) (sequence & (CHUNK_SIZE - 1))] =
+                new LedgerEvent(sequence, System.currentTimeMillis(), type, key, slot, noteCount, amount);
+        // Publish in order; a writer only waits for the few claimed just before it
+        int spins = 0;
+        while (size != sequence) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        size = sequence + 1;
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+        return sequence;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // Only sequences below size() are guaranteed to be visible
+    public LedgerEvent get(long sequence) {
+        return chunks[(int) (sequence >>> CHUNK_BITS)][(int) (sequence & (CHUNK_SIZE - 1))];
+    }
+
+    private LedgerEvent[] chunkFor(long sequence) {
+        int chunk = (int) (sequence >>> CHUNK_BITS);
+        LedgerEvent[][] current = chunks;
+        if (chunk < current.length && current[chunk] != null) {
+            return current[chunk];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (chunk >= current.length) {
+                LedgerEvent[][] grown = new LedgerEvent[Math.max(current.length * 2, chunk + 1)][];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new LedgerEvent[CHUNK_SIZE];
+            }
+            // Republish so readers of chunks see the new chunk
+            chunks = current;
+            return current[chunk];
+        }
+    }
+
+    // Parks the calling thread until the log grows past the given size or the timeout passes
+    void awaitGrowth(long knownSize, long timeoutNanos) {
+        waiter = Thread.currentThread();
+        if (size == knownSize) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        waiter = null;
+    }
+}
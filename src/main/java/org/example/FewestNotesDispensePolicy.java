@@ -0,0 +1,22 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Dispenses the exact amount with as few notes as possible. Unlike greedy
+ * it still finds a combination when large notes would overshoot.
+ */
+public class FewestNotesDispensePolicy extends WeightedDispensePolicy {
+
+    @Override
+    public String getPolicyName() {
+        return "FewestNotes";
+    }
+
+    @Override
+    protected long[] noteCosts(int[] denominations, int[] counts) {
+        long[] costs = new long[denominations.length];
+        Arrays.fill(costs, 1);
+        return costs;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference {@link AccountRepository} backed by a text file with one
+ * {@code accountNumber,balance} line per account. Every save rewrites the
+ * file through a temporary file so a crash never leaves it half-written.
+ */
+public class FileAccountRepository implements AccountRepository {
+    private final Path file;
+    private final Map<String, Double> balances = new HashMap<>();
+
+    public FileAccountRepository(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0) {
+                    throw new IllegalArgumentException("Malformed account line: " + line);
+                }
+                balances.put(line.substring(0, comma).trim(), Double.parseDouble(line.substring(comma + 1).trim()));
+            }
+        }
+    }
+
+    @Override
+    public synchronized Account load(String accountNumber) {
+        Double balance = balances.get(accountNumber);
+        return balance == null ? null : new Account(accountNumber, balance);
+    }
+
+    @Override
+    public synchronized void saveBalances(Map<String, Double> updates) {
+        balances.putAll(updates);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Double> entry : balances.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(',');
+                writer.write(Double.toString(entry.getValue()));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized int size() {
+        return balances.size();
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Cash held across a fleet of terminals, built from one
+ * {@link InventorySnapshot} per terminal.
+ * <p>
+ * Each terminal's figures are internally consistent: its note counts and
+ * total come from the same version of its inventory. Snapshots are read
+ * and aggregated in parallel without locking, so dispensing carries on
+ * while the report is built. Terminals are indexed by their position in
+ * the list the report was built from.
+ */
+public class FleetCashReport {
+    private final InventorySnapshot[] snapshots;
+    private final long totalCash;
+    private final Map<String, Long> cashByCurrency;
+    private final Map<CashType, Long> notesByType;
+
+    private FleetCashReport(InventorySnapshot[] snapshots, Totals totals) {
+        this.snapshots = snapshots;
+        this.totalCash = totals.totalCash;
+        this.cashByCurrency = new HashMap<>();
+        this.notesByType = new HashMap<>();
+        for (int i = 0; i < totals.typeCount; i++) {
+            CashType cashType = totals.types[i];
+            cashByCurrency.merge(cashType.currency, cashType.value * totals.notes[i], Long::sum);
+            notesByType.put(cashType, totals.notes[i]);
+        }
+    }
+
+    public static FleetCashReport of(List<ATMInventory> fleet) {
+        InventorySnapshot[] snapshots = new InventorySnapshot[fleet.size()];
+        Totals totals = IntStream.range(0, snapshots.length)
+                .parallel()
+                .collect(Totals::new, (partial, terminal) -> {
+                    InventorySnapshot snapshot = fleet.get(terminal).snapshot();
+                    snapshots[terminal] = snapshot;
+                    partial.add(snapshot);
+                }, Totals::merge);
+        return new FleetCashReport(snapshots, totals);
+    }
+
+    public int getTerminalCount() {
+        return snapshots.length;
+    }
+
+    public InventorySnapshot getSnapshot(int terminal) {
+        return snapshots[terminal];
+    }
+
+    // Sum of note values across currencies, as ATMInventory.getTotalCash() counts them
+    public long getTotalCash() {
+        return totalCash;
+    }
+
+    public long getTotalCash(String currency) {
+        return cashByCurrency.getOrDefault(currency, 0L);
+    }
+
+    public long getNoteCount(CashType cashType) {
+        return notesByType.getOrDefault(cashType, 0L);
+    }
+
+    // Running sums for one parallel partition; fleets hold few note types, so they are found by a linear scan
+    private static final class Totals {
+        long totalCash;
+        CashType[] types = new CashType[8];
+        long[] notes = new long[8];
+        int typeCount;
+
+        void add(InventorySnapshot snapshot) {
+            totalCash += snapshot.getTotalCash();
+            for (int slot = 0; slot < snapshot.getSlotCount(); slot++) {
+                notes[indexOf(snapshot.getCashType(slot))] += snapshot.getCount(slot);
+            }
+        }
+
+        void merge(Totals other) {
+            totalCash += other.totalCash;
+            for (int i = 0; i < other.typeCount; i++) {
+                notes[indexOf(other.types[i])] += other.notes[i];
+            }
+        }
+
+        private int indexOf(CashType cashType) {
+            for (int i = 0; i < typeCount; i++) {
+                if (types[i].equals(cashType)) {
+                    return i;
+                }
+            }
+            if (typeCount == types.length) {
+                types = Arrays.copyOf(types, typeCount * 2);
+                notes = Arrays.copyOf(notes, typeCount * 2);
+            }
+            types[typeCount] = cashType;
+            return typeCount++;
+        }
+    }
+}
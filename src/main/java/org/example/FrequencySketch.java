@@ -0,0 +1,67 @@
+package org.example;
+
+/**
+ * Count-min sketch of 4-bit counters used to estimate how often a key has
+ * been seen recently. Four counters per key live in four rows of one
+ * {@code long[]}; once the number of increments reaches the sample size,
+ * every counter is halved so old popularity fades.
+ */
+public class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int rowLongs;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(int capacity) {
+        int counters = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+        this.rowLongs = counters >>> 4;
+        this.counterMask = counters - 1;
+        this.table = new long[rowLongs * SEEDS.length];
+        this.sampleSize = 10 * Math.max(16, capacity);
+    }
+
+    public int frequency(int keyHash) {
+        int min = 15;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = counterIndex(keyHash, row);
+            long word = table[row * rowLongs + (counter >>> 4)];
+            min = Math.min(min, (int) ((word >>> ((counter & 15) << 2)) & 0xF));
+        }
+        return min;
+    }
+
+    public void increment(int keyHash) {
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int counter = counterIndex(keyHash, row);
+            int index = row * rowLongs + (counter >>> 4);
+            int shift = (counter & 15) << 2;
+            if (((table[index] >>> shift) & 0xF) != 0xF) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counterIndex(int keyHash, int row) {
+        long h = (keyHash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 32;
+        return (int) h & counterMask;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Largest notes first. This is the original dispensing behaviour and
+ * needs no precomputation beyond a snapshot of the counts.
+ */
+public class GreedyDispensePolicy implements DispensePolicy {
+
+    @Override
+    public String getPolicyName() {
+        return "Greedy";
+    }
+
+    @Override
+    public DispenseTable compile(int[] denominations, int[] counts) {
+        int[] snapshot = counts.clone();
+        return new DispenseTable() {
+            @Override
+            public int[] lookup(int amount) {
+                if (amount < 0) {
+                    return null;
+                }
+                int[] notes = new int[denominations.length];
+                int remainingAmount = amount;
+                for (int slot = 0; slot < denominations.length; slot++) {
+                    int count = Math.min(remainingAmount / denominations[slot], snapshot[slot]);
+                    notes[slot] = count;
+                    remainingAmount -= count * denominations[slot];
+                }
+                return remainingAmount == 0 ? notes : null;
+            }
+
+            // Compiling is only a copy, so stay exact rather than reuse
+            @Override
+            public boolean isCurrent(int[] counts) {
+                return Arrays.equals(snapshot, counts);
+            }
+        };
+    }
+}
@@ -28,15 +28,8 @@ public class HasCardState implements ATMState {
 
     @Override
     public void enterPin(ATMMachineContext context, int pin) {
-        Card currentCard = context.getCurrentCard();
-        if (currentCard.validatePin(pin)) {
-            System.out.println("PIN authenticated successfully");
-            context.setCurrentAccount(
-                context.getAccount(currentCard.getAccountNumber())
-            );
+        if (StateActions.enterPin(context, pin)) {
             context.advanceState();
-        } else {
-            System.out.println("Invalid PIN. Please try again");
         }
     }
 
@@ -52,13 +45,11 @@ public class HasCardState implements ATMState {
 
     @Override
     public void returnCard(ATMMachineContext context) {
-        System.out.println("Card returned to customer");
-        context.resetATM();
+        StateActions.returnCard(context);
     }
 
     @Override
     public void cancelTransaction(ATMMachineContext context) {
-        System.out.println("Operation cancelled");
-        returnCard(context);
+        StateActions.cancel(context, "Operation cancelled");
     }
 }
\ No newline at end of file
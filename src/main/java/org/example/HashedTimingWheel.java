@@ -0,0 +1,223 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel for very large numbers of coarse timeouts.
+ * <p>
+ * Time is cut into ticks and a timeout is hashed into the bucket of its
+ * deadline tick, with a round counter for deadlines more than one wheel
+ * revolution away. Scheduling and cancelling are O(1) and allocate a single
+ * node; only the bucket under the current tick is ever scanned. Any thread
+ * may schedule or cancel, while {@link #advanceTo(long)} is driven by one
+ * thread, either the one started by {@link #start()} or the caller's.
+ */
+public class HashedTimingWheel implements AutoCloseable {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final Mailbox<Timeout> scheduledTimeouts;
+    private final Mailbox<Timeout> cancelledTimeouts;
+    private long currentTick;
+    private volatile Thread driver;
+
+    public HashedTimingWheel(long tickNanos, int wheelSize) {
+        this(tickNanos, wheelSize, System::nanoTime);
+    }
+
+    public HashedTimingWheel(long tickNanos, int wheelSize, LongSupplier clock) {
+        if (tickNanos <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickNanos and wheelSize must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        size = Math.max(size, 1);
+        this.tickNanos = tickNanos;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        this.scheduledTimeouts = new Mailbox<>();
+        this.cancelledTimeouts = new Mailbox<>();
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    public Timeout schedule(long delayNanos, Runnable task) {
+        Timeout timeout = new Timeout(this, now() + Math.max(delayNanos, 0), task);
+        scheduledTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Fires every timeout whose deadline tick has passed. Must only be
+     * called from one thread at a time.
+     */
+    public void advanceTo(long nowNanos) {
+        long targetTick = (nowNanos - startNanos) / tickNanos;
+        while (currentTick <= targetTick) {
+            transferScheduled();
+            removeCancelled();
+            wheel[(int) (currentTick & mask)].expire();
+            currentTick++;
+        }
+    }
+
+    // Drives the wheel from a daemon thread that wakes once per tick
+    public synchronized void start() {
+        if (driver != null) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            while (driver == Thread.currentThread()) {
+                advanceTo(now());
+                LockSupport.parkNanos(tickNanos);
+            }
+        }, "atm-timing-wheel");
+        thread.setDaemon(true);
+        driver = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        Thread thread = driver;
+        driver = null;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduledTimeouts.poll()) != null) {
+            if (timeout.state != PENDING) {
+                continue;
+            }
+            long deadlineTick = (timeout.deadline - startNanos + tickNanos - 1) / tickNanos;
+            timeout.remainingRounds = (deadlineTick - currentTick) >> Integer.numberOfTrailingZeros(wheel.length);
+            long tick = Math.max(deadlineTick, currentTick);
+            wheel[(int) (tick & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimingWheel owner;
+        private final long deadline;
+        private final Runnable task;
+        private volatile int state;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(HashedTimingWheel owner, long deadline, Runnable task) {
+            this.owner = owner;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        // Returns false if the timeout already fired or was cancelled
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            owner.cancelledTimeouts.offer(this);
+            return true;
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (Timeout.STATE.compareAndSet(timeout, PENDING, EXPIRED)) {
+                        try {
+                            timeout.task.run();
+                        } catch (RuntimeException e) {
+                            System.out.println("Timeout task failed: " + e.getMessage());
+                        }
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
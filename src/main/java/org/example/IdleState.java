@@ -20,8 +20,7 @@ public class IdleState implements ATMState {
 
     @Override
     public void insertCard(ATMMachineContext context, Card card) {
-        System.out.println("Card inserted");
-        context.setCurrentCard(card);
+        StateActions.insertCard(context, card);
         context.advanceState();
     }
 
@@ -0,0 +1,46 @@
+package org.example;
+
+/**
+ * Immutable view of one inventory's cassettes at a single version. The
+ * counts and total always describe the same moment, however busy the
+ * terminal is.
+ */
+public final class InventorySnapshot {
+    private final long version;
+    private final CashType[] cashTypes;
+    private final int[] counts;
+    private final long totalCash;
+
+    // cashTypes is shared with the inventory and never modified; counts must be a private copy
+    InventorySnapshot(long version, CashType[] cashTypes, int[] counts) {
+        this.version = version;
+        this.cashTypes = cashTypes;
+        this.counts = counts;
+        long total = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            total += (long) cashTypes[slot].value * counts[slot];
+        }
+        this.totalCash = total;
+    }
+
+    // Number of changes the inventory had seen when the snapshot was taken
+    public long getVersion() {
+        return version;
+    }
+
+    public int getSlotCount() {
+        return counts.length;
+    }
+
+    public CashType getCashType(int slot) {
+        return cashTypes[slot];
+    }
+
+    public int getCount(int slot) {
+        return counts[slot];
+    }
+
+    public long getTotalCash() {
+        return totalCash;
+    }
+}
@@ -0,0 +1,207 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Event-sourced ledger for accounts and cassettes.
+ * <p>
+ * Commands append immutable events to the {@link EventLog}; a single
+ * consumer thread folds them into the {@link BalanceProjection} and
+ * {@link CassetteProjection} read models. Queries read the projections,
+ * optionally waiting until a given sequence has been applied so a writer
+ * always observes its own writes.
+ */
+public class Ledger implements AutoCloseable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final EventLog log;
+    private final BalanceProjection balances;
+    private final CassetteProjection cassettes;
+    private final Thread consumer;
+
+    private volatile long appliedSequence;
+    private volatile boolean running = true;
+
+    public Ledger() {
+        this(new EventLog(), 1);
+    }
+
+    // Rebuilds the projections from an existing log before consuming new events
+    public Ledger(EventLog log, int replayPartitions) {
+        this.log = log;
+        this.balances = new BalanceProjection();
+        this.cassettes = new CassetteProjection();
+        this.appliedSequence = replay(log, log.size(), replayPartitions, balances, cassettes);
+        this.consumer = new Thread(this::consume, "ledger-projector");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    public long recordAccountOpened(String accountNumber, double balance) {
+        return log.append(LedgerEventType.ACCOUNT_OPENED, accountNumber, 0, 0, balance);
+    }
+
+    public long recordDebit(String accountNumber, double amount) {
+        return log.append(LedgerEventType.ACCOUNT_DEBITED, accountNumber, 0, 0, amount);
+    }
+
+    public long recordCredit(String accountNumber, double amount) {
+        return log.append(LedgerEventType.ACCOUNT_CREDITED, accountNumber, 0, 0, amount);
+    }
+
+    public long recordCashLoaded(String terminalId, int slot, int noteCount, int denomination) {
+        return log.append(LedgerEventType.CASH_LOADED, terminalId, slot, noteCount, (double) noteCount * denomination);
+    }
+
+    public long recordCashDispensed(String terminalId, int slot, int noteCount, int denomination) {
+        return log.append(LedgerEventType.CASH_DISPENSED, terminalId, slot, noteCount, (double) noteCount * denomination);
+    }
+
+    public double getBalance(String accountNumber) {
+        return balances.getBalance(accountNumber);
+    }
+
+    // Read-your-writes: waits until the projection includes the given sequence
+    public double getBalance(String accountNumber, long sequence) {
+        awaitApplied(sequence);
+        return balances.getBalance(accountNumber);
+    }
+
+    public long getTotalCash(String terminalId) {
+        return cassettes.getTotalCash(terminalId);
+    }
+
+    public long getTotalCash(String terminalId, long sequence) {
+        awaitApplied(sequence);
+        return cassettes.getTotalCash(terminalId);
+    }
+
+    public int getCassetteCount(String terminalId, int slot, long sequence) {
+        awaitApplied(sequence);
+        return cassettes.getCount(terminalId, slot);
+    }
+
+    public EventLog getEventLog() {
+        return log;
+    }
+
+    public BalanceProjection getBalanceProjection() {
+        return balances;
+    }
+
+    public CassetteProjection getCassetteProjection() {
+        return cassettes;
+    }
+
+    // Number of events folded into the projections so far
+    public long getAppliedCount() {
+        return appliedSequence;
+    }
+
+    public void awaitApplied(long sequence) {
+        int spins = 0;
+        while (appliedSequence <= sequence) {
+            if (!running) {
+                throw new IllegalStateException("Ledger is closed");
+            }
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Folds events [0, upTo) into the given projections using one worker per
+     * partition. Each key hashes to exactly one partition, so events for a key
+     * are applied in log order by a single thread and the result matches a
+     * sequential replay.
+     * <p>
+     * The log is split once with a counting sort: each range of the log is
+     * hashed in parallel, and the sequences are then laid out partition by
+     * partition in log order, so every partition reads only its own events.
+     */
+    public static long replay(EventLog log, long upTo, int partitions,
+                              BalanceProjection balances, CassetteProjection cassettes) {
+        if (partitions <= 1) {
+            for (long sequence = 0; sequence < upTo; sequence++) {
+                LedgerEvent event = log.get(sequence);
+                balances.apply(event);
+                cassettes.apply(event);
+            }
+            return upTo;
+        }
+        int events = Math.toIntExact(upTo);
+        int ranges = partitions;
+        int rangeSize = (events + ranges - 1) / ranges;
+        int[] partitionOf = new int[events];
+        int[][] counts = new int[ranges][partitions];
+        IntStream.range(0, ranges).parallel().forEach(range -> {
+            int end = Math.min(events, (range + 1) * rangeSize);
+            for (int sequence = range * rangeSize; sequence < end; sequence++) {
+                int partition = Math.floorMod(log.get(sequence).getKey().hashCode(), partitions);
+                partitionOf[sequence] = partition;
+                counts[range][partition]++;
+            }
+        });
+        // Where each range's events of each partition start, partition-major
+        int[][] offsets = new int[ranges][partitions];
+        int[] partitionStart = new int[partitions + 1];
+        int offset = 0;
+        for (int partition = 0; partition < partitions; partition++) {
+            partitionStart[partition] = offset;
+            for (int range = 0; range < ranges; range++) {
+                offsets[range][partition] = offset;
+                offset += counts[range][partition];
+            }
+        }
+        partitionStart[partitions] = offset;
+        int[] order = new int[events];
+        IntStream.range(0, ranges).parallel().forEach(range -> {
+            int[] next = offsets[range];
+            int end = Math.min(events, (range + 1) * rangeSize);
+            for (int sequence = range * rangeSize; sequence < end; sequence++) {
+                order[next[partitionOf[sequence]]++] = sequence;
+            }
+        });
+        IntStream.range(0, partitions).parallel().forEach(partition -> {
+            for (int i = partitionStart[partition]; i < partitionStart[partition + 1]; i++) {
+                LedgerEvent event = log.get(order[i]);
+                balances.apply(event);
+                cassettes.apply(event);
+            }
+        });
+        return upTo;
+    }
+
+    private void consume() {
+        long next = appliedSequence;
+        while (running) {
+            long size = log.size();
+            if (next == size) {
+                log.awaitGrowth(size, IDLE_PARK_NANOS);
+                continue;
+            }
+            for (; next < size; next++) {
+                LedgerEvent event = log.get(next);
+                balances.apply(event);
+                cassettes.apply(event);
+            }
+            appliedSequence = next;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+/**
+ * One immutable entry in the {@link EventLog}. Account events are keyed
+ * by account number; cash events by terminal ID and cassette slot.
+ */
+public final class LedgerEvent {
+    private final long sequence;
+    private final long timestamp;
+    private final LedgerEventType type;
+    private final String key;
+    private final int slot;
+    private final int noteCount;
+    private final double amount;
+
+    LedgerEvent(long sequence, long timestamp, LedgerEventType type,
+                String key, int slot, int noteCount, double amount) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.key = key;
+        this.slot = slot;
+        this.noteCount = noteCount;
+        this.amount = amount;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public LedgerEventType getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public int getNoteCount() {
+        return noteCount;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + key
+                + (noteCount != 0 ? " slot " + slot + " x" + noteCount : "") + " " + amount;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example;
+
+public enum LedgerEventType {
+    ACCOUNT_OPENED,
+    ACCOUNT_DEBITED,
+    ACCOUNT_CREDITED,
+    CASH_LOADED,
+    CASH_DISPENSED
+}
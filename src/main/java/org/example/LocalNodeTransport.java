@@ -0,0 +1,23 @@
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-process transport that hands batches straight to the target node.
+ */
+public class LocalNodeTransport implements NodeTransport {
+    private final AccountNode node;
+
+    public LocalNodeTransport(AccountNode node) {
+        this.node = node;
+    }
+
+    @Override
+    public CompletableFuture<AccountReply[]> send(AccountRequest[] batch) {
+        return CompletableFuture.completedFuture(node.execute(batch));
+    }
+
+    @Override
+    public void close() {
+    }
+}
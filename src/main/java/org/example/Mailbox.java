@@ -0,0 +1,54 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unbounded lock-free multi-producer single-consumer queue.
+ * <p>
+ * Producers swap themselves in as the new tail with one atomic exchange and
+ * then link the previous tail to their node; the single consumer follows the
+ * links from a stub head without any atomic read-modify-write.
+ */
+public class Mailbox<T> {
+    private static class Node<T> {
+        T item;
+        volatile Node<T> next;
+
+        Node(T item) {
+            this.item = item;
+        }
+    }
+
+    private final AtomicReference<Node<T>> tail;
+    private Node<T> head;
+
+    public Mailbox() {
+        Node<T> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    // Safe to call from any thread
+    public void offer(T item) {
+        Node<T> node = new Node<>(item);
+        Node<T> previous = tail.getAndSet(node);
+        previous.next = node;
+    }
+
+    // Consumer thread only; may briefly return null while a producer is mid-offer
+    public T poll() {
+        Node<T> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        T item = next.item;
+        next.item = null;
+        head = next;
+        return item;
+    }
+
+    // Counts an offer that is still linking its node as not empty
+    public boolean isEmpty() {
+        return head == tail.get();
+    }
+}
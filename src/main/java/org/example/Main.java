@@ -1,8 +1,17 @@
 package org.example;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
 public class Main {
-    public static void main(String[] args) {
-        ATMMachineContext atm = new ATMMachineContext();
+    // -Datm.startupTiming=true prints the time from JVM start to the first completed withdrawal
+    public static final String STARTUP_TIMING_PROPERTY = "atm.startupTiming";
+
+    public static void main(String[] args) throws IOException {
+        CassetteConfiguration cassettes = CassetteConfiguration.fromStartup();
+        System.out.println("Loaded " + cassettes.getCassetteCount() + " "
+                + cassettes.getCurrency() + " cassettes");
+        ATMMachineContext atm = new ATMMachineContext(cassettes);
 
         atm.addAccount(new Account("123456", 1000.0));
         atm.addAccount(new Account("654321", 500.0));
@@ -16,6 +25,12 @@ public class Main {
             atm.selectOperation(TransactionType.WITHDRAW_CASH);
 
             atm.performTransaction(100.0);
+            // Only when measuring startup; the management classes would otherwise load on every start
+            if (Boolean.getBoolean(STARTUP_TIMING_PROPERTY)) {
+                long firstTransactionMillis = System.currentTimeMillis();
+                System.out.println("Time to first transaction: "
+                        + (firstTransactionMillis - ManagementFactory.getRuntimeMXBean().getStartTime()) + " ms");
+            }
 
             atm.selectOperation(TransactionType.CHECK_BALANCE);
 
@@ -0,0 +1,15 @@
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carries batches of account commands to one remote {@link AccountNode}.
+ * Implementations may have several batches in flight at once; replies
+ * complete in the order the batches were sent.
+ */
+public interface NodeTransport extends AutoCloseable {
+    CompletableFuture<AccountReply[]> send(AccountRequest[] batch);
+
+    @Override
+    void close();
+}
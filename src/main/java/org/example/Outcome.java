@@ -0,0 +1,118 @@
+package org.example;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Structured result of one terminal command: the response code, the state
+ * the terminal ended in and, for transactions, the notes this command
+ * dispensed and the account balance afterwards.
+ */
+public final class Outcome {
+    private static final int[] NO_NOTES = new int[0];
+
+    private final ResponseCode responseCode;
+    private final ATMStateId state;
+    private final int[] dispensedNotes;
+    private final int dispensedAmount;
+    private final double balance;
+
+    private Outcome(ResponseCode responseCode, ATMStateId state, int[] dispensedNotes, int dispensedAmount,
+                    double balance) {
+        this.responseCode = responseCode;
+        this.state = state;
+        this.dispensedNotes = dispensedNotes;
+        this.dispensedAmount = dispensedAmount;
+        this.balance = balance;
+    }
+
+    static Outcome of(ATMMachineContext context) {
+        return new Outcome(context.getLastResponseCode(), stateOf(context), NO_NOTES, 0, Double.NaN);
+    }
+
+    /**
+     * Runs a command on the context and returns what builds its outcome.
+     * Call the supplier once any withdrawal the command left at the device
+     * has finished; transactions also report the notes they dispensed and
+     * the balance afterwards.
+     */
+    static Supplier<Outcome> run(ATMMachineContext context, Consumer<ATMMachineContext> command,
+                                 boolean transaction) {
+        if (!transaction) {
+            command.accept(context);
+            return () -> of(context);
+        }
+        int[] countsBefore = cassetteCounts(context.getATMInventory());
+        command.accept(context);
+        return () -> ofTransaction(context, countsBefore);
+    }
+
+    // countsBefore holds the cassette counts taken just before the transaction ran
+    private static Outcome ofTransaction(ATMMachineContext context, int[] countsBefore) {
+        ATMInventory inventory = context.getATMInventory();
+        // A device may reject notes it took from the cassettes, so its result says what was paid out
+        int[] presented = context.getDispensedNotes();
+        int[] notes = new int[countsBefore.length];
+        for (int slot = 0; slot < notes.length; slot++) {
+            notes[slot] = presented != null ? presented[slot] : countsBefore[slot] - inventory.getCount(slot);
+        }
+        int amount = amountOf(inventory, notes);
+        Account account = context.getCurrentAccount();
+        return new Outcome(context.getLastResponseCode(), stateOf(context), notes, amount,
+                account == null ? Double.NaN : account.getBalance());
+    }
+
+    // Value of notes[slot] notes from each cassette slot
+    static int amountOf(ATMInventory inventory, int[] notes) {
+        int amount = 0;
+        for (int slot = 0; slot < notes.length; slot++) {
+            amount += notes[slot] * inventory.getCashType(slot).value;
+        }
+        return amount;
+    }
+
+    private static int[] cassetteCounts(ATMInventory inventory) {
+        int[] counts = new int[inventory.getConfiguration().getCassetteCount()];
+        for (int slot = 0; slot < counts.length; slot++) {
+            counts[slot] = inventory.getCount(slot);
+        }
+        return counts;
+    }
+
+    private static ATMStateId stateOf(ATMMachineContext context) {
+        return ATMStateId.fromStateName(context.getCurrentState().getStateName());
+    }
+
+    public ResponseCode getResponseCode() {
+        return responseCode;
+    }
+
+    public boolean isApproved() {
+        return responseCode == ResponseCode.APPROVED;
+    }
+
+    public ATMStateId getState() {
+        return state;
+    }
+
+    // Notes presented from each cassette slot by this command; empty for commands other than transactions
+    public int[] getDispensedNotes() {
+        return dispensedNotes.clone();
+    }
+
+    public int getDispensedAmount() {
+        return dispensedAmount;
+    }
+
+    // Balance after a transaction, or NaN for other commands and when no account is authenticated
+    public double getBalance() {
+        return balance;
+    }
+
+    @Override
+    public String toString() {
+        return responseCode + " in " + state
+                + (dispensedAmount > 0 ? ", dispensed " + dispensedAmount : "")
+                + (Double.isNaN(balance) ? "" : ", balance " + balance);
+    }
+}
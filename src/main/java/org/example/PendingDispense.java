@@ -0,0 +1,41 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A withdrawal whose notes are still at the device. The thread that owns
+ * the context is not held while the device works: it hands the session
+ * back to its owner once the device is done, and the owner calls
+ * {@link #finish()} on its own thread. Steps added with {@link #then} run
+ * after the transaction has finished, in the order they were added.
+ */
+final class PendingDispense {
+    private final CompletableFuture<DispenseResult> device;
+    private final Consumer<DispenseResult> finish;
+    private final List<Runnable> followUps = new ArrayList<>(2);
+
+    PendingDispense(CompletableFuture<DispenseResult> device, Consumer<DispenseResult> finish) {
+        this.device = device;
+        this.finish = finish;
+    }
+
+    // Runs on whichever thread completes the device, so it should only hand the session back
+    void whenDeviceDone(Runnable callback) {
+        device.whenComplete((result, failure) -> callback.run());
+    }
+
+    void then(Runnable followUp) {
+        followUps.add(followUp);
+    }
+
+    // Call on the context's owning thread once the device is done; a failed device finishes with null
+    void finish() {
+        finish.accept(device.isCompletedExceptionally() ? null : device.join());
+        for (Runnable followUp : followUps) {
+            followUp.run();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+/**
+ * ISO 9564 format 0 PIN blocks packed into a long.
+ * <p>
+ * The PIN field (control nibble 0, PIN length, PIN digits, padded with F)
+ * is XORed with the PAN field (four zero nibbles and the twelve rightmost
+ * PAN digits excluding the check digit). Encryption of the block is left
+ * to the transport. PINs are held as ints, so lengths are limited to 4-9
+ * digits rather than the 12 the format allows.
+ */
+public final class PinBlock {
+    public static final int INVALID_PIN = -1;
+
+    private PinBlock() {}
+
+    public static long encode(int pin, int pinLength, long pan) {
+        if (pinLength < 4 || pinLength > 9) {
+            throw new IllegalArgumentException("PIN length must be between 4 and 9");
+        }
+        long pinField = (long) pinLength << 56;
+        int shift = 52;
+        for (int i = pinLength - 1; i >= 0; i--) {
+            long digit = (pin / pow10(i)) % 10;
+            pinField |= digit << shift;
+            shift -= 4;
+        }
+        while (shift >= 0) {
+            pinField |= 0xFL << shift;
+            shift -= 4;
+        }
+        return pinField ^ panField(pan);
+    }
+
+    // Returns the clear PIN, or INVALID_PIN if the block is malformed
+    public static int decode(long pinBlock, long pan) {
+        long pinField = pinBlock ^ panField(pan);
+        if ((pinField >>> 60) != 0) {
+            return INVALID_PIN;
+        }
+        int pinLength = (int) ((pinField >>> 56) & 0xF);
+        if (pinLength < 4 || pinLength > 9) {
+            return INVALID_PIN;
+        }
+        int pin = 0;
+        int shift = 52;
+        for (int i = 0; i < pinLength; i++) {
+            int digit = (int) ((pinField >>> shift) & 0xF);
+            if (digit > 9) {
+                return INVALID_PIN;
+            }
+            pin = pin * 10 + digit;
+            shift -= 4;
+        }
+        return pin;
+    }
+
+    private static long panField(long pan) {
+        long digits = (pan / 10) % 1_000_000_000_000L;
+        long field = 0;
+        for (int shift = 0; shift < 48; shift += 4) {
+            field |= (digits % 10) << shift;
+            digits /= 10;
+        }
+        return field;
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example;
+
+/**
+ * Keeps small notes for the amounts that need them. Small notes cost the
+ * square of how many of them make up the largest note, so they are only
+ * used when no combination of larger notes is exact.
+ */
+public class PreserveSmallChangeDispensePolicy extends WeightedDispensePolicy {
+
+    @Override
+    public String getPolicyName() {
+        return "PreserveSmallChange";
+    }
+
+    @Override
+    protected long[] noteCosts(int[] denominations, int[] counts) {
+        int largest = 0;
+        for (int denomination : denominations) {
+            largest = Math.max(largest, denomination);
+        }
+        long[] costs = new long[denominations.length];
+        for (int slot = 0; slot < denominations.length; slot++) {
+            long ratio = (largest + denominations[slot] - 1) / denominations[slot];
+            costs[slot] = ratio * ratio;
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,275 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Admission and scheduling in front of many terminals' contexts.
+ * <p>
+ * Commands are queued by {@link CommandPriority} in bounded queues, and
+ * workers always take from the most urgent non-empty queue, so a card
+ * return or cancel overtakes any backlog of PIN checks and withdrawals.
+ * Under overload new sessions are shed first: a card insertion is
+ * rejected when its own small queue is full or once the in-session
+ * backlog reaches its threshold, keeping the capacity for sessions already
+ * in progress and bounding how long an admitted session waits. A rejected
+ * command's future fails with {@link RejectedExecutionException}.
+ * <p>
+ * Commands for one terminal run one at a time in submission order, so a
+ * terminal may pipeline a whole session. A terminal waits in the queue of
+ * its most urgent queued command: a card return submitted behind the
+ * terminal's own PIN check overtakes other terminals' backlog, and runs
+ * as soon as the commands submitted before it have.
+ */
+public class PriorityCommandScheduler implements AutoCloseable {
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    // Terminals with queued commands, by the priority of their most urgent one
+    private final List<ArrayDeque<Lane>> queues;
+    private final Map<ATMMachineContext, Lane> lanes = new HashMap<>();
+    // Commands queued and not yet started, per priority
+    private final int[] depths = new int[PRIORITIES.length];
+    private final int[] capacities;
+    private final int newSessionShedThreshold;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Thread[] workers;
+    private final AtomicLongArray shed = new AtomicLongArray(PRIORITIES.length);
+    private final AtomicLongArray completed = new AtomicLongArray(PRIORITIES.length);
+    private volatile boolean running = true;
+
+    /**
+     * @param capacities              queue bound per priority, in {@link CommandPriority} order
+     * @param newSessionShedThreshold in-session backlog at which card insertions start being rejected;
+     *                                below the in-session capacity, so shedding starts before that queue is full
+     */
+    public PriorityCommandScheduler(int threads, int[] capacities, int newSessionShedThreshold) {
+        if (threads <= 0 || capacities.length != PRIORITIES.length) {
+            throw new IllegalArgumentException("Need at least one thread and one capacity per priority");
+        }
+        if (newSessionShedThreshold <= 0 || newSessionShedThreshold >= capacities[CommandPriority.IN_SESSION.ordinal()]) {
+            throw new IllegalArgumentException("New session shed threshold must be between 1 and the in-session capacity");
+        }
+        this.capacities = capacities.clone();
+        this.newSessionShedThreshold = newSessionShedThreshold;
+        this.queues = new ArrayList<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "atm-priority-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    public CompletableFuture<Outcome> insertCard(ATMMachineContext terminal, Card card) {
+        return submit(terminal, TerminalCommand.INSERT_CARD, context -> context.insertCard(card));
+    }
+
+    public CompletableFuture<Outcome> enterPin(ATMMachineContext terminal, int pin) {
+        return submit(terminal, TerminalCommand.ENTER_PIN, context -> context.enterPin(pin));
+    }
+
+    public CompletableFuture<Outcome> selectOperation(ATMMachineContext terminal, TransactionType type) {
+        return submit(terminal, TerminalCommand.SELECT_OPERATION, context -> context.selectOperation(type));
+    }
+
+    public CompletableFuture<Outcome> performTransaction(ATMMachineContext terminal, double amount) {
+        return submit(terminal, TerminalCommand.PERFORM_TRANSACTION, context -> context.performTransaction(amount));
+    }
+
+    public CompletableFuture<Outcome> returnCard(ATMMachineContext terminal) {
+        return submit(terminal, TerminalCommand.RETURN_CARD, ATMMachineContext::returnCard);
+    }
+
+    public CompletableFuture<Outcome> cancelTransaction(ATMMachineContext terminal) {
+        return submit(terminal, TerminalCommand.CANCEL_TRANSACTION, ATMMachineContext::cancelTransaction);
+    }
+
+    public int getQueueDepth(CommandPriority priority) {
+        lock.lock();
+        try {
+            return depths[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getShedCount(CommandPriority priority) {
+        return shed.get(priority.ordinal());
+    }
+
+    public long getCompletedCount(CommandPriority priority) {
+        return completed.get(priority.ordinal());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private CompletableFuture<Outcome> submit(ATMMachineContext terminal, TerminalCommand command,
+                                              Consumer<ATMMachineContext> action) {
+        CommandPriority priority = CommandPriority.of(command);
+        boolean transaction = command == TerminalCommand.PERFORM_TRANSACTION;
+        CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                Outcome result;
+                synchronized (terminal) {
+                    result = Outcome.run(terminal, action, transaction).get();
+                }
+                completed.incrementAndGet(priority.ordinal());
+                outcome.complete(result);
+            } catch (RuntimeException e) {
+                outcome.completeExceptionally(e);
+            }
+        };
+        String rejection = admit(terminal, priority, task);
+        if (rejection != null) {
+            shed.incrementAndGet(priority.ordinal());
+            outcome.completeExceptionally(new RejectedExecutionException(rejection));
+        }
+        return outcome;
+    }
+
+    // Returns why the task was rejected, or null once it is queued
+    private String admit(ATMMachineContext terminal, CommandPriority priority, Runnable task) {
+        lock.lock();
+        try {
+            if (!running) {
+                return "Scheduler is closed";
+            }
+            if (priority == CommandPriority.NEW_SESSION
+                    && depths[CommandPriority.IN_SESSION.ordinal()] >= newSessionShedThreshold) {
+                return "Shedding new sessions while in-session backlog is high";
+            }
+            if (depths[priority.ordinal()] >= capacities[priority.ordinal()]) {
+                return priority + " queue is full";
+            }
+            Lane lane = lanes.computeIfAbsent(terminal, Lane::new);
+            lane.tasks.addLast(new Task(priority, task));
+            depths[priority.ordinal()]++;
+            if (!lane.running) {
+                queue(lane, priority);
+            }
+            notEmpty.signal();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Lane lane;
+            Task task;
+            lock.lock();
+            try {
+                while ((lane = pollMostUrgent()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                lane.queuedAt = null;
+                lane.running = true;
+                task = lane.tasks.pollFirst();
+                depths[task.priority.ordinal()]--;
+            } finally {
+                lock.unlock();
+            }
+            task.body.run();
+            lock.lock();
+            try {
+                lane.running = false;
+                if (lane.tasks.isEmpty()) {
+                    lanes.remove(lane.terminal);
+                } else {
+                    queue(lane, lane.mostUrgent());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Puts the lane in the priority's queue unless it already waits in one at least as urgent
+    private void queue(Lane lane, CommandPriority priority) {
+        if (lane.queuedAt != null) {
+            if (lane.queuedAt.ordinal() <= priority.ordinal()) {
+                return;
+            }
+            queues.get(lane.queuedAt.ordinal()).remove(lane);
+        }
+        queues.get(priority.ordinal()).addLast(lane);
+        lane.queuedAt = priority;
+    }
+
+    private Lane pollMostUrgent() {
+        for (ArrayDeque<Lane> queue : queues) {
+            Lane lane = queue.pollFirst();
+            if (lane != null) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    private static final class Task {
+        final CommandPriority priority;
+        final Runnable body;
+
+        Task(CommandPriority priority, Runnable body) {
+            this.priority = priority;
+            this.body = body;
+        }
+    }
+
+    // One terminal's queued commands; a running lane sits in no queue, so its commands never overlap
+    private static final class Lane {
+        final ATMMachineContext terminal;
+        final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        CommandPriority queuedAt;
+        boolean running;
+
+        Lane(ATMMachineContext terminal) {
+            this.terminal = terminal;
+        }
+
+        CommandPriority mostUrgent() {
+            CommandPriority most = CommandPriority.NEW_SESSION;
+            for (Task task : tasks) {
+                if (task.priority.ordinal() < most.ordinal()) {
+                    most = task.priority;
+                }
+            }
+            return most;
+        }
+    }
+}
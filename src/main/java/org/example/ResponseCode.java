@@ -0,0 +1,33 @@
+package org.example;
+
+public enum ResponseCode {
+    APPROVED(0),
+    INVALID_PIN(1),
+    INSUFFICIENT_FUNDS(2),
+    INSUFFICIENT_CASH(3),
+    UNDISPENSABLE_AMOUNT(4),
+    INVALID_STATE(5),
+    UNKNOWN_CARD(6),
+    UNKNOWN_ACCOUNT(7),
+    FORMAT_ERROR(8),
+    SYSTEM_ERROR(9),
+    OFFLINE_LIMIT_EXCEEDED(10),
+    PARTIAL_DISPENSE(11),
+    // A retry arrived while the original transaction was still running
+    TRANSACTION_IN_PROGRESS(12);
+
+    private static final ResponseCode[] BY_CODE = values();
+
+    public final int code;
+
+    ResponseCode(int code) {
+        this.code = code;
+    }
+
+    public static ResponseCode fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            return SYSTEM_ERROR;
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,30 @@
+package org.example;
+
+/**
+ * Account view whose state lives on whichever node owns the account.
+ * Lets an {@link ATMMachineContext} on any node serve cards for accounts
+ * it does not own.
+ */
+public class RoutedAccount extends Account {
+    private final AccountRouter router;
+
+    public RoutedAccount(String accountNumber, AccountRouter router) {
+        super(accountNumber, 0.0);
+        this.router = router;
+    }
+
+    @Override
+    public boolean withdraw(double amount) {
+        return router.withdraw(getAccountNumber(), amount).isApproved();
+    }
+
+    @Override
+    public void deposit(double amount) {
+        router.deposit(getAccountNumber(), amount);
+    }
+
+    @Override
+    public double getBalance() {
+        return router.balance(getAccountNumber()).getBalance();
+    }
+}
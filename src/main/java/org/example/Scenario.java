@@ -0,0 +1,301 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A terminal scenario compiled from a small line-based DSL:
+ * <pre>
+ * account ACC001 1500
+ * insert CARD001 1234 ACC001
+ * pin 1234
+ * select withdraw
+ * transact 500
+ * expect-state SelectOperationState
+ * expect-balance ACC001 1000
+ * expect-notes 100 5
+ * expect-code APPROVED
+ * cancel
+ * </pre>
+ * {@code select} takes {@code withdraw} or {@code balance};
+ * {@code expect-notes} checks the notes of one denomination left in the
+ * inventory; {@code return} ejects the card; {@code #} starts a comment.
+ * <p>
+ * Compilation resolves every operand into constant pools and emits a flat
+ * {@code int[]} of fixed-width instructions, so running a scenario is a
+ * single switch loop with no parsing or allocation. A compiled scenario is
+ * immutable and can be run on many contexts from many threads.
+ */
+public final class Scenario {
+    static final int ACCOUNT = 0;
+    static final int INSERT = 1;
+    static final int PIN = 2;
+    static final int SELECT = 3;
+    static final int TRANSACT = 4;
+    static final int CANCEL = 5;
+    static final int RETURN = 6;
+    static final int EXPECT_STATE = 7;
+    static final int EXPECT_BALANCE = 8;
+    static final int EXPECT_NOTES = 9;
+    static final int EXPECT_CODE = 10;
+
+    // Opcode and two operands per instruction
+    static final int WIDTH = 3;
+    private static final double BALANCE_TOLERANCE = 1e-9;
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+    private static final ResponseCode[] RESPONSE_CODES = ResponseCode.values();
+
+    private final int[] code;
+    private final int[] lines;
+    private final String[] strings;
+    private final double[] numbers;
+    private final Card[] cards;
+
+    private Scenario(int[] code, int[] lines, String[] strings, double[] numbers, Card[] cards) {
+        this.code = code;
+        this.lines = lines;
+        this.strings = strings;
+        this.numbers = numbers;
+        this.cards = cards;
+    }
+
+    public static Scenario compile(String source) {
+        Compiler compiler = new Compiler();
+        String[] sourceLines = source.split("\n");
+        for (int i = 0; i < sourceLines.length; i++) {
+            compiler.compileLine(sourceLines[i], i + 1);
+        }
+        return compiler.build();
+    }
+
+    public int getStepCount() {
+        return lines.length;
+    }
+
+    public ScenarioResult run(ATMMachineContext context) {
+        final int[] code = this.code;
+        for (int pc = 0; pc < code.length; pc += WIDTH) {
+            int a = code[pc + 1];
+            int b = code[pc + 2];
+            switch (code[pc]) {
+                case ACCOUNT:
+                    context.addAccount(new Account(strings[a], numbers[b]));
+                    break;
+                case INSERT:
+                    context.insertCard(cards[a]);
+                    break;
+                case PIN:
+                    context.enterPin(a);
+                    break;
+                case SELECT:
+                    context.selectOperation(TRANSACTION_TYPES[a]);
+                    break;
+                case TRANSACT:
+                    context.performTransaction(numbers[a]);
+                    break;
+                case CANCEL:
+                    context.cancelTransaction();
+                    break;
+                case RETURN:
+                    context.returnCard();
+                    break;
+                case EXPECT_STATE: {
+                    String state = context.getCurrentState().getStateName();
+                    if (!state.equals(strings[a])) {
+                        return fail(pc, "expected state " + strings[a] + " but was " + state);
+                    }
+                    break;
+                }
+                case EXPECT_BALANCE: {
+                    Account account = context.getAccount(strings[a]);
+                    if (account == null) {
+                        return fail(pc, "unknown account " + strings[a]);
+                    }
+                    double balance = account.getBalance();
+                    if (Math.abs(balance - numbers[b]) > BALANCE_TOLERANCE) {
+                        return fail(pc, "expected balance " + numbers[b] + " for " + strings[a] + " but was " + balance);
+                    }
+                    break;
+                }
+                case EXPECT_NOTES: {
+                    int notes = notesOf(context.getATMInventory(), a);
+                    if (notes != b) {
+                        return fail(pc, "expected " + b + " notes of " + a + " but found " + notes);
+                    }
+                    break;
+                }
+                case EXPECT_CODE:
+                    if (context.getLastResponseCode() != RESPONSE_CODES[a]) {
+                        return fail(pc, "expected " + RESPONSE_CODES[a] + " but was " + context.getLastResponseCode());
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Bad opcode " + code[pc]);
+            }
+        }
+        return ScenarioResult.PASSED;
+    }
+
+    private ScenarioResult fail(int pc, String message) {
+        return new ScenarioResult(false, lines[pc / WIDTH], message);
+    }
+
+    private static int notesOf(ATMInventory inventory, int denomination) {
+        int notes = 0;
+        int cassettes = inventory.getConfiguration().getCassetteCount();
+        for (int slot = 0; slot < cassettes; slot++) {
+            if (inventory.getCashType(slot).value == denomination) {
+                notes += inventory.getCount(slot);
+            }
+        }
+        return notes;
+    }
+
+    private static final class Compiler {
+        private final List<Integer> code = new ArrayList<>();
+        private final List<Integer> lines = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+        private final List<Double> numbers = new ArrayList<>();
+        private final List<Card> cards = new ArrayList<>();
+
+        void compileLine(String text, int line) {
+            int comment = text.indexOf('#');
+            if (comment >= 0) {
+                text = text.substring(0, comment);
+            }
+            String[] words = text.trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                return;
+            }
+            switch (words[0]) {
+                case "account":
+                    arity(words, 2, line);
+                    emit(ACCOUNT, string(words[1]), number(words[2], line), line);
+                    break;
+                case "insert":
+                    arity(words, 3, line);
+                    cards.add(new Card(words[1], integer(words[2], line), words[3]));
+                    emit(INSERT, cards.size() - 1, 0, line);
+                    break;
+                case "pin":
+                    arity(words, 1, line);
+                    emit(PIN, integer(words[1], line), 0, line);
+                    break;
+                case "select":
+                    arity(words, 1, line);
+                    emit(SELECT, transactionType(words[1], line).ordinal(), 0, line);
+                    break;
+                case "transact":
+                    arity(words, 1, line);
+                    emit(TRANSACT, number(words[1], line), 0, line);
+                    break;
+                case "cancel":
+                    arity(words, 0, line);
+                    emit(CANCEL, 0, 0, line);
+                    break;
+                case "return":
+                    arity(words, 0, line);
+                    emit(RETURN, 0, 0, line);
+                    break;
+                case "expect-state":
+                    arity(words, 1, line);
+                    emit(EXPECT_STATE, string(words[1]), 0, line);
+                    break;
+                case "expect-balance":
+                    arity(words, 2, line);
+                    emit(EXPECT_BALANCE, string(words[1]), number(words[2], line), line);
+                    break;
+                case "expect-notes":
+                    arity(words, 2, line);
+                    emit(EXPECT_NOTES, integer(words[1], line), integer(words[2], line), line);
+                    break;
+                case "expect-code":
+                    arity(words, 1, line);
+                    emit(EXPECT_CODE, responseCode(words[1], line).ordinal(), 0, line);
+                    break;
+                default:
+                    throw error(line, "unknown command '" + words[0] + "'");
+            }
+        }
+
+        Scenario build() {
+            int[] flat = new int[code.size()];
+            for (int i = 0; i < flat.length; i++) {
+                flat[i] = code.get(i);
+            }
+            int[] lineTable = new int[lines.size()];
+            for (int i = 0; i < lineTable.length; i++) {
+                lineTable[i] = lines.get(i);
+            }
+            double[] numberPool = new double[numbers.size()];
+            for (int i = 0; i < numberPool.length; i++) {
+                numberPool[i] = numbers.get(i);
+            }
+            return new Scenario(flat, lineTable, strings.toArray(new String[0]), numberPool, cards.toArray(new Card[0]));
+        }
+
+        private void emit(int opcode, int a, int b, int line) {
+            code.add(opcode);
+            code.add(a);
+            code.add(b);
+            lines.add(line);
+        }
+
+        private int string(String value) {
+            int index = strings.indexOf(value);
+            if (index < 0) {
+                strings.add(value);
+                index = strings.size() - 1;
+            }
+            return index;
+        }
+
+        private int number(String value, int line) {
+            double parsed;
+            try {
+                parsed = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw error(line, "expected a number but got '" + value + "'");
+            }
+            numbers.add(parsed);
+            return numbers.size() - 1;
+        }
+
+        private static int integer(String value, int line) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw error(line, "expected an integer but got '" + value + "'");
+            }
+        }
+
+        private static TransactionType transactionType(String value, int line) {
+            switch (value) {
+                case "withdraw":
+                    return TransactionType.WITHDRAW_CASH;
+                case "balance":
+                    return TransactionType.CHECK_BALANCE;
+                default:
+                    throw error(line, "expected withdraw or balance but got '" + value + "'");
+            }
+        }
+
+        private static ResponseCode responseCode(String value, int line) {
+            try {
+                return ResponseCode.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                throw error(line, "unknown response code '" + value + "'");
+            }
+        }
+
+        private static void arity(String[] words, int operands, int line) {
+            if (words.length - 1 != operands) {
+                throw error(line, words[0] + " takes " + operands + " operand(s) but got " + (words.length - 1));
+            }
+        }
+
+        private static IllegalArgumentException error(int line, String message) {
+            return new IllegalArgumentException("Line " + line + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+/**
+ * Outcome of running a {@link Scenario}: either every step passed, or the
+ * source line of the first failed expectation and why it failed.
+ */
+public final class ScenarioResult {
+    static final ScenarioResult PASSED = new ScenarioResult(true, 0, null);
+
+    private final boolean passed;
+    private final int failedLine;
+    private final String message;
+
+    ScenarioResult(boolean passed, int failedLine, String message) {
+        this.passed = passed;
+        this.failedLine = failedLine;
+        this.message = message;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    // 1-based source line of the failed step, or 0 if the scenario passed
+    public int getFailedLine() {
+        return failedLine;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return passed ? "passed" : "line " + failedLine + ": " + message;
+    }
+}
@@ -35,9 +35,9 @@ public class SelectOperationState implements ATMState {
 
     @Override
     public void selectOperation(ATMMachineContext context, TransactionType type) {
-        System.out.println("Selected operation: " + type);
-        context.setSelectedOperation(type);
-        context.advanceState();
+        if (StateActions.selectOperation(context, type)) {
+            context.advanceState();
+        }
     }
 
     @Override
@@ -47,13 +47,11 @@ public class SelectOperationState implements ATMState {
 
     @Override
     public void returnCard(ATMMachineContext context) {
-        System.out.println("Card returned to customer");
-        context.resetATM();
+        StateActions.returnCard(context);
     }
 
     @Override
     public void cancelTransaction(ATMMachineContext context) {
-        System.out.println("Operation cancelled");
-        returnCard(context);
+        StateActions.cancel(context, "Operation cancelled");
     }
 }
\ No newline at end of file
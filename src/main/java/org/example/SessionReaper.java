@@ -0,0 +1,91 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ends sessions that have been waiting on the customer for too long.
+ * <p>
+ * A watched context arms one timeout on the wheel when a card is inserted.
+ * Later commands only record the time of the activity; when the timeout
+ * fires and the session was active in the meantime it is simply re-armed
+ * for the remainder, so a busy session costs one timer per timeout period
+ * rather than a cancel and reschedule per command.
+ * <p>
+ * Expiry checks are handed to the context's dispatcher, so a context owned
+ * by a {@link TerminalActor} is only ever touched on its own worker.
+ */
+public class SessionReaper {
+    private final HashedTimingWheel wheel;
+    private final long timeoutNanos;
+    private final SessionTimeoutAction action;
+    private final AtomicLong expiredSessions;
+
+    public SessionReaper(HashedTimingWheel wheel, long timeoutNanos, SessionTimeoutAction action) {
+        if (timeoutNanos <= 0) {
+            throw new IllegalArgumentException("timeoutNanos must be positive");
+        }
+        this.wheel = wheel;
+        this.timeoutNanos = timeoutNanos;
+        this.action = action;
+        this.expiredSessions = new AtomicLong();
+    }
+
+    // For contexts driven from the same thread that advances the wheel
+    public void watch(ATMMachineContext context) {
+        watch(context, command -> command.accept(context));
+    }
+
+    public void watch(ATMMachineContext context, Consumer<Consumer<ATMMachineContext>> dispatcher) {
+        context.setSession(new Session(context, dispatcher));
+    }
+
+    public long getExpiredSessions() {
+        return expiredSessions.get();
+    }
+
+    class Session {
+        private final ATMMachineContext context;
+        private final Consumer<Consumer<ATMMachineContext>> dispatcher;
+        private long lastActivity;
+        private HashedTimingWheel.Timeout timeout;
+
+        Session(ATMMachineContext context, Consumer<Consumer<ATMMachineContext>> dispatcher) {
+            this.context = context;
+            this.dispatcher = dispatcher;
+        }
+
+        // Called on the context's own thread after every command
+        void touch() {
+            lastActivity = wheel.now();
+            if (timeout == null && context.getCurrentCard() != null) {
+                arm(timeoutNanos);
+            }
+        }
+
+        private void arm(long delayNanos) {
+            timeout = wheel.schedule(delayNanos, () -> dispatcher.accept(ctx -> check()));
+        }
+
+        private void check() {
+            timeout = null;
+            if (context.getCurrentCard() == null) {
+                return;
+            }
+            long idleNanos = wheel.now() - lastActivity;
+            if (idleNanos < timeoutNanos) {
+                arm(timeoutNanos - idleNanos);
+                return;
+            }
+            expiredSessions.incrementAndGet();
+            if (action == SessionTimeoutAction.RETAIN_CARD) {
+                System.out.println("Session timed out in " + context.getCurrentState().getStateName()
+                        + " - card retained");
+            } else {
+                System.out.println("Session timed out in " + context.getCurrentState().getStateName()
+                        + " - card returned to customer");
+            }
+            context.resetATM();
+        }
+    }
+}
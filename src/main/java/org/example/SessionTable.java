@@ -0,0 +1,217 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sessions for a large fleet of terminals kept as parallel primitive arrays
+ * indexed by terminal ID, instead of one {@link ATMMachineContext} each.
+ * <p>
+ * A terminal's session costs {@link #BYTES_PER_TERMINAL} bytes: its state
+ * ordinal, card and account indexes, selected operation and last response
+ * code. Its cassettes add two bytes per cassette. Cards and accounts are
+ * registered once and referenced by index. Commands run through the
+ * {@link TransitionTable} on a single shared context that is loaded from
+ * and stored back to the arrays, terminal ID and cassette counts included,
+ * so every terminal follows the same state logic, dispenses from its own
+ * cassettes and is journaled and audited under its own ID. Thread-safe:
+ * commands serialize on the table.
+ */
+public class SessionTable {
+    public static final int BYTES_PER_TERMINAL = 11;
+
+    private static final ResponseCode[] RESPONSE_CODES = ResponseCode.values();
+    private static final ATMStateId[] STATES = ATMStateId.values();
+    private static final TransactionType[] OPERATIONS = TransactionType.values();
+
+    // Indexes are stored plus one so that a zeroed slot means "none"
+    private final byte[] states;
+    private final int[] cardIndexes;
+    private final int[] accountIndexes;
+    private final byte[] operations;
+    private final byte[] responseCodes;
+    // Notes left in each terminal's cassettes, cassettesPerTerminal entries per terminal
+    private final short[] cassetteCounts;
+    private final int cassettesPerTerminal;
+
+    private Card[] cards = new Card[16];
+    private int cardCount;
+    private Account[] accounts = new Account[16];
+    private int accountCount;
+    private final Map<String, Integer> accountIndexByNumber = new HashMap<>();
+
+    private final ATMMachineContext worker;
+
+    public SessionTable(int terminals) {
+        this(terminals, CassetteConfiguration.defaultConfiguration());
+    }
+
+    public SessionTable(int terminals, CassetteConfiguration cassetteConfiguration) {
+        this.states = new byte[terminals];
+        this.cardIndexes = new int[terminals];
+        this.accountIndexes = new int[terminals];
+        this.operations = new byte[terminals];
+        this.responseCodes = new byte[terminals];
+        int[] initialCounts = cassetteConfiguration.getInitialCounts();
+        for (int count : initialCounts) {
+            if (count > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Cassette holds more than " + Short.MAX_VALUE + " notes");
+            }
+        }
+        this.cassettesPerTerminal = initialCounts.length;
+        this.cassetteCounts = new short[terminals * cassettesPerTerminal];
+        for (int terminal = 0; terminal < terminals; terminal++) {
+            for (int slot = 0; slot < cassettesPerTerminal; slot++) {
+                cassetteCounts[terminal * cassettesPerTerminal + slot] = (short) initialCounts[slot];
+            }
+        }
+        this.worker = new ATMMachineContext(cassetteConfiguration);
+        this.worker.useTransitionTable(TransitionTable.standard());
+    }
+
+    // Completed transactions are journaled under the ID of the terminal that ran them
+    public synchronized void setJournal(TransactionJournal journal) {
+        worker.setJournal(journal);
+    }
+
+    public synchronized void setAuditLog(AuditLog auditLog) {
+        worker.setAuditLog(auditLog);
+    }
+
+    // Returns the index to pass to insertCard
+    public synchronized int registerCard(Card card) {
+        if (cardCount == cards.length) {
+            cards = Arrays.copyOf(cards, cardCount * 2);
+        }
+        cards[cardCount] = card;
+        return cardCount++;
+    }
+
+    public synchronized void addAccount(Account account) {
+        if (accountCount == accounts.length) {
+            accounts = Arrays.copyOf(accounts, accountCount * 2);
+        }
+        accounts[accountCount] = account;
+        accountIndexByNumber.put(account.getAccountNumber(), accountCount);
+        accountCount++;
+        worker.addAccount(account);
+    }
+
+    public synchronized void insertCard(int terminal, int cardIndex) {
+        int previous = cardIndexes[terminal] - 1;
+        load(terminal);
+        worker.insertCard(cards[cardIndex]);
+        // A rejected insert leaves the previous card in place
+        store(terminal, worker.getCurrentCard() == cards[cardIndex] ? cardIndex : previous);
+    }
+
+    public synchronized void enterPin(int terminal, int pin) {
+        load(terminal);
+        worker.enterPin(pin);
+        store(terminal, cardIndexes[terminal] - 1);
+    }
+
+    public synchronized void selectOperation(int terminal, TransactionType transactionType) {
+        load(terminal);
+        worker.selectOperation(transactionType);
+        store(terminal, cardIndexes[terminal] - 1);
+    }
+
+    public synchronized void performTransaction(int terminal, double amount) {
+        load(terminal);
+        ATMInventory inventory = worker.getATMInventory();
+        inventory.loadCounts(cassetteCounts, terminal * cassettesPerTerminal);
+        worker.performTransaction(amount);
+        inventory.storeCounts(cassetteCounts, terminal * cassettesPerTerminal);
+        store(terminal, cardIndexes[terminal] - 1);
+    }
+
+    // Replenishes one of the terminal's cassettes
+    public synchronized void addCash(int terminal, int slot, int count) {
+        int index = terminal * cassettesPerTerminal + slot;
+        if (cassetteCounts[index] + count > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Cassette holds more than " + Short.MAX_VALUE + " notes");
+        }
+        cassetteCounts[index] += count;
+    }
+
+    public synchronized int getCount(int terminal, int slot) {
+        return cassetteCounts[terminal * cassettesPerTerminal + slot];
+    }
+
+    public synchronized long getTotalCash(int terminal) {
+        ATMInventory inventory = worker.getATMInventory();
+        long total = 0;
+        for (int slot = 0; slot < cassettesPerTerminal; slot++) {
+            total += (long) inventory.getCashType(slot).value * cassetteCounts[terminal * cassettesPerTerminal + slot];
+        }
+        return total;
+    }
+
+    public synchronized void returnCard(int terminal) {
+        load(terminal);
+        worker.returnCard();
+        store(terminal, cardIndexes[terminal] - 1);
+    }
+
+    public synchronized void cancelTransaction(int terminal) {
+        load(terminal);
+        worker.cancelTransaction();
+        store(terminal, cardIndexes[terminal] - 1);
+    }
+
+    public synchronized ATMStateId getState(int terminal) {
+        return STATES[states[terminal]];
+    }
+
+    public synchronized Card getCard(int terminal) {
+        int index = cardIndexes[terminal];
+        return index == 0 ? null : cards[index - 1];
+    }
+
+    public synchronized Account getAccount(int terminal) {
+        int index = accountIndexes[terminal];
+        return index == 0 ? null : accounts[index - 1];
+    }
+
+    public synchronized TransactionType getSelectedOperation(int terminal) {
+        int operation = operations[terminal];
+        return operation == 0 ? null : OPERATIONS[operation - 1];
+    }
+
+    public synchronized ResponseCode getLastResponseCode(int terminal) {
+        int code = responseCodes[terminal];
+        return code == 0 ? null : RESPONSE_CODES[code - 1];
+    }
+
+    public int getTerminalCount() {
+        return states.length;
+    }
+
+    // Session fields plus this table's cassettes
+    public int getBytesPerTerminal() {
+        return BYTES_PER_TERMINAL + Short.BYTES * cassettesPerTerminal;
+    }
+
+    private void load(int terminal) {
+        worker.loadSession(terminal, states[terminal], getCard(terminal), getAccount(terminal),
+                getSelectedOperation(terminal), getLastResponseCode(terminal));
+    }
+
+    // cardIndex is the only card the command could have put in the worker
+    private void store(int terminal, int cardIndex) {
+        states[terminal] = (byte) worker.getStateId();
+        cardIndexes[terminal] = worker.getCurrentCard() == null ? 0 : cardIndex + 1;
+        Account account = worker.getCurrentAccount();
+        if (account == null) {
+            accountIndexes[terminal] = 0;
+        } else if (account != getAccount(terminal)) {
+            accountIndexes[terminal] = accountIndexByNumber.get(account.getAccountNumber()) + 1;
+        }
+        TransactionType operation = worker.getSelectedOperation();
+        operations[terminal] = (byte) (operation == null ? 0 : operation.ordinal() + 1);
+        ResponseCode code = worker.getLastResponseCode();
+        responseCodes[terminal] = (byte) (code == null ? 0 : code.ordinal() + 1);
+    }
+}
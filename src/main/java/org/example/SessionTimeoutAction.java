@@ -0,0 +1,6 @@
+package org.example;
+
+public enum SessionTimeoutAction {
+    RETAIN_CARD,
+    RETURN_CARD
+}
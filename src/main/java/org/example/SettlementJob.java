@@ -0,0 +1,169 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Day-end settlement over a {@link TransactionJournal}.
+ * <p>
+ * The journal is memory-mapped one chunk at a time and the chunks are
+ * scanned by a parallel stream in a dedicated fork-join pool. Each leaf
+ * task folds its chunks into its own per-terminal and per-account arrays,
+ * which are summed pairwise as tasks join, so memory stays proportional to
+ * the number of terminals and accounts rather than to the journal size.
+ * <p>
+ * Given each terminal's opening and closing {@link InventorySnapshot}, the
+ * journal is then reconciled terminal by terminal against the cash that
+ * actually left the cassettes, so a dispense that never reached the
+ * journal, or a journal entry for cash that never left, is caught even
+ * when the record's own debit and dispensed figures agree.
+ */
+public final class SettlementJob {
+    public static final int CHUNK_RECORDS = 1 << 20;
+    private static final long CENTS_PER_UNIT = 100;
+
+    private SettlementJob() {
+    }
+
+    public static SettlementReport run(Path journal, int parallelism) throws IOException {
+        return run(journal, parallelism, null, null);
+    }
+
+    // Snapshots are indexed by terminal ID; opening must be taken after the day's replenishment
+    public static SettlementReport run(Path journal, int parallelism,
+                                       InventorySnapshot[] opening, InventorySnapshot[] closing) throws IOException {
+        if ((opening == null) != (closing == null) || (opening != null && opening.length != closing.length)) {
+            throw new IllegalArgumentException("Opening and closing snapshots must cover the same terminals");
+        }
+        List<String> accountNumbers = TransactionJournal.readAccountDictionary(journal);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long records = channel.size() / TransactionJournal.RECORD_SIZE;
+            int chunks = (int) ((records + CHUNK_RECORDS - 1) / CHUNK_RECORDS);
+            int accounts = accountNumbers.size();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                Totals totals = pool.submit(() -> IntStream.range(0, chunks)
+                        .parallel()
+                        .collect(() -> new Totals(accounts),
+                                (partial, chunk) -> partial.scan(channel, chunk, records),
+                                Totals::merge))
+                        .get();
+                long[] cassetteOutflow = null;
+                if (opening != null) {
+                    totals.grow(Math.max(totals.debits.length, opening.length));
+                    cassetteOutflow = new long[totals.debits.length];
+                }
+                boolean[] mismatched = pool.submit(reconcile(totals, opening, closing, cassetteOutflow)).get();
+                return new SettlementReport(totals.debits, totals.dispensed, totals.transactions,
+                        totals.netMovement, accountNumbers, totals.records, totals.mismatchedRecords,
+                        cassetteOutflow, mismatched);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Settlement interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new IOException("Settlement failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // Each terminal is checked by its own task, against its cassettes when snapshots are given
+    private static Callable<boolean[]> reconcile(Totals totals, InventorySnapshot[] opening,
+                                                 InventorySnapshot[] closing,
+                                                 long[] cassetteOutflow) {
+        return () -> {
+            boolean[] mismatched = new boolean[totals.debits.length];
+            IntStream.range(0, mismatched.length).parallel().forEach(terminal -> {
+                boolean balanced = totals.debits[terminal] == totals.dispensed[terminal];
+                if (cassetteOutflow != null && terminal < opening.length) {
+                    cassetteOutflow[terminal] = CENTS_PER_UNIT
+                            * (opening[terminal].getTotalCash() - closing[terminal].getTotalCash());
+                    balanced &= cassetteOutflow[terminal] == totals.dispensed[terminal];
+                }
+                mismatched[terminal] = !balanced;
+            });
+            return mismatched;
+        };
+    }
+
+    private static final class Totals {
+        long[] debits = new long[0];
+        long[] dispensed = new long[0];
+        long[] transactions = new long[0];
+        final long[] netMovement;
+        long records;
+        long mismatchedRecords;
+
+        Totals(int accounts) {
+            this.netMovement = new long[accounts];
+        }
+
+        void scan(FileChannel channel, int chunk, long totalRecords) {
+            long first = (long) chunk * CHUNK_RECORDS;
+            int count = (int) Math.min(CHUNK_RECORDS, totalRecords - first);
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        first * TransactionJournal.RECORD_SIZE, (long) count * TransactionJournal.RECORD_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0, base = 0; i < count; i++, base += TransactionJournal.RECORD_SIZE) {
+                int terminal = buffer.getInt(base + TransactionJournal.TERMINAL_OFFSET);
+                int account = buffer.getInt(base + TransactionJournal.ACCOUNT_OFFSET);
+                long debit = buffer.getLong(base + TransactionJournal.DEBIT_OFFSET);
+                long cash = buffer.getLong(base + TransactionJournal.DISPENSED_OFFSET);
+                if (terminal >= debits.length) {
+                    grow(terminal + 1);
+                }
+                debits[terminal] += debit;
+                dispensed[terminal] += cash;
+                transactions[terminal]++;
+                netMovement[account] -= debit;
+                if (debit != cash) {
+                    mismatchedRecords++;
+                }
+            }
+            records += count;
+        }
+
+        Totals merge(Totals other) {
+            if (other.debits.length > debits.length) {
+                grow(other.debits.length);
+            }
+            for (int terminal = 0; terminal < other.debits.length; terminal++) {
+                debits[terminal] += other.debits[terminal];
+                dispensed[terminal] += other.dispensed[terminal];
+                transactions[terminal] += other.transactions[terminal];
+            }
+            for (int account = 0; account < netMovement.length; account++) {
+                netMovement[account] += other.netMovement[account];
+            }
+            records += other.records;
+            mismatchedRecords += other.mismatchedRecords;
+            return this;
+        }
+
+        private void grow(int terminals) {
+            debits = Arrays.copyOf(debits, terminals);
+            dispensed = Arrays.copyOf(dispensed, terminals);
+            transactions = Arrays.copyOf(transactions, terminals);
+        }
+    }
+}
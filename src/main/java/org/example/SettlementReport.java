@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Day-end totals produced by {@link SettlementJob}. Amounts are in cents.
+ */
+public class SettlementReport {
+    private final long[] terminalDebits;
+    private final long[] terminalDispensed;
+    private final long[] terminalTransactions;
+    private final long[] accountNetMovement;
+    private final List<String> accountNumbers;
+    private final long recordCount;
+    private final long mismatchedRecords;
+    // Null unless the job was given inventory snapshots
+    private final long[] cassetteOutflow;
+    private final boolean[] mismatchedTerminals;
+    private Map<String, Integer> accountIds;
+
+    SettlementReport(long[] terminalDebits, long[] terminalDispensed, long[] terminalTransactions,
+                     long[] accountNetMovement, List<String> accountNumbers,
+                     long recordCount, long mismatchedRecords,
+                     long[] cassetteOutflow, boolean[] mismatchedTerminals) {
+        this.terminalDebits = terminalDebits;
+        this.terminalDispensed = terminalDispensed;
+        this.terminalTransactions = terminalTransactions;
+        this.accountNetMovement = accountNetMovement;
+        this.accountNumbers = accountNumbers;
+        this.recordCount = recordCount;
+        this.mismatchedRecords = mismatchedRecords;
+        this.cassetteOutflow = cassetteOutflow;
+        this.mismatchedTerminals = mismatchedTerminals;
+    }
+
+    public int getTerminalCount() {
+        return terminalDebits.length;
+    }
+
+    public long getDebitedCents(int terminalId) {
+        return terminalDebits[terminalId];
+    }
+
+    public long getDispensedCents(int terminalId) {
+        return terminalDispensed[terminalId];
+    }
+
+    public long getTransactionCount(int terminalId) {
+        return terminalTransactions[terminalId];
+    }
+
+    // Cash that left the terminal's cassettes between the snapshots, or -1 if none were given
+    public long getCassetteOutflowCents(int terminalId) {
+        return cassetteOutflow == null ? -1 : cassetteOutflow[terminalId];
+    }
+
+    // Terminals whose journaled debits, journaled cash and cassette outflow do not all agree
+    public List<Integer> getMismatchedTerminals() {
+        List<Integer> mismatched = new ArrayList<>();
+        for (int terminal = 0; terminal < mismatchedTerminals.length; terminal++) {
+            if (mismatchedTerminals[terminal]) {
+                mismatched.add(terminal);
+            }
+        }
+        return mismatched;
+    }
+
+    // Net change in cents for an account; withdrawals are negative
+    public synchronized long getNetMovementCents(String accountNumber) {
+        if (accountIds == null) {
+            accountIds = new HashMap<>();
+            for (int id = 0; id < accountNumbers.size(); id++) {
+                accountIds.put(accountNumbers.get(id), id);
+            }
+        }
+        Integer accountId = accountIds.get(accountNumber);
+        return accountId == null ? 0 : accountNetMovement[accountId];
+    }
+
+    public long getNetMovementCents(int accountId) {
+        return accountNetMovement[accountId];
+    }
+
+    public int getAccountCount() {
+        return accountNetMovement.length;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    // Records whose debit differs from the cash dispensed for them
+    public long getMismatchedRecords() {
+        return mismatchedRecords;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispenser model for load tests. A dispense takes a fixed batch latency
+ * plus a per-note latency, and each note jams with the given probability.
+ * A jam stops the dispense: notes picked before it are presented, the rest
+ * go to the reject bin. The device handles one dispense at a time, so
+ * requests queue behind each other exactly as they would at a real
+ * terminal. No thread is held while a dispense is in progress.
+ */
+public class SimulatedCashDispenser implements CashDispenser {
+    private final long batchLatencyNanos;
+    private final long perNoteLatencyNanos;
+    private final double jamProbability;
+    private final SplittableRandom random;
+
+    // Completes when the last accepted dispense has finished
+    private CompletableFuture<DispenseResult> tail = CompletableFuture.completedFuture(null);
+    private long dispenses;
+    private long jams;
+    private long rejectedNotes;
+
+    public SimulatedCashDispenser(long batchLatencyNanos, long perNoteLatencyNanos, double jamProbability, long seed) {
+        this.batchLatencyNanos = batchLatencyNanos;
+        this.perNoteLatencyNanos = perNoteLatencyNanos;
+        this.jamProbability = jamProbability;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public synchronized CompletableFuture<DispenseResult> dispense(int[] notes) {
+        int[] presented = new int[notes.length];
+        int picked = 0;
+        boolean jammed = false;
+        for (int slot = 0; slot < notes.length && !jammed; slot++) {
+            for (int note = 0; note < notes[slot]; note++) {
+                if (random.nextDouble() < jamProbability) {
+                    jammed = true;
+                    break;
+                }
+                presented[slot]++;
+                picked++;
+            }
+        }
+        DispenseResult result = new DispenseResult(notes, presented);
+        dispenses++;
+        if (jammed) {
+            jams++;
+            for (int slot = 0; slot < notes.length; slot++) {
+                rejectedNotes += result.getRejected(slot);
+            }
+        }
+        // A jam is noticed when the note that jams is picked
+        long latency = batchLatencyNanos + perNoteLatencyNanos * (jammed ? picked + 1 : picked);
+        Executor afterLatency = CompletableFuture.delayedExecutor(latency, TimeUnit.NANOSECONDS);
+        tail = tail.thenApplyAsync(previous -> result, afterLatency);
+        return tail;
+    }
+
+    public synchronized long getDispenseCount() {
+        return dispenses;
+    }
+
+    public synchronized long getJamCount() {
+        return jams;
+    }
+
+    public synchronized long getRejectedNotes() {
+        return rejectedNotes;
+    }
+}
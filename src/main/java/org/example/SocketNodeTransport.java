@@ -0,0 +1,184 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * TCP transport to an {@link AccountNodeServer}. Batches are written as
+ * soon as they are sent without waiting for earlier replies; a reader
+ * thread completes the pending futures in FIFO order as replies arrive.
+ * <p>
+ * Any read or write failure closes the connection and fails everything
+ * still pending on it, since replies can no longer be matched to their
+ * batches. The next send opens a fresh connection. A frame with a batch
+ * length or operation outside what the protocol allows counts as a read
+ * failure, and so does a connect that does not finish within the connect
+ * timeout.
+ */
+public class SocketNodeTransport implements NodeTransport {
+    // Largest batch either side accepts in one frame
+    static final int MAX_BATCH = 64 * 1024;
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 2000;
+
+    private final InetSocketAddress address;
+    private final int connectTimeoutMillis;
+    private Connection connection;
+    private volatile boolean closed;
+
+    public SocketNodeTransport(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    public SocketNodeTransport(InetSocketAddress address, int connectTimeoutMillis) throws IOException {
+        this.address = address;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.connection = new Connection(address, connectTimeoutMillis);
+    }
+
+    @Override
+    public CompletableFuture<AccountReply[]> send(AccountRequest[] batch) {
+        CompletableFuture<AccountReply[]> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new IOException("Transport closed"));
+                return future;
+            }
+            Connection current = connection;
+            try {
+                if (current.broken) {
+                    current = new Connection(address, connectTimeoutMillis);
+                    connection = current;
+                }
+                // Enqueue before writing so the reply can never overtake its future
+                current.pending.add(future);
+                writeRequests(current.out, batch);
+                current.out.flush();
+            } catch (IOException e) {
+                current.fail(e);
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        Connection current;
+        synchronized (this) {
+            closed = true;
+            current = connection;
+        }
+        current.fail(new IOException("Transport closed"));
+    }
+
+    // One socket and the batches written to it that are still waiting for replies
+    private static final class Connection {
+        final Socket socket;
+        final DataOutputStream out;
+        final DataInputStream in;
+        final ConcurrentLinkedQueue<CompletableFuture<AccountReply[]>> pending = new ConcurrentLinkedQueue<>();
+        volatile boolean broken;
+
+        Connection(InetSocketAddress address, int connectTimeoutMillis) throws IOException {
+            this.socket = new Socket();
+            socket.setTcpNoDelay(true);
+            // Bounded, since send() connects while holding the transport's lock
+            socket.connect(address, connectTimeoutMillis);
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Thread reader = new Thread(this::readReplies, "node-transport-" + address.getPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void readReplies() {
+            try {
+                while (!broken) {
+                    AccountReply[] replies = SocketNodeTransport.readReplies(in);
+                    CompletableFuture<AccountReply[]> future = pending.poll();
+                    if (future != null) {
+                        future.complete(replies);
+                    }
+                }
+            } catch (IOException e) {
+                fail(e);
+            } catch (RuntimeException e) {
+                // Never let the reader die with futures still pending
+                fail(new IOException("Unreadable reply", e));
+            }
+        }
+
+        // Closes the socket so no later reply is matched against the wrong batch
+        void fail(IOException cause) {
+            broken = true;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            CompletableFuture<AccountReply[]> future;
+            while ((future = pending.poll()) != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    static void writeRequests(DataOutputStream out, AccountRequest[] batch) throws IOException {
+        if (batch.length > MAX_BATCH) {
+            throw new IOException("Batch of " + batch.length + " exceeds " + MAX_BATCH);
+        }
+        out.writeInt(batch.length);
+        for (AccountRequest request : batch) {
+            out.writeByte(request.getOperation().ordinal());
+            out.writeDouble(request.getAmount());
+            out.writeUTF(request.getAccountNumber());
+        }
+    }
+
+    static AccountRequest[] readRequests(DataInputStream in) throws IOException {
+        AccountRequest[] batch = new AccountRequest[readBatchLength(in)];
+        AccountOperation[] operations = AccountOperation.values();
+        for (int i = 0; i < batch.length; i++) {
+            int opcode = in.readUnsignedByte();
+            if (opcode >= operations.length) {
+                throw new IOException("Unknown operation " + opcode);
+            }
+            AccountOperation operation = operations[opcode];
+            double amount = in.readDouble();
+            batch[i] = new AccountRequest(operation, in.readUTF(), amount);
+        }
+        return batch;
+    }
+
+    static void writeReplies(DataOutputStream out, AccountReply[] replies) throws IOException {
+        out.writeInt(replies.length);
+        for (AccountReply reply : replies) {
+            out.writeByte(reply.getResponseCode().code);
+            out.writeDouble(reply.getBalance());
+        }
+    }
+
+    static AccountReply[] readReplies(DataInputStream in) throws IOException {
+        AccountReply[] replies = new AccountReply[readBatchLength(in)];
+        for (int i = 0; i < replies.length; i++) {
+            ResponseCode code = ResponseCode.fromCode(in.readUnsignedByte());
+            replies[i] = new AccountReply(code, in.readDouble());
+        }
+        return replies;
+    }
+
+    private static int readBatchLength(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_BATCH) {
+            throw new IOException("Invalid batch length " + length);
+        }
+        return length;
+    }
+}
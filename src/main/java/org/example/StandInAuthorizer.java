@@ -0,0 +1,263 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Authorizes account commands against the backend, falling back to local
+ * stand-in decisions when the backend is slow.
+ * <p>
+ * Online calls wait at most the call timeout. Slow or failed calls feed a
+ * {@link CircuitBreaker}; while it is open, withdrawals are approved
+ * locally against the last known balance and a per-card offline limit,
+ * and queued. Once the backend answers quickly again the queue is
+ * replayed in batches and any approval the backend would have declined is
+ * counted as a reconciliation exception.
+ */
+public class StandInAuthorizer {
+    public static final int RECONCILE_BATCH_SIZE = 64;
+
+    private final NodeTransport backend;
+    private final CircuitBreaker breaker;
+    private final double offlineLimitPerCard;
+    private final long callTimeoutNanos;
+
+    private final Map<String, Double> knownBalances = new HashMap<>();
+    private final Map<String, Double> offlineSpent = new HashMap<>();
+    private final ArrayDeque<OfflineEntry> offlineQueue = new ArrayDeque<>();
+    private boolean reconciling;
+
+    private long onlineApprovals;
+    private long offlineApprovals;
+    private long offlineDeclines;
+    private long reconciled;
+    private long reconciliationExceptions;
+
+    private static final class OfflineEntry {
+        final String cardNumber;
+        final AccountRequest request;
+        final boolean approvedOffline;
+
+        OfflineEntry(String cardNumber, AccountRequest request, boolean approvedOffline) {
+            this.cardNumber = cardNumber;
+            this.request = request;
+            this.approvedOffline = approvedOffline;
+        }
+    }
+
+    public StandInAuthorizer(NodeTransport backend, CircuitBreaker breaker,
+                             double offlineLimitPerCard, long callTimeoutNanos) {
+        this.backend = backend;
+        this.breaker = breaker;
+        this.offlineLimitPerCard = offlineLimitPerCard;
+        this.callTimeoutNanos = callTimeoutNanos;
+    }
+
+    public AccountReply withdraw(Card card, double amount) {
+        return execute(card, new AccountRequest(AccountOperation.WITHDRAW, card.getAccountNumber(), amount));
+    }
+
+    public AccountReply deposit(Card card, double amount) {
+        return execute(card, new AccountRequest(AccountOperation.DEPOSIT, card.getAccountNumber(), amount));
+    }
+
+    public AccountReply balance(Card card) {
+        return execute(card, new AccountRequest(AccountOperation.BALANCE, card.getAccountNumber(), 0.0));
+    }
+
+    // Replays queued offline commands if the breaker lets a call through
+    public void reconcile() {
+        List<OfflineEntry> batch;
+        synchronized (this) {
+            if (reconciling || offlineQueue.isEmpty() || !breaker.allowRequest()) {
+                return;
+            }
+            reconciling = true;
+            batch = new ArrayList<>();
+            while (batch.size() < RECONCILE_BATCH_SIZE && !offlineQueue.isEmpty()) {
+                batch.add(offlineQueue.poll());
+            }
+        }
+        AccountRequest[] requests = new AccountRequest[batch.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = batch.get(i).request;
+        }
+        long start = breaker.nanoTime();
+        // No timeout here: the batch may already be applied, so it must never be resent
+        backend.send(requests).whenComplete((replies, failure) -> {
+            if (failure != null) {
+                breaker.recordFailure();
+                synchronized (this) {
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        offlineQueue.addFirst(batch.get(i));
+                    }
+                    reconciling = false;
+                }
+                return;
+            }
+            breaker.recordSuccess(breaker.nanoTime() - start);
+            synchronized (this) {
+                for (int i = 0; i < replies.length; i++) {
+                    settle(batch.get(i).cardNumber, requests[i], batch.get(i).approvedOffline, replies[i]);
+                    reconciled++;
+                }
+                reconciling = false;
+            }
+            reconcile();
+        });
+    }
+
+    public synchronized int getPendingOfflineCount() {
+        return offlineQueue.size();
+    }
+
+    public synchronized double getOfflineSpent(Card card) {
+        return offlineSpent.getOrDefault(card.getCardNumber(), 0.0);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    public synchronized long getOnlineApprovals() {
+        return onlineApprovals;
+    }
+
+    public synchronized long getOfflineApprovals() {
+        return offlineApprovals;
+    }
+
+    public synchronized long getOfflineDeclines() {
+        return offlineDeclines;
+    }
+
+    public synchronized long getReconciled() {
+        return reconciled;
+    }
+
+    // Offline approvals the backend later declined
+    public synchronized long getReconciliationExceptions() {
+        return reconciliationExceptions;
+    }
+
+    private AccountReply execute(Card card, AccountRequest request) {
+        if (!breaker.allowRequest()) {
+            return standIn(card, request, true);
+        }
+        long start = breaker.nanoTime();
+        CompletableFuture<AccountReply[]> future = backend.send(new AccountRequest[] {request});
+        AccountReply reply;
+        try {
+            reply = future.get(callTimeoutNanos, TimeUnit.NANOSECONDS)[0];
+        } catch (TimeoutException e) {
+            breaker.recordFailure();
+            return standInPending(card, request, future);
+        } catch (ExecutionException e) {
+            breaker.recordFailure();
+            return standIn(card, request, true);
+        } catch (InterruptedException e) {
+            // Reports on the call so a half-open probe is released, and settles it like a timeout
+            Thread.currentThread().interrupt();
+            breaker.recordFailure();
+            return standInPending(card, request, future);
+        }
+        breaker.recordSuccess(breaker.nanoTime() - start);
+        synchronized (this) {
+            knownBalances.put(request.getAccountNumber(), reply.getBalance());
+            if (reply.isApproved()) {
+                onlineApprovals++;
+            }
+        }
+        reconcile();
+        return reply;
+    }
+
+    // Decides locally while the backend call is still out; the backend may still apply it, so its late reply settles it
+    private AccountReply standInPending(Card card, AccountRequest request, CompletableFuture<AccountReply[]> future) {
+        AccountReply local = standIn(card, request, false);
+        future.whenComplete((replies, failure) -> {
+            synchronized (this) {
+                if (failure == null) {
+                    settle(card.getCardNumber(), request, local.isApproved(), replies[0]);
+                } else if (local.isApproved() && request.getOperation() != AccountOperation.BALANCE) {
+                    // No late reply will come, so the local decision is replayed like any other
+                    offlineQueue.add(new OfflineEntry(card.getCardNumber(), request, true));
+                }
+            }
+        });
+        return local;
+    }
+
+    private synchronized AccountReply standIn(Card card, AccountRequest request, boolean queue) {
+        String accountNumber = request.getAccountNumber();
+        Double known = knownBalances.get(accountNumber);
+        double amount = request.getAmount();
+        switch (request.getOperation()) {
+            case WITHDRAW: {
+                double spent = offlineSpent.getOrDefault(card.getCardNumber(), 0.0);
+                if (spent + amount > offlineLimitPerCard) {
+                    offlineDeclines++;
+                    return new AccountReply(ResponseCode.OFFLINE_LIMIT_EXCEEDED, known == null ? 0.0 : known);
+                }
+                if (known != null && known < amount) {
+                    offlineDeclines++;
+                    return new AccountReply(ResponseCode.INSUFFICIENT_FUNDS, known);
+                }
+                offlineSpent.put(card.getCardNumber(), spent + amount);
+                if (known != null) {
+                    knownBalances.put(accountNumber, known - amount);
+                }
+                offlineApprovals++;
+                if (queue) {
+                    offlineQueue.add(new OfflineEntry(card.getCardNumber(), request, true));
+                }
+                System.out.println("Backend unavailable, withdrawal approved in stand-in mode");
+                return new AccountReply(ResponseCode.APPROVED, known == null ? 0.0 : known - amount);
+            }
+            case DEPOSIT:
+                // Reverses an earlier withdrawal, so it frees offline headroom too
+                offlineSpent.put(card.getCardNumber(),
+                        Math.max(0.0, offlineSpent.getOrDefault(card.getCardNumber(), 0.0) - amount));
+                if (known != null) {
+                    knownBalances.put(accountNumber, known + amount);
+                }
+                if (queue) {
+                    offlineQueue.add(new OfflineEntry(card.getCardNumber(), request, true));
+                }
+                return new AccountReply(ResponseCode.APPROVED, known == null ? 0.0 : known + amount);
+            default:
+                if (known == null) {
+                    return new AccountReply(ResponseCode.SYSTEM_ERROR, 0.0);
+                }
+                return new AccountReply(ResponseCode.APPROVED, known);
+        }
+    }
+
+    // Applies the backend's verdict on a command that was decided locally
+    private void settle(String cardNumber, AccountRequest request, boolean approvedLocally, AccountReply reply) {
+        knownBalances.put(request.getAccountNumber(), reply.getBalance());
+        if (request.getOperation() != AccountOperation.WITHDRAW) {
+            return;
+        }
+        if (approvedLocally) {
+            offlineSpent.computeIfPresent(cardNumber,
+                    (card, spent) -> spent - request.getAmount() <= 0.0 ? null : spent - request.getAmount());
+            if (!reply.isApproved()) {
+                reconciliationExceptions++;
+                System.out.println("Reconciliation exception: backend declined offline withdrawal on "
+                        + request.getAccountNumber());
+            }
+        } else if (reply.isApproved()) {
+            // Declined locally but debited late: queue a reversal
+            offlineQueue.add(new OfflineEntry(cardNumber,
+                    new AccountRequest(AccountOperation.DEPOSIT, request.getAccountNumber(), request.getAmount()), false));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+/**
+ * Command bodies shared by the {@link ATMState} classes and
+ * {@link TransitionTable#standard()}, so both run the same code. Methods
+ * that can leave the state machine where it was return whether the
+ * command moved the session on.
+ */
+final class StateActions {
+    private StateActions() {
+    }
+
+    static boolean insertCard(ATMMachineContext context, Card card) {
+        System.out.println("Card inserted");
+        context.setCurrentCard(card);
+        context.setLastResponseCode(ResponseCode.APPROVED);
+        context.audit(AuditEventType.CARD_INSERTED, 0, 0);
+        return card != null;
+    }
+
+    // Loads the account once; true only if the PIN is valid and the account exists
+    static boolean enterPin(ATMMachineContext context, int pin) {
+        Card currentCard = context.getCurrentCard();
+        if (!currentCard.validatePin(pin)) {
+            System.out.println("Invalid PIN. Please try again");
+            context.setLastResponseCode(ResponseCode.INVALID_PIN);
+            context.audit(AuditEventType.PIN_REJECTED, 0, 0);
+            return false;
+        }
+        System.out.println("PIN authenticated successfully");
+        context.audit(AuditEventType.PIN_ACCEPTED, 0, 0);
+        Account account = context.getAccount(currentCard.getAccountNumber());
+        context.setCurrentAccount(account);
+        context.setLastResponseCode(
+            account != null ? ResponseCode.APPROVED : ResponseCode.UNKNOWN_ACCOUNT
+        );
+        return account != null;
+    }
+
+    static boolean selectOperation(ATMMachineContext context, TransactionType type) {
+        System.out.println("Selected operation: " + type);
+        context.setSelectedOperation(type);
+        context.setLastResponseCode(ResponseCode.APPROVED);
+        return type != null;
+    }
+
+    static void returnCard(ATMMachineContext context) {
+        System.out.println("Card returned to customer");
+        context.resetATM();
+        context.setLastResponseCode(ResponseCode.APPROVED);
+    }
+
+    static void cancel(ATMMachineContext context, String message) {
+        System.out.println(message);
+        returnCard(context);
+    }
+}
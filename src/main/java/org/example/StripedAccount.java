@@ -0,0 +1,192 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Account for hot corporate and payroll numbers whose balance is split
+ * into per-thread stripes of whole cents.
+ * <p>
+ * A withdrawal takes from its thread's stripe with a single CAS, trying
+ * the sibling stripes when that one runs low. Only when no single stripe
+ * can cover the amount does it take the account's monitor, pool every
+ * stripe, and spread what remains evenly again. No stripe ever goes below
+ * zero, so the account can never be overdrawn. Deposits go to the caller's
+ * stripe.
+ * <p>
+ * With a ledger attached, each stripe also counts the cents taken and
+ * added since the last batch, and a balance read or
+ * {@link #recordToLedger()} sends them to the ledger as one credit and
+ * one debit. Recording every withdrawal as its own event would put every
+ * operation back behind one lock. Attach the ledger before the account is
+ * shared between threads.
+ */
+public class StripedAccount extends Account {
+    // Longs per stripe, so each stripe sits on its own cache line
+    private static final int PAD = 16;
+    // Offsets within a stripe of the cents added and taken since the last ledger batch
+    private static final int CREDITS = 1;
+    private static final int DEBITS = 2;
+
+    private final int mask;
+    private final AtomicLongArray cents;
+    private volatile Ledger ledger;
+    private long lastSequence = -1;
+
+    public StripedAccount(String accountNumber, double initialBalance) {
+        this(accountNumber, initialBalance, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedAccount(String accountNumber, double initialBalance, int stripes) {
+        super(accountNumber, 0.0);
+        int count = 1;
+        while (count < stripes) {
+            count <<= 1;
+        }
+        this.mask = count - 1;
+        this.cents = new AtomicLongArray(count * PAD);
+        spread(WireProtocol.toCents(initialBalance));
+    }
+
+    @Override
+    public boolean withdraw(double amount) {
+        long amountCents = WireProtocol.toCents(amount);
+        int home = homeStripe();
+        for (int i = 0; i <= mask; i++) {
+            if (tryTake((home + i) & mask, amountCents)) {
+                unrecorded(home, DEBITS, amountCents);
+                return true;
+            }
+        }
+        if (withdrawPooled(amountCents)) {
+            unrecorded(home, DEBITS, amountCents);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void deposit(double amount) {
+        long amountCents = WireProtocol.toCents(amount);
+        int home = homeStripe();
+        cents.addAndGet(home * PAD, amountCents);
+        unrecorded(home, CREDITS, amountCents);
+    }
+
+    // Sum of the stripes; exact once concurrent withdrawals and deposits have finished
+    @Override
+    public double getBalance() {
+        Ledger attached;
+        long sequence;
+        synchronized (this) {
+            if (ledger == null) {
+                return total() / 100.0;
+            }
+            recordToLedger();
+            attached = ledger;
+            sequence = lastSequence;
+        }
+        return attached.getBalance(getAccountNumber(), sequence);
+    }
+
+    @Override
+    public synchronized void attachLedger(Ledger ledger) {
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            cents.set(stripe * PAD + CREDITS, 0);
+            cents.set(stripe * PAD + DEBITS, 0);
+        }
+        this.lastSequence = ledger.recordAccountOpened(getAccountNumber(), total() / 100.0);
+        this.ledger = ledger;
+    }
+
+    // Records what the stripes added and took since the last batch; a no-op without a ledger
+    public synchronized void recordToLedger() {
+        if (ledger == null) {
+            return;
+        }
+        long credits = 0;
+        long debits = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            credits += cents.getAndSet(stripe * PAD + CREDITS, 0);
+            debits += cents.getAndSet(stripe * PAD + DEBITS, 0);
+        }
+        // Credits first, so the projection never sees the batch overdraw the account
+        if (credits > 0) {
+            lastSequence = ledger.recordCredit(getAccountNumber(), credits / 100.0);
+        }
+        if (debits > 0) {
+            lastSequence = ledger.recordDebit(getAccountNumber(), debits / 100.0);
+        }
+    }
+
+    // Pools the stripes under the monitor, so a concurrent withdrawal waits rather than seeing them empty
+    @Override
+    synchronized void resetBalance(double newBalance) {
+        recordToLedger();
+        long total = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            total += cents.getAndSet(stripe * PAD, 0);
+        }
+        long newCents = WireProtocol.toCents(newBalance);
+        spread(newCents);
+        long delta = newCents - total;
+        if (ledger != null && delta != 0) {
+            lastSequence = delta > 0
+                    ? ledger.recordCredit(getAccountNumber(), delta / 100.0)
+                    : ledger.recordDebit(getAccountNumber(), -delta / 100.0);
+        }
+    }
+
+    public int getStripeCount() {
+        return mask + 1;
+    }
+
+    private boolean tryTake(int stripe, long amountCents) {
+        int index = stripe * PAD;
+        long current;
+        do {
+            current = cents.get(index);
+            if (current < amountCents) {
+                return false;
+            }
+        } while (!cents.compareAndSet(index, current, current - amountCents));
+        return true;
+    }
+
+    // Slow path: no single stripe could cover the amount
+    private synchronized boolean withdrawPooled(long amountCents) {
+        long total = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            total += cents.getAndSet(stripe * PAD, 0);
+        }
+        boolean approved = total >= amountCents;
+        spread(approved ? total - amountCents : total);
+        return approved;
+    }
+
+    private void spread(long totalCents) {
+        long share = totalCents / (mask + 1);
+        long remainder = totalCents - share * (mask + 1);
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            cents.addAndGet(stripe * PAD, stripe == 0 ? share + remainder : share);
+        }
+    }
+
+    private void unrecorded(int stripe, int offset, long amountCents) {
+        if (ledger != null) {
+            cents.addAndGet(stripe * PAD + offset, amountCents);
+        }
+    }
+
+    private long total() {
+        long total = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            total += cents.get(stripe * PAD);
+        }
+        return total;
+    }
+
+    private int homeStripe() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+}
@@ -0,0 +1,147 @@
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A terminal whose ATMMachineContext is only ever touched by the scheduler
+ * worker it is pinned to. Callers on any thread enqueue commands; the
+ * worker drains them in batches, so the state machine itself needs no locks.
+ * Each command returns a future of its {@link Outcome}, so callers can
+ * pipeline a whole session without waiting on a thread per terminal.
+ * <p>
+ * A withdrawal does not hold the worker while the cash dispenser works:
+ * the actor sets the session aside until the device is done, the worker
+ * serves other terminals meanwhile, and the transaction finishes back on
+ * the worker before the terminal's next command runs.
+ */
+public class TerminalActor {
+    private final String terminalId;
+    private final ATMMachineContext context;
+    private final Mailbox<Consumer<ATMMachineContext>> mailbox;
+    private final AtomicBoolean scheduled;
+    private final ActorScheduler.Worker worker;
+    // Set by the dispenser's thread once a suspended withdrawal can finish
+    private volatile PendingDispense resumable;
+
+    TerminalActor(String terminalId, ATMMachineContext context, ActorScheduler.Worker worker) {
+        this.terminalId = terminalId;
+        this.context = context;
+        this.mailbox = new Mailbox<>();
+        this.scheduled = new AtomicBoolean();
+        this.worker = worker;
+        context.setDeferringDispenses(true);
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    public void tell(Consumer<ATMMachineContext> command) {
+        mailbox.offer(command);
+        if (scheduled.compareAndSet(false, true)) {
+            worker.schedule(this);
+        }
+    }
+
+    /**
+     * Queues a command and returns a future completed with its outcome once
+     * the command has run. Commands for this terminal run one at a time in
+     * submission order; other terminals run in parallel on other workers.
+     * Stages chained without an executor run on this terminal's worker, so
+     * they should not block.
+     */
+    public CompletableFuture<Outcome> submit(Consumer<ATMMachineContext> command) {
+        return enqueue(command, false);
+    }
+
+    public CompletableFuture<Outcome> insertCard(Card card) {
+        return submit(context -> context.insertCard(card));
+    }
+
+    public CompletableFuture<Outcome> enterPin(int pin) {
+        return submit(context -> context.enterPin(pin));
+    }
+
+    public CompletableFuture<Outcome> selectOperation(TransactionType transactionType) {
+        return submit(context -> context.selectOperation(transactionType));
+    }
+
+    public CompletableFuture<Outcome> performTransaction(double amount) {
+        return enqueue(context -> context.performTransaction(amount), true);
+    }
+
+    public CompletableFuture<Outcome> performTransaction(double amount, long transactionId) {
+        return enqueue(context -> context.performTransaction(amount, transactionId), true);
+    }
+
+    public CompletableFuture<Outcome> returnCard() {
+        return submit(ATMMachineContext::returnCard);
+    }
+
+    public CompletableFuture<Outcome> cancelTransaction() {
+        return submit(ATMMachineContext::cancelTransaction);
+    }
+
+    private CompletableFuture<Outcome> enqueue(Consumer<ATMMachineContext> command, boolean transaction) {
+        CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        tell(context -> {
+            try {
+                Supplier<Outcome> report = Outcome.run(context, command, transaction);
+                PendingDispense pending = context.getPendingDispense();
+                if (pending != null) {
+                    pending.then(() -> outcome.complete(report.get()));
+                } else {
+                    outcome.complete(report.get());
+                }
+            } catch (RuntimeException e) {
+                outcome.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return outcome;
+    }
+
+    // Runs on the owning worker only
+    void drain(int batchSize) {
+        PendingDispense ready = resumable;
+        if (ready != null) {
+            resumable = null;
+            try {
+                ready.finish();
+            } catch (RuntimeException e) {
+                System.out.println("Command failed on terminal " + terminalId + ": " + e.getMessage());
+            }
+        }
+        int processed = 0;
+        Consumer<ATMMachineContext> command;
+        while (processed < batchSize && (command = mailbox.poll()) != null) {
+            try {
+                command.accept(context);
+            } catch (RuntimeException e) {
+                System.out.println("Command failed on terminal " + terminalId + ": " + e.getMessage());
+            }
+            processed++;
+            PendingDispense pending = context.takePendingDispense();
+            if (pending != null) {
+                // Stay marked as scheduled so tell() leaves the mailbox alone; the device brings the actor back
+                pending.whenDeviceDone(() -> {
+                    resumable = pending;
+                    worker.schedule(this);
+                });
+                return;
+            }
+        }
+        if (processed == batchSize && !mailbox.isEmpty()) {
+            // Yield to other terminals on this worker and come back for the rest
+            worker.schedule(this);
+            return;
+        }
+        scheduled.set(false);
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            worker.schedule(this);
+        }
+    }
+}
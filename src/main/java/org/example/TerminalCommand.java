@@ -0,0 +1,21 @@
+package org.example;
+
+// Commands a terminal accepts, in transition table column order
+public enum TerminalCommand {
+    INSERT_CARD("insert card"),
+    ENTER_PIN("enter PIN"),
+    SELECT_OPERATION("select operation"),
+    PERFORM_TRANSACTION("perform transaction"),
+    RETURN_CARD("return card"),
+    CANCEL_TRANSACTION("cancel transaction");
+
+    private final String verb;
+
+    TerminalCommand(String verb) {
+        this.verb = verb;
+    }
+
+    public String getVerb() {
+        return verb;
+    }
+}
@@ -0,0 +1,342 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking host for terminals speaking {@link WireProtocol}.
+ * <p>
+ * One selector thread owns every connection and the ATMMachineContext
+ * behind it, so contexts are never shared between threads. Requests are
+ * decoded in place from pooled direct buffers and responses written into
+ * the connection's outbound buffer; pipelined requests that arrive in one
+ * read are answered with one write. A withdrawal waiting on the cash
+ * dispenser suspends only its own connection: the selector stops reading
+ * from it and serves other terminals until the device is done.
+ */
+public class TerminalHostServer implements AutoCloseable {
+    public static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    private final Supplier<ATMMachineContext> terminalFactory;
+    private final CardDirectory cards;
+    private final BufferPool bufferPool;
+    // Connections whose dispenser has finished, handed back to the selector thread
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile long messagesProcessed;
+
+    public TerminalHostServer(Supplier<ATMMachineContext> terminalFactory, CardDirectory cards) {
+        this.terminalFactory = terminalFactory;
+        this.cards = cards;
+        this.bufferPool = new BufferPool(BUFFER_SIZE, 1024);
+    }
+
+    public void start(InetSocketAddress address) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::run, "atm-host-selector");
+        thread.start();
+        System.out.println("Terminal host listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public long getMessagesProcessed() {
+        return messagesProcessed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Runnable completion;
+                while ((completion = completions.poll()) != null) {
+                    completion.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isWritable()) {
+                                connection.onWritable();
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                connection.onReadable();
+                            }
+                        }
+                    } catch (IOException e) {
+                        Object attachment = key.attachment();
+                        if (attachment instanceof Connection) {
+                            ((Connection) attachment).close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Terminal host stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.out.println("Error closing terminal host: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    private class Connection {
+        private final SocketChannel channel;
+        private final ATMMachineContext context;
+        private final ByteBuffer in;
+        private final ByteBuffer out;
+        private SelectionKey key;
+        // The withdrawal this connection is waiting on, or null
+        private PendingDispense pending;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.context = terminalFactory.get();
+            this.context.setDeferringDispenses(true);
+            this.in = bufferPool.acquire();
+            this.out = bufferPool.acquire();
+        }
+
+        void onReadable() throws IOException {
+            if (channel.read(in) < 0) {
+                close();
+                return;
+            }
+            processInput();
+        }
+
+        void onWritable() throws IOException {
+            flush();
+            processInput();
+        }
+
+        private void processInput() throws IOException {
+            int limit = in.position();
+            int position = 0;
+            int frame = 0;
+            while (pending == null && (frame = WireProtocol.frameLength(in, position, limit)) > 0) {
+                if (out.remaining() < WireProtocol.RESPONSE_FRAME) {
+                    out.flip();
+                    channel.write(out);
+                    out.compact();
+                    if (out.remaining() < WireProtocol.RESPONSE_FRAME) {
+                        // Peer is not reading; resume once the socket drains
+                        break;
+                    }
+                }
+                handle(position, frame);
+                position += frame;
+            }
+            if (frame < 0 && position == 0 && limit == in.capacity()) {
+                // A frame larger than the buffer can never complete
+                close();
+                return;
+            }
+            in.limit(limit).position(position);
+            in.compact();
+            flush();
+        }
+
+        private void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            boolean unsent = out.position() > 0;
+            boolean canRead = pending == null && out.remaining() >= WireProtocol.RESPONSE_FRAME;
+            int ops = (unsent ? SelectionKey.OP_WRITE : 0) | (canRead ? SelectionKey.OP_READ : 0);
+            if (key.isValid() && key.interestOps() != ops) {
+                key.interestOps(ops);
+            }
+        }
+
+        private void handle(int offset, int frame) {
+            messagesProcessed++;
+            byte type = frame > WireProtocol.REQUEST_TYPE ? in.get(offset + WireProtocol.REQUEST_TYPE) : 0;
+            if (frame != WireProtocol.REQUEST_FRAME) {
+                respond(type, ResponseCode.FORMAT_ERROR, 0);
+                return;
+            }
+            byte operation = in.get(offset + WireProtocol.REQUEST_OPERATION);
+            long pan = in.getLong(offset + WireProtocol.REQUEST_PAN);
+            ResponseCode responseCode;
+            long amountCents = 0;
+            switch (type) {
+                case WireProtocol.INSERT_CARD: {
+                    Card card = cards.find(pan);
+                    if (card == null) {
+                        responseCode = ResponseCode.UNKNOWN_CARD;
+                    } else {
+                        context.insertCard(card);
+                        responseCode = context.getLastResponseCode();
+                    }
+                    break;
+                }
+                case WireProtocol.ENTER_PIN: {
+                    int pin = PinBlock.decode(in.getLong(offset + WireProtocol.REQUEST_PIN_BLOCK), pan);
+                    if (pin == PinBlock.INVALID_PIN) {
+                        responseCode = ResponseCode.FORMAT_ERROR;
+                    } else {
+                        context.enterPin(pin);
+                        responseCode = context.getLastResponseCode();
+                    }
+                    break;
+                }
+                case WireProtocol.SELECT_OPERATION:
+                    if (operation < 0 || operation >= TRANSACTION_TYPES.length) {
+                        responseCode = ResponseCode.FORMAT_ERROR;
+                    } else {
+                        context.selectOperation(TRANSACTION_TYPES[operation]);
+                        responseCode = context.getLastResponseCode();
+                    }
+                    break;
+                case WireProtocol.PERFORM_TRANSACTION: {
+                    long requestedCents = in.getLong(offset + WireProtocol.REQUEST_AMOUNT);
+                    TransactionType selected = context.getSelectedOperation();
+                    context.performTransaction(requestedCents / 100.0);
+                    PendingDispense dispense = context.takePendingDispense();
+                    if (dispense != null) {
+                        // Answer once the device is done; buffers are gone if the terminal hung up meanwhile
+                        dispense.then(() -> {
+                            if (channel.isOpen()) {
+                                respondToTransaction(selected, requestedCents);
+                            }
+                        });
+                        suspend(dispense);
+                        return;
+                    }
+                    respondToTransaction(selected, requestedCents);
+                    return;
+                }
+                case WireProtocol.RETURN_CARD:
+                    context.returnCard();
+                    responseCode = context.getLastResponseCode();
+                    break;
+                case WireProtocol.CANCEL_TRANSACTION:
+                    context.cancelTransaction();
+                    responseCode = context.getLastResponseCode();
+                    break;
+                default:
+                    responseCode = ResponseCode.FORMAT_ERROR;
+            }
+            respond(type, responseCode, amountCents);
+        }
+
+        private void respondToTransaction(TransactionType selected, long requestedCents) {
+            ResponseCode responseCode = context.getLastResponseCode();
+            long amountCents = 0;
+            if (responseCode == ResponseCode.APPROVED) {
+                amountCents = selected == TransactionType.WITHDRAW_CASH
+                        ? requestedCents
+                        : WireProtocol.toCents(context.getCurrentAccount().getBalance());
+            } else if (responseCode == ResponseCode.PARTIAL_DISPENSE && context.getDispensedNotes() != null) {
+                // The customer has the presented notes and was charged for them
+                amountCents = 100L * Outcome.amountOf(context.getATMInventory(), context.getDispensedNotes());
+            }
+            respond(WireProtocol.PERFORM_TRANSACTION, responseCode, amountCents);
+        }
+
+        private void suspend(PendingDispense dispense) {
+            pending = dispense;
+            dispense.whenDeviceDone(() -> {
+                completions.add(this::resume);
+                selector.wakeup();
+            });
+        }
+
+        // Runs on the selector thread; the transaction settles even if the terminal has gone
+        private void resume() {
+            PendingDispense dispense = pending;
+            pending = null;
+            dispense.finish();
+            if (!channel.isOpen()) {
+                return;
+            }
+            try {
+                processInput();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void respond(byte type, ResponseCode responseCode, long amountCents) {
+            WireProtocol.putResponse(out, type, responseCode,
+                    WireProtocol.stateCode(context.getCurrentState()), amountCents);
+        }
+
+        void close() {
+            if (!channel.isOpen()) {
+                return;
+            }
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.out.println("Error closing terminal connection: " + e.getMessage());
+            }
+            bufferPool.release(in);
+            bufferPool.release(out);
+        }
+    }
+}
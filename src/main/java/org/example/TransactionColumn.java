@@ -0,0 +1,11 @@
+package org.example;
+
+public enum TransactionColumn {
+    TIMESTAMP,
+    TERMINAL,
+    ACCOUNT,
+    TYPE,
+    NOTES,
+    DEBIT,
+    DISPENSED
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Day journal of completed transactions as fixed-width little-endian
+ * records, written through one large direct buffer.
+ * <p>
+ * Account numbers are replaced by dense IDs in the order they are first
+ * seen; the dictionary is written next to the journal on close, one
+ * account number per line. Fixed-width records let readers split the
+ * file into independent ranges without scanning for boundaries.
+ */
+public class TransactionJournal implements AutoCloseable {
+    public static final int RECORD_SIZE = 40;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int TERMINAL_OFFSET = 8;
+    static final int ACCOUNT_OFFSET = 12;
+    static final int TYPE_OFFSET = 16;
+    static final int NOTES_OFFSET = 20;
+    static final int DEBIT_OFFSET = 24;
+    static final int DISPENSED_OFFSET = 32;
+
+    private static final int BUFFER_RECORDS = 32 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> accountIds = new HashMap<>();
+    private final List<String> accounts = new ArrayList<>();
+    private long recordCount;
+
+    // Starts a new journal, replacing any existing file
+    public TransactionJournal(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public synchronized void append(long timestampMillis, int terminalId, String accountNumber,
+                                    TransactionType type, int noteCount,
+                                    long debitCents, long dispensedCents) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        Integer accountId = accountIds.get(accountNumber);
+        if (accountId == null) {
+            accountId = accounts.size();
+            accountIds.put(accountNumber, accountId);
+            accounts.add(accountNumber);
+        }
+        buffer.putLong(timestampMillis)
+                .putInt(terminalId)
+                .putInt(accountId)
+                .putInt(type.ordinal())
+                .putInt(noteCount)
+                .putLong(debitCents)
+                .putLong(dispensedCents);
+        recordCount++;
+    }
+
+    public synchronized void flush() throws IOException {
+        drain();
+        channel.force(false);
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        drain();
+        channel.close();
+        Files.write(dictionaryPath(path), accounts, StandardCharsets.UTF_8);
+    }
+
+    public static Path dictionaryPath(Path journal) {
+        return journal.resolveSibling(journal.getFileName() + ".accounts");
+    }
+
+    // Account numbers indexed by the IDs stored in the journal
+    public static List<String> readAccountDictionary(Path journal) throws IOException {
+        return Files.readAllLines(dictionaryPath(journal), StandardCharsets.UTF_8);
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,6 +1,9 @@
 package org.example;
 
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class TransactionState implements ATMState {
     public TransactionState() {
@@ -37,6 +40,17 @@ public class TransactionState implements ATMState {
 
     @Override
     public void performTransaction(ATMMachineContext context, double amount) {
+        if (execute(context, amount)) {
+            context.advanceState();
+        } else {
+            context.setCurrentState(
+                context.getStateFactory().createSelectOperationState()
+            );
+        }
+    }
+
+    // Runs the selected operation and sets the response code; shared with the transition table
+    static boolean execute(ATMMachineContext context, double amount) {
         try {
             TransactionType selectedOperation = context.getSelectedOperation();
             if (selectedOperation == TransactionType.WITHDRAW_CASH) {
@@ -44,55 +58,179 @@ public class TransactionState implements ATMState {
             } else if (selectedOperation == TransactionType.CHECK_BALANCE) {
                 checkBalance(context);
             }
-            context.advanceState();
+            context.setLastResponseCode(ResponseCode.APPROVED);
+            return true;
         } catch (Exception e) {
             System.out.println("Transaction failed: " + e.getMessage());
-            context.setCurrentState(
-                context.getStateFactory().createSelectOperationState()
-            );
+            if (context.getLastResponseCode() == ResponseCode.INVALID_STATE) {
+                context.setLastResponseCode(ResponseCode.SYSTEM_ERROR);
+            }
+            return false;
         }
     }
 
     @Override
     public void returnCard(ATMMachineContext context) {
-        System.out.println("Card returned to customer");
-        context.resetATM();
+        StateActions.returnCard(context);
     }
 
     @Override
     public void cancelTransaction(ATMMachineContext context) {
-        System.out.println("Transaction cancelled");
-        returnCard(context);
+        StateActions.cancel(context, "Transaction cancelled");
     }
 
-    private void performWithdrawal(ATMMachineContext context, double amount) 
+    private static void performWithdrawal(ATMMachineContext context, double amount) 
             throws Exception {
         Account currentAccount = context.getCurrentAccount();
         ATMInventory atmInventory = context.getATMInventory();
 
+        // Refuse what the cassettes cannot make up before any money moves
+        if (!atmInventory.hasSufficientCash((int) amount)) {
+            context.setLastResponseCode(ResponseCode.INSUFFICIENT_CASH);
+            throw new Exception("Insufficient cash in ATM");
+        }
+        if (!atmInventory.canDispense((int) amount)) {
+            suggestDispensableAmounts(atmInventory, (int) amount);
+            context.setLastResponseCode(ResponseCode.UNDISPENSABLE_AMOUNT);
+            throw new Exception("Unable to dispense exact amount");
+        }
         if (!currentAccount.withdraw(amount)) {
+            context.setLastResponseCode(ResponseCode.INSUFFICIENT_FUNDS);
             throw new Exception("Insufficient funds in account");
         }
-        if (!atmInventory.hasSufficientCash((int) amount)) {
-            currentAccount.deposit(amount);
-            throw new Exception("Insufficient cash in ATM");
+        CashDispenser dispenser = context.getCashDispenser();
+        if (dispenser != null) {
+            dispenseThroughDevice(context, dispenser, amount);
+            return;
         }
         Map<CashType, Integer> dispensedCash = 
             atmInventory.dispenseCash((int) amount);
         if (dispensedCash == null) {
             currentAccount.deposit(amount);
+            suggestDispensableAmounts(atmInventory, (int) amount);
+            context.setLastResponseCode(ResponseCode.UNDISPENSABLE_AMOUNT);
             throw new Exception("Unable to dispense exact amount");
         }
         System.out.println("Transaction successful. Please collect your cash:");
+        int noteCount = 0;
+        long dispensedCents = 0;
         for (Map.Entry<CashType, Integer> entry : dispensedCash.entrySet()) {
-            System.out.println(entry.getValue() + " x $" + entry.getKey().value);
+            System.out.println(entry.getValue() + " x " + entry.getKey());
+            noteCount += entry.getValue();
+            dispensedCents += 100L * entry.getKey().value * entry.getValue();
+        }
+        journal(context, TransactionType.WITHDRAW_CASH, noteCount,
+                WireProtocol.toCents(amount), dispensedCents);
+    }
+
+    private static void dispenseThroughDevice(ATMMachineContext context, CashDispenser dispenser, double amount)
+            throws Exception {
+        Account currentAccount = context.getCurrentAccount();
+        ATMInventory atmInventory = context.getATMInventory();
+        int[] notes = atmInventory.dispenseNotes((int) amount);
+        if (notes == null) {
+            currentAccount.deposit(amount);
+            suggestDispensableAmounts(atmInventory, (int) amount);
+            context.setLastResponseCode(ResponseCode.UNDISPENSABLE_AMOUNT);
+            throw new Exception("Unable to dispense exact amount");
+        }
+        CompletableFuture<DispenseResult> device = dispenser.dispense(notes);
+        if (context.isDeferringDispenses()) {
+            // The owner finishes the transaction on its own thread once the device is done
+            context.setPendingDispense(new PendingDispense(device, result -> {
+                try {
+                    finishDispense(context, amount, result);
+                } catch (Exception e) {
+                    System.out.println("Transaction failed: " + e.getMessage());
+                }
+            }));
+            return;
+        }
+        // A context without an owner that defers has a thread of its own, so it simply waits
+        DispenseResult result;
+        try {
+            result = device.join();
+        } catch (CompletionException e) {
+            result = null;
+        }
+        finishDispense(context, amount, result);
+    }
+
+    // A null result means the device failed without reporting what it presented
+    private static void finishDispense(ATMMachineContext context, double amount, DispenseResult result)
+            throws Exception {
+        Account currentAccount = context.getCurrentAccount();
+        ATMInventory atmInventory = context.getATMInventory();
+        if (result == null) {
+            currentAccount.deposit(amount);
+            context.setLastResponseCode(ResponseCode.SYSTEM_ERROR);
+            throw new Exception("Dispenser failed");
+        }
+        // Only presented notes count as dispensed; rejected ones are out of the cassettes but not paid out
+        int[] presented = new int[result.getSlotCount()];
+        int noteCount = 0;
+        long dispensedCents = 0;
+        for (int slot = 0; slot < presented.length; slot++) {
+            presented[slot] = result.getPresented(slot);
+            noteCount += presented[slot];
+            dispensedCents += 100L * atmInventory.getCashType(slot).value * presented[slot];
+        }
+        context.setDispensedNotes(presented);
+        if (result.isComplete()) {
+            System.out.println("Transaction successful. Please collect your cash:");
+        } else {
+            System.out.println("Dispenser jammed. Please collect the cash presented:");
+        }
+        for (int slot = 0; slot < result.getSlotCount(); slot++) {
+            if (result.getPresented(slot) > 0) {
+                System.out.println(result.getPresented(slot) + " x " + atmInventory.getCashType(slot));
+            }
+        }
+        if (!result.isComplete()) {
+            // Rejected notes are out of the cassettes but never reached the customer
+            currentAccount.deposit(amount - dispensedCents / 100.0);
+            context.setLastResponseCode(ResponseCode.PARTIAL_DISPENSE);
+            journal(context, TransactionType.WITHDRAW_CASH, noteCount, dispensedCents, dispensedCents);
+            throw new Exception("Partial dispense of $" + dispensedCents / 100 + " of $" + (int) amount);
+        }
+        journal(context, TransactionType.WITHDRAW_CASH, noteCount,
+                WireProtocol.toCents(amount), dispensedCents);
+    }
+
+    private static void journal(ATMMachineContext context, TransactionType type, int noteCount,
+                                long debitCents, long dispensedCents) {
+        if (noteCount > 0) {
+            context.audit(AuditEventType.CASH_DISPENSED, noteCount, dispensedCents);
+        }
+        TransactionJournal journal = context.getJournal();
+        if (journal == null) {
+            return;
+        }
+        // The cash is already out, so a journal failure must not fail the transaction
+        try {
+            journal.append(System.currentTimeMillis(), context.getTerminalId(),
+                    context.getCurrentAccount().getAccountNumber(), type, noteCount, debitCents, dispensedCents);
+        } catch (IOException e) {
+            System.out.println("Journal write failed: " + e.getMessage());
+        }
+    }
+
+    private static void suggestDispensableAmounts(ATMInventory atmInventory, int amount) {
+        int below = atmInventory.nearestDispensableBelow(amount);
+        int above = atmInventory.nearestDispensableAbove(amount);
+        if (below > 0) {
+            System.out.println("Nearest lower amount available: $" + below);
+        }
+        if (above > 0) {
+            System.out.println("Nearest higher amount available: $" + above);
         }
     }
 
-    private void checkBalance(ATMMachineContext context) {
+    private static void checkBalance(ATMMachineContext context) {
         Account currentAccount = context.getCurrentAccount();
         System.out.println(
             "Your current balance is: $" + currentAccount.getBalance()
         );
+        journal(context, TransactionType.CHECK_BALANCE, 0, 0, 0);
     }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+package org.example;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The terminal state machine as data: a table of states × commands whose
+ * cells hold ordered (guard, action, next state) rules.
+ * <p>
+ * {@link Builder#build()} checks the table and compiles it into flat arrays
+ * indexed by {@code state * COMMANDS + command}, so dispatching a command is
+ * an index computation, a guard test and an action call instead of a virtual
+ * call on a freshly allocated state object. The first rule whose guard passes
+ * runs; a cell without rules rejects the command and leaves the state as is.
+ */
+public final class TransitionTable {
+    public static final int STATES = ATMStateId.values().length;
+    public static final int COMMANDS = TerminalCommand.values().length;
+
+    // The argument is the command's object operand (card, operation type), the value its numeric one (PIN, amount)
+    @FunctionalInterface
+    public interface Guard {
+        boolean test(ATMMachineContext context, Object argument, double value);
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run(ATMMachineContext context, Object argument, double value);
+    }
+
+    // An action whose result picks the next state, for outcomes only known once it has run
+    @FunctionalInterface
+    public interface Decision {
+        boolean run(ATMMachineContext context, Object argument, double value);
+    }
+
+    // Rules of cell c are [ruleStart[c], ruleStart[c + 1])
+    private final int[] ruleStart;
+    private final Guard[] guards;
+    private final Action[] actions;
+    private final Decision[] decisions;
+    private final int[] nextStates;
+    // Where a rule's decision goes when it returns false
+    private final int[] otherwiseStates;
+    private final String[] rejections;
+    // One shared instance per state, handed out by ATMMachineContext.getCurrentState()
+    private final ATMState[] states;
+
+    private TransitionTable(Builder builder) {
+        int cells = STATES * COMMANDS;
+        int ruleCount = 0;
+        for (List<Rule> rules : builder.cells) {
+            ruleCount += rules.size();
+        }
+        this.ruleStart = new int[cells + 1];
+        this.guards = new Guard[ruleCount];
+        this.actions = new Action[ruleCount];
+        this.decisions = new Decision[ruleCount];
+        this.nextStates = new int[ruleCount];
+        this.otherwiseStates = new int[ruleCount];
+        this.rejections = builder.rejections.clone();
+        int rule = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            ruleStart[cell] = rule;
+            for (Rule r : builder.cells.get(cell)) {
+                guards[rule] = r.guard;
+                actions[rule] = r.action;
+                decisions[rule] = r.decision;
+                nextStates[rule] = r.next.ordinal();
+                otherwiseStates[rule] = r.otherwise == null ? -1 : r.otherwise.ordinal();
+                rule++;
+            }
+        }
+        ruleStart[cells] = rule;
+        this.states = new ATMState[] {
+            new IdleState(), new HasCardState(), new SelectOperationState(), new TransactionState()
+        };
+    }
+
+    // Runs the command in the given state and returns the state to move to
+    int dispatch(ATMMachineContext context, int state, int command, Object argument, double value) {
+        int cell = state * COMMANDS + command;
+        int end = ruleStart[cell + 1];
+        for (int rule = ruleStart[cell]; rule < end; rule++) {
+            Guard guard = guards[rule];
+            if (guard == null || guard.test(context, argument, value)) {
+                Decision decision = decisions[rule];
+                if (decision != null) {
+                    return decision.run(context, argument, value) ? nextStates[rule] : otherwiseStates[rule];
+                }
+                actions[rule].run(context, argument, value);
+                return nextStates[rule];
+            }
+        }
+        System.out.println(rejections[cell]);
+        return state;
+    }
+
+    ATMState getState(int state) {
+        return states[state];
+    }
+
+    public int getRuleCount() {
+        return guards.length;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // The same behaviour as the ATMState classes; both run the bodies in StateActions
+    public static TransitionTable standard() {
+        Action returnCard = (context, argument, value) -> StateActions.returnCard(context);
+        Action cancel = (context, argument, value) -> StateActions.cancel(context, "Operation cancelled");
+        Action cancelTransaction = (context, argument, value) ->
+                StateActions.cancel(context, "Transaction cancelled");
+
+        return builder()
+            .on(ATMStateId.IDLE, TerminalCommand.INSERT_CARD,
+                (context, argument, value) -> StateActions.insertCard(context, (Card) argument),
+                ATMStateId.HAS_CARD, ATMStateId.IDLE)
+            .reject(ATMStateId.IDLE, TerminalCommand.RETURN_CARD, "No card to return")
+            .reject(ATMStateId.IDLE, TerminalCommand.CANCEL_TRANSACTION, "No transaction to cancel")
+
+            .reject(ATMStateId.HAS_CARD, TerminalCommand.INSERT_CARD, "Card already inserted")
+            .on(ATMStateId.HAS_CARD, TerminalCommand.ENTER_PIN,
+                (context, argument, value) -> StateActions.enterPin(context, (int) value),
+                ATMStateId.SELECT_OPERATION, ATMStateId.HAS_CARD)
+            .on(ATMStateId.HAS_CARD, TerminalCommand.RETURN_CARD, returnCard, ATMStateId.IDLE)
+            .on(ATMStateId.HAS_CARD, TerminalCommand.CANCEL_TRANSACTION, cancel, ATMStateId.IDLE)
+
+            .reject(ATMStateId.SELECT_OPERATION, TerminalCommand.INSERT_CARD, "Card already inserted")
+            .reject(ATMStateId.SELECT_OPERATION, TerminalCommand.ENTER_PIN, "PIN already authenticated")
+            .on(ATMStateId.SELECT_OPERATION, TerminalCommand.SELECT_OPERATION,
+                (context, argument, value) -> StateActions.selectOperation(context, (TransactionType) argument),
+                ATMStateId.TRANSACTION, ATMStateId.SELECT_OPERATION)
+            .on(ATMStateId.SELECT_OPERATION, TerminalCommand.RETURN_CARD, returnCard, ATMStateId.IDLE)
+            .on(ATMStateId.SELECT_OPERATION, TerminalCommand.CANCEL_TRANSACTION, cancel, ATMStateId.IDLE)
+
+            .reject(ATMStateId.TRANSACTION, TerminalCommand.INSERT_CARD, "Card already inserted")
+            .reject(ATMStateId.TRANSACTION, TerminalCommand.ENTER_PIN, "PIN already authenticated")
+            .reject(ATMStateId.TRANSACTION, TerminalCommand.SELECT_OPERATION, "Transaction already in progress")
+            .on(ATMStateId.TRANSACTION, TerminalCommand.PERFORM_TRANSACTION,
+                (context, argument, value) -> TransactionState.execute(context, value),
+                ATMStateId.SELECT_OPERATION)
+            .on(ATMStateId.TRANSACTION, TerminalCommand.RETURN_CARD, returnCard, ATMStateId.IDLE)
+            .on(ATMStateId.TRANSACTION, TerminalCommand.CANCEL_TRANSACTION, cancelTransaction, ATMStateId.IDLE)
+            .build();
+    }
+
+    private static final class Rule {
+        final Guard guard;
+        final Action action;
+        final Decision decision;
+        final ATMStateId next;
+        final ATMStateId otherwise;
+
+        Rule(Guard guard, Action action, Decision decision, ATMStateId next, ATMStateId otherwise) {
+            this.guard = guard;
+            this.action = action;
+            this.decision = decision;
+            this.next = next;
+            this.otherwise = otherwise;
+        }
+    }
+
+    public static final class Builder {
+        private final List<List<Rule>> cells = new ArrayList<>();
+        private final String[] rejections = new String[STATES * COMMANDS];
+
+        private Builder() {
+            for (ATMStateId state : ATMStateId.values()) {
+                for (TerminalCommand command : TerminalCommand.values()) {
+                    cells.add(new ArrayList<>());
+                    rejections[cell(state, command)] = "Cannot " + command.getVerb() + " in " + state.getStateName();
+                }
+            }
+        }
+
+        // Rules of a cell are tried in the order they were added
+        public Builder on(ATMStateId state, TerminalCommand command, Guard guard, Action action, ATMStateId next) {
+            cells.get(cell(state, command)).add(new Rule(guard, action, null, next, null));
+            return this;
+        }
+
+        public Builder on(ATMStateId state, TerminalCommand command, Action action, ATMStateId next) {
+            return on(state, command, null, action, next);
+        }
+
+        // Moves to next if the decision returns true, to otherwise if it returns false
+        public Builder on(ATMStateId state, TerminalCommand command, Decision decision,
+                          ATMStateId next, ATMStateId otherwise) {
+            cells.get(cell(state, command)).add(new Rule(null, null, decision, next, otherwise));
+            return this;
+        }
+
+        // Message printed when the command arrives in this state, followed by " in <state>"
+        public Builder reject(ATMStateId state, TerminalCommand command, String message) {
+            rejections[cell(state, command)] = message + " in " + state.getStateName();
+            return this;
+        }
+
+        /**
+         * Compiles the table after checking that no rule is shadowed by an
+         * unguarded one before it, that every state is reachable from IDLE and
+         * that IDLE is reachable from every state.
+         */
+        public TransitionTable build() {
+            for (ATMStateId state : ATMStateId.values()) {
+                for (TerminalCommand command : TerminalCommand.values()) {
+                    List<Rule> rules = cells.get(cell(state, command));
+                    for (int i = 0; i < rules.size() - 1; i++) {
+                        if (rules.get(i).guard == null) {
+                            throw new IllegalStateException("Unguarded rule shadows later rules for "
+                                    + command + " in " + state);
+                        }
+                    }
+                }
+            }
+            Set<ATMStateId> unreachable = EnumSet.allOf(ATMStateId.class);
+            unreachable.removeAll(reachable(ATMStateId.IDLE, false));
+            if (!unreachable.isEmpty()) {
+                throw new IllegalStateException("States unreachable from IDLE: " + unreachable);
+            }
+            Set<ATMStateId> stuck = EnumSet.allOf(ATMStateId.class);
+            stuck.removeAll(reachable(ATMStateId.IDLE, true));
+            if (!stuck.isEmpty()) {
+                throw new IllegalStateException("States with no way back to IDLE: " + stuck);
+            }
+            return new TransitionTable(this);
+        }
+
+        // Breadth-first search along the rule edges, or against them when reversed
+        private Set<ATMStateId> reachable(ATMStateId start, boolean reversed) {
+            Set<ATMStateId> seen = EnumSet.of(start);
+            ArrayDeque<ATMStateId> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                ATMStateId current = queue.poll();
+                for (ATMStateId state : ATMStateId.values()) {
+                    for (TerminalCommand command : TerminalCommand.values()) {
+                        for (Rule rule : cells.get(cell(state, command))) {
+                            for (ATMStateId next : new ATMStateId[] {rule.next, rule.otherwise}) {
+                                if (next == null) {
+                                    continue;
+                                }
+                                ATMStateId from = reversed ? next : state;
+                                ATMStateId to = reversed ? state : next;
+                                if (from == current && seen.add(to)) {
+                                    queue.add(to);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            return seen;
+        }
+
+        private static int cell(ATMStateId state, TerminalCommand command) {
+            return state.ordinal() * COMMANDS + command.ordinal();
+        }
+    }
+}
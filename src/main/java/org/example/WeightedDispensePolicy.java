@@ -0,0 +1,153 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Base for policies that pick the cheapest exact combination, where every
+ * note drawn from a cassette has a fixed cost for the current epoch.
+ * <p>
+ * Compiling solves a bounded min-cost change problem for every amount up to
+ * the total cash, one cassette at a time. Within a cassette the candidates
+ * for an amount form a sliding window over the same residue class, so a
+ * monotone deque keeps each layer linear in the table size. Amounts are
+ * indexed in units of the denominations' greatest common divisor, so
+ * currencies with large notes do not pay for amounts no note can make.
+ * <p>
+ * A table stays current while no cassette has been refilled. Each cached
+ * combination was the cheapest for the counts it was compiled against, so
+ * it is still the cheapest for fewer notes as long as it is still loaded.
+ * Policies whose costs follow the counts also recompile once a cassette has
+ * lost a quarter of its notes.
+ */
+public abstract class WeightedDispensePolicy implements DispensePolicy {
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /**
+     * Cost of drawing one note from each slot, given the counts at
+     * the start of the epoch.
+     */
+    protected abstract long[] noteCosts(int[] denominations, int[] counts);
+
+    // Whether noteCosts changes with the counts, so a table goes stale as cassettes drain
+    protected boolean costsDependOnCounts() {
+        return false;
+    }
+
+    @Override
+    public DispenseTable compile(int[] denominations, int[] counts) {
+        int slots = denominations.length;
+        int unit = 0;
+        for (int denomination : denominations) {
+            unit = gcd(unit, denomination);
+        }
+        int limit = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            limit += denominations[slot] / unit * counts[slot];
+        }
+        long[] costs = noteCosts(denominations, counts);
+
+        long[] best = new long[limit + 1];
+        long[] previous = new long[limit + 1];
+        Arrays.fill(best, UNREACHABLE);
+        best[0] = 0;
+        int[][] take = new int[slots][limit + 1];
+        int[] window = new int[limit + 1];
+
+        for (int slot = 0; slot < slots; slot++) {
+            long[] swap = previous;
+            previous = best;
+            best = swap;
+            int value = denominations[slot] / unit;
+            int available = counts[slot];
+            long cost = costs[slot];
+            int[] taken = take[slot];
+            for (int residue = 0; residue < value && residue <= limit; residue++) {
+                // Candidates are indexed by j where amount = residue + j * value;
+                // the key previous[t] - t * cost is minimised over t in [j - available, j].
+                int head = 0;
+                int tail = 0;
+                for (int j = 0, amount = residue; amount <= limit; j++, amount += value) {
+                    if (previous[amount] != UNREACHABLE) {
+                        long key = previous[amount] - j * cost;
+                        while (tail > head && key <= keyAt(previous, window[tail - 1], residue, value, cost)) {
+                            tail--;
+                        }
+                        window[tail++] = j;
+                    }
+                    while (tail > head && window[head] < j - available) {
+                        head++;
+                    }
+                    if (tail > head) {
+                        int t = window[head];
+                        best[amount] = keyAt(previous, t, residue, value, cost) + j * cost;
+                        taken[amount] = j - t;
+                    } else {
+                        best[amount] = UNREACHABLE;
+                        taken[amount] = 0;
+                    }
+                }
+            }
+        }
+        return new Table(denominations, unit, take, best, counts.clone(), costsDependOnCounts());
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    private static long keyAt(long[] previous, int t, int residue, int value, long cost) {
+        return previous[residue + t * value] - t * cost;
+    }
+
+    private static class Table implements DispenseTable {
+        private final int[] denominations;
+        private final int unit;
+        private final int[][] take;
+        private final long[] best;
+        private final int[] compiledCounts;
+        private final boolean costsDependOnCounts;
+
+        Table(int[] denominations, int unit, int[][] take, long[] best,
+              int[] compiledCounts, boolean costsDependOnCounts) {
+            this.denominations = denominations;
+            this.unit = unit;
+            this.take = take;
+            this.best = best;
+            this.compiledCounts = compiledCounts;
+            this.costsDependOnCounts = costsDependOnCounts;
+        }
+
+        @Override
+        public int[] lookup(int amount) {
+            if (amount < 0 || amount % unit != 0) {
+                return null;
+            }
+            int index = amount / unit;
+            if (index >= best.length || best[index] == UNREACHABLE) {
+                return null;
+            }
+            int[] notes = new int[denominations.length];
+            for (int slot = denominations.length - 1; slot >= 0; slot--) {
+                notes[slot] = take[slot][index];
+                index -= notes[slot] * (denominations[slot] / unit);
+            }
+            return notes;
+        }
+
+        @Override
+        public boolean isCurrent(int[] counts) {
+            for (int slot = 0; slot < counts.length; slot++) {
+                if (counts[slot] > compiledCounts[slot]
+                        || (costsDependOnCounts && counts[slot] * 4L < compiledCounts[slot] * 3L)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
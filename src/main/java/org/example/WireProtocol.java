@@ -0,0 +1,112 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Framed binary messages between terminals and the host.
+ * <p>
+ * Every frame starts with an unsigned 16-bit length of the body that
+ * follows. All fields are big-endian and at fixed offsets, so the server
+ * reads them straight out of the receive buffer.
+ * <pre>
+ * request body  (26 bytes): type u8 | operation u8 | PAN i64 | PIN block i64 | amount in cents i64
+ * response body (11 bytes): type u8 | response code u8 | state u8 | amount in cents i64
+ * </pre>
+ * The response amount is the cash dispensed for a withdrawal and the
+ * account balance for a balance inquiry.
+ */
+public final class WireProtocol {
+    public static final int LENGTH_FIELD = 2;
+    public static final int REQUEST_BODY = 26;
+    public static final int RESPONSE_BODY = 11;
+    public static final int REQUEST_FRAME = LENGTH_FIELD + REQUEST_BODY;
+    public static final int RESPONSE_FRAME = LENGTH_FIELD + RESPONSE_BODY;
+
+    public static final byte INSERT_CARD = 1;
+    public static final byte ENTER_PIN = 2;
+    public static final byte SELECT_OPERATION = 3;
+    public static final byte PERFORM_TRANSACTION = 4;
+    public static final byte RETURN_CARD = 5;
+    public static final byte CANCEL_TRANSACTION = 6;
+
+    public static final byte STATE_IDLE = 0;
+    public static final byte STATE_HAS_CARD = 1;
+    public static final byte STATE_SELECT_OPERATION = 2;
+    public static final byte STATE_TRANSACTION = 3;
+
+    // Request field offsets relative to the start of the frame
+    static final int REQUEST_TYPE = 2;
+    static final int REQUEST_OPERATION = 3;
+    static final int REQUEST_PAN = 4;
+    static final int REQUEST_PIN_BLOCK = 12;
+    static final int REQUEST_AMOUNT = 20;
+
+    // Response field offsets relative to the start of the frame
+    static final int RESPONSE_TYPE = 2;
+    static final int RESPONSE_CODE = 3;
+    static final int RESPONSE_STATE = 4;
+    static final int RESPONSE_AMOUNT = 5;
+
+    private WireProtocol() {}
+
+    public static void putRequest(ByteBuffer buffer, byte type, byte operation,
+                                  long pan, long pinBlock, long amountCents) {
+        buffer.putShort((short) REQUEST_BODY);
+        buffer.put(type);
+        buffer.put(operation);
+        buffer.putLong(pan);
+        buffer.putLong(pinBlock);
+        buffer.putLong(amountCents);
+    }
+
+    public static void putResponse(ByteBuffer buffer, byte type, ResponseCode responseCode,
+                                   byte state, long amountCents) {
+        buffer.putShort((short) RESPONSE_BODY);
+        buffer.put(type);
+        buffer.put((byte) responseCode.code);
+        buffer.put(state);
+        buffer.putLong(amountCents);
+    }
+
+    // Length of the complete frame starting at offset, or -1 if it has not fully arrived
+    public static int frameLength(ByteBuffer buffer, int offset, int limit) {
+        if (limit - offset < LENGTH_FIELD) {
+            return -1;
+        }
+        int frame = LENGTH_FIELD + (buffer.getShort(offset) & 0xFFFF);
+        return limit - offset >= frame ? frame : -1;
+    }
+
+    public static byte stateCode(ATMState state) {
+        if (state instanceof HasCardState) {
+            return STATE_HAS_CARD;
+        }
+        if (state instanceof SelectOperationState) {
+            return STATE_SELECT_OPERATION;
+        }
+        if (state instanceof TransactionState) {
+            return STATE_TRANSACTION;
+        }
+        return STATE_IDLE;
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static byte responseType(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + RESPONSE_TYPE);
+    }
+
+    public static ResponseCode responseCode(ByteBuffer buffer, int offset) {
+        return ResponseCode.fromCode(buffer.get(offset + RESPONSE_CODE));
+    }
+
+    public static byte responseState(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + RESPONSE_STATE);
+    }
+
+    public static long responseAmount(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + RESPONSE_AMOUNT);
+    }
+}
@@ -166,4 +166,44 @@ class ATMInventoryTest {
         assertEquals(1, dispensed.get(CashType.BILL_5));
         assertEquals(1, dispensed.get(CashType.BILL_1));
     }
+
+    @Test
+    @DisplayName("Should answer dispensability without changing inventory")
+    void testCanDispense() {
+        assertTrue(inventory.canDispense(2350));
+        assertFalse(inventory.canDispense(2351));
+        assertFalse(inventory.canDispense(-1));
+        assertEquals(2350, inventory.getTotalCash());
+    }
+
+    @Test
+    @DisplayName("Should track dispensability after dispense and add")
+    void testCanDispenseAfterChanges() {
+        inventory.dispenseCash(2350);
+        inventory.addCash(CashType.BILL_50, 1);
+        inventory.addCash(CashType.BILL_20, 3);
+
+        assertFalse(inventory.canDispense(30));
+        assertEquals(20, inventory.nearestDispensableBelow(30));
+        assertEquals(40, inventory.nearestDispensableAbove(30));
+        assertNull(inventory.dispenseCash(30));
+        assertEquals(110, inventory.getTotalCash());
+    }
+
+    @Test
+    @DisplayName("Should keep a snapshot unchanged by later dispenses and loads")
+    void testSnapshotIsolation() {
+        InventorySnapshot before = inventory.snapshot();
+        inventory.dispenseCash(100);
+        inventory.addCash(CashType.BILL_20, 5);
+        InventorySnapshot after = inventory.snapshot();
+
+        assertEquals(2350, before.getTotalCash());
+        assertEquals(10, before.getCount(0));
+        assertEquals(2350, after.getTotalCash());
+        assertEquals(9, after.getCount(0));
+        assertEquals(25, after.getCount(2));
+        assertEquals(before.getVersion() + 2, after.getVersion());
+        assertEquals(CashType.BILL_100, after.getCashType(0));
+    }
 }
@@ -198,4 +198,28 @@ class ATMMachineContextTest {
 
         assertEquals(hasCardState, atmContext.getCurrentState());
     }
+
+    @Test
+    @DisplayName("Should report response codes for accepted and rejected commands")
+    void testLastResponseCode() {
+        assertNull(atmContext.getLastResponseCode());
+
+        atmContext.enterPin(1234);
+        assertEquals(ResponseCode.INVALID_STATE, atmContext.getLastResponseCode());
+
+        atmContext.insertCard(testCard);
+        assertEquals(ResponseCode.APPROVED, atmContext.getLastResponseCode());
+
+        atmContext.enterPin(9999);
+        assertEquals(ResponseCode.INVALID_PIN, atmContext.getLastResponseCode());
+
+        atmContext.enterPin(1234);
+        atmContext.selectOperation(TransactionType.WITHDRAW_CASH);
+        atmContext.performTransaction(2000.0);
+        assertEquals(ResponseCode.INSUFFICIENT_FUNDS, atmContext.getLastResponseCode());
+
+        atmContext.selectOperation(TransactionType.WITHDRAW_CASH);
+        atmContext.performTransaction(100.0);
+        assertEquals(ResponseCode.APPROVED, atmContext.getLastResponseCode());
+    }
 }
@@ -0,0 +1,250 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Account Router Tests")
+class AccountRouterTest {
+
+    private static final List<String> NODE_IDS = List.of("node-a", "node-b", "node-c");
+
+    private ConsistentHashRing ring;
+    private Map<String, AccountNode> nodes;
+
+    @BeforeEach
+    void setUp() {
+        ring = new ConsistentHashRing(NODE_IDS);
+        nodes = new HashMap<>();
+        for (String nodeId : NODE_IDS) {
+            nodes.put(nodeId, new AccountNode(nodeId));
+        }
+        for (int i = 0; i < 300; i++) {
+            String accountNumber = "ACC" + i;
+            nodes.get(ring.ownerOf(accountNumber)).addAccount(new Account(accountNumber, 1000.0));
+        }
+    }
+
+    private AccountRouter localRouter(String nodeId) {
+        Map<String, NodeTransport> transports = new HashMap<>();
+        for (AccountNode node : nodes.values()) {
+            transports.put(node.getNodeId(), new LocalNodeTransport(node));
+        }
+        return new AccountRouter(ring, nodes.get(nodeId), transports);
+    }
+
+    @Test
+    @DisplayName("Ring spreads accounts across all nodes")
+    void testRingBalance() {
+        for (AccountNode node : nodes.values()) {
+            assertTrue(node.getAccountCount() > 50, node.getNodeId() + " owns " + node.getAccountCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Adding a node only moves keys onto the new node")
+    void testMinimalMovement() {
+        ConsistentHashRing grown = new ConsistentHashRing(List.of("node-a", "node-b", "node-c", "node-d"));
+        for (int i = 0; i < 1000; i++) {
+            String accountNumber = "ACC" + i;
+            String after = grown.ownerOf(accountNumber);
+            if (!after.equals("node-d")) {
+                assertEquals(ring.ownerOf(accountNumber), after);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Any node can serve any account through the router")
+    void testRoutingFromAnyNode() {
+        AccountRouter router = localRouter("node-a");
+
+        for (int i = 0; i < 300; i++) {
+            AccountReply reply = router.withdraw("ACC" + i, 100.0);
+            assertTrue(reply.isApproved());
+            assertEquals(900.0, reply.getBalance());
+        }
+        assertEquals(ResponseCode.INSUFFICIENT_FUNDS, router.withdraw("ACC1", 5000.0).getResponseCode());
+        assertEquals(ResponseCode.UNKNOWN_ACCOUNT, router.balance("missing").getResponseCode());
+        assertTrue(router.getRemoteRequests() > 0);
+    }
+
+    @Test
+    @DisplayName("Routed accounts plug into the ATM state machine")
+    void testRoutedAccountInContext() {
+        AccountRouter router = localRouter("node-b");
+        String accountNumber = "ACC7";
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.addAccount(new RoutedAccount(accountNumber, router));
+
+        atm.insertCard(new Card("4111", 1234, accountNumber));
+        atm.enterPin(1234);
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        atm.performTransaction(200.0);
+
+        assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+        assertEquals(800.0, nodes.get(ring.ownerOf(accountNumber)).getAccount(accountNumber).getBalance());
+    }
+
+    @Test
+    @DisplayName("Submitting many requests sends one batch per remote node")
+    void testBatchedRouting() {
+        AccountRouter router = localRouter("node-a");
+        List<AccountRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            requests.add(new AccountRequest(AccountOperation.WITHDRAW, "ACC" + i, 10.0));
+        }
+
+        List<CompletableFuture<AccountReply>> replies = router.submitAll(requests);
+
+        for (CompletableFuture<AccountReply> reply : replies) {
+            assertEquals(990.0, reply.join().getBalance());
+        }
+        assertEquals(2, router.getBatchesSent());
+    }
+
+    @Test
+    @DisplayName("Socket transport pipelines batches between separate servers")
+    void testSocketTransport() throws Exception {
+        List<AccountNodeServer> servers = new ArrayList<>();
+        Map<String, NodeTransport> transports = new HashMap<>();
+        try {
+            for (String nodeId : List.of("node-b", "node-c")) {
+                AccountNodeServer server = new AccountNodeServer(nodes.get(nodeId));
+                server.start(new InetSocketAddress("127.0.0.1", 0));
+                servers.add(server);
+                transports.put(nodeId, new SocketNodeTransport(new InetSocketAddress("127.0.0.1", server.getPort())));
+            }
+            try (AccountRouter router = new AccountRouter(ring, nodes.get("node-a"), transports, 16)) {
+                List<AccountRequest> requests = new ArrayList<>();
+                for (int round = 0; round < 5; round++) {
+                    for (int i = 0; i < 300; i++) {
+                        requests.add(new AccountRequest(AccountOperation.WITHDRAW, "ACC" + i, 1.0));
+                    }
+                }
+                List<CompletableFuture<AccountReply>> replies = router.submitAll(requests);
+                for (CompletableFuture<AccountReply> reply : replies) {
+                    assertTrue(reply.join().isApproved());
+                }
+                for (int i = 0; i < 300; i++) {
+                    assertEquals(995.0, router.balance("ACC" + i).getBalance());
+                }
+            }
+        } finally {
+            for (AccountNodeServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Socket transport fails pending batches on a malformed reply instead of hanging")
+    void testSocketTransportRejectsMalformedReply() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread peer = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    SocketNodeTransport.readRequests(in);
+                    out.writeInt(-1);
+                    out.flush();
+                    in.read();
+                } catch (IOException e) {
+                    // Test fails on the client side
+                }
+            });
+            peer.setDaemon(true);
+            peer.start();
+
+            SocketNodeTransport transport = new SocketNodeTransport(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+            try {
+                CompletableFuture<AccountReply[]> reply = transport.send(new AccountRequest[]{
+                        new AccountRequest(AccountOperation.BALANCE, "ACC1", 1.0)});
+                CompletionException e = assertThrows(CompletionException.class,
+                        () -> reply.orTimeout(10, TimeUnit.SECONDS).join());
+                assertInstanceOf(IOException.class, e.getCause());
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Socket transport rejects frames with a bad batch length or operation")
+    void testMalformedRequests() throws IOException {
+        ByteArrayOutputStream tooLong = new ByteArrayOutputStream();
+        new DataOutputStream(tooLong).writeInt(Integer.MAX_VALUE);
+        ByteArrayOutputStream badOperation = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(badOperation);
+        out.writeInt(1);
+        out.writeByte(200);
+
+        assertThrows(IOException.class, () -> SocketNodeTransport.readRequests(
+                new DataInputStream(new ByteArrayInputStream(tooLong.toByteArray()))));
+        assertThrows(IOException.class, () -> SocketNodeTransport.readRequests(
+                new DataInputStream(new ByteArrayInputStream(badOperation.toByteArray()))));
+    }
+
+    @Test
+    @DisplayName("Socket transport drops a failed connection and reconnects for the next batch")
+    void testSocketTransportReconnectsAfterFailure() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread peer = new Thread(() -> {
+                try {
+                    // First connection: take a batch and hang up without replying
+                    try (Socket first = server.accept()) {
+                        SocketNodeTransport.readRequests(new DataInputStream(first.getInputStream()));
+                    }
+                    try (Socket second = server.accept()) {
+                        DataInputStream in = new DataInputStream(second.getInputStream());
+                        DataOutputStream out = new DataOutputStream(second.getOutputStream());
+                        AccountRequest[] batch = SocketNodeTransport.readRequests(in);
+                        SocketNodeTransport.writeReplies(out, new AccountReply[]{
+                                new AccountReply(ResponseCode.APPROVED, batch[0].getAmount())});
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // Test fails on the client side
+                }
+            });
+            peer.setDaemon(true);
+            peer.start();
+
+            SocketNodeTransport transport = new SocketNodeTransport(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+            try {
+                CompletableFuture<AccountReply[]> lost = transport.send(new AccountRequest[]{
+                        new AccountRequest(AccountOperation.BALANCE, "ACC1", 1.0)});
+                assertThrows(CompletionException.class, lost::join);
+
+                AccountReply[] replies = transport.send(new AccountRequest[]{
+                        new AccountRequest(AccountOperation.BALANCE, "ACC2", 2.0)}).join();
+                assertEquals(2.0, replies[0].getBalance());
+            } finally {
+                transport.close();
+            }
+            assertThrows(CompletionException.class, () -> transport.send(new AccountRequest[]{
+                    new AccountRequest(AccountOperation.BALANCE, "ACC3", 3.0)}).join());
+        }
+    }
+}
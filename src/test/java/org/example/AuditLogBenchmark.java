@@ -0,0 +1,75 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Time an audited event costs the session thread: appending to the
+ * {@link AuditLog} versus writing and forcing the record in place.
+ * Run with: java -cp target/classes:target/test-classes org.example.AuditLogBenchmark [events]
+ */
+public class AuditLogBenchmark {
+    private static final int TERMINALS = 64;
+
+    public static void main(String[] args) throws IOException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Path dir = Files.createTempDirectory("audit-benchmark");
+
+        long[] latencies = new long[events];
+        long start = System.nanoTime();
+        long dropped;
+        long written;
+        long compressed;
+        try (AuditLog log = new AuditLog(dir.resolve("async"), 64 * 1024, 1024, 200_000, 10_000_000)) {
+            for (int i = 0; i < events; i++) {
+                long t = System.nanoTime();
+                log.append(i % TERMINALS, AuditEventType.CASH_DISPENSED, 3, i);
+                latencies[i] = System.nanoTime() - t;
+            }
+            log.close();
+            dropped = log.getDroppedCount();
+            written = log.getWrittenCount();
+            compressed = log.getCompressedSegmentCount();
+        }
+        report("background writer", latencies, events, System.nanoTime() - start);
+        System.out.println("  written " + written + ", dropped " + dropped + ", compressed segments " + compressed);
+
+        // Baseline: the session thread writes and forces its own terminal's file
+        int syncEvents = Math.min(events, 5_000);
+        long[] syncLatencies = new long[syncEvents];
+        FileChannel[] channels = new FileChannel[TERMINALS];
+        Files.createDirectories(dir.resolve("sync"));
+        for (int t = 0; t < TERMINALS; t++) {
+            channels[t] = FileChannel.open(dir.resolve("sync").resolve("terminal-" + t + ".audit"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        ByteBuffer record = ByteBuffer.allocateDirect(AuditLog.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        start = System.nanoTime();
+        for (int i = 0; i < syncEvents; i++) {
+            long t = System.nanoTime();
+            record.clear();
+            record.putLong(System.currentTimeMillis()).putInt(i % TERMINALS)
+                    .putShort((short) AuditEventType.CASH_DISPENSED.ordinal()).putShort((short) 3).putLong(i).putLong(0).flip();
+            channels[i % TERMINALS].write(record);
+            channels[i % TERMINALS].force(false);
+            syncLatencies[i] = System.nanoTime() - t;
+        }
+        report("write and force per event", syncLatencies, syncEvents, System.nanoTime() - start);
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    private static void report(String label, long[] latencies, int events, long elapsedNanos) {
+        Arrays.sort(latencies);
+        System.out.printf("%-26s p50 %6d ns  p99 %8d ns  max %9d ns  %,10.0f events/s%n", label,
+                latencies[events / 2], latencies[events * 99 / 100], latencies[events - 1],
+                events * 1e9 / elapsedNanos);
+    }
+}
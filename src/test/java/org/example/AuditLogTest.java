@@ -0,0 +1,155 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Audit Log Tests")
+class AuditLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should keep each terminal's events in its own log in arrival order")
+    void testPerTerminalLogs() throws IOException {
+        try (AuditLog log = new AuditLog(dir)) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(log.append(i % 2, AuditEventType.CASH_DISPENSED, i, i * 100L));
+            }
+        }
+
+        List<AuditRecord> even = AuditLog.read(dir, 0);
+        List<AuditRecord> odd = AuditLog.read(dir, 1);
+        assertEquals(50, even.size());
+        assertEquals(50, odd.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(0, even.get(i).getTerminalId());
+            assertEquals(2 * i, even.get(i).getDetail());
+            assertEquals(200L * i, even.get(i).getAmountCents());
+            assertEquals(2 * i + 1, odd.get(i).getDetail());
+        }
+        assertTrue(AuditLog.read(dir, 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rotate full segments and compress them without losing records")
+    void testRotatesAndCompresses() throws IOException {
+        try (AuditLog log = new AuditLog(dir, 1024, 100, 0, TimeUnit.MILLISECONDS.toNanos(1))) {
+            for (int i = 0; i < 350; i++) {
+                log.append(7, i % 2 == 0 ? AuditEventType.PIN_ACCEPTED : AuditEventType.PIN_REJECTED, 0, 0);
+            }
+            log.close();
+            assertEquals(3, log.getCompressedSegmentCount());
+            assertEquals(350, log.getWrittenCount());
+        }
+
+        List<Path> segments = AuditLog.segments(dir, 7);
+        assertEquals(4, segments.size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(segments.get(i).toString().endsWith(AuditLog.COMPRESSED_SUFFIX));
+            assertEquals(100, AuditLog.readSegment(segments.get(i)).size());
+        }
+        assertTrue(segments.get(3).toString().endsWith(AuditLog.SEGMENT_SUFFIX));
+        List<AuditRecord> records = AuditLog.read(dir, 7);
+        assertEquals(350, records.size());
+        for (int i = 0; i < 350; i++) {
+            assertEquals(i % 2 == 0 ? AuditEventType.PIN_ACCEPTED : AuditEventType.PIN_REJECTED,
+                    records.get(i).getType());
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue after the segments of an earlier run")
+    void testContinuesExistingLog() throws IOException {
+        try (AuditLog log = new AuditLog(dir)) {
+            log.append(3, AuditEventType.CARD_INSERTED, 0, 0);
+        }
+        try (AuditLog log = new AuditLog(dir)) {
+            log.append(3, AuditEventType.PIN_ACCEPTED, 0, 0);
+        }
+
+        List<AuditRecord> records = AuditLog.read(dir, 3);
+        assertEquals(2, AuditLog.segments(dir, 3).size());
+        assertEquals(AuditEventType.CARD_INSERTED, records.get(0).getType());
+        assertEquals(AuditEventType.PIN_ACCEPTED, records.get(1).getType());
+    }
+
+    @Test
+    @DisplayName("Should count every event it could not buffer instead of blocking")
+    void testDropsWhenFull() throws IOException {
+        int events = 200_000;
+        long accepted = 0;
+        try (AuditLog log = new AuditLog(dir, 16, 1 << 20, 0, TimeUnit.SECONDS.toNanos(1))) {
+            for (int i = 0; i < events; i++) {
+                if (log.append(1, AuditEventType.CASH_DISPENSED, 1, i)) {
+                    accepted++;
+                }
+            }
+            log.close();
+            assertFalse(log.append(1, AuditEventType.CASH_DISPENSED, 1, 0));
+
+            assertEquals(accepted, log.getWrittenCount());
+            assertEquals(events - accepted + 1, log.getDroppedCount());
+        }
+        assertEquals(accepted, AuditLog.read(dir, 1).size());
+    }
+
+    @Test
+    @DisplayName("Should audit card inserts, PIN results and dispenses of a session")
+    void testAuditsSession() throws IOException {
+        try (AuditLog log = new AuditLog(dir)) {
+            ATMMachineContext atm = new ATMMachineContext();
+            atm.setTerminalId(42);
+            atm.setAuditLog(log);
+            atm.addAccount(new Account("ACC001", 1000.0));
+
+            atm.insertCard(new Card("CARD001", 1234, "ACC001"));
+            atm.enterPin(1111);
+            atm.enterPin(1234);
+            atm.selectOperation(TransactionType.WITHDRAW_CASH);
+            atm.performTransaction(300);
+            atm.returnCard();
+        }
+
+        List<AuditRecord> records = AuditLog.read(dir, 42);
+        assertEquals(4, records.size());
+        assertEquals(AuditEventType.CARD_INSERTED, records.get(0).getType());
+        assertEquals(AuditEventType.PIN_REJECTED, records.get(1).getType());
+        assertEquals(AuditEventType.PIN_ACCEPTED, records.get(2).getType());
+        assertEquals(AuditEventType.CASH_DISPENSED, records.get(3).getType());
+        assertEquals(30000, records.get(3).getAmountCents());
+        assertTrue(records.get(3).getDetail() > 0);
+        for (AuditRecord record : records) {
+            assertEquals(AuditLog.cardReference("CARD001"), record.getCardReference());
+        }
+        assertNotEquals(AuditLog.cardReference("CARD001"), AuditLog.cardReference("CARD002"));
+    }
+
+    @Test
+    @DisplayName("Should write queued events when the writer is interrupted and count later ones as dropped")
+    void testInterruptedWriter() throws IOException, InterruptedException {
+        try (AuditLog log = new AuditLog(dir, 1024, 1024, 0, TimeUnit.MINUTES.toNanos(1))) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(log.append(5, AuditEventType.CARD_INSERTED, 0, 0));
+            }
+            Thread writer = Thread.getAllStackTraces().keySet().stream()
+                    .filter(thread -> thread.getName().equals("audit-writer") && thread.isAlive())
+                    .findFirst().orElseThrow();
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+
+            assertFalse(log.append(5, AuditEventType.CARD_INSERTED, 0, 0));
+            assertEquals(10, log.getWrittenCount());
+            assertEquals(1, log.getDroppedCount());
+        }
+        assertEquals(10, AuditLog.read(dir, 5).size());
+    }
+}
@@ -0,0 +1,58 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares the bulk loader with the line-by-line file repository on a
+ * generated dump. Run with: java -cp target/classes:target/test-classes org.example.BulkAccountLoaderBenchmark [accounts] [parallelism]
+ */
+public class BulkAccountLoaderBenchmark {
+    public static void main(String[] args) throws IOException {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path file = Files.createTempFile("accounts", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < accounts; i++) {
+                    writer.write("ACC" + i + "," + (i % 100_000) + "." + (i % 90 + 10) + "\n");
+                }
+            }
+            System.out.printf("Dump: %d accounts, %d MB%n", accounts, Files.size(file) >> 20);
+
+            for (int round = 0; round < 3; round++) {
+                // Each loader starts from a collected heap so neither pays for the other's garbage
+                System.gc();
+                long start = System.nanoTime();
+                BulkAccountLoader loader = new BulkAccountLoader(file, parallelism).start();
+                long firstServed;
+                while (loader.getLoadedCount() == 0) {
+                    Thread.onSpinWait();
+                }
+                firstServed = System.nanoTime() - start;
+                loader.awaitCompletion();
+                long bulk = System.nanoTime() - start;
+                loader.close();
+                int loaded = loader.getLoadedCount();
+                loader = null;
+                System.gc();
+
+                start = System.nanoTime();
+                FileAccountRepository repository = new FileAccountRepository(file);
+                long lineByLine = System.nanoTime() - start;
+                System.out.printf("Bulk loader: first account in %.1f ms, all in %d ms (%.2fM accounts/s); "
+                                + "FileAccountRepository: %d ms%n",
+                        firstServed / 1e6, bulk / 1_000_000, accounts / (bulk / 1e9) / 1e6,
+                        lineByLine / 1_000_000);
+                if (repository.size() != loaded) {
+                    throw new IllegalStateException("Loaders disagree");
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
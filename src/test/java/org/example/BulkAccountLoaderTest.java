@@ -0,0 +1,121 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Bulk Account Loader Tests")
+class BulkAccountLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path writeDump(int accounts) throws IOException {
+        Path file = dir.resolve("accounts.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# account dump\n\n");
+            for (int i = 0; i < accounts; i++) {
+                writer.write("ACC" + i + "," + (i % 1000) + "." + String.format("%02d", i % 100));
+                // Mix line endings and padding to exercise the splitter
+                writer.write(i % 3 == 0 ? "\r\n" : "\n");
+            }
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should load every account across ranges with the exact balance")
+    void testLoadsEveryAccount() throws IOException {
+        Path file = writeDump(50_000);
+
+        try (BulkAccountLoader loader = new BulkAccountLoader(file, 4).start()) {
+            loader.awaitCompletion();
+
+            assertTrue(loader.isComplete());
+            assertEquals(50_000, loader.getLoadedCount());
+            for (int i = 0; i < 50_000; i += 997) {
+                double expected = Double.parseDouble((i % 1000) + "." + String.format("%02d", i % 100));
+                assertEquals(expected, loader.load("ACC" + i).getBalance(), "ACC" + i);
+            }
+            assertNull(loader.load("ACC50000"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should wait for the dump when an account has not been parsed yet")
+    void testLoadWaitsForMissingAccount() throws IOException {
+        Path file = writeDump(200_000);
+
+        try (BulkAccountLoader loader = new BulkAccountLoader(file, 2).start()) {
+            Account last = loader.load("ACC199999");
+
+            assertNotNull(last);
+            assertEquals(999.99, last.getBalance());
+            assertTrue(loader.isComplete());
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve accounts to a terminal through the repository hook")
+    void testServesTerminal() throws IOException {
+        Path file = writeDump(1000);
+        ATMMachineContext atm = new ATMMachineContext();
+
+        try (BulkAccountLoader loader = new BulkAccountLoader(file, 2).start()) {
+            atm.setAccountRepository(loader);
+            atm.insertCard(new Card("CARD042", 1234, "ACC42"));
+            atm.enterPin(1234);
+
+            assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+            assertEquals(42.42, atm.getCurrentAccount().getBalance());
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse signs, padding and long values like Double.parseDouble")
+    void testBalanceParsing() throws IOException {
+        Path file = dir.resolve("odd.csv");
+        Files.writeString(file, "A, -12.5\nB,+7\nC ,0.1\nD,12345678901234567.89\nE,1e3\n");
+
+        try (BulkAccountLoader loader = new BulkAccountLoader(file, 1).start()) {
+            loader.awaitCompletion();
+
+            assertEquals(-12.5, loader.load("A").getBalance());
+            assertEquals(7.0, loader.load("B").getBalance());
+            assertEquals(0.1, loader.load("C").getBalance());
+            assertEquals(12345678901234567.89, loader.load("D").getBalance());
+            assertEquals(1000.0, loader.load("E").getBalance());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject lookups before the loader is started")
+    void testNotStarted() throws IOException {
+        Path file = writeDump(10);
+
+        try (BulkAccountLoader loader = new BulkAccountLoader(file, 2)) {
+            assertFalse(loader.isComplete());
+            assertThrows(IllegalStateException.class, () -> loader.load("ACC1"));
+            assertThrows(IllegalStateException.class, loader::awaitCompletion);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a malformed dump from awaitCompletion")
+    void testMalformedDump() throws IOException {
+        Path file = dir.resolve("bad.csv");
+        Files.writeString(file, "ACC001,10\nno comma here\n");
+
+        try (BulkAccountLoader loader = new BulkAccountLoader(file, 1).start()) {
+            assertThrows(IOException.class, loader::awaitCompletion);
+        }
+    }
+}
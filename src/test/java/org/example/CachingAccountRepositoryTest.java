@@ -0,0 +1,254 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Caching Account Repository Tests")
+class CachingAccountRepositoryTest {
+
+    // In-memory backend that counts calls
+    static class CountingRepository implements AccountRepository {
+        final Map<String, Double> balances = new HashMap<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final AtomicInteger saves = new AtomicInteger();
+
+        CountingRepository(int accounts) {
+            for (int i = 0; i < accounts; i++) {
+                balances.put("ACC" + i, 1000.0);
+            }
+        }
+
+        @Override
+        public synchronized Account load(String accountNumber) {
+            loads.incrementAndGet();
+            Double balance = balances.get(accountNumber);
+            return balance == null ? null : new Account(accountNumber, balance);
+        }
+
+        @Override
+        public synchronized void saveBalances(Map<String, Double> updates) {
+            saves.incrementAndGet();
+            balances.putAll(updates);
+        }
+    }
+
+    // Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s
+    static class ZipfSampler {
+        private final double[] cdf;
+        private final Random random;
+
+        ZipfSampler(int n, double s, long seed) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, s);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+            random = new Random(seed);
+        }
+
+        int next() {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+        }
+    }
+
+    @Test
+    @DisplayName("File repository round-trips balances")
+    void testFileRepository(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("accounts.csv");
+        Files.writeString(file, "# account,balance\nACC1,100.5\nACC2,20\n");
+
+        FileAccountRepository repository = new FileAccountRepository(file);
+        assertEquals(100.5, repository.load("ACC1").getBalance());
+        assertNull(repository.load("ACC3"));
+
+        repository.saveBalances(Map.of("ACC2", 42.0, "ACC3", 7.0));
+        FileAccountRepository reopened = new FileAccountRepository(file);
+        assertEquals(42.0, reopened.load("ACC2").getBalance());
+        assertEquals(7.0, reopened.load("ACC3").getBalance());
+        assertEquals(3, reopened.size());
+    }
+
+    @Test
+    @DisplayName("Repeated loads are served from the cache")
+    void testReadThrough() {
+        CountingRepository backend = new CountingRepository(10);
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 100, 0)) {
+            Account first = cache.load("ACC1");
+            Account second = cache.load("ACC1");
+
+            assertSame(first, second);
+            assertEquals(1, backend.loads.get());
+            assertEquals(1, cache.getMetrics().getHits());
+            assertNull(cache.load("missing"));
+        }
+    }
+
+    @Test
+    @DisplayName("Balance updates are coalesced into one backend write")
+    void testWriteBehindCoalescing() {
+        CountingRepository backend = new CountingRepository(10);
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 100, 0)) {
+            Account account = cache.load("ACC1");
+            for (int i = 0; i < 50; i++) {
+                account.withdraw(10.0);
+            }
+            cache.load("ACC2").deposit(5.0);
+            assertEquals(1000.0, backend.balances.get("ACC1"));
+
+            cache.flush();
+
+            assertEquals(500.0, backend.balances.get("ACC1"));
+            assertEquals(1005.0, backend.balances.get("ACC2"));
+            assertEquals(1, backend.saves.get());
+            assertEquals(51, cache.getMetrics().getBalanceUpdates());
+            assertEquals(2, cache.getMetrics().getBalancesWritten());
+        }
+    }
+
+    @Test
+    @DisplayName("Evicted dirty accounts keep their unflushed balance")
+    void testEvictedDirtyAccount() {
+        CountingRepository backend = new CountingRepository(1000);
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 10, 0)) {
+            cache.load("ACC0").withdraw(300.0);
+            for (int i = 1; i < 1000; i++) {
+                cache.load("ACC" + i);
+            }
+            assertTrue(cache.size() <= 10);
+            assertEquals(700.0, cache.load("ACC0").getBalance());
+        }
+        assertEquals(700.0, backend.balances.get("ACC0"));
+    }
+
+    @Test
+    @DisplayName("Evicted accounts still held by a session are not reloaded as a second copy")
+    void testEvictedAccountStaysCanonical() {
+        CountingRepository backend = new CountingRepository(1000);
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 10, 0)) {
+            Account held = cache.load("ACC0");
+            for (int i = 1; i < 1000; i++) {
+                cache.load("ACC" + i);
+            }
+            assertTrue(cache.size() <= 10);
+
+            Account reloaded = cache.load("ACC0");
+            assertSame(held, reloaded);
+            assertTrue(held.withdraw(600.0));
+            assertFalse(reloaded.withdraw(600.0));
+            assertEquals(1000, backend.loads.get());
+
+            cache.saveBalances(Map.of("ACC0", 250.0));
+            assertEquals(250.0, held.getBalance());
+        }
+        assertEquals(250.0, backend.balances.get("ACC0"));
+    }
+
+    @Test
+    @DisplayName("A direct save during a flush is not overwritten by the flushed balance")
+    void testSaveDuringFlush() throws InterruptedException {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingRepository backend = new CountingRepository(10) {
+            @Override
+            public void saveBalances(Map<String, Double> updates) {
+                if (flushing.getCount() > 0) {
+                    flushing.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.saveBalances(updates);
+            }
+        };
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 100, 0)) {
+            Account account = cache.load("ACC0");
+            account.withdraw(100.0);
+
+            Thread flusher = new Thread(cache::flush);
+            flusher.start();
+            assertTrue(flushing.await(10, TimeUnit.SECONDS));
+            Thread saver = new Thread(() -> cache.saveBalances(Map.of("ACC0", 250.0)));
+            saver.start();
+            saver.join(100);
+            release.countDown();
+            flusher.join();
+            saver.join();
+
+            assertEquals(250.0, backend.balances.get("ACC0"));
+            assertEquals(250.0, account.getBalance());
+            assertEquals(0, cache.getDirtyCount());
+        }
+        assertEquals(250.0, backend.balances.get("ACC0"));
+    }
+
+    @Test
+    @DisplayName("ATM context loads unknown accounts from its repository")
+    void testContextUsesRepository() {
+        CountingRepository backend = new CountingRepository(10);
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 100, 0)) {
+            ATMMachineContext atm = new ATMMachineContext();
+            atm.setAccountRepository(cache);
+
+            atm.insertCard(new Card("4111", 1234, "ACC3"));
+            atm.enterPin(1234);
+            atm.selectOperation(TransactionType.WITHDRAW_CASH);
+            atm.performTransaction(100.0);
+            assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+
+            cache.flush();
+            assertEquals(900.0, backend.balances.get("ACC3"));
+        }
+    }
+
+    @Test
+    @DisplayName("Zipfian access keeps most loads and writes away from the backend")
+    void testZipfSimulation() {
+        int accounts = 100_000;
+        int requests = 200_000;
+        CountingRepository backend = new CountingRepository(accounts);
+        ZipfSampler zipf = new ZipfSampler(accounts, 1.0, 42);
+        try (CachingAccountRepository cache = new CachingAccountRepository(backend, 2_000, 0)) {
+            for (int i = 0; i < requests; i++) {
+                Account account = cache.load("ACC" + zipf.next());
+                account.deposit(1.0);
+                if (i % 10_000 == 0) {
+                    cache.flush();
+                }
+            }
+            cache.flush();
+            CacheMetrics metrics = cache.getMetrics();
+            System.out.println("Zipf simulation: " + metrics);
+
+            assertTrue(metrics.getHitRatio() > 0.55, "hit ratio " + metrics.getHitRatio());
+            assertTrue(backend.loads.get() < requests / 2);
+            assertTrue(metrics.getBackendWrites() <= 21);
+            assertTrue(metrics.getBalancesWritten() < requests / 2);
+        }
+        double total = 0;
+        for (double balance : backend.balances.values()) {
+            total += balance - 1000.0;
+        }
+        assertEquals(requests, total, 1e-6);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Cassette Configuration Tests")
+class CassetteConfigurationTest {
+
+    @Test
+    @DisplayName("Default configuration should match the original USD inventory")
+    void testDefaultConfiguration() {
+        CassetteConfiguration configuration = CassetteConfiguration.defaultConfiguration();
+
+        assertEquals(CashType.USD, configuration.getCurrency());
+        assertEquals(6, configuration.getCassetteCount());
+        assertEquals(CashType.BILL_100, configuration.getCashType(0));
+        assertEquals(CashType.BILL_1, configuration.getCashType(5));
+    }
+
+    @Test
+    @DisplayName("Should parse properties and order cassettes largest first")
+    void testFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("currency", "EUR");
+        properties.setProperty("cassettes", "20:60, 100:20,50:40 ,10:80");
+
+        CassetteConfiguration configuration = CassetteConfiguration.fromProperties(properties);
+
+        assertEquals("EUR", configuration.getCurrency());
+        assertArrayEquals(new int[]{100, 50, 20, 10}, configuration.getDenominations());
+        assertArrayEquals(new int[]{20, 40, 60, 80}, configuration.getInitialCounts());
+        assertEquals(CashType.of("EUR", 50), configuration.getCashType(1));
+    }
+
+    @Test
+    @DisplayName("Should load a configuration file")
+    void testLoad(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("cassettes.properties");
+        Files.writeString(file, "currency=INR\ncassettes=500:100,200:100,100:200,100:200\n");
+
+        CassetteConfiguration configuration = CassetteConfiguration.load(file);
+
+        assertEquals("INR", configuration.getCurrency());
+        assertEquals(4, configuration.getCassetteCount());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid configurations")
+    void testInvalidConfigurations() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CassetteConfiguration("EUR", new int[0], new int[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CassetteConfiguration("EUR", new int[9], new int[9]));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CassetteConfiguration("EUR", new int[]{50, 0}, new int[]{1, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CassetteConfiguration("", new int[]{50}, new int[]{1}));
+
+        Properties properties = new Properties();
+        properties.setProperty("currency", "GBP");
+        properties.setProperty("cassettes", "50-10");
+        assertThrows(IllegalArgumentException.class, () -> CassetteConfiguration.fromProperties(properties));
+    }
+
+    @Test
+    @DisplayName("Inventory should dispense from a configured currency")
+    void testInventoryWithConfiguration() {
+        CassetteConfiguration configuration = new CassetteConfiguration("EUR",
+                new int[]{50, 20, 20, 10}, new int[]{10, 20, 20, 5});
+        ATMInventory inventory = new ATMInventory(configuration, new FewestNotesDispensePolicy());
+
+        assertEquals(1350, inventory.getTotalCash());
+        Map<CashType, Integer> dispensed = inventory.dispenseCash(160);
+
+        assertNotNull(dispensed);
+        assertEquals(3, dispensed.get(CashType.of("EUR", 50)));
+        assertNull(dispensed.get(CashType.BILL_50));
+        assertEquals(40, inventory.getCount(CashType.of("EUR", 20)));
+        assertEquals(1190, inventory.getTotalCash());
+        assertThrows(IllegalArgumentException.class, () -> inventory.addCash(CashType.BILL_100, 1));
+    }
+
+    @Test
+    @DisplayName("Notes should be equal by currency and value")
+    void testCashTypeEquality() {
+        assertEquals(CashType.BILL_20, CashType.of(CashType.USD, 20));
+        assertNotEquals(CashType.BILL_20, CashType.of("EUR", 20));
+        assertEquals("$20", CashType.BILL_20.toString());
+        assertEquals("20 EUR", CashType.of("EUR", 20).toString());
+    }
+}
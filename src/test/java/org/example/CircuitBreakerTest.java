@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Circuit Breaker Tests")
+class CircuitBreakerTest {
+
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long PROBE_DEADLINE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        breaker = new CircuitBreaker(THRESHOLD_NANOS, 2, OPEN_NANOS, PROBE_DEADLINE_NANOS, clock::get);
+    }
+
+    // Times a successful call that takes the given time on the breaker's clock
+    private void call(long latencyMillis) {
+        assertTrue(breaker.allowRequest());
+        long start = breaker.nanoTime();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        breaker.recordSuccess(breaker.nanoTime() - start);
+    }
+
+    private void trip() {
+        call(15);
+        call(15);
+        assertEquals(CircuitState.OPEN, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should trip on successful calls slower than the threshold")
+    void testSlowSuccessTrips() {
+        call(15);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        call(15);
+
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertEquals(1, breaker.getTrips());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    @DisplayName("Should reset the failure count after a fast call")
+    void testFastCallResets() {
+        call(15);
+        call(5);
+        call(15);
+
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getTrips());
+    }
+
+    @Test
+    @DisplayName("Should re-open on a slow half-open probe and close on a fast one")
+    void testHalfOpenProbe() {
+        trip();
+        clock.addAndGet(OPEN_NANOS);
+
+        call(15);
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertEquals(2, breaker.getTrips());
+        assertFalse(breaker.allowRequest());
+
+        clock.addAndGet(OPEN_NANOS);
+        call(5);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should re-open when a half-open probe never reports")
+    void testProbeDeadline() {
+        trip();
+        clock.addAndGet(OPEN_NANOS);
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        clock.addAndGet(PROBE_DEADLINE_NANOS);
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2, breaker.getTrips());
+
+        clock.addAndGet(OPEN_NANOS);
+        call(5);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+    }
+}
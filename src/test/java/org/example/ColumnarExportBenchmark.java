@@ -0,0 +1,77 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the columnar export with line-oriented JSON: file size and the
+ * time to total the debit column.
+ * Run with: java -cp target/classes:target/test-classes org.example.ColumnarExportBenchmark [records]
+ */
+public class ColumnarExportBenchmark {
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path dir = Files.createTempDirectory("columnar");
+        Path journalPath = dir.resolve("day.journal");
+        Path json = dir.resolve("day.json");
+        Path columnar = dir.resolve("day.atmc");
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long timestamp = System.currentTimeMillis();
+            try (TransactionJournal journal = new TransactionJournal(journalPath);
+                 BufferedWriter writer = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < records; i++) {
+                    timestamp += random.nextInt(20);
+                    int terminal = random.nextInt(5_000);
+                    String account = "ACC" + random.nextInt(1_000_000);
+                    long debit = 2_000L * (1 + random.nextInt(25));
+                    journal.append(timestamp, terminal, account, TransactionType.WITHDRAW_CASH, 2, debit, debit);
+                    writer.write(ColumnarTransactionExporterTest.toJson(
+                            timestamp, terminal, account, TransactionType.WITHDRAW_CASH, 2, debit, debit));
+                }
+            }
+
+            long start = System.nanoTime();
+            ColumnarTransactionExporter.export(journalPath, columnar);
+            double exportSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long jsonTotal = 0;
+            try (BufferedReader reader = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int from = line.indexOf("\"debit\":") + 8;
+                    int to = line.indexOf(',', from);
+                    jsonTotal += Math.round(Double.parseDouble(line.substring(from, to)) * 100);
+                }
+            }
+            double jsonSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long columnarTotal;
+            try (ColumnarTransactionReader reader = new ColumnarTransactionReader(columnar)) {
+                columnarTotal = reader.sum(TransactionColumn.DEBIT);
+            }
+            double columnarSeconds = (System.nanoTime() - start) / 1e9;
+
+            long jsonBytes = Files.size(json);
+            long columnarBytes = Files.size(columnar);
+            System.out.printf("%d records, export %.2f s%n", records, exportSeconds);
+            System.out.printf("JSON:     %,d bytes, debit scan %.3f s%n", jsonBytes, jsonSeconds);
+            System.out.printf("Columnar: %,d bytes, debit scan %.3f s (%.1fx smaller, %.1fx faster)%n",
+                    columnarBytes, columnarSeconds, (double) jsonBytes / columnarBytes, jsonSeconds / columnarSeconds);
+            if (jsonTotal != columnarTotal) {
+                throw new IllegalStateException("Totals differ: " + jsonTotal + " vs " + columnarTotal);
+            }
+        } finally {
+            for (Path path : new Path[] {journalPath, TransactionJournal.dictionaryPath(journalPath), json, columnar}) {
+                Files.deleteIfExists(path);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}
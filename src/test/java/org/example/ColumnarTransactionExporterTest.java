@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Columnar Transaction Exporter Tests")
+class ColumnarTransactionExporterTest {
+
+    private static final int ROWS = 150_000;
+
+    static String toJson(long timestamp, int terminal, String account, TransactionType type,
+                         int notes, long debit, long dispensed) {
+        return "{\"timestamp\":" + timestamp + ",\"terminal\":\"T" + terminal + "\",\"account\":\"" + account
+                + "\",\"type\":\"" + type + "\",\"notes\":" + notes + ",\"debit\":" + debit / 100.0
+                + ",\"dispensed\":" + dispensed / 100.0 + "}\n";
+    }
+
+    @Test
+    @DisplayName("Every column round-trips across row groups")
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        Path journalPath = dir.resolve("day.journal");
+        Path columnar = dir.resolve("day.atmc");
+        long[][] expected = new long[TransactionColumn.values().length][ROWS];
+        long jsonBytes = 0;
+        Random random = new Random(11);
+        long timestamp = 1_700_000_000_000L;
+        try (TransactionJournal journal = new TransactionJournal(journalPath)) {
+            for (int row = 0; row < ROWS; row++) {
+                timestamp += random.nextInt(50);
+                int terminal = random.nextInt(300);
+                int account = random.nextInt(10_000);
+                TransactionType type = random.nextInt(4) == 0 ? TransactionType.CHECK_BALANCE : TransactionType.WITHDRAW_CASH;
+                long debit = type == TransactionType.WITHDRAW_CASH ? 2_000L * (1 + random.nextInt(20)) : 0;
+                int notes = debit == 0 ? 0 : 1 + random.nextInt(5);
+                journal.append(timestamp, terminal, "ACC" + account, type, notes, debit, debit);
+                jsonBytes += toJson(timestamp, terminal, "ACC" + account, type, notes, debit, debit)
+                        .getBytes(StandardCharsets.UTF_8).length;
+                expected[TransactionColumn.TIMESTAMP.ordinal()][row] = timestamp;
+                expected[TransactionColumn.TERMINAL.ordinal()][row] = terminal;
+                expected[TransactionColumn.TYPE.ordinal()][row] = type.ordinal();
+                expected[TransactionColumn.NOTES.ordinal()][row] = notes;
+                expected[TransactionColumn.DEBIT.ordinal()][row] = debit;
+                expected[TransactionColumn.DISPENSED.ordinal()][row] = debit;
+            }
+        }
+
+        assertEquals(ROWS, ColumnarTransactionExporter.export(journalPath, columnar));
+
+        try (ColumnarTransactionReader reader = new ColumnarTransactionReader(columnar)) {
+            assertEquals(ROWS, reader.getRowCount());
+            for (TransactionColumn column : TransactionColumn.values()) {
+                if (column != TransactionColumn.ACCOUNT) {
+                    assertArrayEquals(expected[column.ordinal()], reader.read(column), column.name());
+                }
+            }
+            long[] accountIds = reader.read(TransactionColumn.ACCOUNT);
+            assertTrue(reader.getAccountDictionary().get((int) accountIds[0]).startsWith("ACC"));
+        }
+        long columnarBytes = Files.size(columnar);
+        assertTrue(columnarBytes * 10 < jsonBytes, columnarBytes + " vs " + jsonBytes + " JSON bytes");
+    }
+
+    @Test
+    @DisplayName("Single-column scans sum amounts")
+    void testColumnScan(@TempDir Path dir) throws IOException {
+        Path journalPath = dir.resolve("day.journal");
+        Path columnar = dir.resolve("day.atmc");
+        try (TransactionJournal journal = new TransactionJournal(journalPath)) {
+            journal.append(1_000L, 0, "ACC1", TransactionType.WITHDRAW_CASH, 2, 4_000, 4_000);
+            journal.append(900L, 1, "ACC2", TransactionType.WITHDRAW_CASH, 1, 2_000, 1_000);
+            journal.append(5_000L, 1, "ACC1", TransactionType.CHECK_BALANCE, 0, 0, 0);
+        }
+        ColumnarTransactionExporter.export(journalPath, columnar);
+
+        try (ColumnarTransactionReader reader = new ColumnarTransactionReader(columnar)) {
+            assertEquals(6_000, reader.sum(TransactionColumn.DEBIT));
+            assertEquals(5_000, reader.sum(TransactionColumn.DISPENSED));
+            assertArrayEquals(new long[] {1_000L, 900L, 5_000L}, reader.read(TransactionColumn.TIMESTAMP));
+            assertArrayEquals(new long[] {0, 1, 0}, reader.read(TransactionColumn.ACCOUNT));
+        }
+    }
+
+    @Test
+    @DisplayName("Files that are not columnar exports are rejected")
+    void testRejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path other = dir.resolve("other.bin");
+        Files.write(other, new byte[64]);
+        assertThrows(IOException.class, () -> new ColumnarTransactionReader(other));
+    }
+}
@@ -0,0 +1,36 @@
+package org.example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dedup lookups plus inserts per second with a one-minute window
+ * sized for 100k TPS. Run with: java -cp target/classes:target/test-classes org.example.DedupTableBenchmark
+ */
+public class DedupTableBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int perThread = 2_000_000;
+        DedupTable table = new DedupTable(6_000_000, TimeUnit.MINUTES.toNanos(1));
+
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t << 40;
+            workers[t] = new Thread(() -> {
+                for (long i = 0; i < perThread; i++) {
+                    long id = base + i;
+                    if (table.get(id) == DedupTable.NOT_FOUND) {
+                        table.put(id, DedupTable.outcome(ResponseCode.APPROVED, i));
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d threads: %.0f transactions/s, %d entries, %d forced evictions%n",
+                threads, threads * perThread / seconds, table.size(), table.getForcedEvictions());
+    }
+}
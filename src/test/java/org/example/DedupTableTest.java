@@ -0,0 +1,182 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dedup Table Tests")
+class DedupTableTest {
+
+    private static final long WINDOW = 1_000;
+
+    @Test
+    @DisplayName("Recorded outcomes are returned until the window passes")
+    void testWindowExpiry() {
+        AtomicLong clock = new AtomicLong();
+        DedupTable table = new DedupTable(1_000, WINDOW, clock::get);
+        long outcome = DedupTable.outcome(ResponseCode.APPROVED, 10_000);
+
+        assertTrue(table.put(42L, outcome));
+        assertFalse(table.put(42L, DedupTable.outcome(ResponseCode.SYSTEM_ERROR, 0)));
+        clock.set(WINDOW - 1);
+        assertEquals(outcome, table.get(42L));
+        clock.set(WINDOW);
+        assertEquals(DedupTable.NOT_FOUND, table.get(42L));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    @DisplayName("Outcomes pack the response code and amount")
+    void testOutcomePacking() {
+        long outcome = DedupTable.outcome(ResponseCode.INSUFFICIENT_FUNDS, 123_456_789L);
+        assertEquals(ResponseCode.INSUFFICIENT_FUNDS, DedupTable.responseCode(outcome));
+        assertEquals(123_456_789L, DedupTable.amountCents(outcome));
+        assertNotEquals(DedupTable.NOT_FOUND, outcome);
+    }
+
+    @Test
+    @DisplayName("Memory stays bounded by dropping the oldest entries")
+    void testConstantMemory() {
+        AtomicLong clock = new AtomicLong();
+        DedupTable table = new DedupTable(1_600, Long.MAX_VALUE / 4, clock::get);
+        for (long id = 0; id < 1_000_000; id++) {
+            table.put(id, DedupTable.outcome(ResponseCode.APPROVED, id));
+        }
+        assertTrue(table.size() <= 1_600);
+        assertTrue(table.getForcedEvictions() >= 1_000_000 - 1_600);
+        assertEquals(DedupTable.outcome(ResponseCode.APPROVED, 999_999), table.get(999_999L));
+        assertEquals(DedupTable.NOT_FOUND, table.get(0L));
+    }
+
+    @Test
+    @DisplayName("Entries survive deletion of colliding neighbours")
+    void testDeletionKeepsProbeChains() {
+        AtomicLong clock = new AtomicLong();
+        DedupTable table = new DedupTable(16_000, WINDOW, clock::get);
+        for (long id = 0; id < 8_000; id += 2) {
+            table.put(id * 7919, DedupTable.outcome(ResponseCode.APPROVED, id));
+        }
+        clock.set(WINDOW / 2);
+        for (long id = 1; id < 8_000; id += 2) {
+            table.put(id * 7919, DedupTable.outcome(ResponseCode.APPROVED, id));
+        }
+        clock.set(WINDOW);
+        for (long id = 1; id < 8_000; id += 2) {
+            assertEquals(DedupTable.outcome(ResponseCode.APPROVED, id), table.get(id * 7919));
+        }
+        for (long id = 0; id < 8_000; id += 2) {
+            assertEquals(DedupTable.NOT_FOUND, table.get(id * 7919));
+        }
+    }
+
+    @Test
+    @DisplayName("Retried withdrawal returns the original outcome without withdrawing twice")
+    void testRetriedWithdrawal() {
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.setDedupTable(new DedupTable(1_000, 60_000_000_000L));
+        Account account = new Account("ACC1", 1000.0);
+        atm.addAccount(account);
+        atm.insertCard(new Card("4111", 1234, "ACC1"));
+        atm.enterPin(1234);
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+
+        atm.performTransaction(100.0, 7L);
+        atm.performTransaction(100.0, 7L);
+
+        assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+        assertEquals(900.0, account.getBalance());
+
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        atm.performTransaction(2000.0, 8L);
+        atm.performTransaction(2000.0, 8L);
+        assertEquals(ResponseCode.INSUFFICIENT_FUNDS, atm.getLastResponseCode());
+    }
+
+    @Test
+    @DisplayName("IDs rejected for the current state are not remembered")
+    void testInvalidStateNotRecorded() {
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.setDedupTable(new DedupTable(1_000, 60_000_000_000L));
+        atm.addAccount(new Account("ACC1", 1000.0));
+
+        atm.performTransaction(100.0, 9L);
+        assertEquals(ResponseCode.INVALID_STATE, atm.getLastResponseCode());
+
+        atm.insertCard(new Card("4111", 1234, "ACC1"));
+        atm.enterPin(1234);
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        atm.performTransaction(100.0, 9L);
+        assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+        assertEquals(900.0, atm.getAccount("ACC1").getBalance());
+    }
+
+    @Test
+    @DisplayName("A retry arriving while the original runs is not run a second time")
+    void testConcurrentRetry() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Account account = new Account("ACC1", 1000.0) {
+            @Override
+            public boolean withdraw(double amount) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.withdraw(amount);
+            }
+        };
+        DedupTable table = new DedupTable(1_000, 60_000_000_000L);
+        ATMMachineContext first = sessionFor(account, table);
+        ATMMachineContext retry = sessionFor(account, table);
+
+        Thread original = new Thread(() -> first.performTransaction(100.0, 11L));
+        original.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        retry.performTransaction(100.0, 11L);
+        assertEquals(ResponseCode.TRANSACTION_IN_PROGRESS, retry.getLastResponseCode());
+
+        release.countDown();
+        original.join();
+        assertEquals(ResponseCode.APPROVED, first.getLastResponseCode());
+        retry.performTransaction(100.0, 11L);
+        assertEquals(ResponseCode.APPROVED, retry.getLastResponseCode());
+        assertEquals(900.0, account.getBalance());
+    }
+
+    private static ATMMachineContext sessionFor(Account account, DedupTable table) {
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.setDedupTable(table);
+        atm.addAccount(account);
+        atm.insertCard(new Card("4111", 1234, "ACC1"));
+        atm.enterPin(1234);
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        return atm;
+    }
+
+    @Test
+    @DisplayName("Released reservations do not expire a later entry for the same ID")
+    void testReleasedReservation() {
+        AtomicLong clock = new AtomicLong();
+        DedupTable table = new DedupTable(1_000, WINDOW, clock::get);
+
+        assertEquals(DedupTable.NOT_FOUND, table.reserve(5L));
+        assertEquals(DedupTable.IN_PROGRESS, table.reserve(5L));
+        table.release(5L);
+        clock.set(WINDOW / 2);
+        assertEquals(DedupTable.NOT_FOUND, table.reserve(5L));
+        table.complete(5L, DedupTable.outcome(ResponseCode.APPROVED, 100));
+
+        clock.set(WINDOW);
+        assertEquals(DedupTable.outcome(ResponseCode.APPROVED, 100), table.get(5L));
+        clock.set(WINDOW + WINDOW / 2);
+        assertEquals(DedupTable.NOT_FOUND, table.get(5L));
+    }
+}
@@ -0,0 +1,102 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dispensability Index Tests")
+class DispensabilityIndexTest {
+
+    private static final int[] DENOMINATIONS = {100, 50, 20, 10, 5, 1};
+
+    // Plain bounded subset-sum used as the reference answer
+    private static boolean[] reachable(int[] denominations, int[] counts) {
+        int total = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            total += denominations[slot] * counts[slot];
+        }
+        boolean[] reachable = new boolean[total + 1];
+        reachable[0] = true;
+        for (int slot = 0; slot < counts.length; slot++) {
+            for (int note = 0; note < counts[slot]; note++) {
+                for (int amount = total; amount >= denominations[slot]; amount--) {
+                    reachable[amount] |= reachable[amount - denominations[slot]];
+                }
+            }
+        }
+        return reachable;
+    }
+
+    private static void assertMatches(boolean[] expected, DispensabilityIndex index) {
+        assertEquals(expected.length - 1, index.getTotal());
+        for (int amount = 0; amount < expected.length; amount++) {
+            assertEquals(expected[amount], index.canDispense(amount), "amount " + amount);
+        }
+        assertFalse(index.canDispense(expected.length));
+        assertFalse(index.canDispense(-1));
+    }
+
+    @Test
+    @DisplayName("Should index amounts of the default inventory")
+    void testDefaultInventory() {
+        DispensabilityIndex index = new DispensabilityIndex(
+                DENOMINATIONS, new int[]{10, 10, 20, 30, 20, 50});
+
+        assertEquals(2350, index.getTotal());
+        assertTrue(index.canDispense(0));
+        assertTrue(index.canDispense(2349));
+        assertTrue(index.canDispense(2350));
+        assertFalse(index.canDispense(2351));
+    }
+
+    @Test
+    @DisplayName("Should report gaps and nearest dispensable amounts")
+    void testNearestAmounts() {
+        DispensabilityIndex index = new DispensabilityIndex(
+                DENOMINATIONS, new int[]{0, 1, 3, 0, 0, 0});
+
+        assertFalse(index.canDispense(30));
+        assertEquals(20, index.nearestBelow(30));
+        assertEquals(40, index.nearestAbove(30));
+        assertEquals(110, index.nearestBelow(500));
+        assertEquals(-1, index.nearestAbove(111));
+        assertEquals(0, index.nearestBelow(19));
+        assertEquals(-1, index.nearestBelow(-5));
+    }
+
+    @Test
+    @DisplayName("Incremental updates should match a full recomputation")
+    void testIncrementalUpdates() {
+        Random random = new Random(42);
+        int[] counts = {3, 2, 4, 5, 3, 7};
+        DispensabilityIndex index = new DispensabilityIndex(DENOMINATIONS, counts);
+        assertMatches(reachable(DENOMINATIONS, counts), index);
+
+        for (int step = 0; step < 200; step++) {
+            int slot = random.nextInt(counts.length);
+            counts[slot] = random.nextInt(8);
+            index.update(slot, counts[slot]);
+            assertMatches(reachable(DENOMINATIONS, counts), index);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay exact when combination counts overflow a long")
+    void testLargeInventory() {
+        int[] denominations = {50, 20, 20, 10, 10, 10, 5, 5};
+        int[] counts = {300, 300, 300, 300, 300, 300, 300, 3};
+        DispensabilityIndex index = new DispensabilityIndex(denominations, counts);
+        assertMatches(reachable(denominations, counts), index);
+
+        counts[7] = 0;
+        index.update(7, 0);
+        counts[6] = 1;
+        index.update(6, 1);
+        assertMatches(reachable(denominations, counts), index);
+        assertFalse(index.canDispense(3));
+        assertEquals(5, index.nearestAbove(1));
+    }
+}
@@ -0,0 +1,238 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Dispense Policy Tests")
+class DispensePolicyTest {
+
+    private static final int[] DENOMINATIONS = {100, 50, 20, 10, 5, 1};
+
+    private static int valueOf(int[] notes) {
+        int total = 0;
+        for (int slot = 0; slot < notes.length; slot++) {
+            total += notes[slot] * DENOMINATIONS[slot];
+        }
+        return total;
+    }
+
+    private static int noteCount(int[] notes) {
+        int total = 0;
+        for (int count : notes) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Withdraws random amounts from a machine stocked with $100, $50 and $20 notes
+    // until the first refusal and returns how many withdrawals were served
+    private static int withdrawalsBeforeFirstRefusal(DispensePolicy policy, long seed) {
+        int[] counts = {10, 40, 60, 0, 0, 0};
+        Random random = new Random(seed);
+        int served = 0;
+        while (true) {
+            int amount = 10 * (2 + random.nextInt(29));
+            int[] notes = policy.compile(DENOMINATIONS, counts).lookup(amount);
+            if (notes == null) {
+                return served;
+            }
+            for (int slot = 0; slot < counts.length; slot++) {
+                counts[slot] -= notes[slot];
+            }
+            served++;
+        }
+    }
+
+    @Test
+    @DisplayName("Greedy policy should take largest notes first")
+    void testGreedyPolicy() {
+        DispenseTable table = new GreedyDispensePolicy().compile(
+                DENOMINATIONS, new int[]{10, 10, 20, 30, 20, 50});
+
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1}, table.lookup(186));
+    }
+
+    @Test
+    @DisplayName("Greedy policy should refuse amounts it overshoots")
+    void testGreedyPolicyOvershoot() {
+        DispenseTable table = new GreedyDispensePolicy().compile(
+                DENOMINATIONS, new int[]{0, 1, 3, 0, 0, 0});
+
+        assertNull(table.lookup(60));
+    }
+
+    @Test
+    @DisplayName("Fewest notes policy should find exact combinations greedy misses")
+    void testFewestNotesFindsExactCombination() {
+        DispenseTable table = new FewestNotesDispensePolicy().compile(
+                DENOMINATIONS, new int[]{0, 1, 3, 0, 0, 0});
+
+        assertArrayEquals(new int[]{0, 0, 3, 0, 0, 0}, table.lookup(60));
+        assertNull(table.lookup(30));
+    }
+
+    @Test
+    @DisplayName("Fewest notes policy should respect cassette counts")
+    void testFewestNotesRespectsCounts() {
+        DispenseTable table = new FewestNotesDispensePolicy().compile(
+                DENOMINATIONS, new int[]{1, 0, 5, 0, 0, 0});
+
+        assertArrayEquals(new int[]{1, 0, 5, 0, 0, 0}, table.lookup(200));
+        assertNull(table.lookup(220));
+    }
+
+    @Test
+    @DisplayName("Weighted policies should produce exact amounts for every reachable value")
+    void testWeightedPoliciesAreExact() {
+        int[] counts = {3, 2, 4, 5, 3, 7};
+        DispensePolicy[] policies = {
+                new FewestNotesDispensePolicy(),
+                new BalancedLevelsDispensePolicy(),
+                new PreserveSmallChangeDispensePolicy()
+        };
+        for (DispensePolicy policy : policies) {
+            DispenseTable table = policy.compile(DENOMINATIONS, counts);
+            for (int amount = 0; amount <= 552; amount++) {
+                int[] notes = table.lookup(amount);
+                assertNotNull(notes, policy.getPolicyName() + " " + amount);
+                assertEquals(amount, valueOf(notes));
+                for (int slot = 0; slot < counts.length; slot++) {
+                    assertTrue(notes[slot] <= counts[slot]);
+                }
+            }
+            assertNull(table.lookup(553));
+        }
+    }
+
+    @Test
+    @DisplayName("Fewest notes policy should never use more notes than greedy")
+    void testFewestNotesBeatsGreedy() {
+        int[] counts = {2, 3, 4, 5, 6, 7};
+        DispenseTable greedy = new GreedyDispensePolicy().compile(DENOMINATIONS, counts);
+        DispenseTable fewest = new FewestNotesDispensePolicy().compile(DENOMINATIONS, counts);
+        for (int amount = 0; amount <= 500; amount++) {
+            int[] greedyNotes = greedy.lookup(amount);
+            if (greedyNotes != null) {
+                assertTrue(noteCount(fewest.lookup(amount)) <= noteCount(greedyNotes));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Balanced policy should draw from the fullest cassette")
+    void testBalancedLevelsPrefersFullerCassette() {
+        DispenseTable table = new BalancedLevelsDispensePolicy().compile(
+                DENOMINATIONS, new int[]{1, 0, 40, 0, 0, 0});
+
+        assertArrayEquals(new int[]{0, 0, 5, 0, 0, 0}, table.lookup(100));
+    }
+
+    @Test
+    @DisplayName("Preserve small change policy should avoid small notes")
+    void testPreserveSmallChange() {
+        DispenseTable table = new PreserveSmallChangeDispensePolicy().compile(
+                DENOMINATIONS, new int[]{0, 2, 0, 10, 0, 20});
+
+        assertArrayEquals(new int[]{0, 2, 0, 0, 0, 0}, table.lookup(100));
+        assertArrayEquals(new int[]{0, 2, 0, 1, 0, 3}, table.lookup(113));
+    }
+
+    @Test
+    @DisplayName("Inventory should dispense using the configured policy")
+    void testInventoryUsesPolicy() {
+        ATMInventory inventory = new ATMInventory(new PreserveSmallChangeDispensePolicy());
+        inventory.dispenseCash(1000);
+
+        Map<CashType, Integer> dispensed = inventory.dispenseCash(60);
+
+        assertNotNull(dispensed);
+        assertEquals(3, dispensed.get(CashType.BILL_20));
+        assertEquals(1290, inventory.getTotalCash());
+    }
+
+    @Test
+    @DisplayName("Policies should serve more withdrawals than greedy before the first refusal")
+    void testWithdrawalsBeforeFirstRefusal() {
+        DispensePolicy[] policies = {
+                new GreedyDispensePolicy(),
+                new FewestNotesDispensePolicy(),
+                new BalancedLevelsDispensePolicy(),
+                new PreserveSmallChangeDispensePolicy()
+        };
+        int[] served = new int[policies.length];
+        for (long seed = 1; seed <= 20; seed++) {
+            for (int i = 0; i < policies.length; i++) {
+                served[i] += withdrawalsBeforeFirstRefusal(policies[i], seed);
+            }
+        }
+        for (int i = 0; i < policies.length; i++) {
+            System.out.println(policies[i].getPolicyName() + ": " + served[i]
+                    + " withdrawals before first refusal over 20 runs");
+        }
+        for (int i = 1; i < policies.length; i++) {
+            assertTrue(served[i] > served[0]);
+        }
+    }
+
+    // Counts how often the inventory compiles a table
+    private static class CountingPolicy implements DispensePolicy {
+        private final DispensePolicy delegate;
+        int compiles;
+
+        CountingPolicy(DispensePolicy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getPolicyName() {
+            return delegate.getPolicyName();
+        }
+
+        @Override
+        public DispenseTable compile(int[] denominations, int[] counts) {
+            compiles++;
+            return delegate.compile(denominations, counts);
+        }
+    }
+
+    @Test
+    @DisplayName("Weighted tables should be indexed in units of the denominations' common divisor")
+    void testTableIndexedByCommonDivisor() {
+        int[] denominations = {500, 200, 100};
+        DispenseTable table = new FewestNotesDispensePolicy().compile(denominations, new int[]{200, 200, 400});
+
+        assertArrayEquals(new int[]{1, 1, 1}, table.lookup(800));
+        assertArrayEquals(new int[]{200, 200, 400}, table.lookup(180_000));
+        assertNull(table.lookup(850));
+        assertNull(table.lookup(180_100));
+    }
+
+    @Test
+    @DisplayName("Inventory should reuse a table across dispenses until it goes stale")
+    void testInventoryReusesTable() {
+        CountingPolicy policy = new CountingPolicy(new FewestNotesDispensePolicy());
+        ATMInventory inventory = new ATMInventory(policy);
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(inventory.dispenseNotes(20));
+        }
+        assertEquals(1, policy.compiles);
+
+        // Refilling can make cheaper combinations possible
+        inventory.addCash(CashType.BILL_50, 5);
+        assertNotNull(inventory.dispenseNotes(20));
+        assertEquals(2, policy.compiles);
+
+        // Once the cached combination is no longer loaded the table is rebuilt
+        for (int i = 0; i < 12; i++) {
+            assertNotNull(inventory.dispenseNotes(100));
+        }
+        assertTrue(policy.compiles > 2);
+        assertEquals(0, inventory.getCount(CashType.BILL_100));
+    }
+}
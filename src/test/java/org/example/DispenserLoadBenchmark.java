@@ -0,0 +1,59 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end session times with a simulated dispenser at every terminal,
+ * one session thread per terminal. Run with: java -cp target/classes:target/test-classes org.example.DispenserLoadBenchmark [terminals]
+ */
+public class DispenserLoadBenchmark {
+    private static final int SESSIONS_PER_TERMINAL = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        int terminals = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        run(out, "virtual threads", Executors.newVirtualThreadPerTaskExecutor(), terminals);
+        run(out, "200 platform threads", Executors.newFixedThreadPool(200), terminals);
+        System.setOut(out);
+    }
+
+    private static void run(PrintStream out, String label, ExecutorService executor, int terminals)
+            throws InterruptedException {
+        long[] sessionNanos = new long[terminals * SESSIONS_PER_TERMINAL];
+        long start = System.nanoTime();
+        for (int t = 0; t < terminals; t++) {
+            int terminal = t;
+            executor.execute(() -> {
+                ATMMachineContext atm = new ATMMachineContext();
+                atm.addAccount(new Account("ACC001", 1_000_000));
+                // 200 ms to open the shutter plus 50 ms a note, one jam in a thousand notes
+                atm.setCashDispenser(new SimulatedCashDispenser(
+                        TimeUnit.MILLISECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(50), 0.001, terminal));
+                Card card = new Card("CARD001", 1234, "ACC001");
+                for (int s = 0; s < SESSIONS_PER_TERMINAL; s++) {
+                    long sessionStart = System.nanoTime();
+                    atm.insertCard(card);
+                    atm.enterPin(1234);
+                    atm.selectOperation(TransactionType.WITHDRAW_CASH);
+                    atm.performTransaction(80);
+                    atm.returnCard();
+                    sessionNanos[terminal * SESSIONS_PER_TERMINAL + s] = System.nanoTime() - sessionStart;
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(sessionNanos);
+        out.printf("%s: %d sessions in %.1f s (%.0f sessions/s), session p50 %d ms, p99 %d ms%n",
+                label, sessionNanos.length, seconds, sessionNanos.length / seconds,
+                sessionNanos[sessionNanos.length / 2] / 1_000_000,
+                sessionNanos[sessionNanos.length * 99 / 100] / 1_000_000);
+    }
+}
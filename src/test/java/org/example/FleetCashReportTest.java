@@ -0,0 +1,89 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Fleet Cash Report Tests")
+class FleetCashReportTest {
+
+    private static List<ATMInventory> fleet(int terminals) {
+        List<ATMInventory> fleet = new ArrayList<>();
+        for (int i = 0; i < terminals; i++) {
+            fleet.add(new ATMInventory());
+        }
+        return fleet;
+    }
+
+    @Test
+    @DisplayName("Should total cash and notes across the fleet")
+    void testTotals() {
+        List<ATMInventory> fleet = fleet(1_000);
+        fleet.get(0).dispenseCash(100);
+        fleet.get(1).addCash(CashType.BILL_20, 10);
+
+        FleetCashReport report = FleetCashReport.of(fleet);
+
+        assertEquals(1_000, report.getTerminalCount());
+        assertEquals(2350L * 1_000 - 100 + 200, report.getTotalCash());
+        assertEquals(report.getTotalCash(), report.getTotalCash(CashType.USD));
+        assertEquals(10L * 1_000 - 1, report.getNoteCount(CashType.BILL_100));
+        assertEquals(20L * 1_000 + 10, report.getNoteCount(CashType.BILL_20));
+        assertEquals(2250, report.getSnapshot(0).getTotalCash());
+        assertEquals(0, report.getTotalCash("EUR"));
+    }
+
+    @Test
+    @DisplayName("Should separate currencies of differently configured terminals")
+    void testCurrencies() {
+        List<ATMInventory> fleet = fleet(2);
+        fleet.add(new ATMInventory(new CassetteConfiguration("EUR", new int[]{50, 10}, new int[]{4, 5})));
+
+        FleetCashReport report = FleetCashReport.of(fleet);
+
+        assertEquals(4700, report.getTotalCash(CashType.USD));
+        assertEquals(250, report.getTotalCash("EUR"));
+        assertEquals(4, report.getNoteCount(CashType.of("EUR", 50)));
+    }
+
+    @Test
+    @DisplayName("Should see each terminal at a single version while it is being changed")
+    void testConsistentUnderLoad() throws InterruptedException {
+        List<ATMInventory> fleet = fleet(64);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> loaders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int first = t;
+            Thread loader = new Thread(() -> {
+                while (running.get()) {
+                    for (int i = first; i < fleet.size(); i += 4) {
+                        fleet.get(i).addCash(5, 1);
+                    }
+                }
+            });
+            loader.start();
+            loaders.add(loader);
+        }
+        try {
+            for (int round = 0; round < 200; round++) {
+                FleetCashReport report = FleetCashReport.of(fleet);
+                for (int i = 0; i < report.getTerminalCount(); i++) {
+                    // Only $1 loads happen, so version, count and total move in step
+                    InventorySnapshot snapshot = report.getSnapshot(i);
+                    assertEquals(50 + snapshot.getVersion(), snapshot.getCount(5));
+                    assertEquals(2350 + snapshot.getVersion(), snapshot.getTotalCash());
+                }
+            }
+        } finally {
+            running.set(false);
+            for (Thread loader : loaders) {
+                loader.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fleet cash report over busy terminals: lock-free snapshots aggregated in
+ * parallel versus reading each inventory through its synchronized getters.
+ * Run with: java -cp target/classes:target/test-classes org.example.FleetReportBenchmark [terminals]
+ */
+public class FleetReportBenchmark {
+    private static final int ROUNDS = 50;
+    private static final int DISPENSERS = 2;
+
+    public static void main(String[] args) throws InterruptedException {
+        int terminals = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<ATMInventory> fleet = new ArrayList<>();
+        for (int i = 0; i < terminals; i++) {
+            fleet.add(new ATMInventory());
+        }
+
+        // Keep every terminal busy: dispense a random amount and load it back as $1 notes
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong operations = new AtomicLong();
+        List<Thread> dispensers = new ArrayList<>();
+        for (int d = 0; d < DISPENSERS; d++) {
+            Thread dispenser = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    ATMInventory inventory = fleet.get(random.nextInt(terminals));
+                    int amount = 1 + random.nextInt(200);
+                    if (inventory.dispenseNotes(amount) != null) {
+                        inventory.addCash(5, amount);
+                    }
+                    operations.incrementAndGet();
+                }
+            });
+            dispenser.setDaemon(true);
+            dispenser.start();
+            dispensers.add(dispenser);
+        }
+
+        for (int warmup = 0; warmup < 2; warmup++) {
+            snapshotReport(fleet);
+            lockingReport(fleet);
+        }
+        long snapshotNanos = 0;
+        long lockingNanos = 0;
+        long torn = 0;
+        long operationsBefore = operations.get();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            snapshotReport(fleet);
+            snapshotNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            torn += lockingReport(fleet);
+            lockingNanos += System.nanoTime() - start;
+        }
+        running.set(false);
+        for (Thread dispenser : dispensers) {
+            dispenser.join();
+        }
+        System.out.printf("%,d terminals, %,d concurrent inventory operations during the run%n",
+                terminals, operations.get() - operationsBefore);
+        System.out.printf("snapshots, parallel     %7.2f ms/report%n", snapshotNanos / 1e6 / ROUNDS);
+        System.out.printf("synchronized getters    %7.2f ms/report, %d torn terminal views%n",
+                lockingNanos / 1e6 / ROUNDS, torn);
+    }
+
+    private static long snapshotReport(List<ATMInventory> fleet) {
+        return FleetCashReport.of(fleet).getTotalCash();
+    }
+
+    // Returns how many terminals' slot counts disagreed with their total
+    private static long lockingReport(List<ATMInventory> fleet) {
+        long torn = 0;
+        for (ATMInventory inventory : fleet) {
+            int total = inventory.getTotalCash();
+            long counted = 0;
+            for (int slot = 0; slot < inventory.getConfiguration().getCassetteCount(); slot++) {
+                counted += (long) inventory.getCashType(slot).value * inventory.getCount(slot);
+            }
+            if (counted != total) {
+                torn++;
+            }
+        }
+        return torn;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Hashed Timing Wheel Tests")
+class HashedTimingWheelTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private AtomicLong clock;
+    private HashedTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000L);
+        wheel = new HashedTimingWheel(TICK, 8, clock::get);
+    }
+
+    private void advanceBy(long nanos) {
+        clock.addAndGet(nanos);
+        wheel.advanceTo(clock.get());
+    }
+
+    @Test
+    @DisplayName("Should fire a timeout once its deadline passes")
+    void testTimeoutFires() {
+        AtomicInteger fired = new AtomicInteger();
+        HashedTimingWheel.Timeout timeout = wheel.schedule(3 * TICK, fired::incrementAndGet);
+
+        advanceBy(2 * TICK);
+        assertEquals(0, fired.get());
+
+        advanceBy(TICK);
+        assertEquals(1, fired.get());
+        assertTrue(timeout.isExpired());
+
+        advanceBy(20 * TICK);
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    @DisplayName("Should fire timeouts longer than one revolution in the right round")
+    void testMultipleRounds() {
+        AtomicInteger fired = new AtomicInteger();
+        wheel.schedule(20 * TICK, fired::incrementAndGet);
+
+        advanceBy(19 * TICK);
+        assertEquals(0, fired.get());
+
+        advanceBy(TICK);
+        assertEquals(1, fired.get());
+    }
+
+    @Test
+    @DisplayName("Should not fire a cancelled timeout")
+    void testCancel() {
+        AtomicInteger fired = new AtomicInteger();
+        HashedTimingWheel.Timeout timeout = wheel.schedule(2 * TICK, fired::incrementAndGet);
+        advanceBy(TICK);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        advanceBy(5 * TICK);
+
+        assertEquals(0, fired.get());
+        assertTrue(timeout.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Should fire timeouts in deadline order across ticks")
+    void testOrdering() {
+        List<Integer> order = new ArrayList<>();
+        wheel.schedule(5 * TICK, () -> order.add(5));
+        wheel.schedule(1 * TICK, () -> order.add(1));
+        wheel.schedule(12 * TICK, () -> order.add(12));
+        wheel.schedule(3 * TICK, () -> order.add(3));
+
+        for (int i = 0; i < 15; i++) {
+            advanceBy(TICK);
+        }
+
+        assertEquals(List.of(1, 3, 5, 12), order);
+    }
+
+    @Test
+    @DisplayName("Should handle a large number of timers with cancellations")
+    void testManyTimers() {
+        AtomicInteger fired = new AtomicInteger();
+        List<HashedTimingWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            timeouts.add(wheel.schedule((i % 50) * TICK, fired::incrementAndGet));
+        }
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            timeouts.get(i).cancel();
+        }
+
+        advanceBy(60 * TICK);
+
+        assertEquals(50_000, fired.get());
+    }
+
+    @Test
+    @DisplayName("Should fire timeouts from its own driver thread")
+    void testDriverThread() throws InterruptedException {
+        try (HashedTimingWheel realWheel = new HashedTimingWheel(TimeUnit.MILLISECONDS.toNanos(1), 64)) {
+            realWheel.start();
+            CountDownLatch fired = new CountDownLatch(1);
+            realWheel.schedule(TimeUnit.MILLISECONDS.toNanos(5), fired::countDown);
+
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+        }
+    }
+}
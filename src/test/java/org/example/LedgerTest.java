@@ -0,0 +1,198 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ledger Tests")
+class LedgerTest {
+
+    private Ledger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new Ledger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.close();
+    }
+
+    @Test
+    @DisplayName("Account balance reads see the account's own writes")
+    void testAccountReadYourWrites() {
+        Account account = new Account("ACC001", 1000.0);
+        account.attachLedger(ledger);
+
+        assertTrue(account.withdraw(300.0));
+        assertEquals(700.0, account.getBalance());
+        account.deposit(50.0);
+        assertEquals(750.0, account.getBalance());
+        assertFalse(account.withdraw(5000.0));
+        assertEquals(750.0, account.getBalance());
+        // Rejected withdrawals are not commands the ledger records
+        assertEquals(3, ledger.getEventLog().size());
+    }
+
+    @Test
+    @DisplayName("A balance read waiting on the projection does not block withdrawals")
+    void testBalanceWaitOutsideMonitor() throws InterruptedException {
+        CountDownLatch waiting = new CountDownLatch(1);
+        CountDownLatch applied = new CountDownLatch(1);
+        Ledger slowLedger = new Ledger() {
+            @Override
+            public double getBalance(String accountNumber, long sequence) {
+                waiting.countDown();
+                try {
+                    applied.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getBalance(accountNumber, sequence);
+            }
+        };
+        try {
+            Account account = new Account("ACC001", 1000.0);
+            account.attachLedger(slowLedger);
+            Thread reader = new Thread(account::getBalance);
+            reader.start();
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+            Thread writer = new Thread(() -> account.withdraw(100.0));
+            writer.start();
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+            assertFalse(writer.isAlive(), "withdrawal blocked behind a waiting balance read");
+
+            applied.countDown();
+            reader.join();
+            assertEquals(900.0, account.getBalance());
+        } finally {
+            applied.countDown();
+            slowLedger.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Inventory total cash is served from the cassette projection")
+    void testInventoryProjection() {
+        ATMInventory inventory = new ATMInventory();
+        inventory.attachLedger(ledger, "T1");
+        int initialTotal = inventory.getTotalCash();
+
+        assertNotNull(inventory.dispenseCash(170));
+        assertEquals(initialTotal - 170, inventory.getTotalCash());
+        inventory.addCash(CashType.BILL_20, 5);
+        assertEquals(initialTotal - 70, inventory.getTotalCash());
+
+        long last = ledger.getEventLog().size() - 1;
+        for (int slot = 0; slot < inventory.getConfiguration().getCassetteCount(); slot++) {
+            assertEquals(inventory.getCount(slot), ledger.getCassetteCount("T1", slot, last));
+        }
+    }
+
+    @Test
+    @DisplayName("Log is append-only with gap-free sequence numbers")
+    void testEventLogSequences() {
+        EventLog log = new EventLog();
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, log.append(LedgerEventType.ACCOUNT_CREDITED, "A" + (i % 7), 0, 0, 1.0));
+        }
+        assertEquals(10_000, log.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, log.get(i).getSequence());
+            assertEquals("A" + (i % 7), log.get(i).getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent appends publish every event once and in each writer's order")
+    void testConcurrentAppends() throws InterruptedException {
+        EventLog log = new EventLog();
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            String key = "W" + w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    log.append(LedgerEventType.ACCOUNT_CREDITED, key, 0, 0, i);
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(80_000, log.size());
+        double[] last = {-1, -1, -1, -1};
+        for (long sequence = 0; sequence < log.size(); sequence++) {
+            LedgerEvent event = log.get(sequence);
+            assertEquals(sequence, event.getSequence());
+            int writer = event.getKey().charAt(1) - '0';
+            assertEquals(last[writer] + 1, event.getAmount());
+            last[writer] = event.getAmount();
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel partitioned replay rebuilds the same projections")
+    void testParallelReplay() {
+        Account[] accounts = new Account[50];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new Account("ACC" + i, 100.0 + i);
+            accounts[i].attachLedger(ledger);
+        }
+        ATMInventory inventory = new ATMInventory();
+        inventory.attachLedger(ledger, "T1");
+        for (int i = 0; i < 5_000; i++) {
+            Account account = accounts[(i * 31) % accounts.length];
+            if (i % 3 == 0) {
+                account.deposit(0.25 * (i % 11));
+            } else {
+                account.withdraw(1.5);
+            }
+            if (i % 100 == 0) {
+                inventory.dispenseCash(20);
+            }
+        }
+        long last = ledger.getEventLog().size() - 1;
+        ledger.awaitApplied(last);
+
+        try (Ledger rebuilt = new Ledger(ledger.getEventLog(), 4)) {
+            assertEquals(ledger.getEventLog().size(), rebuilt.getAppliedCount());
+            for (Account account : accounts) {
+                assertEquals(ledger.getBalance(account.getAccountNumber()),
+                        rebuilt.getBalance(account.getAccountNumber()));
+            }
+            assertEquals(inventory.getTotalCash(), rebuilt.getTotalCash("T1"));
+        }
+    }
+
+    @Test
+    @DisplayName("Projections keep consuming while writers append concurrently")
+    void testConcurrentWriters() throws InterruptedException {
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            String accountNumber = "W" + w;
+            writers[w] = new Thread(() -> {
+                Account account = new Account(accountNumber, 0.0);
+                account.attachLedger(ledger);
+                for (int i = 0; i < 10_000; i++) {
+                    account.deposit(1.0);
+                }
+                assertEquals(10_000.0, account.getBalance());
+            });
+            writers[w].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(4 * 10_001, ledger.getEventLog().size());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Mailbox Tests")
+class MailboxTest {
+
+    @Test
+    @DisplayName("Should be empty when created")
+    void testEmptyMailbox() {
+        Mailbox<String> mailbox = new Mailbox<>();
+
+        assertTrue(mailbox.isEmpty());
+        assertNull(mailbox.poll());
+    }
+
+    @Test
+    @DisplayName("Should deliver items in FIFO order")
+    void testFifoOrder() {
+        Mailbox<Integer> mailbox = new Mailbox<>();
+        mailbox.offer(1);
+        mailbox.offer(2);
+        mailbox.offer(3);
+
+        assertFalse(mailbox.isEmpty());
+        assertEquals(1, mailbox.poll());
+        assertEquals(2, mailbox.poll());
+        assertEquals(3, mailbox.poll());
+        assertNull(mailbox.poll());
+        assertTrue(mailbox.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not lose or reorder items from concurrent producers")
+    void testConcurrentProducers() throws InterruptedException {
+        Mailbox<long[]> mailbox = new Mailbox<>();
+        int producers = 4;
+        int perProducer = 50_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    mailbox.offer(new long[]{producer, i});
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] lastSeen = {-1, -1, -1, -1};
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] item = mailbox.poll();
+            if (item == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = (int) item[0];
+            assertEquals(lastSeen[producer] + 1, item[1]);
+            lastSeen[producer] = item[1];
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(mailbox.isEmpty());
+    }
+}
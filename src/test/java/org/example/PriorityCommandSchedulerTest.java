@@ -0,0 +1,197 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Priority Command Scheduler Tests")
+class PriorityCommandSchedulerTest {
+
+    private PriorityCommandScheduler scheduler;
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    // A terminal ready to transact against an account whose withdrawal blocks until released
+    private ATMMachineContext blockingTerminal() {
+        ATMMachineContext context = new ATMMachineContext();
+        context.addAccount(new Account("BLOCK", 1000) {
+            @Override
+            public boolean withdraw(double amount) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.withdraw(amount);
+            }
+        });
+        context.insertCard(new Card("CARD-BLOCK", 1234, "BLOCK"));
+        context.enterPin(1234);
+        context.selectOperation(TransactionType.WITHDRAW_CASH);
+        return context;
+    }
+
+    private static ATMMachineContext terminalWithCard() {
+        ATMMachineContext context = new ATMMachineContext();
+        context.addAccount(new Account("ACC001", 1000));
+        context.insertCard(new Card("CARD001", 1234, "ACC001"));
+        return context;
+    }
+
+    @Test
+    @DisplayName("Should run control commands ahead of queued session work")
+    void testControlOvertakesBacklog() throws InterruptedException {
+        scheduler = new PriorityCommandScheduler(1, new int[] {10, 10, 10}, 9);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Outcome> blocked = scheduler.performTransaction(blockingTerminal(), 100);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        List<CompletableFuture<?>> all = new ArrayList<>();
+        all.add(blocked);
+        for (int i = 0; i < 3; i++) {
+            int n = i;
+            all.add(scheduler.enterPin(terminalWithCard(), 1234).thenRun(() -> order.add("pin" + n)));
+        }
+        all.add(scheduler.insertCard(new ATMMachineContext(), new Card("CARD002", 1, "ACC002"))
+                .thenRun(() -> order.add("insert")));
+        ATMMachineContext leaving = terminalWithCard();
+        all.add(scheduler.returnCard(leaving).thenRun(() -> order.add("return")));
+        release.countDown();
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(List.of("return", "pin0", "pin1", "pin2", "insert"), order);
+        assertTrue(blocked.join().isApproved());
+        assertEquals(ATMStateId.IDLE, ATMStateId.fromStateName(leaving.getCurrentState().getStateName()));
+        assertEquals(1, scheduler.getCompletedCount(CommandPriority.CONTROL));
+    }
+
+    @Test
+    @DisplayName("Should shed new sessions once the in-session backlog reaches the threshold")
+    void testShedsNewSessions() throws InterruptedException {
+        scheduler = new PriorityCommandScheduler(1, new int[] {10, 10, 10}, 2);
+        scheduler.performTransaction(blockingTerminal(), 100);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Outcome> admitted = scheduler.insertCard(new ATMMachineContext(), new Card("C1", 1, "A1"));
+        scheduler.enterPin(terminalWithCard(), 1234);
+        scheduler.enterPin(terminalWithCard(), 1234);
+        CompletableFuture<Outcome> shed = scheduler.insertCard(new ATMMachineContext(), new Card("C2", 1, "A2"));
+        CompletableFuture<Outcome> control = scheduler.returnCard(terminalWithCard());
+
+        CompletionException e = assertThrows(CompletionException.class, shed::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, scheduler.getShedCount(CommandPriority.NEW_SESSION));
+        assertEquals(2, scheduler.getQueueDepth(CommandPriority.IN_SESSION));
+        release.countDown();
+        assertEquals(ATMStateId.HAS_CARD, admitted.join().getState());
+        assertTrue(control.join().isApproved());
+    }
+
+    @Test
+    @DisplayName("Should bound each priority's queue")
+    void testBoundedQueues() throws InterruptedException {
+        scheduler = new PriorityCommandScheduler(1, new int[] {1, 2, 2}, 1);
+        scheduler.performTransaction(blockingTerminal(), 100);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        scheduler.enterPin(terminalWithCard(), 1234);
+        scheduler.enterPin(terminalWithCard(), 1234);
+        CompletableFuture<Outcome> overflow = scheduler.enterPin(terminalWithCard(), 1234);
+        scheduler.returnCard(terminalWithCard());
+        CompletableFuture<Outcome> controlOverflow = scheduler.returnCard(terminalWithCard());
+
+        assertThrows(CompletionException.class, overflow::join);
+        assertThrows(CompletionException.class, controlOverflow::join);
+        assertEquals(1, scheduler.getShedCount(CommandPriority.IN_SESSION));
+        assertEquals(1, scheduler.getShedCount(CommandPriority.CONTROL));
+    }
+
+    @Test
+    @DisplayName("Should run a full session and report each outcome")
+    void testFullSession() {
+        scheduler = new PriorityCommandScheduler(2, new int[] {10, 10, 10}, 9);
+        ATMMachineContext terminal = new ATMMachineContext();
+        terminal.addAccount(new Account("ACC001", 500));
+
+        Outcome withdrawal = scheduler.insertCard(terminal, new Card("CARD001", 1234, "ACC001"))
+                .thenCompose(o -> scheduler.enterPin(terminal, 1234))
+                .thenCompose(o -> scheduler.selectOperation(terminal, TransactionType.WITHDRAW_CASH))
+                .thenCompose(o -> scheduler.performTransaction(terminal, 120))
+                .join();
+        Outcome returned = scheduler.returnCard(terminal).join();
+
+        assertTrue(withdrawal.isApproved());
+        assertEquals(120, withdrawal.getDispensedAmount());
+        assertEquals(380, withdrawal.getBalance());
+        assertEquals(ATMStateId.IDLE, returned.getState());
+    }
+
+    @Test
+    @DisplayName("Should run one terminal's pipelined commands in submission order across workers")
+    void testPipelinedSession() {
+        scheduler = new PriorityCommandScheduler(4, new int[] {10, 10, 10}, 9);
+        ATMMachineContext terminal = new ATMMachineContext();
+        terminal.addAccount(new Account("ACC001", 500));
+
+        CompletableFuture<Outcome> inserted = scheduler.insertCard(terminal, new Card("CARD001", 1234, "ACC001"));
+        CompletableFuture<Outcome> authenticated = scheduler.enterPin(terminal, 1234);
+        CompletableFuture<Outcome> selected = scheduler.selectOperation(terminal, TransactionType.WITHDRAW_CASH);
+        CompletableFuture<Outcome> withdrawn = scheduler.performTransaction(terminal, 120);
+        CompletableFuture<Outcome> returned = scheduler.returnCard(terminal);
+
+        assertEquals(ATMStateId.HAS_CARD, inserted.join().getState());
+        assertEquals(ATMStateId.SELECT_OPERATION, authenticated.join().getState());
+        assertEquals(ATMStateId.TRANSACTION, selected.join().getState());
+        assertTrue(withdrawn.join().isApproved());
+        assertEquals(380, withdrawn.join().getBalance());
+        assertEquals(ATMStateId.IDLE, returned.join().getState());
+    }
+
+    @Test
+    @DisplayName("Should run a terminal's card return after its earlier commands but ahead of other terminals")
+    void testControlKeepsTerminalOrder() throws InterruptedException {
+        scheduler = new PriorityCommandScheduler(1, new int[] {10, 10, 10}, 9);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.performTransaction(blockingTerminal(), 100);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+        ATMMachineContext leaving = terminalWithCard();
+        CompletableFuture<?> others = scheduler.enterPin(terminalWithCard(), 1234).thenRun(() -> order.add("other"));
+        CompletableFuture<?> pin = scheduler.enterPin(leaving, 1234).thenRun(() -> order.add("pin"));
+        CompletableFuture<?> returned = scheduler.returnCard(leaving).thenRun(() -> order.add("return"));
+        release.countDown();
+        CompletableFuture.allOf(others, pin, returned).join();
+
+        assertEquals(List.of("pin", "return", "other"), order);
+        assertEquals(ATMStateId.IDLE, ATMStateId.fromStateName(leaving.getCurrentState().getStateName()));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid configuration")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityCommandScheduler(0, new int[] {1, 1, 1}, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityCommandScheduler(1, new int[] {1, 1}, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityCommandScheduler(1, new int[] {10, 10, 10}, 10));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityCommandScheduler(1, new int[] {10, 10, 10}, 0));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offers new sessions at multiples of capacity and reports the latency of
+ * sessions that were admitted, with and without shedding. Each withdrawal
+ * costs about a millisecond of worker time.
+ * Run with: java -cp target/classes:target/test-classes org.example.PrioritySchedulerBenchmark
+ */
+public class PrioritySchedulerBenchmark {
+    private static final int WORKERS = 2;
+    private static final long RUN_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        // Roughly WORKERS sessions per millisecond of withdrawal time
+        int capacity = WORKERS * 900;
+        run(capacity, true, 1);
+        for (double load : new double[] {0.5, 1, 2, 4}) {
+            for (boolean shedding : new boolean[] {true, false}) {
+                out.println(run(load * capacity, shedding, load));
+            }
+        }
+        System.setOut(out);
+    }
+
+    private static String run(double sessionsPerSecond, boolean shedding, double load) {
+        int threshold = shedding ? WORKERS * 2 : (1 << 20) - 1;
+        int[] capacities = {1 << 20, 1 << 20, shedding ? WORKERS * 4 : 1 << 20};
+        int maxSessions = (int) (sessionsPerSecond * RUN_NANOS / 1e9);
+        long[] latencies = new long[maxSessions];
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CompletableFuture<?>[] sessions = new CompletableFuture<?>[maxSessions];
+        // Terminals are built up front so the generator keeps to its arrival rate
+        ATMMachineContext[] terminals = new ATMMachineContext[maxSessions];
+        for (int s = 0; s < maxSessions; s++) {
+            terminals[s] = new ATMMachineContext();
+            terminals[s].addAccount(new SlowAccount());
+        }
+        try (PriorityCommandScheduler scheduler = new PriorityCommandScheduler(WORKERS, capacities, threshold)) {
+            long interval = (long) (1e9 / sessionsPerSecond);
+            long start = System.nanoTime();
+            for (int s = 0; s < maxSessions; s++) {
+                LockSupport.parkNanos(start + s * interval - System.nanoTime());
+                ATMMachineContext terminal = terminals[s];
+                long begin = System.nanoTime();
+                sessions[s] = scheduler.insertCard(terminal, new Card("CARD", 1234, "SLOW"))
+                        .thenCompose(o -> scheduler.enterPin(terminal, 1234))
+                        .thenCompose(o -> scheduler.selectOperation(terminal, TransactionType.WITHDRAW_CASH))
+                        .thenCompose(o -> scheduler.performTransaction(terminal, 20))
+                        .thenCompose(o -> scheduler.returnCard(terminal))
+                        .handle((o, failure) -> {
+                            if (failure != null) {
+                                rejected.incrementAndGet();
+                            } else {
+                                latencies[finished.getAndIncrement()] = System.nanoTime() - begin;
+                            }
+                            return null;
+                        });
+            }
+            CompletableFuture.allOf(sessions).join();
+        }
+        long[] done = Arrays.copyOf(latencies, finished.get());
+        Arrays.sort(done);
+        return String.format("load %.1fx, shedding %-5s: %5d sessions served, %5d shed, p50 %6.1f ms, p99 %7.1f ms",
+                load, shedding, done.length, rejected.get(),
+                done.length == 0 ? 0 : done[done.length / 2] / 1e6,
+                done.length == 0 ? 0 : done[done.length * 99 / 100] / 1e6);
+    }
+
+    // Withdrawals stand in for a slow backend call
+    private static final class SlowAccount extends Account {
+        SlowAccount() {
+            super("SLOW", 1_000_000);
+        }
+
+        @Override
+        public boolean withdraw(double amount) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            return super.withdraw(amount);
+        }
+    }
+}
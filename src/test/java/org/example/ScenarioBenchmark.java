@@ -0,0 +1,73 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Measures scenario steps per second with one compiled scenario shared by
+ * all threads. Run with: java -cp target/classes:target/test-classes org.example.ScenarioBenchmark [threads]
+ */
+public class ScenarioBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int runsPerThread = 200_000;
+        Scenario scenario = Scenario.compile(String.join("\n",
+                "account ACC001 1000000",
+                "insert CARD001 1234 ACC001",
+                "pin 1234",
+                "select withdraw",
+                "transact 20",
+                "expect-code APPROVED",
+                "select balance",
+                "transact 0",
+                "expect-state SelectOperationState",
+                "return",
+                "expect-state IdleState"));
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ATMMachineContext atm = new ATMMachineContext();
+                for (int i = 0; i < runsPerThread; i++) {
+                    ScenarioResult result = scenario.run(atm);
+                    if (!result.isPassed()) {
+                        throw new IllegalStateException("Scenario failed at " + result);
+                    }
+                    if (!atm.getATMInventory().canDispense(20)) {
+                        atm = new ATMMachineContext();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long steps = (long) threads * runsPerThread * scenario.getStepCount();
+        out.printf("%d threads: %.2fM scenario steps/s%n", threads, steps / seconds / 1e6);
+
+        // Expectation-only steps isolate the interpreter from the state machine's console output
+        Scenario checks = Scenario.compile(String.join("\n",
+                "expect-state IdleState", "expect-balance ACC001 1000000", "expect-notes 100 10", "expect-code APPROVED"));
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.addAccount(new Account("ACC001", 1000000));
+        atm.returnCard();
+        atm.insertCard(new Card("CARD001", 1234, "ACC001"));
+        atm.returnCard();
+        int runs = 5_000_000;
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            if (!checks.run(atm).isPassed()) {
+                throw new IllegalStateException("Checks failed");
+            }
+        }
+        seconds = (System.nanoTime() - start) / 1e9;
+        out.printf("Interpreter alone: %.2fM steps/s per thread%n",
+                (double) runs * checks.getStepCount() / seconds / 1e6);
+        System.setOut(out);
+    }
+}
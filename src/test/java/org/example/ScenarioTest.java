@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Scenario DSL Tests")
+class ScenarioTest {
+
+    private static final String WITHDRAWAL = String.join("\n",
+            "# Complete withdrawal flow",
+            "account ACC001 1500",
+            "insert CARD001 1234 ACC001",
+            "expect-state HasCardState",
+            "pin 1234",
+            "expect-state SelectOperationState",
+            "select withdraw",
+            "transact 500",
+            "expect-code APPROVED",
+            "expect-state SelectOperationState",
+            "expect-balance ACC001 1000",
+            "expect-notes 100 5",
+            "return",
+            "expect-state IdleState");
+
+    @Test
+    @DisplayName("Withdrawal scenario passes")
+    void testWithdrawalScenario() {
+        Scenario scenario = Scenario.compile(WITHDRAWAL);
+
+        ScenarioResult result = scenario.run(new ATMMachineContext());
+
+        assertTrue(result.isPassed(), result.toString());
+        assertEquals(13, scenario.getStepCount());
+    }
+
+    @Test
+    @DisplayName("Failed expectations report their source line")
+    void testFailedExpectation() {
+        Scenario scenario = Scenario.compile(String.join("\n",
+                "account ACC002 500",
+                "insert CARD002 5678 ACC002",
+                "pin 1111",
+                "expect-code INVALID_PIN",
+                "pin 5678",
+                "select withdraw",
+                "transact 1000",
+                "expect-code INSUFFICIENT_FUNDS",
+                "expect-balance ACC002 0"));
+
+        ScenarioResult result = scenario.run(new ATMMachineContext());
+
+        assertFalse(result.isPassed());
+        assertEquals(9, result.getFailedLine());
+        assertTrue(result.getMessage().contains("500.0"));
+    }
+
+    @Test
+    @DisplayName("Compile errors name the line and problem")
+    void testCompileErrors() {
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+                () -> Scenario.compile("account A 1\nfly away"));
+        assertEquals("Line 2: unknown command 'fly'", unknown.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Scenario.compile("transact lots"));
+        assertThrows(IllegalArgumentException.class, () -> Scenario.compile("select deposit"));
+        assertThrows(IllegalArgumentException.class, () -> Scenario.compile("pin"));
+        assertThrows(IllegalArgumentException.class, () -> Scenario.compile("expect-code MAYBE"));
+    }
+
+    @Test
+    @DisplayName("One compiled scenario runs concurrently on many contexts")
+    void testConcurrentRuns() throws InterruptedException {
+        Scenario scenario = Scenario.compile(WITHDRAWAL);
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    if (!scenario.run(new ATMMachineContext()).isPassed()) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+    }
+
+    @Test
+    @DisplayName("Random command sequences never create or lose money")
+    void testFuzzConservesMoney() {
+        String[] commands = {"pin 1234", "pin 9999", "select withdraw", "select balance",
+                "transact 20", "transact 170", "transact 3", "transact 5000", "cancel", "return",
+                "insert CARD001 1234 ACC001"};
+        Random random = new Random(5);
+        for (int run = 0; run < 300; run++) {
+            StringBuilder script = new StringBuilder("account ACC001 2000\ninsert CARD001 1234 ACC001\n");
+            for (int step = 0; step < 40; step++) {
+                script.append(commands[random.nextInt(commands.length)]).append('\n');
+            }
+            ATMMachineContext atm = new ATMMachineContext();
+            int initialCash = atm.getATMInventory().getTotalCash();
+
+            assertTrue(Scenario.compile(script.toString()).run(atm).isPassed());
+
+            double dispensed = initialCash - atm.getATMInventory().getTotalCash();
+            assertEquals(2000.0, atm.getAccount("ACC001").getBalance() + dispensed, 1e-9, script.toString());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Session Reaper Tests")
+class SessionReaperTest {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(30);
+
+    private AtomicLong clock;
+    private HashedTimingWheel wheel;
+    private ATMMachineContext atm;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        wheel = new HashedTimingWheel(TICK, 512, clock::get);
+        atm = new ATMMachineContext();
+        atm.addAccount(new Account("ACC001", 1000.0));
+        card = new Card("CARD001", 1234, "ACC001");
+    }
+
+    private void advanceBy(long nanos) {
+        clock.addAndGet(nanos);
+        wheel.advanceTo(clock.get());
+    }
+
+    @Test
+    @DisplayName("Should reset a session stuck in HasCardState")
+    void testTimeoutInHasCardState() {
+        SessionReaper reaper = new SessionReaper(wheel, TIMEOUT, SessionTimeoutAction.RETAIN_CARD);
+        reaper.watch(atm);
+        atm.insertCard(card);
+
+        advanceBy(TIMEOUT - TICK);
+        assertInstanceOf(HasCardState.class, atm.getCurrentState());
+
+        advanceBy(2 * TICK);
+        assertInstanceOf(IdleState.class, atm.getCurrentState());
+        assertNull(atm.getCurrentCard());
+        assertEquals(1, reaper.getExpiredSessions());
+    }
+
+    @Test
+    @DisplayName("Should extend the timeout while the customer is active")
+    void testActivityExtendsTimeout() {
+        SessionReaper reaper = new SessionReaper(wheel, TIMEOUT, SessionTimeoutAction.RETURN_CARD);
+        reaper.watch(atm);
+        atm.insertCard(card);
+
+        advanceBy(TIMEOUT / 2);
+        atm.enterPin(1234);
+        advanceBy(TIMEOUT / 2 + TICK);
+        assertInstanceOf(SelectOperationState.class, atm.getCurrentState());
+
+        advanceBy(TIMEOUT / 2);
+        assertInstanceOf(IdleState.class, atm.getCurrentState());
+        assertNull(atm.getCurrentAccount());
+        assertEquals(1, reaper.getExpiredSessions());
+    }
+
+    @Test
+    @DisplayName("Should not time out a session that already ended")
+    void testEndedSession() {
+        SessionReaper reaper = new SessionReaper(wheel, TIMEOUT, SessionTimeoutAction.RETAIN_CARD);
+        reaper.watch(atm);
+        atm.insertCard(card);
+        atm.returnCard();
+
+        advanceBy(2 * TIMEOUT);
+
+        assertInstanceOf(IdleState.class, atm.getCurrentState());
+        assertEquals(0, reaper.getExpiredSessions());
+    }
+
+    @Test
+    @DisplayName("Should time out many sessions independently")
+    void testManySessions() {
+        SessionReaper reaper = new SessionReaper(wheel, TIMEOUT, SessionTimeoutAction.RETAIN_CARD);
+        ATMMachineContext[] terminals = new ATMMachineContext[100];
+        for (int i = 0; i < terminals.length; i++) {
+            terminals[i] = new ATMMachineContext();
+            reaper.watch(terminals[i]);
+            terminals[i].insertCard(card);
+        }
+        advanceBy(TIMEOUT / 2);
+        for (int i = 0; i < terminals.length; i += 2) {
+            terminals[i].returnCard();
+        }
+
+        advanceBy(TIMEOUT);
+
+        assertEquals(50, reaper.getExpiredSessions());
+        for (ATMMachineContext terminal : terminals) {
+            assertInstanceOf(IdleState.class, terminal.getCurrentState());
+        }
+    }
+
+    @Test
+    @DisplayName("Should run expiry on the owning actor")
+    void testActorDispatch() throws InterruptedException {
+        try (ActorScheduler scheduler = new ActorScheduler(1)) {
+            TerminalActor actor = scheduler.spawn("T1", atm);
+            SessionReaper reaper = new SessionReaper(wheel, TIMEOUT, SessionTimeoutAction.RETAIN_CARD);
+            reaper.watch(atm, actor::tell);
+            actor.insertCard(card);
+            CountDownLatch inserted = new CountDownLatch(1);
+            actor.tell(context -> inserted.countDown());
+            assertTrue(inserted.await(5, TimeUnit.SECONDS));
+
+            advanceBy(TIMEOUT + TICK);
+            CountDownLatch done = new CountDownLatch(1);
+            actor.tell(context -> done.countDown());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+
+            assertInstanceOf(IdleState.class, atm.getCurrentState());
+            assertEquals(1, reaper.getExpiredSessions());
+        }
+    }
+}
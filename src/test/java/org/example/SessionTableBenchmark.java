@@ -0,0 +1,55 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Measures heap per terminal for a session table against one context per
+ * terminal. Run with: java -Xmx1g -cp target/classes:target/test-classes org.example.SessionTableBenchmark [terminals]
+ */
+public class SessionTableBenchmark {
+    public static void main(String[] args) {
+        int terminals = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long before = usedHeap();
+        SessionTable table = new SessionTable(terminals);
+        long tableBytes = usedHeap() - before;
+        out.printf("Session table: %d terminals in %d MB (%.1f bytes/terminal)%n",
+                terminals, tableBytes >> 20, (double) tableBytes / terminals);
+
+        table.addAccount(new Account("ACC001", Double.MAX_VALUE / 2));
+        int card = table.registerCard(new Card("CARD001", 1234, "ACC001"));
+        long start = System.nanoTime();
+        for (int terminal = 0; terminal < terminals; terminal++) {
+            table.insertCard(terminal, card);
+            table.enterPin(terminal, 1234);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf("Authenticated every terminal at %.2fM commands/s%n", 2.0 * terminals / seconds / 1e6);
+
+        // A sample of standalone contexts, scaled up
+        int sample = 20_000;
+        ATMMachineContext[] contexts = new ATMMachineContext[sample];
+        before = usedHeap();
+        for (int i = 0; i < sample; i++) {
+            contexts[i] = new ATMMachineContext();
+        }
+        long contextBytes = usedHeap() - before;
+        out.printf("ATMMachineContext: %.0f bytes/terminal, %d MB projected for %d terminals%n",
+                (double) contextBytes / sample, contextBytes / sample * terminals >> 20, terminals);
+        System.setOut(out);
+        if (contexts[0] == null || table.getTerminalCount() != terminals) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,154 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Session Table Tests")
+class SessionTableTest {
+
+    private SessionTable sessions;
+    private int card1;
+    private int card2;
+
+    @BeforeEach
+    void setUp() {
+        sessions = new SessionTable(100);
+        sessions.addAccount(new Account("ACC001", 1000));
+        sessions.addAccount(new Account("ACC002", 500));
+        card1 = sessions.registerCard(new Card("CARD001", 1234, "ACC001"));
+        card2 = sessions.registerCard(new Card("CARD002", 4321, "ACC002"));
+    }
+
+    @Test
+    @DisplayName("Should start every terminal idle with no card")
+    void testInitialState() {
+        assertEquals(ATMStateId.IDLE, sessions.getState(42));
+        assertNull(sessions.getCard(42));
+        assertNull(sessions.getAccount(42));
+        assertNull(sessions.getLastResponseCode(42));
+    }
+
+    @Test
+    @DisplayName("Should run a withdrawal on one terminal")
+    void testWithdrawal() {
+        sessions.insertCard(7, card1);
+        sessions.enterPin(7, 1234);
+        sessions.selectOperation(7, TransactionType.WITHDRAW_CASH);
+        assertEquals(ATMStateId.TRANSACTION, sessions.getState(7));
+        assertEquals(TransactionType.WITHDRAW_CASH, sessions.getSelectedOperation(7));
+
+        sessions.performTransaction(7, 100);
+
+        assertEquals(ResponseCode.APPROVED, sessions.getLastResponseCode(7));
+        assertEquals(ATMStateId.SELECT_OPERATION, sessions.getState(7));
+        assertEquals(900, sessions.getAccount(7).getBalance(), 0.001);
+        assertEquals(ATMStateId.IDLE, sessions.getState(8));
+    }
+
+    @Test
+    @DisplayName("Should keep interleaved sessions independent")
+    void testInterleavedSessions() {
+        sessions.insertCard(1, card1);
+        sessions.insertCard(2, card2);
+        sessions.enterPin(1, 1234);
+        sessions.enterPin(2, 1234);
+
+        assertEquals(ATMStateId.SELECT_OPERATION, sessions.getState(1));
+        assertEquals("ACC001", sessions.getAccount(1).getAccountNumber());
+        assertEquals(ATMStateId.HAS_CARD, sessions.getState(2));
+        assertEquals(ResponseCode.INVALID_PIN, sessions.getLastResponseCode(2));
+        assertEquals("CARD002", sessions.getCard(2).getCardNumber());
+        assertNull(sessions.getAccount(2));
+
+        sessions.returnCard(1);
+        assertEquals(ATMStateId.IDLE, sessions.getState(1));
+        assertNull(sessions.getCard(1));
+        assertEquals(ATMStateId.HAS_CARD, sessions.getState(2));
+    }
+
+    @Test
+    @DisplayName("Should dispense each terminal's cash from its own cassettes")
+    void testPerTerminalCassettes() {
+        long initial = sessions.getTotalCash(5);
+        authenticate(5, card1, 1234);
+        sessions.selectOperation(5, TransactionType.WITHDRAW_CASH);
+        sessions.performTransaction(5, 100);
+
+        assertEquals(initial - 100, sessions.getTotalCash(5));
+        assertEquals(initial, sessions.getTotalCash(6));
+
+        // One $100 note per terminal: both terminals can dispense it once
+        SessionTable single = new SessionTable(2,
+                new CassetteConfiguration(CashType.USD, new int[] {100}, new int[] {1}));
+        single.addAccount(new Account("ACC001", 1000));
+        int card = single.registerCard(new Card("CARD001", 1234, "ACC001"));
+        for (int terminal = 0; terminal < 2; terminal++) {
+            single.insertCard(terminal, card);
+            single.enterPin(terminal, 1234);
+            single.selectOperation(terminal, TransactionType.WITHDRAW_CASH);
+            single.performTransaction(terminal, 100);
+            assertEquals(ResponseCode.APPROVED, single.getLastResponseCode(terminal));
+            assertEquals(0, single.getTotalCash(terminal));
+        }
+        single.selectOperation(1, TransactionType.WITHDRAW_CASH);
+        single.performTransaction(1, 100);
+        assertEquals(ResponseCode.INSUFFICIENT_CASH, single.getLastResponseCode(1));
+        single.addCash(1, 0, 2);
+        assertEquals(200, single.getTotalCash(1));
+        assertEquals(0, single.getTotalCash(0));
+    }
+
+    @Test
+    @DisplayName("Should journal each terminal's transactions under its own ID")
+    void testJournaledUnderTerminalId(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("day.journal");
+        try (TransactionJournal journal = new TransactionJournal(path)) {
+            sessions.setJournal(journal);
+            for (int terminal : new int[] {3, 9}) {
+                authenticate(terminal, card1, 1234);
+                sessions.selectOperation(terminal, TransactionType.WITHDRAW_CASH);
+                sessions.performTransaction(terminal, 20.0 * terminal);
+            }
+        }
+
+        SettlementReport report = SettlementJob.run(path, 1);
+        assertEquals(6_000, report.getDispensedCents(3));
+        assertEquals(18_000, report.getDispensedCents(9));
+        assertEquals(0, report.getTransactionCount(0));
+    }
+
+    private void authenticate(int terminal, int card, int pin) {
+        sessions.insertCard(terminal, card);
+        sessions.enterPin(terminal, pin);
+    }
+
+    @Test
+    @DisplayName("Should keep the first card when a second insert is rejected")
+    void testRejectedInsert() {
+        sessions.insertCard(3, card1);
+        sessions.insertCard(3, card2);
+
+        assertEquals(ResponseCode.INVALID_STATE, sessions.getLastResponseCode(3));
+        assertEquals("CARD001", sessions.getCard(3).getCardNumber());
+    }
+
+    @Test
+    @DisplayName("Should hold a million six-cassette terminals in about twenty-three megabytes")
+    void testFootprint() {
+        SessionTable large = new SessionTable(1_000_000);
+
+        assertEquals(1_000_000, large.getTerminalCount());
+        assertEquals(23L * 1_000_000, (long) large.getBytesPerTerminal() * large.getTerminalCount());
+        large.addAccount(new Account("ACC001", 1000));
+        int card = large.registerCard(new Card("CARD001", 1234, "ACC001"));
+        large.insertCard(999_999, card);
+        assertEquals(ATMStateId.HAS_CARD, large.getState(999_999));
+    }
+}
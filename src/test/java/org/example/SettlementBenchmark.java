@@ -0,0 +1,45 @@
+package org.example;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes a synthetic day journal and times settlement over it.
+ * Run with: java -cp target/classes:target/test-classes org.example.SettlementBenchmark [records] [threads]
+ */
+public class SettlementBenchmark {
+    public static void main(String[] args) throws Exception {
+        long records = args.length > 0 ? Long.parseLong(args[0]) : 20_000_000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path path = Files.createTempFile("settlement", ".journal");
+        try {
+            long start = System.nanoTime();
+            try (TransactionJournal journal = new TransactionJournal(path)) {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String[] accounts = new String[100_000];
+                for (int i = 0; i < accounts.length; i++) {
+                    accounts[i] = "ACC" + i;
+                }
+                for (long i = 0; i < records; i++) {
+                    long debit = 2_000L * (1 + random.nextInt(25));
+                    journal.append(i, random.nextInt(5_000), accounts[random.nextInt(accounts.length)],
+                            TransactionType.WITHDRAW_CASH, 1, debit, debit);
+                }
+            }
+            double writeSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Wrote %d records (%d MB) in %.1f s%n",
+                    records, Files.size(path) >> 20, writeSeconds);
+
+            start = System.nanoTime();
+            SettlementReport report = SettlementJob.run(path, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Settled %d records on %d threads in %.2f s (%.1fM records/s), %d mismatched terminals%n",
+                    report.getRecordCount(), threads, seconds, report.getRecordCount() / seconds / 1e6,
+                    report.getMismatchedTerminals().size());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(TransactionJournal.dictionaryPath(path));
+        }
+    }
+}
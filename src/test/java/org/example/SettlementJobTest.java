@@ -0,0 +1,133 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Settlement Job Tests")
+class SettlementJobTest {
+
+    @Test
+    @DisplayName("Journal records are fixed width with an account dictionary")
+    void testJournalLayout(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("day.journal");
+        try (TransactionJournal journal = new TransactionJournal(path)) {
+            journal.append(1L, 0, "ACC1", TransactionType.WITHDRAW_CASH, 2, 4000, 4000);
+            journal.append(2L, 1, "ACC2", TransactionType.CHECK_BALANCE, 0, 0, 0);
+            journal.append(3L, 1, "ACC1", TransactionType.WITHDRAW_CASH, 1, 2000, 2000);
+        }
+        assertEquals(3L * TransactionJournal.RECORD_SIZE, Files.size(path));
+        assertEquals(List.of("ACC1", "ACC2"), TransactionJournal.readAccountDictionary(path));
+    }
+
+    @Test
+    @DisplayName("Parallel settlement matches a sequential scan and flags mismatches")
+    void testParallelSettlement(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("day.journal");
+        int terminals = 20;
+        int accounts = 500;
+        int records = 3 * SettlementJob.CHUNK_RECORDS / 2;
+        long[] expectedDebits = new long[terminals];
+        long[] expectedNet = new long[accounts];
+        Random random = new Random(7);
+        try (TransactionJournal journal = new TransactionJournal(path)) {
+            for (int i = 0; i < records; i++) {
+                int terminal = random.nextInt(terminals);
+                int account = random.nextInt(accounts);
+                long debit = 2_000L * (1 + random.nextInt(10));
+                // Terminal 13 under-dispenses once
+                long dispensed = (terminal == 13 && i == 1_000_003) ? debit - 2_000 : debit;
+                journal.append(i, terminal, "ACC" + account, TransactionType.WITHDRAW_CASH, 1, debit, dispensed);
+                expectedDebits[terminal] += debit;
+                expectedNet[account] -= debit;
+            }
+        }
+
+        SettlementReport parallel = SettlementJob.run(path, 4);
+        SettlementReport sequential = SettlementJob.run(path, 1);
+
+        assertEquals(records, parallel.getRecordCount());
+        for (int terminal = 0; terminal < terminals; terminal++) {
+            assertEquals(expectedDebits[terminal], parallel.getDebitedCents(terminal));
+            assertEquals(sequential.getDispensedCents(terminal), parallel.getDispensedCents(terminal));
+        }
+        for (int account = 0; account < accounts; account++) {
+            assertEquals(expectedNet[account], parallel.getNetMovementCents("ACC" + account));
+        }
+        boolean mismatchExpected = expectedDebits[13] != parallel.getDispensedCents(13);
+        assertEquals(mismatchExpected ? List.of(13) : List.of(), parallel.getMismatchedTerminals());
+        assertEquals(mismatchExpected ? 1 : 0, parallel.getMismatchedRecords());
+    }
+
+    @Test
+    @DisplayName("Completed ATM transactions are journaled and settle cleanly")
+    void testJournaledSession(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("day.journal");
+        try (TransactionJournal journal = new TransactionJournal(path)) {
+            ATMMachineContext atm = new ATMMachineContext();
+            atm.setTerminalId(3);
+            atm.setJournal(journal);
+            atm.addAccount(new Account("ACC1", 1000.0));
+            atm.insertCard(new Card("4111", 1234, "ACC1"));
+            atm.enterPin(1234);
+            atm.selectOperation(TransactionType.WITHDRAW_CASH);
+            atm.performTransaction(170.0);
+            atm.selectOperation(TransactionType.CHECK_BALANCE);
+            atm.performTransaction(0.0);
+            atm.selectOperation(TransactionType.WITHDRAW_CASH);
+            atm.performTransaction(5000.0);
+        }
+
+        SettlementReport report = SettlementJob.run(path, 2);
+
+        assertEquals(2, report.getTransactionCount(3));
+        assertEquals(17_000, report.getDispensedCents(3));
+        assertEquals(-17_000, report.getNetMovementCents("ACC1"));
+        assertTrue(report.getMismatchedTerminals().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Terminals are reconciled against the cash that left their cassettes")
+    void testReconcileAgainstInventory(@TempDir Path dir) throws IOException {
+        Path path = dir.resolve("day.journal");
+        ATMMachineContext[] terminals = new ATMMachineContext[3];
+        InventorySnapshot[] opening = new InventorySnapshot[terminals.length];
+        InventorySnapshot[] closing = new InventorySnapshot[terminals.length];
+        try (TransactionJournal journal = new TransactionJournal(path)) {
+            for (int id = 0; id < terminals.length; id++) {
+                ATMMachineContext atm = new ATMMachineContext();
+                atm.setTerminalId(id);
+                atm.setJournal(journal);
+                atm.addAccount(new Account("ACC" + id, 1000.0));
+                opening[id] = atm.getATMInventory().snapshot();
+                atm.insertCard(new Card("41" + id, 1234, "ACC" + id));
+                atm.enterPin(1234);
+                atm.selectOperation(TransactionType.WITHDRAW_CASH);
+                atm.performTransaction(120.0);
+                terminals[id] = atm;
+            }
+            // Terminal 1 hands out notes that never reach the journal
+            terminals[1].getATMInventory().dispenseNotes(50);
+            for (int id = 0; id < terminals.length; id++) {
+                closing[id] = terminals[id].getATMInventory().snapshot();
+            }
+        }
+
+        SettlementReport report = SettlementJob.run(path, 2, opening, closing);
+
+        assertEquals(12_000, report.getCassetteOutflowCents(0));
+        assertEquals(17_000, report.getCassetteOutflowCents(1));
+        assertEquals(12_000, report.getDispensedCents(1));
+        assertEquals(List.of(1), report.getMismatchedTerminals());
+        assertEquals(0, report.getMismatchedRecords());
+        assertTrue(SettlementJob.run(path, 2).getMismatchedTerminals().isEmpty());
+    }
+}
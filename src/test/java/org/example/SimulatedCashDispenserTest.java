@@ -0,0 +1,90 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Simulated Cash Dispenser Tests")
+class SimulatedCashDispenserTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should present every note after the batch and per-note latency")
+    void testCompleteDispense() {
+        SimulatedCashDispenser dispenser = new SimulatedCashDispenser(20 * MILLIS, 5 * MILLIS, 0.0, 1);
+
+        long start = System.nanoTime();
+        DispenseResult result = dispenser.dispense(new int[] {2, 0, 1}).join();
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(result.isComplete());
+        assertEquals(2, result.getPresented(0));
+        assertEquals(1, result.getPresented(2));
+        assertTrue(elapsed >= 35 * MILLIS, "took " + elapsed);
+        assertEquals(0, dispenser.getJamCount());
+    }
+
+    @Test
+    @DisplayName("Should stop at the first note when every note jams")
+    void testJam() {
+        SimulatedCashDispenser dispenser = new SimulatedCashDispenser(0, MILLIS, 1.0, 1);
+
+        DispenseResult result = dispenser.dispense(new int[] {3, 2}).join();
+
+        assertFalse(result.isComplete());
+        assertEquals(0, result.getPresented(0));
+        assertEquals(3, result.getRejected(0));
+        assertEquals(2, result.getRejected(1));
+        assertEquals(1, dispenser.getJamCount());
+        assertEquals(5, dispenser.getRejectedNotes());
+    }
+
+    @Test
+    @DisplayName("Should queue dispenses behind each other")
+    void testDispensesQueue() {
+        SimulatedCashDispenser dispenser = new SimulatedCashDispenser(30 * MILLIS, 0, 0.0, 1);
+
+        long start = System.nanoTime();
+        CompletableFuture<DispenseResult> first = dispenser.dispense(new int[] {1});
+        CompletableFuture<DispenseResult> second = dispenser.dispense(new int[] {1});
+        second.join();
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(first.isDone());
+        assertTrue(elapsed >= 60 * MILLIS, "took " + elapsed);
+        assertEquals(2, dispenser.getDispenseCount());
+    }
+
+    @Test
+    @DisplayName("Should refund the undispensed part of a jammed withdrawal")
+    void testPartialDispenseRecovery() {
+        for (long seed = 0; seed < 20; seed++) {
+            ATMMachineContext atm = new ATMMachineContext();
+            Account account = new Account("ACC001", 1000);
+            atm.addAccount(account);
+            atm.setCashDispenser(new SimulatedCashDispenser(0, 0, 0.3, seed));
+            int cashBefore = atm.getATMInventory().getTotalCash();
+            atm.insertCard(new Card("CARD001", 1234, "ACC001"));
+            atm.enterPin(1234);
+            atm.selectOperation(TransactionType.WITHDRAW_CASH);
+
+            atm.performTransaction(380);
+
+            double debited = 1000 - account.getBalance();
+            int takenFromCassettes = cashBefore - atm.getATMInventory().getTotalCash();
+            assertEquals(380, takenFromCassettes);
+            if (atm.getLastResponseCode() == ResponseCode.APPROVED) {
+                assertEquals(380, debited, 0.001);
+            } else {
+                assertEquals(ResponseCode.PARTIAL_DISPENSE, atm.getLastResponseCode());
+                assertTrue(debited >= 0 && debited < 380, "debited " + debited);
+            }
+            assertEquals("SelectOperationState", atm.getCurrentState().getStateName());
+        }
+    }
+}
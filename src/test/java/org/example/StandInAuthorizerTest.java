@@ -0,0 +1,247 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Stand-In Authorizer Tests")
+class StandInAuthorizerTest {
+
+    private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    // Backend that answers from an AccountNode after an injected delay
+    static class FakeLatencyBackend implements NodeTransport {
+        final AccountNode node;
+        final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        volatile long latencyMillis;
+        volatile boolean failLate;
+        // Time each call takes on the breaker's injected clock
+        volatile AtomicLong clock;
+        volatile long clockNanosPerCall;
+
+        FakeLatencyBackend(AccountNode node) {
+            this.node = node;
+        }
+
+        @Override
+        public CompletableFuture<AccountReply[]> send(AccountRequest[] batch) {
+            if (clock != null) {
+                clock.addAndGet(clockNanosPerCall);
+            }
+            if (latencyMillis == 0) {
+                return CompletableFuture.completedFuture(node.execute(batch));
+            }
+            CompletableFuture<AccountReply[]> future = new CompletableFuture<>();
+            if (failLate) {
+                timer.schedule(() -> future.completeExceptionally(new IllegalStateException("connection lost")),
+                        latencyMillis, TimeUnit.MILLISECONDS);
+            } else {
+                timer.schedule(() -> future.complete(node.execute(batch)), latencyMillis, TimeUnit.MILLISECONDS);
+            }
+            return future;
+        }
+
+        @Override
+        public void close() {
+            timer.shutdownNow();
+        }
+    }
+
+    private AccountNode node;
+    private FakeLatencyBackend backend;
+    private AtomicLong clock;
+    private StandInAuthorizer authorizer;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        node = new AccountNode("core");
+        node.addAccount(new Account("ACC1", 1000.0));
+        backend = new FakeLatencyBackend(node);
+        clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(TimeUnit.MILLISECONDS.toNanos(10), 2, OPEN_NANOS, clock::get);
+        authorizer = new StandInAuthorizer(backend, breaker, 200.0, TIMEOUT_NANOS);
+        card = new Card("4111", 1234, "ACC1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        backend.close();
+    }
+
+    private void tripBreaker() {
+        backend.latencyMillis = 200;
+        authorizer.balance(card);
+        authorizer.balance(card);
+        assertEquals(CircuitState.OPEN, authorizer.getCircuitBreaker().getState());
+    }
+
+    @Test
+    @DisplayName("Fast backend authorizes online")
+    void testOnline() {
+        AccountReply reply = authorizer.withdraw(card, 100.0);
+
+        assertTrue(reply.isApproved());
+        assertEquals(900.0, node.getAccount("ACC1").getBalance());
+        assertEquals(1, authorizer.getOnlineApprovals());
+        assertEquals(CircuitState.CLOSED, authorizer.getCircuitBreaker().getState());
+    }
+
+    @Test
+    @DisplayName("Slow backend trips the breaker and withdrawals are approved within the timeout")
+    void testStandInWithinSlo() {
+        authorizer.balance(card);
+        tripBreaker();
+
+        long start = System.nanoTime();
+        AccountReply reply = authorizer.withdraw(card, 150.0);
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(reply.isApproved());
+        assertEquals(850.0, reply.getBalance());
+        assertTrue(elapsed < TIMEOUT_NANOS, "stand-in took " + elapsed + "ns");
+        assertEquals(1, authorizer.getPendingOfflineCount());
+        assertEquals(1000.0, node.getAccount("ACC1").getBalance());
+    }
+
+    @Test
+    @DisplayName("Offline approvals are capped per card")
+    void testOfflineLimit() {
+        tripBreaker();
+
+        assertTrue(authorizer.withdraw(card, 120.0).isApproved());
+        AccountReply declined = authorizer.withdraw(card, 100.0);
+
+        assertEquals(ResponseCode.OFFLINE_LIMIT_EXCEEDED, declined.getResponseCode());
+        assertTrue(authorizer.withdraw(new Card("4222", 1, "ACC1"), 100.0).isApproved());
+        assertEquals(1, authorizer.getOfflineDeclines());
+    }
+
+    @Test
+    @DisplayName("Queued approvals reconcile in batches once the backend recovers")
+    void testReconciliation() {
+        tripBreaker();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(authorizer.withdraw(card, 50.0).isApproved());
+        }
+        assertEquals(4, authorizer.getPendingOfflineCount());
+
+        backend.latencyMillis = 0;
+        clock.addAndGet(OPEN_NANOS);
+        authorizer.reconcile();
+
+        assertEquals(0, authorizer.getPendingOfflineCount());
+        assertEquals(4, authorizer.getReconciled());
+        assertEquals(0, authorizer.getReconciliationExceptions());
+        assertEquals(800.0, node.getAccount("ACC1").getBalance());
+        assertEquals(0.0, authorizer.getOfflineSpent(card));
+        assertEquals(CircuitState.CLOSED, authorizer.getCircuitBreaker().getState());
+    }
+
+    @Test
+    @DisplayName("Backend declines of offline approvals are counted as exceptions")
+    void testReconciliationException() {
+        node.addAccount(new Account("ACC2", 10.0));
+        Card poorCard = new Card("4333", 1, "ACC2");
+        tripBreaker();
+        assertTrue(authorizer.withdraw(poorCard, 100.0).isApproved());
+
+        backend.latencyMillis = 0;
+        clock.addAndGet(OPEN_NANOS);
+        authorizer.reconcile();
+
+        assertEquals(1, authorizer.getReconciliationExceptions());
+        assertEquals(10.0, node.getAccount("ACC2").getBalance());
+    }
+
+    @Test
+    @DisplayName("Timed-out approvals whose backend call later fails are queued for reconciliation")
+    void testLateFailureQueued() throws InterruptedException {
+        backend.latencyMillis = 50;
+        backend.failLate = true;
+        assertTrue(authorizer.withdraw(card, 100.0).isApproved());
+        assertEquals(0, authorizer.getPendingOfflineCount());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (authorizer.getPendingOfflineCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, authorizer.getPendingOfflineCount());
+        assertEquals(100.0, authorizer.getOfflineSpent(card));
+
+        backend.latencyMillis = 0;
+        backend.failLate = false;
+        authorizer.reconcile();
+
+        assertEquals(1, authorizer.getReconciled());
+        assertEquals(0.0, authorizer.getOfflineSpent(card));
+        assertEquals(900.0, node.getAccount("ACC1").getBalance());
+    }
+
+    @Test
+    @DisplayName("Backend latency above the threshold trips the breaker even when calls succeed")
+    void testLatencyTrip() {
+        backend.clock = clock;
+        backend.clockNanosPerCall = TimeUnit.MILLISECONDS.toNanos(15);
+
+        assertTrue(authorizer.withdraw(card, 100.0).isApproved());
+        assertTrue(authorizer.withdraw(card, 100.0).isApproved());
+
+        assertEquals(2, authorizer.getOnlineApprovals());
+        assertEquals(800.0, node.getAccount("ACC1").getBalance());
+        assertEquals(CircuitState.OPEN, authorizer.getCircuitBreaker().getState());
+        assertTrue(authorizer.withdraw(card, 50.0).isApproved());
+        assertEquals(1, authorizer.getOfflineApprovals());
+        assertEquals(1, authorizer.getPendingOfflineCount());
+    }
+
+    @Test
+    @DisplayName("An interrupted half-open probe re-opens the breaker and its late reply settles it")
+    void testInterruptedProbe() throws InterruptedException {
+        authorizer.balance(card);
+        tripBreaker();
+        clock.addAndGet(OPEN_NANOS);
+        backend.latencyMillis = 50;
+
+        Thread.currentThread().interrupt();
+        AccountReply reply = authorizer.withdraw(card, 100.0);
+        assertTrue(Thread.interrupted());
+
+        assertTrue(reply.isApproved());
+        assertEquals(CircuitState.OPEN, authorizer.getCircuitBreaker().getState());
+        assertEquals(0, authorizer.getPendingOfflineCount());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (authorizer.getOfflineSpent(card) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0.0, authorizer.getOfflineSpent(card));
+        assertEquals(900.0, node.getAccount("ACC1").getBalance());
+    }
+
+    @Test
+    @DisplayName("ATM sessions keep dispensing in stand-in mode")
+    void testSessionInStandIn() {
+        authorizer.balance(card);
+        tripBreaker();
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.addAccount(new StandInAccount(card, authorizer));
+
+        atm.insertCard(card);
+        atm.enterPin(1234);
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        atm.performTransaction(100.0);
+
+        assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+        assertEquals(1, authorizer.getOfflineApprovals());
+    }
+}
@@ -0,0 +1,201 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Randomized concurrency stress for {@link Account} and {@link ATMInventory}.
+ * <p>
+ * Worker threads interleave withdraw-and-dispense (with the same rollback
+ * as {@link TransactionState}), bare withdrawals, deposits and cassette
+ * loads against shared accounts and one shared inventory. Each worker
+ * tallies what it moved; afterwards the tallies must explain every
+ * balance and every note, and each dispense must have paid out exactly the
+ * debited amount.
+ * Run with: java -cp target/classes:target/test-classes org.example.StressHarness [threads] [operations per thread] [seed]
+ */
+public class StressHarness {
+    private static final int INITIAL_BALANCE = 1_000;
+    private static final int[] AMOUNTS = {1, 5, 20, 35, 60, 100, 170, 250};
+
+    public static final class Report {
+        final List<String> violations = new ArrayList<>();
+        long operations;
+        double seconds;
+
+        public boolean isClean() {
+            return violations.isEmpty();
+        }
+
+        public List<String> getViolations() {
+            return violations;
+        }
+
+        public double getOperationsPerSecond() {
+            return operations / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d operations in %.2f s (%.0f ops/s), %s", operations, seconds,
+                    getOperationsPerSecond(), isClean() ? "all invariants hold" : violations.size() + " violations");
+        }
+    }
+
+    // What one worker moved; summed after all workers finish
+    private static final class Tally {
+        long debitedForCash;
+        long cashDispensed;
+        long bareWithdrawals;
+        long deposits;
+        long cashLoaded;
+        long badDispenses;
+        RuntimeException failure;
+    }
+
+    public static Report run(int threads, int operationsPerThread, int accountCount, long seed)
+            throws InterruptedException {
+        Account[] accounts = new Account[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accounts[i] = new Account("ACC" + i, INITIAL_BALANCE);
+        }
+        ATMInventory inventory = new ATMInventory();
+        int cassettes = inventory.getConfiguration().getCassetteCount();
+        long initialCash = inventory.getTotalCash();
+
+        Tally[] tallies = new Tally[threads];
+        Thread[] workers = new Thread[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            Tally tally = new Tally();
+            tallies[t] = tally;
+            SplittableRandom random = new SplittableRandom(seed + t);
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    runOperations(accounts, inventory, cassettes, operationsPerThread, random, tally);
+                } catch (RuntimeException e) {
+                    tally.failure = e;
+                }
+            }, "stress-" + t);
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Report report = new Report();
+        report.seconds = (System.nanoTime() - begin) / 1e9;
+        report.operations = (long) threads * operationsPerThread;
+
+        Tally total = new Tally();
+        for (Tally tally : tallies) {
+            total.debitedForCash += tally.debitedForCash;
+            total.cashDispensed += tally.cashDispensed;
+            total.bareWithdrawals += tally.bareWithdrawals;
+            total.deposits += tally.deposits;
+            total.cashLoaded += tally.cashLoaded;
+            total.badDispenses += tally.badDispenses;
+            if (tally.failure != null) {
+                report.violations.add("worker failed: " + tally.failure);
+            }
+        }
+
+        double balances = 0;
+        for (Account account : accounts) {
+            if (account.getBalance() < 0) {
+                report.violations.add(account.getAccountNumber() + " is overdrawn: " + account.getBalance());
+            }
+            balances += account.getBalance();
+        }
+        double expectedBalances = (double) accountCount * INITIAL_BALANCE
+                + total.deposits - total.debitedForCash - total.bareWithdrawals;
+        if (balances != expectedBalances) {
+            report.violations.add("balances total " + balances + " but tallies expect " + expectedBalances);
+        }
+        for (int slot = 0; slot < cassettes; slot++) {
+            if (inventory.getCount(slot) < 0) {
+                report.violations.add("cassette " + slot + " count is negative: " + inventory.getCount(slot));
+            }
+        }
+        long expectedCash = initialCash + total.cashLoaded - total.cashDispensed;
+        if (inventory.getTotalCash() != expectedCash) {
+            report.violations.add("inventory holds " + inventory.getTotalCash() + " but tallies expect " + expectedCash);
+        }
+        if (total.cashDispensed != total.debitedForCash) {
+            report.violations.add("dispensed " + total.cashDispensed + " against " + total.debitedForCash + " debited");
+        }
+        if (total.badDispenses > 0) {
+            report.violations.add(total.badDispenses + " dispenses paid out a different amount than requested");
+        }
+        return report;
+    }
+
+    private static void runOperations(Account[] accounts, ATMInventory inventory, int cassettes,
+                                      int operations, SplittableRandom random, Tally tally) {
+        for (int i = 0; i < operations; i++) {
+            Account account = accounts[random.nextInt(accounts.length)];
+            int amount = AMOUNTS[random.nextInt(AMOUNTS.length)];
+            int choice = random.nextInt(10);
+            if (choice < 6) {
+                withdrawAndDispense(account, inventory, amount, tally);
+            } else if (choice < 7) {
+                if (account.withdraw(amount)) {
+                    tally.bareWithdrawals += amount;
+                }
+            } else if (choice < 9) {
+                account.deposit(amount);
+                tally.deposits += amount;
+            } else {
+                int slot = random.nextInt(cassettes);
+                int notes = 1 + random.nextInt(5);
+                inventory.addCash(slot, notes);
+                tally.cashLoaded += (long) notes * inventory.getCashType(slot).value;
+            }
+        }
+    }
+
+    private static void withdrawAndDispense(Account account, ATMInventory inventory, int amount, Tally tally) {
+        if (!account.withdraw(amount)) {
+            return;
+        }
+        int[] notes = inventory.dispenseNotes(amount);
+        if (notes == null) {
+            account.deposit(amount);
+            return;
+        }
+        long paid = 0;
+        for (int slot = 0; slot < notes.length; slot++) {
+            paid += (long) notes[slot] * inventory.getCashType(slot).value;
+        }
+        if (paid != amount) {
+            tally.badDispenses++;
+        }
+        tally.debitedForCash += amount;
+        tally.cashDispensed += paid;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Report report = run(threads, operations, 64, seed);
+        System.setOut(out);
+        System.out.println("seed " + seed + ", " + threads + " threads: " + report);
+        for (String violation : report.getViolations()) {
+            System.out.println("  " + violation);
+        }
+    }
+}
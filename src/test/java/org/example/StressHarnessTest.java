@@ -0,0 +1,27 @@
+package org.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Concurrency Stress Tests")
+class StressHarnessTest {
+
+    @Test
+    @DisplayName("Randomized interleavings across threads keep every invariant")
+    void testInvariantsUnderContention() throws InterruptedException {
+        for (long seed = 1; seed <= 3; seed++) {
+            StressHarness.Report report = StressHarness.run(8, 20_000, 16, seed);
+            assertTrue(report.isClean(), "seed " + seed + ": " + report.getViolations());
+            assertTrue(report.getOperationsPerSecond() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("A single hot account stays consistent")
+    void testHotAccount() throws InterruptedException {
+        StressHarness.Report report = StressHarness.run(8, 20_000, 1, 42);
+        assertTrue(report.isClean(), report.getViolations().toString());
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Withdrawals per second from one account shared by many threads, plain
+ * against striped. Run with: java -cp target/classes:target/test-classes org.example.StripedAccountBenchmark [threads]
+ * <p>
+ * Scaling only shows with at least as many cores as threads; rows with
+ * more threads than cores are marked, as they measure time slicing.
+ */
+public class StripedAccountBenchmark {
+    private static final int WITHDRAWALS_PER_THREAD = 2_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Available processors: " + cores);
+        for (int threads = 1; threads <= maxThreads; threads *= 4) {
+            double plain = run(new Account("ACC001", 1e12), threads);
+            double striped = run(new StripedAccount("ACC001", 1e12, threads), threads);
+            System.out.printf("%2d threads: Account %.1fM/s, StripedAccount %.1fM/s%s%n",
+                    threads, plain / 1e6, striped / 1e6, threads > cores ? " (more threads than cores)" : "");
+        }
+    }
+
+    private static double run(Account account, int threads) throws InterruptedException {
+        double before = account.getBalance();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < WITHDRAWALS_PER_THREAD; i++) {
+                    account.withdraw(1);
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        if (before - account.getBalance() != (double) threads * WITHDRAWALS_PER_THREAD) {
+            throw new IllegalStateException("Lost withdrawals");
+        }
+        return threads * WITHDRAWALS_PER_THREAD / seconds;
+    }
+}
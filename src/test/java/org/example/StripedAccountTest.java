@@ -0,0 +1,156 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Striped Account Tests")
+class StripedAccountTest {
+
+    @Test
+    @DisplayName("Should round the stripe count up to a power of two")
+    void testStripeCount() {
+        assertEquals(1, new StripedAccount("ACC001", 100, 1).getStripeCount());
+        assertEquals(8, new StripedAccount("ACC001", 100, 5).getStripeCount());
+        assertEquals(64, new StripedAccount("ACC001", 100, 64).getStripeCount());
+    }
+
+    @Test
+    @DisplayName("Should keep the exact balance across stripes")
+    void testBalance() {
+        StripedAccount account = new StripedAccount("ACC001", 1000.07, 8);
+
+        assertEquals(1000.07, account.getBalance());
+        assertTrue(account.withdraw(0.07));
+        account.deposit(50.5);
+        assertEquals(1050.5, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should pool the stripes for a withdrawal larger than any one stripe")
+    void testPooledWithdrawal() {
+        StripedAccount account = new StripedAccount("ACC001", 800, 8);
+
+        assertTrue(account.withdraw(750));
+        assertEquals(50, account.getBalance());
+        assertTrue(account.withdraw(50));
+        assertEquals(0, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should decline a withdrawal above the total balance")
+    void testNoOverdraft() {
+        StripedAccount account = new StripedAccount("ACC001", 100, 4);
+
+        assertFalse(account.withdraw(100.01));
+        assertEquals(100, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should approve exactly the balance under concurrent withdrawals and deposits")
+    void testConcurrentWithdrawals() throws InterruptedException {
+        StripedAccount account = new StripedAccount("ACC001", 10_000, 8);
+        AtomicInteger approved = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            boolean depositor = t % 4 == 0;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (depositor) {
+                        account.deposit(1);
+                    } else if (account.withdraw(1)) {
+                        approved.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // 4 depositors add 4000, 12 withdrawers ask for 12000 against 14000 available
+        assertEquals(12_000, approved.get());
+        assertEquals(2000, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should serve a terminal session like a plain account")
+    void testInSession() {
+        ATMMachineContext atm = new ATMMachineContext();
+        StripedAccount account = new StripedAccount("ACC001", 1000, 4);
+        atm.addAccount(account);
+        atm.insertCard(new Card("CARD001", 1234, "ACC001"));
+        atm.enterPin(1234);
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        atm.performTransaction(300);
+
+        assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+        assertEquals(700, account.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should record concurrent withdrawals and deposits to the ledger in batches")
+    void testLedgerBatches() throws InterruptedException {
+        try (Ledger ledger = new Ledger()) {
+            StripedAccount account = new StripedAccount("ACC001", 10_000, 8);
+            account.attachLedger(ledger);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                boolean depositor = t % 4 == 0;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (depositor) {
+                            account.deposit(2);
+                        } else {
+                            account.withdraw(1);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // Open, then at most one credit and one debit for the whole run
+            assertEquals(10_000 + 4000 - 6000, account.getBalance());
+            assertTrue(ledger.getEventLog().size() <= 3, "events " + ledger.getEventLog().size());
+            account.withdraw(500);
+            account.recordToLedger();
+            assertEquals(4, ledger.getEventLog().size());
+            assertEquals(7500, account.getBalance());
+            assertEquals(7500, ledger.getBalance("ACC001"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should spread a reset balance across the stripes and record the difference")
+    void testResetBalance() {
+        try (Ledger ledger = new Ledger()) {
+            StripedAccount account = new StripedAccount("ACC001", 800, 4);
+            account.attachLedger(ledger);
+            account.withdraw(100);
+
+            account.resetBalance(1200);
+
+            // The pending debit, then the reset as one credit
+            assertEquals(3, ledger.getEventLog().size());
+            assertEquals(1200, account.getBalance());
+            assertEquals(1200, ledger.getBalance("ACC001"));
+            // Every stripe holds a share again, so a withdrawal of one share needs no pooling
+            assertTrue(account.withdraw(300));
+            account.resetBalance(400);
+            assertEquals(400, account.getBalance());
+            assertEquals(400, ledger.getBalance("ACC001"));
+            assertFalse(account.withdraw(401));
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Terminal Actor Tests")
+class TerminalActorTest {
+
+    private ActorScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ActorScheduler(2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    private static void await(TerminalActor actor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        actor.tell(context -> done.countDown());
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should run a complete session on the actor's context")
+    void testCompleteSession() throws InterruptedException {
+        ATMMachineContext context = new ATMMachineContext();
+        Account account = new Account("ACC001", 1000.0);
+        context.addAccount(account);
+        TerminalActor actor = scheduler.spawn("T1", context);
+
+        actor.insertCard(new Card("CARD001", 1234, "ACC001"));
+        actor.enterPin(1234);
+        actor.selectOperation(TransactionType.WITHDRAW_CASH);
+        actor.performTransaction(200.0);
+        actor.returnCard();
+        await(actor);
+
+        assertEquals("T1", actor.getTerminalId());
+        assertEquals(800.0, account.getBalance());
+        assertInstanceOf(IdleState.class, context.getCurrentState());
+    }
+
+    @Test
+    @DisplayName("Should apply commands from many threads to many terminals without loss")
+    void testManyTerminalsManyProducers() throws InterruptedException {
+        int terminals = 50;
+        int producers = 4;
+        int commandsPerProducer = 200;
+        List<TerminalActor> actors = new ArrayList<>();
+        List<int[]> counters = new ArrayList<>();
+        for (int i = 0; i < terminals; i++) {
+            actors.add(scheduler.spawn("T" + i, new ATMMachineContext()));
+            counters.add(new int[1]);
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                for (int c = 0; c < commandsPerProducer; c++) {
+                    for (int t = 0; t < terminals; t++) {
+                        int[] counter = counters.get(t);
+                        // Plain increment: safe only because one worker owns the terminal
+                        actors.get(t).tell(context -> counter[0]++);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (TerminalActor actor : actors) {
+            await(actor);
+        }
+
+        for (int[] counter : counters) {
+            assertEquals(producers * commandsPerProducer, counter[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep processing after a command throws")
+    void testFailingCommand() throws InterruptedException {
+        ATMMachineContext context = new ATMMachineContext();
+        TerminalActor actor = scheduler.spawn("T1", context);
+
+        actor.tell(ctx -> {
+            throw new IllegalStateException("boom");
+        });
+        actor.insertCard(new Card("CARD001", 1234, "ACC001"));
+        await(actor);
+
+        assertInstanceOf(HasCardState.class, context.getCurrentState());
+    }
+
+    @Test
+    @DisplayName("Should return the outcome of every pipelined command")
+    void testPipelinedOutcomes() {
+        ATMMachineContext context = new ATMMachineContext();
+        context.addAccount(new Account("ACC001", 1000.0));
+        TerminalActor actor = scheduler.spawn("T1", context);
+
+        CompletableFuture<Outcome> inserted = actor.insertCard(new Card("CARD001", 1234, "ACC001"));
+        CompletableFuture<Outcome> authenticated = actor.enterPin(1234);
+        CompletableFuture<Outcome> selected = actor.selectOperation(TransactionType.WITHDRAW_CASH);
+        CompletableFuture<Outcome> withdrawn = actor.performTransaction(180.0);
+        CompletableFuture<Outcome> returned = actor.returnCard();
+
+        assertEquals(ATMStateId.HAS_CARD, inserted.join().getState());
+        assertEquals(ATMStateId.SELECT_OPERATION, authenticated.join().getState());
+        assertEquals(ATMStateId.TRANSACTION, selected.join().getState());
+        Outcome withdrawal = withdrawn.join();
+        assertTrue(withdrawal.isApproved());
+        assertEquals(180, withdrawal.getDispensedAmount());
+        assertEquals(820.0, withdrawal.getBalance());
+        assertEquals(ATMStateId.SELECT_OPERATION, withdrawal.getState());
+        assertEquals(ATMStateId.IDLE, returned.join().getState());
+        assertTrue(Double.isNaN(returned.join().getBalance()));
+    }
+
+    @Test
+    @DisplayName("Should report a rejected command and a declined transaction in the outcome")
+    void testFailureOutcomes() {
+        ATMMachineContext context = new ATMMachineContext();
+        context.addAccount(new Account("ACC001", 50.0));
+        TerminalActor actor = scheduler.spawn("T1", context);
+
+        Outcome rejected = actor.enterPin(1234).join();
+        actor.insertCard(new Card("CARD001", 1234, "ACC001"));
+        actor.enterPin(1234);
+        actor.selectOperation(TransactionType.WITHDRAW_CASH);
+        Outcome declined = actor.performTransaction(100.0).join();
+
+        assertEquals(ResponseCode.INVALID_STATE, rejected.getResponseCode());
+        assertEquals(ATMStateId.IDLE, rejected.getState());
+        assertEquals(ResponseCode.INSUFFICIENT_FUNDS, declined.getResponseCode());
+        assertEquals(0, declined.getDispensedAmount());
+        assertEquals(50.0, declined.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should complete the future exceptionally when a command throws")
+    void testFailedCommandFuture() {
+        TerminalActor actor = scheduler.spawn("T1", new ATMMachineContext());
+
+        CompletableFuture<Outcome> failed = actor.submit(ctx -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Outcome> next = actor.insertCard(new Card("CARD001", 1234, "ACC001"));
+
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertEquals(ATMStateId.HAS_CARD, next.join().getState());
+    }
+
+    @Test
+    @DisplayName("Should run sessions for many terminals concurrently without blocking the caller")
+    void testManyAsyncSessions() {
+        int terminals = 40;
+        List<CompletableFuture<Outcome>> sessions = new ArrayList<>();
+        for (int t = 0; t < terminals; t++) {
+            ATMMachineContext context = new ATMMachineContext();
+            context.addAccount(new Account("ACC" + t, 500.0));
+            TerminalActor actor = scheduler.spawn("T" + t, context);
+            actor.insertCard(new Card("CARD" + t, 1234, "ACC" + t));
+            actor.enterPin(1234);
+            actor.selectOperation(TransactionType.CHECK_BALANCE);
+            sessions.add(actor.performTransaction(0).thenCompose(balance -> actor.returnCard()
+                    .thenApply(returned -> balance)));
+        }
+
+        CompletableFuture.allOf(sessions.toArray(new CompletableFuture[0])).join();
+        for (CompletableFuture<Outcome> session : sessions) {
+            assertEquals(500.0, session.join().getBalance());
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve other terminals on the same worker while a dispenser is jammed")
+    void testJammedDispenserDoesNotHoldWorker() {
+        scheduler.close();
+        scheduler = new ActorScheduler(1);
+        CompletableFuture<DispenseResult> device = new CompletableFuture<>();
+        int[][] requested = new int[1][];
+        ATMMachineContext jammed = new ATMMachineContext();
+        Account jammedAccount = new Account("ACC001", 1000.0);
+        jammed.addAccount(jammedAccount);
+        jammed.setCashDispenser(notes -> {
+            requested[0] = notes;
+            return device;
+        });
+        ATMMachineContext other = new ATMMachineContext();
+        other.addAccount(new Account("ACC002", 1000.0));
+        TerminalActor first = scheduler.spawn("T1", jammed);
+        TerminalActor second = scheduler.spawn("T2", other);
+
+        first.insertCard(new Card("CARD001", 1234, "ACC001"));
+        first.enterPin(1234);
+        first.selectOperation(TransactionType.WITHDRAW_CASH);
+        CompletableFuture<Outcome> withdrawal = first.performTransaction(200.0);
+        CompletableFuture<Outcome> returned = first.returnCard();
+        second.insertCard(new Card("CARD002", 1234, "ACC002"));
+        second.enterPin(1234);
+        second.selectOperation(TransactionType.WITHDRAW_CASH);
+        Outcome served = second.performTransaction(100.0).join();
+
+        assertTrue(served.isApproved());
+        assertFalse(withdrawal.isDone());
+        assertFalse(returned.isDone());
+
+        // The device jams before presenting any note
+        device.complete(new DispenseResult(requested[0], new int[requested[0].length]));
+        Outcome jam = withdrawal.join();
+        assertEquals(ResponseCode.PARTIAL_DISPENSE, jam.getResponseCode());
+        assertEquals(1000.0, jam.getBalance());
+        assertEquals(ATMStateId.IDLE, returned.join().getState());
+        assertEquals(1000.0, jammedAccount.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should report only the notes a jammed dispenser presented")
+    void testJammedDispenseOutcome() {
+        ATMMachineContext context = new ATMMachineContext();
+        Account account = new Account("ACC001", 1000.0);
+        context.addAccount(account);
+        int[][] presented = new int[1][];
+        // Rejects the last note of the first cassette it draws from
+        context.setCashDispenser(notes -> {
+            presented[0] = notes.clone();
+            for (int slot = 0; slot < notes.length; slot++) {
+                if (notes[slot] > 0) {
+                    presented[0][slot]--;
+                    break;
+                }
+            }
+            return CompletableFuture.completedFuture(new DispenseResult(notes, presented[0]));
+        });
+        TerminalActor actor = scheduler.spawn("T1", context);
+
+        actor.insertCard(new Card("CARD001", 1234, "ACC001"));
+        actor.enterPin(1234);
+        actor.selectOperation(TransactionType.WITHDRAW_CASH);
+        Outcome jam = actor.performTransaction(180.0).join();
+
+        int expected = 0;
+        for (int slot = 0; slot < presented[0].length; slot++) {
+            expected += presented[0][slot] * context.getATMInventory().getCashType(slot).value;
+        }
+        assertEquals(ResponseCode.PARTIAL_DISPENSE, jam.getResponseCode());
+        assertTrue(expected < 180);
+        assertEquals(expected, jam.getDispensedAmount());
+        assertArrayEquals(presented[0], jam.getDispensedNotes());
+        assertEquals(1000.0 - expected, jam.getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid scheduler configuration")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new ActorScheduler(0));
+        assertThrows(IllegalArgumentException.class, () -> new ActorScheduler(1, 0));
+    }
+}
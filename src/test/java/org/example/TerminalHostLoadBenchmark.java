@@ -0,0 +1,92 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loopback load test for TerminalHostServer. Each client connection
+ * pipelines balance-inquiry sessions; the server handles everything on a
+ * single selector thread, so the rate reported is messages per second on
+ * one core.
+ * Run with: java -cp target/classes:target/test-classes org.example.TerminalHostLoadBenchmark [clients] [sessions]
+ */
+public class TerminalHostLoadBenchmark {
+
+    private static final long PAN = 4_000_123_456_789_010L;
+    private static final int FRAMES_PER_SESSION = 5;
+
+    private static ByteBuffer sessionBatch(int sessions) {
+        ByteBuffer batch = ByteBuffer.allocateDirect(sessions * FRAMES_PER_SESSION * WireProtocol.REQUEST_FRAME);
+        long pinBlock = PinBlock.encode(1234, 4, PAN);
+        for (int i = 0; i < sessions; i++) {
+            WireProtocol.putRequest(batch, WireProtocol.INSERT_CARD, (byte) 0, PAN, 0L, 0L);
+            WireProtocol.putRequest(batch, WireProtocol.ENTER_PIN, (byte) 0, PAN, pinBlock, 0L);
+            WireProtocol.putRequest(batch, WireProtocol.SELECT_OPERATION,
+                    (byte) TransactionType.CHECK_BALANCE.ordinal(), PAN, 0L, 0L);
+            WireProtocol.putRequest(batch, WireProtocol.PERFORM_TRANSACTION, (byte) 0, PAN, 0L, 0L);
+            WireProtocol.putRequest(batch, WireProtocol.RETURN_CARD, (byte) 0, PAN, 0L, 0L);
+        }
+        return batch.flip();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int sessionsPerWrite = 100;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        CardDirectory cards = new CardDirectory();
+        cards.register(PAN, new Card(Long.toString(PAN), 1234, "ACC001"));
+        try (TerminalHostServer server = new TerminalHostServer(() -> {
+            ATMMachineContext context = new ATMMachineContext();
+            context.addAccount(new Account("ACC001", 1000.0));
+            return context;
+        }, cards)) {
+            server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+
+            for (int round = 0; round < 3; round++) {
+                List<Thread> threads = new ArrayList<>();
+                long start = System.nanoTime();
+                for (int c = 0; c < clients; c++) {
+                    Thread thread = new Thread(() -> {
+                        try (SocketChannel channel = SocketChannel.open(address)) {
+                            ByteBuffer batch = sessionBatch(sessionsPerWrite);
+                            ByteBuffer replies = ByteBuffer.allocateDirect(
+                                    sessionsPerWrite * FRAMES_PER_SESSION * WireProtocol.RESPONSE_FRAME);
+                            for (int sent = 0; sent < sessions; sent += sessionsPerWrite) {
+                                batch.rewind();
+                                while (batch.hasRemaining()) {
+                                    channel.write(batch);
+                                }
+                                replies.clear();
+                                while (replies.hasRemaining()) {
+                                    channel.read(replies);
+                                }
+                            }
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                    threads.add(thread);
+                    thread.start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                long nanos = System.nanoTime() - start;
+                long messages = (long) clients * sessions * FRAMES_PER_SESSION;
+                console.printf("round %d: %,d messages in %d ms = %,d msg/s on one selector thread%n",
+                        round, messages, nanos / 1_000_000, messages * 1_000_000_000L / nanos);
+            }
+        }
+    }
+}
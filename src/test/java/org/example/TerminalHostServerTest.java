@@ -0,0 +1,164 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Terminal Host Server Tests")
+class TerminalHostServerTest {
+
+    private static final long PAN = 4_000_123_456_789_010L;
+
+    private TerminalHostServer server;
+    private SocketChannel client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        CardDirectory cards = new CardDirectory();
+        cards.register(PAN, new Card(Long.toString(PAN), 1234, "ACC001"));
+        server = new TerminalHostServer(() -> {
+            ATMMachineContext context = new ATMMachineContext();
+            context.addAccount(new Account("ACC001", 1000.0));
+            return context;
+        }, cards);
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    private ByteBuffer exchange(ByteBuffer requests, int responses) throws IOException {
+        requests.flip();
+        while (requests.hasRemaining()) {
+            client.write(requests);
+        }
+        ByteBuffer reply = ByteBuffer.allocate(responses * WireProtocol.RESPONSE_FRAME);
+        while (reply.hasRemaining()) {
+            if (client.read(reply) < 0) {
+                fail("Connection closed");
+            }
+        }
+        return reply;
+    }
+
+    private static int at(int index) {
+        return index * WireProtocol.RESPONSE_FRAME;
+    }
+
+    @Test
+    @DisplayName("Should run a pipelined withdrawal session")
+    void testPipelinedSession() throws IOException {
+        ByteBuffer requests = ByteBuffer.allocate(256);
+        WireProtocol.putRequest(requests, WireProtocol.INSERT_CARD, (byte) 0, PAN, 0L, 0L);
+        WireProtocol.putRequest(requests, WireProtocol.ENTER_PIN, (byte) 0, PAN, PinBlock.encode(1234, 4, PAN), 0L);
+        WireProtocol.putRequest(requests, WireProtocol.SELECT_OPERATION,
+                (byte) TransactionType.WITHDRAW_CASH.ordinal(), PAN, 0L, 0L);
+        WireProtocol.putRequest(requests, WireProtocol.PERFORM_TRANSACTION, (byte) 0, PAN, 0L, 25_000L);
+        WireProtocol.putRequest(requests, WireProtocol.SELECT_OPERATION,
+                (byte) TransactionType.CHECK_BALANCE.ordinal(), PAN, 0L, 0L);
+        WireProtocol.putRequest(requests, WireProtocol.PERFORM_TRANSACTION, (byte) 0, PAN, 0L, 0L);
+        WireProtocol.putRequest(requests, WireProtocol.RETURN_CARD, (byte) 0, PAN, 0L, 0L);
+
+        ByteBuffer reply = exchange(requests, 7);
+
+        for (int i = 0; i < 7; i++) {
+            assertEquals(ResponseCode.APPROVED, WireProtocol.responseCode(reply, at(i)), "response " + i);
+        }
+        assertEquals(WireProtocol.STATE_HAS_CARD, WireProtocol.responseState(reply, at(0)));
+        assertEquals(25_000L, WireProtocol.responseAmount(reply, at(3)));
+        assertEquals(75_000L, WireProtocol.responseAmount(reply, at(5)));
+        assertEquals(WireProtocol.STATE_IDLE, WireProtocol.responseState(reply, at(6)));
+        assertEquals(7, server.getMessagesProcessed());
+    }
+
+    @Test
+    @DisplayName("Should report declines with response codes")
+    void testDeclines() throws IOException {
+        ByteBuffer requests = ByteBuffer.allocate(256);
+        WireProtocol.putRequest(requests, WireProtocol.INSERT_CARD, (byte) 0, 1L, 0L, 0L);
+        WireProtocol.putRequest(requests, WireProtocol.INSERT_CARD, (byte) 0, PAN, 0L, 0L);
+        WireProtocol.putRequest(requests, WireProtocol.ENTER_PIN, (byte) 0, PAN, PinBlock.encode(9999, 4, PAN), 0L);
+        WireProtocol.putRequest(requests, WireProtocol.SELECT_OPERATION, (byte) 0, PAN, 0L, 0L);
+
+        ByteBuffer reply = exchange(requests, 4);
+
+        assertEquals(ResponseCode.UNKNOWN_CARD, WireProtocol.responseCode(reply, at(0)));
+        assertEquals(ResponseCode.APPROVED, WireProtocol.responseCode(reply, at(1)));
+        assertEquals(ResponseCode.INVALID_PIN, WireProtocol.responseCode(reply, at(2)));
+        assertEquals(ResponseCode.INVALID_STATE, WireProtocol.responseCode(reply, at(3)));
+    }
+
+    @Test
+    @DisplayName("Should report the presented amount when the dispenser jams")
+    void testPartialDispense() throws IOException {
+        // Find a seed whose dispenser jams part way through the notes a fresh terminal picks for $250
+        int[] notes = new ATMInventory().dispenseNotes(250);
+        ATMInventory values = new ATMInventory();
+        long seed = 0;
+        long presentedCents;
+        DispenseResult jam;
+        do {
+            jam = new SimulatedCashDispenser(0, 0, 0.3, ++seed).dispense(notes).join();
+            presentedCents = 0;
+            for (int slot = 0; slot < jam.getSlotCount(); slot++) {
+                presentedCents += 100L * values.getCashType(slot).value * jam.getPresented(slot);
+            }
+        } while (jam.isComplete() || presentedCents == 0);
+        Account account = new Account("ACC001", 1000.0);
+        long jamSeed = seed;
+        CardDirectory cards = new CardDirectory();
+        cards.register(PAN, new Card(Long.toString(PAN), 1234, "ACC001"));
+        try (TerminalHostServer jamming = new TerminalHostServer(() -> {
+            ATMMachineContext context = new ATMMachineContext();
+            context.addAccount(account);
+            context.setCashDispenser(new SimulatedCashDispenser(0, 0, 0.3, jamSeed));
+            return context;
+        }, cards)) {
+            jamming.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            client.close();
+            client = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), jamming.getPort()));
+            ByteBuffer requests = ByteBuffer.allocate(256);
+            WireProtocol.putRequest(requests, WireProtocol.INSERT_CARD, (byte) 0, PAN, 0L, 0L);
+            WireProtocol.putRequest(requests, WireProtocol.ENTER_PIN, (byte) 0, PAN, PinBlock.encode(1234, 4, PAN), 0L);
+            WireProtocol.putRequest(requests, WireProtocol.SELECT_OPERATION,
+                    (byte) TransactionType.WITHDRAW_CASH.ordinal(), PAN, 0L, 0L);
+            WireProtocol.putRequest(requests, WireProtocol.PERFORM_TRANSACTION, (byte) 0, PAN, 0L, 25_000L);
+
+            ByteBuffer reply = exchange(requests, 4);
+
+            assertEquals(ResponseCode.PARTIAL_DISPENSE, WireProtocol.responseCode(reply, at(3)));
+            assertTrue(presentedCents > 0 && presentedCents < 25_000L);
+            assertEquals(presentedCents, WireProtocol.responseAmount(reply, at(3)));
+            assertEquals(1000.0 - presentedCents / 100.0, account.getBalance());
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer malformed frames with a format error")
+    void testMalformedFrame() throws IOException {
+        ByteBuffer requests = ByteBuffer.allocate(64);
+        requests.putShort((short) 3);
+        requests.put(WireProtocol.INSERT_CARD);
+        requests.put((byte) 0);
+        requests.put((byte) 0);
+        WireProtocol.putRequest(requests, WireProtocol.INSERT_CARD, (byte) 0, PAN, 0L, 0L);
+
+        ByteBuffer reply = exchange(requests, 2);
+
+        assertEquals(ResponseCode.FORMAT_ERROR, WireProtocol.responseCode(reply, at(0)));
+        assertEquals(ResponseCode.APPROVED, WireProtocol.responseCode(reply, at(1)));
+    }
+}
@@ -0,0 +1,115 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Compares the actor runtime against one blocking thread per terminal.
+ * Run with: java -cp target/classes:target/test-classes org.example.TerminalRuntimeBenchmark [terminals] [sessions]
+ */
+public class TerminalRuntimeBenchmark {
+
+    private static final Consumer<ATMMachineContext>[] SESSION = session();
+
+    @SuppressWarnings("unchecked")
+    private static Consumer<ATMMachineContext>[] session() {
+        Card card = new Card("CARD001", 1234, "ACC001");
+        return new Consumer[]{
+                (Consumer<ATMMachineContext>) context -> context.insertCard(card),
+                (Consumer<ATMMachineContext>) context -> context.enterPin(1234),
+                (Consumer<ATMMachineContext>) context -> context.selectOperation(TransactionType.CHECK_BALANCE),
+                (Consumer<ATMMachineContext>) context -> context.performTransaction(0.0),
+                (Consumer<ATMMachineContext>) ATMMachineContext::returnCard
+        };
+    }
+
+    private static ATMMachineContext newContext() {
+        ATMMachineContext context = new ATMMachineContext();
+        context.addAccount(new Account("ACC001", 1_000_000.0));
+        return context;
+    }
+
+    static long runActors(int terminals, int sessions, int threads) throws InterruptedException {
+        try (ActorScheduler scheduler = new ActorScheduler(threads)) {
+            List<TerminalActor> actors = new ArrayList<>();
+            for (int i = 0; i < terminals; i++) {
+                actors.add(scheduler.spawn("T" + i, newContext()));
+            }
+            CountDownLatch done = new CountDownLatch(terminals);
+            long start = System.nanoTime();
+            for (int s = 0; s < sessions; s++) {
+                for (TerminalActor actor : actors) {
+                    for (Consumer<ATMMachineContext> command : SESSION) {
+                        actor.tell(command);
+                    }
+                }
+            }
+            for (TerminalActor actor : actors) {
+                actor.tell(context -> done.countDown());
+            }
+            done.await();
+            return System.nanoTime() - start;
+        }
+    }
+
+    static long runThreadPerTerminal(int terminals, int sessions) throws InterruptedException {
+        List<BlockingQueue<Consumer<ATMMachineContext>>> queues = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        Consumer<ATMMachineContext> stop = context -> { };
+        for (int i = 0; i < terminals; i++) {
+            BlockingQueue<Consumer<ATMMachineContext>> queue = new LinkedBlockingQueue<>();
+            ATMMachineContext context = newContext();
+            Thread thread = new Thread(() -> {
+                try {
+                    Consumer<ATMMachineContext> command;
+                    while ((command = queue.take()) != stop) {
+                        command.accept(context);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            queues.add(queue);
+            threads.add(thread);
+            thread.start();
+        }
+        long start = System.nanoTime();
+        for (int s = 0; s < sessions; s++) {
+            for (BlockingQueue<Consumer<ATMMachineContext>> queue : queues) {
+                for (Consumer<ATMMachineContext> command : SESSION) {
+                    queue.add(command);
+                }
+            }
+        }
+        for (BlockingQueue<Consumer<ATMMachineContext>> queue : queues) {
+            queue.add(stop);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int terminals = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int threads = Runtime.getRuntime().availableProcessors();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long commands = (long) terminals * sessions * SESSION.length;
+        for (int round = 0; round < 3; round++) {
+            long actorNanos = runActors(terminals, sessions, threads);
+            long threadNanos = runThreadPerTerminal(terminals, sessions);
+            console.printf("round %d: actors (%d threads) %,d cmd/s | thread-per-terminal (%d threads) %,d cmd/s%n",
+                    round, threads, commands * 1_000_000_000L / actorNanos,
+                    terminals, commands * 1_000_000_000L / threadNanos);
+        }
+    }
+}
@@ -82,6 +82,7 @@ class TransactionStateTest {
         when(mockContext.getATMInventory()).thenReturn(mockInventory);
         when(mockAccount.withdraw(amount)).thenReturn(true);
         when(mockInventory.hasSufficientCash((int) amount)).thenReturn(true);
+        when(mockInventory.canDispense((int) amount)).thenReturn(true);
         when(mockInventory.dispenseCash((int) amount)).thenReturn(dispensedCash);
 
         transactionState.performTransaction(mockContext, amount);
@@ -99,6 +100,9 @@ class TransactionStateTest {
 
         when(mockContext.getSelectedOperation()).thenReturn(TransactionType.WITHDRAW_CASH);
         when(mockContext.getCurrentAccount()).thenReturn(mockAccount);
+        when(mockContext.getATMInventory()).thenReturn(mockInventory);
+        when(mockInventory.hasSufficientCash((int) amount)).thenReturn(true);
+        when(mockInventory.canDispense((int) amount)).thenReturn(true);
         when(mockAccount.withdraw(amount)).thenReturn(false);
         when(mockContext.getStateFactory()).thenReturn(mockFactory);
         when(mockFactory.createSelectOperationState()).thenReturn(selectState);
@@ -111,7 +115,7 @@ class TransactionStateTest {
     }
 
     @Test
-    @DisplayName("Should fail withdrawal and rollback when insufficient ATM cash")
+    @DisplayName("Should fail withdrawal without debiting when insufficient ATM cash")
     void testWithdrawalInsufficientATMCash() {
         double amount = 500.0;
         SelectOperationState selectState = new SelectOperationState();
@@ -126,8 +130,8 @@ class TransactionStateTest {
 
         transactionState.performTransaction(mockContext, amount);
 
-        verify(mockAccount).withdraw(amount);
-        verify(mockAccount).deposit(amount); // Rollback
+        verify(mockAccount, never()).withdraw(anyDouble());
+        verify(mockAccount, never()).deposit(anyDouble());
         verify(mockInventory, never()).dispenseCash(anyInt());
         verify(mockContext).setCurrentState(any(SelectOperationState.class));
     }
@@ -143,6 +147,7 @@ class TransactionStateTest {
         when(mockContext.getATMInventory()).thenReturn(mockInventory);
         when(mockAccount.withdraw(amount)).thenReturn(true);
         when(mockInventory.hasSufficientCash((int) amount)).thenReturn(true);
+        when(mockInventory.canDispense((int) amount)).thenReturn(true);
         when(mockInventory.dispenseCash((int) amount)).thenReturn(null);
         when(mockContext.getStateFactory()).thenReturn(mockFactory);
         when(mockFactory.createSelectOperationState()).thenReturn(selectState);
@@ -155,6 +160,30 @@ class TransactionStateTest {
         verify(mockContext).setCurrentState(any(SelectOperationState.class));
     }
 
+    @Test
+    @DisplayName("Should not debit the account for an amount the notes cannot make up")
+    void testWithdrawalUndispensableAmountLeavesAccountUntouched() {
+        Ledger ledger = new Ledger();
+        Account account = new Account("ACC001", 1000.0);
+        account.attachLedger(ledger);
+        ATMInventory inventory = new ATMInventory(
+                new CassetteConfiguration(CashType.USD, new int[]{20}, new int[]{10}));
+        when(mockContext.getSelectedOperation()).thenReturn(TransactionType.WITHDRAW_CASH);
+        when(mockContext.getCurrentAccount()).thenReturn(account);
+        when(mockContext.getATMInventory()).thenReturn(inventory);
+        when(mockContext.getStateFactory()).thenReturn(mockFactory);
+        when(mockFactory.createSelectOperationState()).thenReturn(new SelectOperationState());
+        long eventsBefore = ledger.getEventLog().size();
+
+        transactionState.performTransaction(mockContext, 50.0);
+
+        assertEquals(1000.0, account.getBalance());
+        assertEquals(eventsBefore, ledger.getEventLog().size());
+        assertEquals(200, inventory.getTotalCash());
+        verify(mockContext).setLastResponseCode(ResponseCode.UNDISPENSABLE_AMOUNT);
+        ledger.close();
+    }
+
     @Test
     @DisplayName("Should successfully perform balance check")
     void testSuccessfulBalanceCheck() {
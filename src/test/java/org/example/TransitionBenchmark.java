@@ -0,0 +1,46 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Compares commands per second through the state objects and through the
+ * compiled transition table. Run with: java -cp target/classes:target/test-classes org.example.TransitionBenchmark
+ */
+public class TransitionBenchmark {
+    public static void main(String[] args) {
+        int sessions = 2_000_000;
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        for (int round = 0; round < 3; round++) {
+            long objects = run(false, sessions);
+            long table = run(true, sessions);
+            out.printf("State objects: %.1f ns/command, transition table: %.1f ns/command%n",
+                    (double) objects / (sessions * 6L), (double) table / (sessions * 6L));
+        }
+        System.setOut(out);
+    }
+
+    // A balance enquiry session is six commands: insert, PIN, select, transact, a rejected PIN, return
+    private static long run(boolean useTable, int sessions) {
+        ATMMachineContext atm = new ATMMachineContext();
+        atm.addAccount(new Account("ACC001", 1000));
+        if (useTable) {
+            atm.useTransitionTable(TransitionTable.standard());
+        }
+        Card card = new Card("CARD001", 1234, "ACC001");
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            atm.insertCard(card);
+            atm.enterPin(1234);
+            atm.selectOperation(TransactionType.CHECK_BALANCE);
+            atm.performTransaction(0);
+            atm.enterPin(1234);
+            atm.returnCard();
+        }
+        if (atm.getLastResponseCode() != ResponseCode.APPROVED) {
+            throw new IllegalStateException("Session failed: " + atm.getLastResponseCode());
+        }
+        return System.nanoTime() - start;
+    }
+}
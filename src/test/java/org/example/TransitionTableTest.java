@@ -0,0 +1,175 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Transition Table Tests")
+class TransitionTableTest {
+
+    private ATMMachineContext atm;
+
+    @BeforeEach
+    void setUp() {
+        atm = new ATMMachineContext();
+        atm.addAccount(new Account("ACC001", 1000));
+        atm.useTransitionTable(TransitionTable.standard());
+    }
+
+    @Test
+    @DisplayName("Should build the standard table with every cell compiled")
+    void testStandardTableBuilds() {
+        TransitionTable table = TransitionTable.standard();
+
+        assertEquals(4, TransitionTable.STATES);
+        assertEquals(6, TransitionTable.COMMANDS);
+        assertEquals(10, table.getRuleCount());
+    }
+
+    @Test
+    @DisplayName("Should run a withdrawal through the table")
+    void testWithdrawal() {
+        atm.insertCard(new Card("CARD001", 1234, "ACC001"));
+        assertEquals("HasCardState", atm.getCurrentState().getStateName());
+        atm.enterPin(1234);
+        assertEquals("SelectOperationState", atm.getCurrentState().getStateName());
+        atm.selectOperation(TransactionType.WITHDRAW_CASH);
+        assertEquals("TransactionState", atm.getCurrentState().getStateName());
+        atm.performTransaction(100);
+
+        assertEquals(ResponseCode.APPROVED, atm.getLastResponseCode());
+        assertEquals("SelectOperationState", atm.getCurrentState().getStateName());
+        assertEquals(900, atm.getAccount("ACC001").getBalance(), 0.001);
+
+        atm.returnCard();
+        assertEquals("IdleState", atm.getCurrentState().getStateName());
+        assertNull(atm.getCurrentCard());
+    }
+
+    @Test
+    @DisplayName("Should load the account once per PIN entry")
+    void testSingleAccountLoad() {
+        CachingAccountRepositoryTest.CountingRepository repository =
+            new CachingAccountRepositoryTest.CountingRepository(5);
+        ATMMachineContext remote = new ATMMachineContext();
+        remote.setAccountRepository(repository);
+        remote.useTransitionTable(TransitionTable.standard());
+
+        remote.insertCard(new Card("CARD002", 1234, "ACC2"));
+        remote.enterPin(1234);
+
+        assertEquals("SelectOperationState", remote.getCurrentState().getStateName());
+        assertEquals(1, repository.loads.get());
+
+        remote.returnCard();
+        remote.insertCard(new Card("CARD009", 1234, "ACC9"));
+        remote.enterPin(1234);
+        assertEquals(ResponseCode.UNKNOWN_ACCOUNT, remote.getLastResponseCode());
+        assertEquals("HasCardState", remote.getCurrentState().getStateName());
+        assertEquals(2, repository.loads.get());
+    }
+
+    @Test
+    @DisplayName("Should reject commands with no rule and keep the state")
+    void testRejectedCommand() {
+        atm.enterPin(1234);
+
+        assertEquals(ResponseCode.INVALID_STATE, atm.getLastResponseCode());
+        assertEquals("IdleState", atm.getCurrentState().getStateName());
+    }
+
+    @Test
+    @DisplayName("Should reuse one state instance per state")
+    void testSharedStateInstances() {
+        ATMState idle = atm.getCurrentState();
+        atm.insertCard(new Card("CARD001", 1234, "ACC001"));
+        atm.returnCard();
+
+        assertSame(idle, atm.getCurrentState());
+    }
+
+    @Test
+    @DisplayName("Should fail the build when a state is unreachable from IDLE")
+    void testUnreachableState() {
+        TransitionTable.Action noop = (context, argument, value) -> { };
+        TransitionTable.Builder builder = TransitionTable.builder()
+            .on(ATMStateId.IDLE, TerminalCommand.INSERT_CARD, noop, ATMStateId.HAS_CARD)
+            .on(ATMStateId.HAS_CARD, TerminalCommand.RETURN_CARD, noop, ATMStateId.IDLE)
+            .on(ATMStateId.SELECT_OPERATION, TerminalCommand.RETURN_CARD, noop, ATMStateId.IDLE)
+            .on(ATMStateId.TRANSACTION, TerminalCommand.RETURN_CARD, noop, ATMStateId.IDLE);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertTrue(e.getMessage().contains("SELECT_OPERATION"));
+        assertTrue(e.getMessage().contains("TRANSACTION"));
+    }
+
+    @Test
+    @DisplayName("Should fail the build when a state cannot get back to IDLE")
+    void testDeadEndState() {
+        TransitionTable.Action noop = (context, argument, value) -> { };
+        TransitionTable.Builder builder = TransitionTable.builder()
+            .on(ATMStateId.IDLE, TerminalCommand.INSERT_CARD, noop, ATMStateId.HAS_CARD)
+            .on(ATMStateId.HAS_CARD, TerminalCommand.ENTER_PIN, noop, ATMStateId.SELECT_OPERATION)
+            .on(ATMStateId.HAS_CARD, TerminalCommand.RETURN_CARD, noop, ATMStateId.IDLE)
+            .on(ATMStateId.SELECT_OPERATION, TerminalCommand.SELECT_OPERATION, noop, ATMStateId.TRANSACTION)
+            .on(ATMStateId.SELECT_OPERATION, TerminalCommand.RETURN_CARD, noop, ATMStateId.IDLE);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertTrue(e.getMessage().contains("no way back"));
+    }
+
+    @Test
+    @DisplayName("Should fail the build when an unguarded rule shadows a later one")
+    void testShadowedRule() {
+        TransitionTable.Action noop = (context, argument, value) -> { };
+        TransitionTable.Builder builder = TransitionTable.builder()
+            .on(ATMStateId.IDLE, TerminalCommand.INSERT_CARD, noop, ATMStateId.HAS_CARD)
+            .on(ATMStateId.IDLE, TerminalCommand.INSERT_CARD, noop, ATMStateId.IDLE);
+
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    @DisplayName("Should behave like the state objects for random command sequences")
+    void testMatchesStateObjects() {
+        ATMMachineContext objects = new ATMMachineContext();
+        ATMMachineContext table = new ATMMachineContext();
+        table.useTransitionTable(TransitionTable.standard());
+        for (ATMMachineContext context : new ATMMachineContext[] {objects, table}) {
+            context.addAccount(new Account("ACC001", 5000));
+            context.addAccount(new Account("ACC002", 50));
+        }
+        Card[] cards = {
+            new Card("CARD001", 1234, "ACC001"),
+            new Card("CARD002", 4321, "ACC002"),
+            new Card("CARD003", 1111, "ACC404")
+        };
+        Random random = new Random(41);
+
+        for (int step = 0; step < 5000; step++) {
+            int command = random.nextInt(6);
+            Card card = cards[random.nextInt(cards.length)];
+            int pin = random.nextBoolean() ? 1234 : 4321;
+            TransactionType type = random.nextBoolean() ? TransactionType.WITHDRAW_CASH : TransactionType.CHECK_BALANCE;
+            int amount = 10 * random.nextInt(60);
+            for (ATMMachineContext context : new ATMMachineContext[] {objects, table}) {
+                switch (command) {
+                    case 0 -> context.insertCard(card);
+                    case 1 -> context.enterPin(pin);
+                    case 2 -> context.selectOperation(type);
+                    case 3 -> context.performTransaction(amount);
+                    case 4 -> context.returnCard();
+                    default -> context.cancelTransaction();
+                }
+            }
+            assertEquals(objects.getLastResponseCode(), table.getLastResponseCode(), "step " + step);
+            assertEquals(objects.getCurrentState().getStateName(), table.getCurrentState().getStateName(), "step " + step);
+            assertEquals(objects.getATMInventory().getTotalCash(), table.getATMInventory().getTotalCash());
+            assertEquals(objects.getAccount("ACC001").getBalance(), table.getAccount("ACC001").getBalance());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Wire Protocol Tests")
+class WireProtocolTest {
+
+    private static final long PAN = 4_000_123_456_789_010L;
+
+    @Test
+    @DisplayName("Should round-trip a PIN through a format 0 PIN block")
+    void testPinBlockRoundTrip() {
+        long pinBlock = PinBlock.encode(1234, 4, PAN);
+
+        assertEquals(1234, PinBlock.decode(pinBlock, PAN));
+    }
+
+    @Test
+    @DisplayName("Should keep leading zeros in the PIN length")
+    void testPinBlockLeadingZeros() {
+        // The PAN field of this card number is all zeros, so the block is the clear PIN field
+        long pan = 5_000_000_000_000_000L;
+        long pinBlock = PinBlock.encode(42, 4, pan);
+
+        assertEquals(0x040042FFFFFFFFFFL, pinBlock);
+        assertEquals(42, PinBlock.decode(pinBlock, pan));
+    }
+
+    @Test
+    @DisplayName("Should not recover the PIN with the wrong PAN")
+    void testPinBlockWrongPan() {
+        long pinBlock = PinBlock.encode(1234, 4, PAN);
+
+        assertNotEquals(1234, PinBlock.decode(pinBlock, 4_111_111_111_111_111L));
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported PIN lengths")
+    void testPinBlockInvalidLength() {
+        assertThrows(IllegalArgumentException.class, () -> PinBlock.encode(123, 3, PAN));
+    }
+
+    @Test
+    @DisplayName("Should encode requests at fixed offsets")
+    void testRequestLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireProtocol.putRequest(buffer, WireProtocol.PERFORM_TRANSACTION, (byte) 0, PAN, 7L, 12_345L);
+
+        assertEquals(WireProtocol.REQUEST_FRAME, buffer.position());
+        assertEquals(WireProtocol.REQUEST_FRAME, WireProtocol.frameLength(buffer, 0, buffer.position()));
+        assertEquals(WireProtocol.PERFORM_TRANSACTION, buffer.get(WireProtocol.REQUEST_TYPE));
+        assertEquals(PAN, buffer.getLong(WireProtocol.REQUEST_PAN));
+        assertEquals(7L, buffer.getLong(WireProtocol.REQUEST_PIN_BLOCK));
+        assertEquals(12_345L, buffer.getLong(WireProtocol.REQUEST_AMOUNT));
+    }
+
+    @Test
+    @DisplayName("Should report incomplete frames")
+    void testIncompleteFrame() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireProtocol.putRequest(buffer, WireProtocol.INSERT_CARD, (byte) 0, PAN, 0L, 0L);
+
+        assertEquals(-1, WireProtocol.frameLength(buffer, 0, 1));
+        assertEquals(-1, WireProtocol.frameLength(buffer, 0, WireProtocol.REQUEST_FRAME - 1));
+    }
+
+    @Test
+    @DisplayName("Should decode responses")
+    void testResponseLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WireProtocol.putResponse(buffer, WireProtocol.ENTER_PIN, ResponseCode.INVALID_PIN,
+                WireProtocol.STATE_HAS_CARD, 99L);
+
+        assertEquals(WireProtocol.RESPONSE_FRAME, buffer.position());
+        assertEquals(WireProtocol.ENTER_PIN, WireProtocol.responseType(buffer, 0));
+        assertEquals(ResponseCode.INVALID_PIN, WireProtocol.responseCode(buffer, 0));
+        assertEquals(WireProtocol.STATE_HAS_CARD, WireProtocol.responseState(buffer, 0));
+        assertEquals(99L, WireProtocol.responseAmount(buffer, 0));
+    }
+}